@@ -0,0 +1,132 @@
+package com.subcharacter.db_to_csv_mcp;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * STDIO MCP 서버를 자식 프로세스로 띄워 첫 도구 응답을 받을 때까지의 시간을 잰다.
+ *
+ * <p>MCP 클라이언트는 세션마다 서버를 새로 띄우므로 JVM 기동, 스프링 컨텍스트 초기화, initialize 핸드셰이크,
+ * 첫 tools/call(serverStats, DB 연결 없음)까지가 세션마다 내는 비용이다. default는 기본 설정, fast-startup은
+ * 지연 초기화 프로필, fast-startup-cds는 {@code ./gradlew cdsArchive}가 만든 AOT 처리 jar와 AppCDS 아카이브를 쓴다.
+ *
+ * <p>실행: {@code ./gradlew cdsArchive jmh -Pjmh.includes=StartupBenchmark}
+ *
+ * @author subCharacter
+ * @since 1.0
+ * @version 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class StartupBenchmark {
+
+    private static final String INITIALIZE = """
+            {"jsonrpc":"2.0","id":1,"method":"initialize","params":{"protocolVersion":"2024-11-05",\
+            "capabilities":{},"clientInfo":{"name":"startup-benchmark","version":"1.0"}}}""";
+    private static final String INITIALIZED = """
+            {"jsonrpc":"2.0","method":"notifications/initialized"}""";
+    private static final String FIRST_CALL = """
+            {"jsonrpc":"2.0","id":2,"method":"tools/call","params":{"name":"serverStats","arguments":{}}}""";
+
+    @Param({"default", "fast-startup", "fast-startup-cds"})
+    public String mode;
+
+    private List<String> command;
+    private Process server;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        String java = ProcessHandle.current().info().command().orElse("java");
+        command = new ArrayList<>(List.of(java));
+        switch (mode) {
+            case "default" -> command.addAll(List.of(
+                    "-cp", System.getProperty("java.class.path"), DbToCsvMcpApplication.class.getName()));
+            case "fast-startup" -> command.addAll(List.of("-Dspring.profiles.active=fast-startup",
+                    "-cp", System.getProperty("java.class.path"), DbToCsvMcpApplication.class.getName()));
+            case "fast-startup-cds" -> {
+                Path cds = Path.of(System.getProperty("dbcsv.cds.dir", "build/cds")).toAbsolutePath();
+                Path archive = cds.resolve("db-to-csv-mcp.jsa");
+                if (!Files.exists(archive)) {
+                    throw new IllegalStateException("CDS archive not found at " + archive
+                            + "; run ./gradlew cdsArchive first.");
+                }
+                command.addAll(List.of("-XX:SharedArchiveFile=" + archive, "-Dspring.aot.enabled=true",
+                        "-Dspring.profiles.active=fast-startup", "-jar", applicationJar(cds).toString()));
+            }
+            default -> throw new IllegalArgumentException("Unknown mode: " + mode);
+        }
+    }
+
+    @Benchmark
+    public String timeToFirstToolResponse() throws IOException {
+        server = new ProcessBuilder(command).redirectError(ProcessBuilder.Redirect.DISCARD).start();
+        Writer in = new OutputStreamWriter(server.getOutputStream(), StandardCharsets.UTF_8);
+        BufferedReader out = new BufferedReader(new InputStreamReader(server.getInputStream(), StandardCharsets.UTF_8));
+        send(in, INITIALIZE);
+        awaitResponse(out, 1);
+        send(in, INITIALIZED);
+        send(in, FIRST_CALL);
+        return awaitResponse(out, 2);
+    }
+
+    @TearDown(Level.Invocation)
+    public void stopServer() throws InterruptedException {
+        if (server == null) {
+            return;
+        }
+        server.destroy();
+        if (!server.waitFor(10, TimeUnit.SECONDS)) {
+            server.destroyForcibly();
+        }
+        server = null;
+    }
+
+    private static void send(Writer in, String message) throws IOException {
+        in.write(message);
+        in.write('\n');
+        in.flush();
+    }
+
+    private static String awaitResponse(BufferedReader out, int id) throws IOException {
+        String marker = "\"id\":" + id;
+        String line;
+        while ((line = out.readLine()) != null) {
+            // 로그 등 JSON-RPC가 아닌 줄은 건너뛴다.
+            if (line.startsWith("{") && line.contains(marker)) {
+                return line;
+            }
+        }
+        throw new IllegalStateException("Server exited before answering request " + id + ".");
+    }
+
+    private static Path applicationJar(Path cds) throws IOException {
+        try (Stream<Path> files = Files.list(cds)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(".jar"))
+                    .findFirst()
+                    .orElseThrow(() -> new IllegalStateException("No extracted jar in " + cds
+                            + "; run ./gradlew cdsArchive first."));
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.subcharacter.db_to_csv_mcp.service;
+
+import com.subcharacter.db_to_csv_mcp.DbToCsvMcpApplication;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * H2 메모리 DB에 orders/items 모양의 데이터를 채우고 도구 호출 전체 경로를 측정한다.
+ *
+ * <p>커넥션 획득, SQL 검증, 실행, 행 렌더링까지 실제 {@link QueryService} 빈을 거친다.
+ * 1천만 행 인라인 결과는 수 GB 힙이 필요하므로 jmh jvmArgs의 -Xmx를 함께 조정한다.
+ *
+ * @author subCharacter
+ * @since 1.0
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ExecuteQueryBenchmark {
+
+    @Param({"10000", "1000000", "10000000"})
+    public int rows;
+
+    private ConfigurableApplicationContext context;
+    private QueryService queryService;
+    private QueryService.ConfiguredQueryRequest fullScan;
+    private QueryService.ConfiguredQueryRequest lookup;
+    private QueryService.ExportQueryRequest export;
+    private QueryService.ExportQueryRequest exportAllQuotedJdbc;
+    private QueryService.ExportQueryRequest exportAllQuotedNative;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(DbToCsvMcpApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:bench" + rows + ";MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+                        "spring.sql.init.mode=never",
+                        "spring.ai.mcp.server.enabled=false",
+                        "db-to-csv.export.directory=build/jmh-exports",
+                        "db-to-csv.result-cache.enabled=false")
+                .run();
+        seed(new JdbcTemplate(context.getBean(DataSource.class)), rows);
+        queryService = context.getBean(QueryService.class);
+        fullScan = new QueryService.ConfiguredQueryRequest(
+                "SELECT id, customer_id, item_id, quantity, order_total, ordered_at, status FROM orders",
+                "sa", "", false, 1);
+        lookup = new QueryService.ConfiguredQueryRequest(
+                "SELECT o.id, i.name, o.order_total FROM orders o JOIN items i ON i.id = o.item_id WHERE o.id = 4242",
+                "sa", "", false, 2);
+        export = new QueryService.ExportQueryRequest(
+                null, null, fullScan.sql(), "sa", "", false, 1, "bench-" + rows + ".csv", false);
+        exportAllQuotedJdbc = new QueryService.ExportQueryRequest(null, null, fullScan.sql(), "sa", "", true, 3,
+                "bench-quoted-" + rows + ".csv", false, null, null, null, false);
+        exportAllQuotedNative = new QueryService.ExportQueryRequest(null, null, fullScan.sql(), "sa", "", true, 3,
+                "bench-native-" + rows + ".csv", false, null, null, null, null);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int executeQueryFullScan() {
+        return queryService.executeQuery(fullScan).length();
+    }
+
+    @Benchmark
+    public int executeQueryLookup() {
+        return queryService.executeQuery(lookup).length();
+    }
+
+    @Benchmark
+    public long exportQueryFullScan() {
+        return queryService.exportQuery(export).byteSize();
+    }
+
+    @Benchmark
+    public long exportQueryAllQuotedJdbc() {
+        return queryService.exportQuery(exportAllQuotedJdbc).byteSize();
+    }
+
+    @Benchmark
+    public long exportQueryAllQuotedNative() {
+        return queryService.exportQuery(exportAllQuotedNative).byteSize();
+    }
+
+    static void seed(JdbcTemplate jdbcTemplate, int rows) {
+        jdbcTemplate.execute("DROP TABLE IF EXISTS orders");
+        jdbcTemplate.execute("DROP TABLE IF EXISTS items");
+        jdbcTemplate.execute("CREATE TABLE items (id INT PRIMARY KEY, name VARCHAR(100), price INT)");
+        jdbcTemplate.execute("""
+                INSERT INTO items (id, name, price)
+                SELECT X, 'item-' || X, 100 + MOD(X * 37, 300) FROM SYSTEM_RANGE(1, 1000)
+                """);
+        jdbcTemplate.execute("""
+                CREATE TABLE orders (
+                    id INT PRIMARY KEY,
+                    customer_id INT,
+                    item_id INT,
+                    quantity INT,
+                    order_total INT,
+                    ordered_at TIMESTAMP,
+                    status VARCHAR(20)
+                )
+                """);
+        jdbcTemplate.execute("""
+                INSERT INTO orders (id, customer_id, item_id, quantity, order_total, ordered_at, status)
+                SELECT X, MOD(X, 5000) + 1, MOD(X, 1000) + 1, MOD(X, 5) + 1, MOD(X * 131, 2000),
+                       DATEADD('SECOND', -X, TIMESTAMP '2025-10-26 00:00:00'),
+                       CASEWHEN(MOD(X, 3) = 0, 'PAID', CASEWHEN(MOD(X, 3) = 1, 'SHIPPED', 'PENDING'))
+                FROM SYSTEM_RANGE(1, %d)
+                """.formatted(rows));
+    }
+}
@@ -0,0 +1,75 @@
+package com.subcharacter.db_to_csv_mcp.service;
+
+import org.h2.tools.SimpleResultSet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 데이터베이스 왕복 없이 메모리 결과 커서로 행 렌더링 비용만 측정한다.
+ *
+ * <p>orders 테이블 모양의 행을 {@link ValueQuoteMode}별로 CSV로 렌더링하며 출력은 버린다.
+ * 할당률은 gc 프로파일러로 함께 기록된다.
+ *
+ * @author subCharacter
+ * @since 1.0
+ * @version 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class RowRenderingBenchmark {
+
+    private static final int ROWS = 10_000;
+
+    @Param({"NONE", "STRINGS_ONLY", "ALL"})
+    public String mode;
+
+    private ValueQuoteMode valueQuoteMode;
+    private SimpleResultSet resultSet;
+
+    @Setup
+    public void setUp() {
+        valueQuoteMode = ValueQuoteMode.valueOf(mode);
+        resultSet = new SimpleResultSet();
+        resultSet.setAutoClose(false);
+        resultSet.addColumn("ID", Types.INTEGER, 10, 0);
+        resultSet.addColumn("CUSTOMER_ID", Types.INTEGER, 10, 0);
+        resultSet.addColumn("ITEM_ID", Types.INTEGER, 10, 0);
+        resultSet.addColumn("QUANTITY", Types.INTEGER, 10, 0);
+        resultSet.addColumn("ORDER_TOTAL", Types.DECIMAL, 12, 2);
+        resultSet.addColumn("ORDERED_AT", Types.TIMESTAMP, 26, 6);
+        resultSet.addColumn("STATUS", Types.VARCHAR, 20, 0);
+        String[] statuses = {"PAID", "SHIPPED", "PENDING", "needs, \"review\""};
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < ROWS; i++) {
+            resultSet.addRow(
+                    1000 + i,
+                    i % 3 + 1,
+                    i % 8 + 1,
+                    i % 5 + 1,
+                    BigDecimal.valueOf(i * 37L, 2),
+                    new Timestamp(now - i * 60_000L),
+                    statuses[i % statuses.length]);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public long formatRows() throws Exception {
+        resultSet.beforeFirst();
+        return new CsvResultSetWriter(Writer.nullWriter(), false, valueQuoteMode, QueryTrace.detached()).write(resultSet);
+    }
+}
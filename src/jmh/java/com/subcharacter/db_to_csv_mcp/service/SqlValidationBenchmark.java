@@ -0,0 +1,75 @@
+package com.subcharacter.db_to_csv_mcp.service;
+
+import com.subcharacter.db_to_csv_mcp.config.SqlValidationProperties;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 읽기 전용 SQL 검증 비용을 짧은 쿼리와 수백 KB 크기의 IN 목록 쿼리로 측정한다.
+ *
+ * <p>생성형 SQL은 거대한 IN 목록을 포함하므로 검증이 쿼리 길이에 선형 이상으로 커지지 않는지 확인한다.
+ * 캐시를 거치는 경로와 매번 토큰화하는 경로를 따로 측정한다.
+ *
+ * @author subCharacter
+ * @since 1.0
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class SqlValidationBenchmark {
+
+    @Param({"short", "long"})
+    public String shape;
+
+    private ReadOnlySqlValidator validator;
+    private String sql;
+
+    @Setup
+    public void setUp() {
+        // QueryService.validateReadOnlySql은 이 검증기에 위임하므로 서비스를 조립하지 않고 검증기만 측정한다.
+        validator = new ReadOnlySqlValidator(new SqlValidationProperties(1024, 4_000_000));
+        sql = "short".equals(shape) ? shortSql() : longSql(40_000);
+    }
+
+    @Benchmark
+    public void validateReadOnlySql() {
+        validator.validate(sql);
+    }
+
+    @Benchmark
+    public void validateUncached() {
+        ReadOnlySqlValidator.check(sql);
+    }
+
+    private static String shortSql() {
+        return """
+                -- 최근 주문
+                SELECT o.id, o.order_total, i.name
+                FROM orders o JOIN items i ON i.id = o.item_id
+                WHERE o.status = 'PAID' /* paid only */
+                ORDER BY o.ordered_at DESC
+                """;
+    }
+
+    private static String longSql(int values) {
+        StringBuilder builder = new StringBuilder(values * 8);
+        builder.append("SELECT id, name, price FROM items WHERE id IN (");
+        for (int i = 0; i < values; i++) {
+            if (i > 0) {
+                builder.append(", ");
+            }
+            builder.append(i);
+        }
+        builder.append(") OR name IN ('apple', 'it''s', 'drop table') ORDER BY id");
+        return builder.toString();
+    }
+}
@@ -0,0 +1,295 @@
+package com.subcharacter.db_to_csv_mcp.service;
+
+import com.subcharacter.db_to_csv_mcp.DbToCsvMcpApplication;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 동시 클라이언트 여러 개가 도구를 반복 호출할 때의 처리량, 지연 분포, 힙 최고치, 커넥션 사용량을 잰다.
+ *
+ * <p>H2 메모리 DB에 orders/items를 지정한 행 수만큼 채운 뒤, 클라이언트마다 작은 조회(기본키 조회, 고객별 범위 조회)와
+ * 전체 내보내기를 정해진 비율로 섞어 실제 {@link QueryService} 빈에 호출한다. 각 클라이언트는 응답을 받자마자 다음 호출을
+ * 보내는 닫힌 루프라서 서버가 느려지면 요청 속도도 함께 줄어들므로, 지연은 고정 도착률 부하보다 낮게 나올 수 있다.
+ * 워밍업 구간의 호출은 집계하지 않는다.
+ *
+ * <p>결과는 실행마다 {@code build/load-test/<시각>/}에 남는다. summary.csv는 작업별 호출 수, 오류 수, 초당 처리량,
+ * p50/p99/p99.9/최대 지연이고, run.properties는 설정과 힙 최고치, 커넥션 최고치, 작업별 .hgrm은 HdrHistogram
+ * 백분위 분포(밀리초)라 실행끼리 비교하거나 그래프로 그릴 수 있다.
+ *
+ * <p>실행: {@code ./gradlew loadTest -PloadTest.clients=64 -PloadTest.duration=PT2M}
+ * 서버 설정은 {@code -PloadTest.args="--db-to-csv.pool.max-pool-size=16 --db-to-csv.concurrency.max-calls-per-datasource=16"}
+ * 처럼 넘긴다.
+ *
+ * @author subCharacter
+ * @since 1.0
+ * @version 1.0
+ */
+public class ToolLoadTest {
+
+    private static final long HIGHEST_MICROS = TimeUnit.HOURS.toMicros(1);
+    private static final int SIGNIFICANT_DIGITS = 3;
+    private static final double MICROS_PER_MILLI = 1000.0;
+    private static final Duration SAMPLE_INTERVAL = Duration.ofMillis(100);
+    private static final String URL = "jdbc:h2:mem:load;MODE=PostgreSQL;DB_CLOSE_DELAY=-1";
+
+    private final int clients = Integer.getInteger("loadTest.clients", 32);
+    private final Duration warmup = Duration.parse(System.getProperty("loadTest.warmup", "PT10S"));
+    private final Duration duration = Duration.parse(System.getProperty("loadTest.duration", "PT60S"));
+    private final int rows = Integer.getInteger("loadTest.rows", 1_000_000);
+    private final int exportPercent = Integer.getInteger("loadTest.exportPercent", 2);
+    private final int rangePercent = Integer.getInteger("loadTest.rangePercent", 18);
+    private final Path outputRoot = Path.of(System.getProperty("loadTest.output", "build/load-test"));
+
+    private final AtomicLong heapHighWater = new AtomicLong();
+    private final AtomicLong activeHighWater = new AtomicLong();
+    private final AtomicLong totalHighWater = new AtomicLong();
+    private final AtomicLong pendingHighWater = new AtomicLong();
+
+    private QueryService queryService;
+
+    public static void main(String[] args) throws Exception {
+        new ToolLoadTest().run(args);
+    }
+
+    private void run(String[] args) throws Exception {
+        if (clients < 1 || exportPercent < 0 || rangePercent < 0 || exportPercent + rangePercent > 100) {
+            throw new IllegalArgumentException("clients must be positive and exportPercent + rangePercent must be "
+                    + "between 0 and 100.");
+        }
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(DbToCsvMcpApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=" + URL,
+                        "spring.sql.init.mode=never",
+                        "spring.ai.mcp.server.enabled=false",
+                        "db-to-csv.export.directory=build/load-test/exports",
+                        "db-to-csv.result-cache.enabled=false")
+                .run(args)) {
+            seed(new JdbcTemplate(context.getBean(DataSource.class)), rows);
+            queryService = context.getBean(QueryService.class);
+            DataSourceProperties properties = context.getBean(DataSourceProperties.class);
+            DataSourceRegistry registry = context.getBean(DataSourceRegistry.class);
+            // 설정 데이터소스 도구 호출과 같은 키라서 도구가 쓰는 풀을 그대로 돌려받는다.
+            HikariPoolMXBean pool = ((HikariDataSource) registry.obtain(properties.determineUrl(),
+                    properties.determineDriverClassName(), "sa", "")).getHikariPoolMXBean();
+
+            ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor();
+            sampler.scheduleAtFixedRate(() -> sample(pool), 0, SAMPLE_INTERVAL.toMillis(), TimeUnit.MILLISECONDS);
+            ExecutorService workers = Executors.newFixedThreadPool(clients);
+            long measureFrom = System.nanoTime() + warmup.toNanos();
+            long end = measureFrom + duration.toNanos();
+            List<Future<ClientResult>> futures = new ArrayList<>();
+            try {
+                for (int client = 0; client < clients; client++) {
+                    int id = client;
+                    futures.add(workers.submit(() -> runClient(id, measureFrom, end)));
+                }
+                List<ClientResult> results = new ArrayList<>();
+                for (Future<ClientResult> future : futures) {
+                    results.add(future.get());
+                }
+                sampler.shutdown();
+                sampler.awaitTermination(1, TimeUnit.SECONDS);
+                report(args, results, registry.size());
+            } finally {
+                workers.shutdownNow();
+                sampler.shutdownNow();
+            }
+        }
+    }
+
+    private ClientResult runClient(int client, long measureFrom, long end) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        ClientResult result = new ClientResult();
+        String exportFile = "load-client-" + client + ".csv";
+        while (System.nanoTime() < end) {
+            Operation operation = Operation.pick(random.nextInt(100), exportPercent, rangePercent);
+            long start = System.nanoTime();
+            boolean failed = false;
+            try {
+                switch (operation) {
+                    case LOOKUP -> queryService.executeQuery(request(
+                            "SELECT o.id, i.name, o.order_total FROM orders o JOIN items i ON i.id = o.item_id "
+                                    + "WHERE o.id = ?", random.nextInt(1, rows + 1)));
+                    case RANGE -> queryService.executeQuery(request(
+                            "SELECT id, item_id, quantity, order_total, status FROM orders WHERE customer_id = ?",
+                            random.nextInt(1, 5001)));
+                    case EXPORT -> queryService.exportQuery(new QueryService.ExportQueryRequest(null, null,
+                            "SELECT id, customer_id, item_id, quantity, order_total, ordered_at, status FROM orders",
+                            "sa", "", false, 1, exportFile, false));
+                }
+            } catch (RuntimeException e) {
+                failed = true;
+            }
+            if (start < measureFrom) {
+                continue;
+            }
+            if (failed) {
+                result.errors[operation.ordinal()]++;
+            } else {
+                long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start);
+                result.latencies[operation.ordinal()].recordValue(Math.min(Math.max(micros, 1), HIGHEST_MICROS));
+            }
+        }
+        return result;
+    }
+
+    private static QueryService.ConfiguredQueryRequest request(String sql, int key) {
+        return new QueryService.ConfiguredQueryRequest(sql, "sa", "", false, 1, null, null, null, null,
+                List.of(new QueryService.BindParameter("integer", Integer.toString(key))));
+    }
+
+    private void sample(HikariPoolMXBean pool) {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        heapHighWater.accumulateAndGet(memory.getHeapMemoryUsage().getUsed(), Math::max);
+        activeHighWater.accumulateAndGet(pool.getActiveConnections(), Math::max);
+        totalHighWater.accumulateAndGet(pool.getTotalConnections(), Math::max);
+        pendingHighWater.accumulateAndGet(pool.getThreadsAwaitingConnection(), Math::max);
+    }
+
+    private void report(String[] args, List<ClientResult> results, int openPools) throws IOException {
+        Path directory = outputRoot.resolve(LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")));
+        Files.createDirectories(directory);
+        double seconds = duration.toNanos() / 1e9;
+        Histogram all = new Histogram(HIGHEST_MICROS, SIGNIFICANT_DIGITS);
+        long allErrors = 0;
+        StringBuilder summary = new StringBuilder("operation,count,errors,throughput_per_s,p50_ms,p99_ms,p999_ms,max_ms\n");
+        for (Operation operation : Operation.values()) {
+            Histogram merged = new Histogram(HIGHEST_MICROS, SIGNIFICANT_DIGITS);
+            long errors = 0;
+            for (ClientResult result : results) {
+                merged.add(result.latencies[operation.ordinal()]);
+                errors += result.errors[operation.ordinal()];
+            }
+            all.add(merged);
+            allErrors += errors;
+            summary.append(summaryLine(operation.name().toLowerCase(Locale.ROOT), merged, errors, seconds));
+            writeDistribution(directory.resolve(operation.name().toLowerCase(Locale.ROOT) + ".hgrm"), merged);
+        }
+        summary.append(summaryLine("all", all, allErrors, seconds));
+        writeDistribution(directory.resolve("all.hgrm"), all);
+        Files.writeString(directory.resolve("summary.csv"), summary, StandardCharsets.UTF_8);
+
+        Properties run = new Properties();
+        run.setProperty("clients", Integer.toString(clients));
+        run.setProperty("warmup", warmup.toString());
+        run.setProperty("duration", duration.toString());
+        run.setProperty("rows", Integer.toString(rows));
+        run.setProperty("exportPercent", Integer.toString(exportPercent));
+        run.setProperty("rangePercent", Integer.toString(rangePercent));
+        run.setProperty("args", String.join(" ", args));
+        run.setProperty("heapHighWaterBytes", Long.toString(heapHighWater.get()));
+        run.setProperty("maxHeapBytes", Long.toString(Runtime.getRuntime().maxMemory()));
+        run.setProperty("activeConnectionsHighWater", Long.toString(activeHighWater.get()));
+        run.setProperty("totalConnectionsHighWater", Long.toString(totalHighWater.get()));
+        run.setProperty("threadsAwaitingConnectionHighWater", Long.toString(pendingHighWater.get()));
+        run.setProperty("openPools", Integer.toString(openPools));
+        run.setProperty("javaVersion", System.getProperty("java.version"));
+        run.setProperty("availableProcessors", Integer.toString(Runtime.getRuntime().availableProcessors()));
+        try (Writer out = Files.newBufferedWriter(directory.resolve("run.properties"), StandardCharsets.UTF_8)) {
+            run.store(out, "db-to-csv-mcp load test");
+        }
+
+        System.out.print(summary);
+        System.out.printf("heap high-water %d MB, active connections high-water %d, threads awaiting connection "
+                        + "high-water %d%nresults: %s%n", heapHighWater.get() >> 20, activeHighWater.get(),
+                pendingHighWater.get(), directory.toAbsolutePath());
+    }
+
+    private static String summaryLine(String name, Histogram histogram, long errors, double seconds) {
+        return String.format(Locale.ROOT, "%s,%d,%d,%.1f,%.3f,%.3f,%.3f,%.3f%n", name,
+                histogram.getTotalCount(), errors, histogram.getTotalCount() / seconds,
+                histogram.getValueAtPercentile(50) / MICROS_PER_MILLI,
+                histogram.getValueAtPercentile(99) / MICROS_PER_MILLI,
+                histogram.getValueAtPercentile(99.9) / MICROS_PER_MILLI,
+                histogram.getMaxValue() / MICROS_PER_MILLI);
+    }
+
+    private static void writeDistribution(Path file, Histogram histogram) throws IOException {
+        try (PrintStream out = new PrintStream(Files.newOutputStream(file), false, StandardCharsets.UTF_8)) {
+            histogram.outputPercentileDistribution(out, MICROS_PER_MILLI);
+        }
+    }
+
+    static void seed(JdbcTemplate jdbcTemplate, int rows) {
+        jdbcTemplate.execute("DROP TABLE IF EXISTS orders");
+        jdbcTemplate.execute("DROP TABLE IF EXISTS items");
+        jdbcTemplate.execute("CREATE TABLE items (id INT PRIMARY KEY, name VARCHAR(100), price INT)");
+        jdbcTemplate.execute("""
+                INSERT INTO items (id, name, price)
+                SELECT X, 'item-' || X, 100 + MOD(X * 37, 300) FROM SYSTEM_RANGE(1, 1000)
+                """);
+        jdbcTemplate.execute("""
+                CREATE TABLE orders (
+                    id INT PRIMARY KEY,
+                    customer_id INT,
+                    item_id INT,
+                    quantity INT,
+                    order_total INT,
+                    ordered_at TIMESTAMP,
+                    status VARCHAR(20)
+                )
+                """);
+        jdbcTemplate.execute("""
+                INSERT INTO orders (id, customer_id, item_id, quantity, order_total, ordered_at, status)
+                SELECT X, MOD(X, 5000) + 1, MOD(X, 1000) + 1, MOD(X, 5) + 1, MOD(X * 131, 2000),
+                       DATEADD('SECOND', -X, TIMESTAMP '2025-10-26 00:00:00'),
+                       CASEWHEN(MOD(X, 3) = 0, 'PAID', CASEWHEN(MOD(X, 3) = 1, 'SHIPPED', 'PENDING'))
+                FROM SYSTEM_RANGE(1, %d)
+                """.formatted(rows));
+        // 범위 조회가 전체 스캔이 되지 않도록 고객 인덱스를 둔다.
+        jdbcTemplate.execute("CREATE INDEX orders_customer ON orders (customer_id)");
+    }
+
+    private enum Operation {
+        LOOKUP, RANGE, EXPORT;
+
+        static Operation pick(int roll, int exportPercent, int rangePercent) {
+            if (roll < exportPercent) {
+                return EXPORT;
+            }
+            return roll < exportPercent + rangePercent ? RANGE : LOOKUP;
+        }
+    }
+
+    private static final class ClientResult {
+        private final Histogram[] latencies = new Histogram[Operation.values().length];
+        private final long[] errors = new long[Operation.values().length];
+
+        private ClientResult() {
+            for (int i = 0; i < latencies.length; i++) {
+                latencies[i] = new Histogram(HIGHEST_MICROS, SIGNIFICANT_DIGITS);
+            }
+        }
+    }
+}
@@ -1,15 +1,24 @@
 package com.subcharacter.db_to_csv_mcp;
 
 import com.subcharacter.db_to_csv_mcp.service.QueryService;
+import io.modelcontextprotocol.server.McpAsyncServer;
+import io.modelcontextprotocol.server.McpSyncServer;
+import io.modelcontextprotocol.spec.McpServerTransportProvider;
+import org.springframework.ai.tool.ToolCallbackProvider;
 import org.springframework.ai.support.ToolCallbacks;
 import org.springframework.ai.tool.ToolCallback;
+import org.springframework.boot.LazyInitializationExcludeFilter;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
 import org.springframework.context.annotation.Bean;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 import java.util.List;
 
 @SpringBootApplication
+@ConfigurationPropertiesScan
+@EnableScheduling
 public class DbToCsvMcpApplication {
 
     public static void main(String[] args) {
@@ -20,4 +29,16 @@ public class DbToCsvMcpApplication {
     public List<ToolCallback> danTools(QueryService queryService) {
         return List.of(ToolCallbacks.from(queryService));
     }
+
+    /**
+     * 지연 초기화(fast-startup 프로필)에서도 MCP 서버, 전송 계층, 도구 콜백은 컨텍스트 갱신 때 만든다.
+     *
+     * <p>이 빈들은 다른 빈이 요청하지 않으므로 지연되면 STDIO 전송이 시작되지 않고 프로세스가 갱신 직후 끝난다.
+     * 도구 목록 빈은 서버가 생성될 때 의존성으로 함께 만들어진다.
+     */
+    @Bean
+    static LazyInitializationExcludeFilter mcpServerEagerInitialization() {
+        return LazyInitializationExcludeFilter.forBeanTypes(McpSyncServer.class, McpAsyncServer.class,
+                McpServerTransportProvider.class, ToolCallback.class, ToolCallbackProvider.class);
+    }
 }
@@ -0,0 +1,61 @@
+package com.subcharacter.db_to_csv_mcp.config;
+
+import com.subcharacter.db_to_csv_mcp.service.QueryService;
+import io.modelcontextprotocol.server.McpServerFeatures.AsyncToolSpecification;
+import io.modelcontextprotocol.server.McpServerFeatures.SyncToolSpecification;
+import io.modelcontextprotocol.server.McpSyncServerExchange;
+import org.springframework.ai.mcp.McpToolUtils;
+import org.springframework.ai.mcp.server.autoconfigure.McpServerProperties;
+import org.springframework.ai.support.ToolCallbacks;
+import org.springframework.ai.tool.ToolCallback;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.MimeType;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executors;
+
+/**
+ * ASYNC 서버 모드에서 도구 호출을 가상 스레드에서 실행해, 느린 내보내기가 다른 도구 호출을 막지 않게 한다.
+ *
+ * <p>기본 변환기는 도구를 크기가 제한된 boundedElastic 스케줄러에서 실행하므로,
+ * {@code spring.ai.mcp.server.tool-callback-converter=false}로 끄고 같은 도구를 가상 스레드 스케줄러로 등록한다.
+ * 데이터소스별 동시 실행 수는 서비스 계층의 세마포어가 제한한다. {@code async} 프로필에서 활성화된다.
+ *
+ * @author subCharacter
+ * @since 1.0
+ * @version 1.0
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(prefix = "spring.ai.mcp.server", name = "type", havingValue = "ASYNC")
+public class AsyncToolConfiguration {
+
+    @Bean(destroyMethod = "dispose")
+    public Scheduler toolCallScheduler() {
+        return Schedulers.fromExecutorService(Executors.newVirtualThreadPerTaskExecutor(), "db-to-csv-tool");
+    }
+
+    @Bean
+    public List<AsyncToolSpecification> virtualThreadTools(QueryService queryService,
+                                                           McpServerProperties serverProperties,
+                                                           Scheduler toolCallScheduler) {
+        return Arrays.stream(ToolCallbacks.from(queryService))
+                .map(callback -> toAsync(callback, serverProperties, toolCallScheduler))
+                .toList();
+    }
+
+    private static AsyncToolSpecification toAsync(ToolCallback callback, McpServerProperties serverProperties,
+                                                  Scheduler scheduler) {
+        String mimeType = serverProperties.getToolResponseMimeType().get(callback.getToolDefinition().name());
+        SyncToolSpecification sync = McpToolUtils.toSyncToolSpecification(
+                callback, mimeType == null ? null : MimeType.valueOf(mimeType));
+        return new AsyncToolSpecification(sync.tool(), (exchange, arguments) ->
+                Mono.fromCallable(() -> sync.call().apply(new McpSyncServerExchange(exchange), arguments))
+                        .subscribeOn(scheduler));
+    }
+}
@@ -0,0 +1,23 @@
+package com.subcharacter.db_to_csv_mcp.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * 여러 쿼리를 한 번에 실행하는 배치 도구의 상한 설정.
+ *
+ * <p>동시에 사용하는 커넥션 수는 이 값과 식별자별 커넥션 풀 크기 중 작은 값으로 제한되고, 그 안에서도 데이터소스별 동시
+ * 실행 순서가 비어 있는 만큼만 쓴다.
+ *
+ * @param maxStatements 배치 하나에 담을 수 있는 최대 쿼리 수
+ * @param maxParallelism 배치 하나가 동시에 실행하는 최대 쿼리 수
+ * @author subCharacter
+ * @since 1.0
+ * @version 1.0
+ */
+@ConfigurationProperties(prefix = "db-to-csv.batch")
+public record BatchProperties(
+        @DefaultValue("50") int maxStatements,
+        @DefaultValue("4") int maxParallelism
+) {
+}
@@ -0,0 +1,25 @@
+package com.subcharacter.db_to_csv_mcp.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * 데이터소스별 동시 도구 호출 수를 제한하는 설정.
+ *
+ * <p>한도를 넘은 호출은 대기열에서 기다리고, 대기 시간을 넘기면 실패한다.
+ * 느린 데이터소스 하나가 서버의 모든 실행 스레드를 붙잡지 않게 한다.
+ *
+ * @param maxCallsPerDatasource 데이터소스 하나에서 동시에 실행할 수 있는 도구 호출 수
+ * @param acquireTimeout 실행 순서를 기다리는 최대 시간
+ * @author subCharacter
+ * @since 1.0
+ * @version 1.0
+ */
+@ConfigurationProperties(prefix = "db-to-csv.concurrency")
+public record ConcurrencyProperties(
+        @DefaultValue("4") int maxCallsPerDatasource,
+        @DefaultValue("30s") Duration acquireTimeout
+) {
+}
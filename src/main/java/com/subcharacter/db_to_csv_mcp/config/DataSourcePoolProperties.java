@@ -0,0 +1,35 @@
+package com.subcharacter.db_to_csv_mcp.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * 커넥션 식별자별 커넥션 풀의 크기와 수명 정책을 담는 설정.
+ *
+ * <p>도구 호출마다 새 물리 커넥션을 맺지 않도록 풀을 재사용하되,
+ * 식별자가 늘어나도 커넥션 수가 무한히 커지지 않게 풀 개수와 유휴 시간을 제한한다.
+ *
+ * @param maxPoolSize 식별자 하나당 최대 커넥션 수
+ * @param maxPools 동시에 유지하는 풀의 최대 개수(초과 시 가장 오래 사용되지 않은 풀을 닫는다)
+ * @param idleTimeout 풀 안에서 유휴 커넥션을 닫기까지의 시간
+ * @param poolIdleTimeout 사용되지 않은 풀 전체를 닫기까지의 시간
+ * @param connectionTimeout 풀에서 커넥션을 빌릴 때 최대 대기 시간
+ * @param validationTimeout 커넥션을 빌릴 때 수행하는 유효성 검사의 최대 시간
+ * @param validationQuery JDBC4 {@code isValid}를 지원하지 않는 드라이버용 검증 쿼리(선택)
+ * @author subCharacter
+ * @since 1.0
+ * @version 1.0
+ */
+@ConfigurationProperties(prefix = "db-to-csv.pool")
+public record DataSourcePoolProperties(
+        @DefaultValue("4") int maxPoolSize,
+        @DefaultValue("16") int maxPools,
+        @DefaultValue("5m") Duration idleTimeout,
+        @DefaultValue("10m") Duration poolIdleTimeout,
+        @DefaultValue("10s") Duration connectionTimeout,
+        @DefaultValue("3s") Duration validationTimeout,
+        String validationQuery
+) {
+}
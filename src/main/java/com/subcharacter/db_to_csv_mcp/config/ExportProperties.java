@@ -0,0 +1,24 @@
+package com.subcharacter.db_to_csv_mcp.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.nio.file.Path;
+
+/**
+ * 대용량 결과를 파일로 내보낼 때 사용하는 설정.
+ *
+ * <p>내보내기 파일은 이 디렉터리 밖으로 쓸 수 없으며, 디렉터리는 필요할 때 생성된다.
+ *
+ * @param directory 내보내기 파일을 저장할 디렉터리
+ * @param bufferSize 파일 채널에 쓰기 전 모아 두는 버퍼 크기(바이트)
+ * @author subCharacter
+ * @since 1.0
+ * @version 1.0
+ */
+@ConfigurationProperties(prefix = "db-to-csv.export")
+public record ExportProperties(
+        @DefaultValue("./exports") Path directory,
+        @DefaultValue("65536") int bufferSize
+) {
+}
@@ -0,0 +1,26 @@
+package com.subcharacter.db_to_csv_mcp.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * STDIO 서버에는 메트릭 엔드포인트가 없으므로 프로세스 내부 {@link SimpleMeterRegistry}에 메트릭을 모은다.
+ *
+ * <p>다른 레지스트리가 등록되어 있으면 그것을 그대로 사용한다.
+ *
+ * @author subCharacter
+ * @since 1.0
+ * @version 1.0
+ */
+@Configuration(proxyBeanMethods = false)
+public class MetricsConfiguration {
+
+    @Bean
+    @ConditionalOnMissingBean
+    public MeterRegistry meterRegistry() {
+        return new SimpleMeterRegistry();
+    }
+}
@@ -0,0 +1,30 @@
+package com.subcharacter.db_to_csv_mcp.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * 페이지 단위 조회(executeQueryPage)의 페이지 크기와 서버 측 커서 제한 설정.
+ *
+ * <p>열린 커서는 다음 페이지 요청까지 풀 커넥션 하나를 점유하므로 전체 개수, 데이터소스별 개수, 유휴 시간을 모두 제한한다.
+ *
+ * @param defaultPageSize 페이지 크기를 지정하지 않았을 때의 행 수
+ * @param maxPageSize 한 페이지의 최대 행 수
+ * @param maxOpenCursors 서버 전체에서 동시에 열어 둘 수 있는 커서 수
+ * @param maxOpenCursorsPerDatasource 데이터소스 하나에서 동시에 열어 둘 수 있는 커서 수
+ * @param cursorIdleTimeout 다음 페이지 요청이 없을 때 커서를 닫기까지의 시간
+ * @author subCharacter
+ * @since 1.0
+ * @version 1.0
+ */
+@ConfigurationProperties(prefix = "db-to-csv.paging")
+public record PagingProperties(
+        @DefaultValue("500") int defaultPageSize,
+        @DefaultValue("10000") int maxPageSize,
+        @DefaultValue("16") int maxOpenCursors,
+        @DefaultValue("2") int maxOpenCursorsPerDatasource,
+        @DefaultValue("2m") Duration cursorIdleTimeout
+) {
+}
@@ -0,0 +1,23 @@
+package com.subcharacter.db_to_csv_mcp.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * 파티션 병렬 조회의 상한 설정.
+ *
+ * <p>요청한 병렬도는 이 값과 식별자별 커넥션 풀 크기 중 작은 값으로 제한되며, 파티션마다 데이터소스별 동시 실행 순서를
+ * 하나씩 쓰므로 그 순서가 비어 있는 만큼만 병렬로 읽는다.
+ *
+ * @param maxParallelism 쿼리 하나가 동시에 사용할 수 있는 최대 파티션 수
+ * @param workerThreads 모든 파티션 작업이 공유하는 작업 스레드 수
+ * @author subCharacter
+ * @since 1.0
+ * @version 1.0
+ */
+@ConfigurationProperties(prefix = "db-to-csv.partition")
+public record PartitionProperties(
+        @DefaultValue("8") int maxParallelism,
+        @DefaultValue("16") int workerThreads
+) {
+}
@@ -0,0 +1,35 @@
+package com.subcharacter.db_to_csv_mcp.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * 읽기 전용 쿼리 실행 시 JDBC 드라이버에 전달하는 설정과 호출당 상한.
+ *
+ * <p>fetch size를 지정해야 PostgreSQL 등 드라이버가 결과 전체를 메모리에 올리지 않고
+ * 서버 측 커서로 나눠 가져온다. 문장 타임아웃과 행/바이트/토큰 상한은 잘못된 조인 하나가 커넥션을 붙잡거나
+ * 힙을 소진하지 못하게 막는 서버 측 한도이며, 호출별 값은 이보다 낮게만 지정할 수 있다.
+ *
+ * @param fetchSize 한 번에 가져올 행 수(0 이하이면 드라이버 기본값)
+ * @param statementTimeout 문장 실행 타임아웃(0이면 제한 없음, 초 단위로 내림)
+ * @param maxRows 한 결과에 담을 최대 데이터 행 수(0이면 제한 없음)
+ * @param maxBytes 응답으로 돌려줄 CSV의 최대 크기(0이면 제한 없음, 파일 내보내기에는 적용하지 않음)
+ * @param maxTokens 응답으로 돌려줄 CSV의 최대 어림 토큰 수(0이면 제한 없음, 파일 내보내기에는 적용하지 않음)
+ * @param statementCacheSize 풀 커넥션 하나에 보관할 준비된 문장 수(0이면 캐시하지 않음)
+ * @author subCharacter
+ * @since 1.0
+ * @version 1.0
+ */
+@ConfigurationProperties(prefix = "db-to-csv.query")
+public record QueryProperties(
+        @DefaultValue("500") int fetchSize,
+        @DefaultValue("5m") Duration statementTimeout,
+        @DefaultValue("0") long maxRows,
+        @DefaultValue("64MB") DataSize maxBytes,
+        @DefaultValue("0") long maxTokens,
+        @DefaultValue("32") int statementCacheSize
+) {
+}
@@ -0,0 +1,32 @@
+package com.subcharacter.db_to_csv_mcp.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * 조회 결과 캐시의 수명과 메모리 상한 설정.
+ *
+ * <p>같은 참조 테이블 조회가 짧은 간격으로 반복될 때 데이터베이스 왕복을 줄이기 위함이다.
+ * 전체 크기를 넘으면 가장 오래 사용되지 않은 항목부터 버린다.
+ *
+ * @param enabled 캐시 사용 여부
+ * @param ttl 항목이 유효한 시간
+ * @param maxSize 캐시 전체가 차지할 수 있는 최대 크기(저장된 바이트 기준)
+ * @param maxEntrySize 항목 하나의 최대 크기(넘는 결과는 캐시하지 않음)
+ * @param compress 저장 시 gzip으로 압축할지 여부
+ * @author subCharacter
+ * @since 1.0
+ * @version 1.0
+ */
+@ConfigurationProperties(prefix = "db-to-csv.result-cache")
+public record ResultCacheProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("30s") Duration ttl,
+        @DefaultValue("64MB") DataSize maxSize,
+        @DefaultValue("4MB") DataSize maxEntrySize,
+        @DefaultValue("false") boolean compress
+) {
+}
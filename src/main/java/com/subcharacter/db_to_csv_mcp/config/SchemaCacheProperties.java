@@ -0,0 +1,25 @@
+package com.subcharacter.db_to_csv_mcp.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * 스키마 탐색 도구(listTables, describeTable)가 읽은 메타데이터의 캐시 설정.
+ *
+ * <p>스키마는 데이터보다 훨씬 드물게 바뀌므로 결과 캐시보다 긴 TTL로 보관한다.
+ * DDL 직후처럼 최신 정보가 필요하면 호출별 refresh로 다시 읽는다.
+ *
+ * @param ttl 항목이 유효한 시간
+ * @param maxEntries 보관할 최대 항목 수(테이블 목록 하나, 테이블 설명 하나가 각각 한 항목)
+ * @author subCharacter
+ * @since 1.0
+ * @version 1.0
+ */
+@ConfigurationProperties(prefix = "db-to-csv.schema-cache")
+public record SchemaCacheProperties(
+        @DefaultValue("10m") Duration ttl,
+        @DefaultValue("512") int maxEntries
+) {
+}
@@ -0,0 +1,23 @@
+package com.subcharacter.db_to_csv_mcp.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * 읽기 전용 SQL 검증 결과 캐시의 크기 설정.
+ *
+ * <p>검증을 통과한 SQL 원문을 보관하므로 항목 수와 함께 전체 문자 수도 제한한다.
+ * 수백 KB짜리 생성형 SQL 몇 개가 캐시 메모리를 독차지하지 않게 하기 위함이다.
+ *
+ * @param cacheEntries 캐시에 보관할 최대 SQL 수(0이면 캐시하지 않음)
+ * @param cacheMaxChars 캐시에 보관할 SQL 원문의 최대 총 문자 수
+ * @author subCharacter
+ * @since 1.0
+ * @version 1.0
+ */
+@ConfigurationProperties(prefix = "db-to-csv.validation")
+public record SqlValidationProperties(
+        @DefaultValue("1024") int cacheEntries,
+        @DefaultValue("4000000") long cacheMaxChars
+) {
+}
@@ -0,0 +1,150 @@
+package com.subcharacter.db_to_csv_mcp.service;
+
+import com.subcharacter.db_to_csv_mcp.config.BatchProperties;
+import com.subcharacter.db_to_csv_mcp.config.DataSourcePoolProperties;
+import com.subcharacter.db_to_csv_mcp.service.DataSourceCallLimiter.Lease;
+import com.subcharacter.db_to_csv_mcp.service.DataSourceRegistry.DataSourceHandle;
+import com.subcharacter.db_to_csv_mcp.service.QueryService.BatchItemResult;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.function.Consumer;
+
+/**
+ * 같은 데이터소스에 대한 여러 읽기 전용 쿼리를 제한된 수의 커넥션에서 동시에 실행한다.
+ *
+ * <p>모든 쿼리를 실행 전에 검증하고, 검증이나 실행에 실패한 쿼리는 배치 전체를 중단하지 않고 항목별 오류로 돌려준다.
+ * 쿼리마다 가상 스레드를 쓰되 동시 실행 수는 세마포어로 제한하므로 풀 크기를 넘는 커넥션을 요구하지 않는다.
+ * 호출이 가진 데이터소스 실행 순서 하나 외의 커넥션마다 순서를 하나씩 더 얻으므로 데이터소스별 동시 실행 한도도 넘지 않는다.
+ * 스레드-세이프하다.
+ *
+ * @author subCharacter
+ * @since 1.0
+ * @version 1.0
+ */
+@Component
+class BatchQueryRunner {
+
+    private final ReadOnlyQueryExecutor queryExecutor;
+    private final DataSourceCallLimiter callLimiter;
+    private final BatchProperties batchProperties;
+    private final int maxParallelism;
+
+    BatchQueryRunner(ReadOnlyQueryExecutor queryExecutor,
+                     DataSourceCallLimiter callLimiter,
+                     BatchProperties batchProperties,
+                     DataSourcePoolProperties poolProperties) {
+        this.queryExecutor = queryExecutor;
+        this.callLimiter = callLimiter;
+        this.batchProperties = batchProperties;
+        this.maxParallelism = Math.max(1, Math.min(batchProperties.maxParallelism(), poolProperties.maxPoolSize()));
+    }
+
+    /**
+     * 쿼리 목록을 검증한 뒤 동시에 실행하고 입력 순서대로 항목별 결과를 돌려준다.
+     *
+     * <p>동시 실행 수는 호출자의 실행 순서 하나에 기다리지 않고 더 얻은 순서를 더한 값이다. 한도가 차 있으면 차례로 실행한다.
+     *
+     * @param dataSource 실행 대상 데이터소스(호출자가 실행 순서 하나를 가진 상태)
+     * @param sqls 실행할 SQL 목록(1개 이상)
+     * @param validator 읽기 전용 검증기(위반 시 IllegalArgumentException)
+     * @param quoteHeaders 헤더를 큰따옴표로 감쌀지 여부
+     * @param valueQuoteMode 본문 값 따옴표 모드
+     * @param trace 단계별 시간과 처리량을 기록할 추적
+     * @return 입력 인덱스 순서의 항목별 결과
+     * @throws IllegalArgumentException 목록이 비었거나 최대 개수를 넘는 경우
+     */
+    List<BatchItemResult> run(DataSourceHandle dataSource, List<String> sqls, Consumer<String> validator,
+                              boolean quoteHeaders, ValueQuoteMode valueQuoteMode, QueryTrace trace) {
+        if (sqls == null || sqls.isEmpty()) {
+            throw new IllegalArgumentException("At least one SQL statement is required.");
+        }
+        if (sqls.size() > batchProperties.maxStatements()) {
+            throw new IllegalArgumentException(
+                    "A batch may contain at most " + batchProperties.maxStatements() + " statements.");
+        }
+        List<String> validationErrors = new ArrayList<>(sqls.size());
+        for (String sql : sqls) {
+            validationErrors.add(validate(validator, sql));
+        }
+
+        List<Lease> extra = callLimiter.tryAcquire(dataSource.key(), Math.min(maxParallelism, sqls.size()) - 1);
+        Semaphore slots = new Semaphore(1 + extra.size());
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<BatchItemResult>> futures = new ArrayList<>(sqls.size());
+            for (int i = 0; i < sqls.size(); i++) {
+                int index = i;
+                String error = validationErrors.get(i);
+                futures.add(executor.submit(() -> error != null
+                        ? BatchItemResult.failure(index, error)
+                        : execute(index, dataSource.dataSource(), sqls.get(index), slots, quoteHeaders,
+                                valueQuoteMode, trace)));
+            }
+            try {
+                List<BatchItemResult> results = new ArrayList<>(futures.size());
+                for (Future<BatchItemResult> future : futures) {
+                    results.add(await(future));
+                }
+                return results;
+            } catch (RuntimeException e) {
+                executor.shutdownNow();
+                throw e;
+            }
+        } finally {
+            // 실행기를 닫으며 모든 쿼리가 끝난 뒤에 돌려준다.
+            extra.forEach(Lease::release);
+        }
+    }
+
+    private static String validate(Consumer<String> validator, String sql) {
+        try {
+            validator.accept(sql);
+            return null;
+        } catch (IllegalArgumentException e) {
+            return e.getMessage();
+        }
+    }
+
+    private BatchItemResult execute(int index, DataSource dataSource, String sql, Semaphore slots,
+                                    boolean quoteHeaders, ValueQuoteMode valueQuoteMode, QueryTrace trace)
+            throws InterruptedException {
+        slots.acquire();
+        try {
+            StringWriter out = new StringWriter();
+            CsvResultSetWriter csvWriter = new CsvResultSetWriter(out, quoteHeaders, valueQuoteMode, trace);
+            long rows = queryExecutor.query(dataSource, sql, trace, csvWriter::write);
+            if (csvWriter.truncated()) {
+                out.write(OutputFormat.CSV.truncatedMarker(rows));
+            }
+            String csv = out.toString();
+            trace.addBytes(csv.length());
+            return BatchItemResult.success(index, rows, csv);
+        } catch (DataAccessException e) {
+            return BatchItemResult.failure(index, QueryFailures.message(e, trace));
+        } catch (RuntimeException e) {
+            return BatchItemResult.failure(index, e.getMessage());
+        } finally {
+            slots.release();
+        }
+    }
+
+    private static BatchItemResult await(Future<BatchItemResult> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Batch query was interrupted.", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Batch query failed.", e.getCause());
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.subcharacter.db_to_csv_mcp.service;
+
+import org.springframework.jdbc.support.JdbcUtils;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+
+/**
+ * 컬럼 하나의 현재 행 값을 {@link CsvRowBuffer}에 기록한다.
+ *
+ * <p>쿼리마다 {@link #forColumns(ResultSetMetaData, ValueQuoteMode)}로 컬럼 타입에 맞는 렌더러 표를 한 번 만들어
+ * 셀마다 타입 판별이나 맵 조회 없이 원시 타입 getter로 값을 읽는다. NULL은 빈 값으로 기록한다.
+ *
+ * @author subCharacter
+ * @since 1.0
+ * @version 1.0
+ */
+@FunctionalInterface
+interface ColumnRenderer {
+
+    void render(ResultSet resultSet, int column, CsvRowBuffer buffer) throws SQLException;
+
+    /**
+     * 결과 메타데이터로 컬럼별 렌더러 표를 만든다.
+     *
+     * @param metaData 결과 메타데이터
+     * @param valueQuoteMode 본문 값 따옴표 모드
+     * @return 0부터 시작하는 컬럼 순서의 렌더러 배열
+     * @throws SQLException 메타데이터 조회에 실패한 경우
+     */
+    static ColumnRenderer[] forColumns(ResultSetMetaData metaData, ValueQuoteMode valueQuoteMode) throws SQLException {
+        ColumnRenderer[] renderers = new ColumnRenderer[metaData.getColumnCount()];
+        for (int i = 0; i < renderers.length; i++) {
+            renderers[i] = forType(metaData.getColumnType(i + 1), valueQuoteMode);
+        }
+        return renderers;
+    }
+
+    private static ColumnRenderer forType(int sqlType, ValueQuoteMode valueQuoteMode) {
+        boolean quoteNumbers = valueQuoteMode.quoteNumbers();
+        boolean quoteText = valueQuoteMode.quoteText();
+        return switch (sqlType) {
+            case Types.TINYINT, Types.SMALLINT, Types.INTEGER -> (resultSet, column, buffer) -> {
+                int value = resultSet.getInt(column);
+                if (!resultSet.wasNull()) {
+                    buffer.appendInt(value, quoteNumbers);
+                }
+            };
+            case Types.BIGINT -> (resultSet, column, buffer) -> {
+                long value = resultSet.getLong(column);
+                if (!resultSet.wasNull()) {
+                    buffer.appendLong(value, quoteNumbers);
+                }
+            };
+            case Types.DOUBLE, Types.FLOAT -> (resultSet, column, buffer) -> {
+                double value = resultSet.getDouble(column);
+                if (!resultSet.wasNull()) {
+                    buffer.appendDouble(value, quoteNumbers);
+                }
+            };
+            case Types.REAL -> (resultSet, column, buffer) -> {
+                float value = resultSet.getFloat(column);
+                if (!resultSet.wasNull()) {
+                    buffer.appendFloat(value, quoteNumbers);
+                }
+            };
+            case Types.DECIMAL, Types.NUMERIC -> (resultSet, column, buffer) -> {
+                BigDecimal value = resultSet.getBigDecimal(column);
+                if (value != null) {
+                    buffer.appendDecimal(value, quoteNumbers);
+                }
+            };
+            case Types.TIMESTAMP -> (resultSet, column, buffer) -> {
+                Timestamp value = resultSet.getTimestamp(column);
+                if (value != null) {
+                    buffer.appendTimestamp(value.toLocalDateTime(), quoteText);
+                }
+            };
+            case Types.CHAR, Types.VARCHAR, Types.LONGVARCHAR,
+                 Types.NCHAR, Types.NVARCHAR, Types.LONGNVARCHAR -> (resultSet, column, buffer) -> {
+                String value = resultSet.getString(column);
+                if (value != null) {
+                    buffer.appendText(value, quoteText);
+                }
+            };
+            default -> (resultSet, column, buffer) -> {
+                Object value = JdbcUtils.getResultSetValue(resultSet, column);
+                if (value instanceof Number) {
+                    buffer.appendNumber(value.toString(), quoteNumbers);
+                } else if (value != null) {
+                    buffer.appendText(value.toString(), quoteText);
+                }
+            };
+        };
+    }
+}
@@ -0,0 +1,346 @@
+package com.subcharacter.db_to_csv_mcp.service;
+
+import org.springframework.jdbc.support.JdbcUtils;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * {@link ResultSet}을 스키마를 담은 컬럼 배치 바이너리 형식(DBCOL1)으로 기록한다.
+ *
+ * <p>행을 최대 {@value #BATCH_ROWS}개씩 컬럼별 원시 배열에 모았다가 컬럼 단위로 내보내므로, 숫자·시각 값은
+ * 문자열 변환 없이 고정 길이로 기록된다. 모든 정수는 빅엔디언이다.
+ * <pre>
+ * 파일   := "DBCOL1" int:컬럼수 (UTF:이름 byte:타입){컬럼수} 배치* int:0 byte:남은행여부
+ * 배치   := int:행수 (NULL비트맵 값*){컬럼수}
+ * 비트맵 := ceil(행수/8) 바이트, 비트가 1이면 NULL(NULL 값은 값 목록에서 빠진다)
+ * 값     := INT32 4바이트 | INT64 8바이트 | FLOAT64 8바이트 | BOOLEAN 1바이트
+ *         | TIMESTAMP 8바이트(1970-01-01T00:00 기준 벽시계 마이크로초, 시간대 없음)
+ *         | TEXT/DECIMAL int:바이트수 UTF-8 바이트
+ * </pre>
+ * 결과가 비어 있으면 아무것도 쓰지 않는다. 스레드-세이프하지 않다.
+ *
+ * @author subCharacter
+ * @since 1.0
+ * @version 1.0
+ */
+final class ColumnarResultSetWriter extends StreamingRowWriter {
+
+    static final byte[] MAGIC = "DBCOL1".getBytes(StandardCharsets.US_ASCII);
+    static final int BATCH_ROWS = 1024;
+    static final byte TYPE_INT32 = 1;
+    static final byte TYPE_INT64 = 2;
+    static final byte TYPE_FLOAT64 = 3;
+    static final byte TYPE_BOOLEAN = 4;
+    static final byte TYPE_TIMESTAMP = 5;
+    static final byte TYPE_DECIMAL = 6;
+    static final byte TYPE_TEXT = 7;
+
+    private final DataOutputStream out;
+    private final boolean closeOnEnd;
+    private final int lengthPercent;
+    private final boolean countTokens;
+    private Column[] columns;
+    private long headerLength;
+    private int size;
+    private int pendingBytes;
+
+    /**
+     * @param out 출력 스트림
+     * @param trace 단계별 시간과 처리량을 기록할 추적
+     * @param closeOnEnd 끝에서 스트림을 닫을지 여부(Base64 인코더처럼 닫아야 마지막 바이트가 나오는 경우)
+     * @param lengthPercent 예산 확인 시 바이트 수에 곱할 비율(Base64로 감싸면 134)
+     * @param countTokens 출력이 응답 문자열(Base64)로 LLM 컨텍스트에 들어가 토큰 예산을 적용할지 여부
+     */
+    ColumnarResultSetWriter(OutputStream out, QueryTrace trace, boolean closeOnEnd, int lengthPercent,
+                            boolean countTokens) {
+        super(trace);
+        this.out = new DataOutputStream(out);
+        this.closeOnEnd = closeOnEnd;
+        this.lengthPercent = lengthPercent;
+        this.countTokens = countTokens;
+    }
+
+    @Override
+    protected long begin(ResultSetMetaData metaData) throws SQLException, IOException {
+        String[] labels = CsvResultSetWriter.columnLabels(metaData);
+        columns = new Column[labels.length];
+        out.write(MAGIC);
+        out.writeInt(labels.length);
+        for (int i = 0; i < labels.length; i++) {
+            columns[i] = Column.forType(metaData.getColumnType(i + 1));
+            out.writeUTF(labels[i]);
+            out.writeByte(columns[i].type);
+        }
+        headerLength = scaled(out.size());
+        return headerLength;
+    }
+
+    @Override
+    protected long beginTokens() {
+        return countTokens ? TokenEstimator.estimateBase64(headerLength) : 0;
+    }
+
+    @Override
+    protected void renderRow(ResultSet resultSet) throws SQLException {
+        int bytes = (columns.length + 7) / 8;
+        for (int i = 0; i < columns.length; i++) {
+            bytes += columns[i].read(resultSet, i + 1, size);
+        }
+        pendingBytes = bytes;
+    }
+
+    @Override
+    protected int pendingLength() {
+        return (int) scaled(pendingBytes);
+    }
+
+    /**
+     * 응답 문자열로 돌려줄 때는 행이 늘릴 Base64 길이로 토큰을 어림한다. 파일로 쓰는 원본 바이트는 LLM 컨텍스트에
+     * 들어가지 않으므로 세지 않는다.
+     */
+    @Override
+    protected int pendingTokens() {
+        return countTokens ? (int) TokenEstimator.estimateBase64(scaled(pendingBytes)) : 0;
+    }
+
+    @Override
+    protected void discardRow() {
+        pendingBytes = 0;
+    }
+
+    @Override
+    protected void commitRow() throws IOException {
+        size++;
+        if (size == BATCH_ROWS) {
+            flushBatch();
+        }
+    }
+
+    @Override
+    protected void end(boolean hasMore) throws IOException {
+        flushBatch();
+        out.writeInt(0);
+        out.writeBoolean(hasMore);
+        if (closeOnEnd) {
+            out.close();
+        } else {
+            out.flush();
+        }
+    }
+
+    private void flushBatch() throws IOException {
+        if (size == 0) {
+            return;
+        }
+        out.writeInt(size);
+        for (Column column : columns) {
+            column.writeBatch(out, size);
+        }
+        size = 0;
+    }
+
+    private long scaled(long bytes) {
+        return bytes * lengthPercent / 100;
+    }
+
+    /**
+     * 한 컬럼의 배치 버퍼. 값은 행 위치에 바로 기록되고, 확정되지 않은 행은 다음 행이 덮어쓴다.
+     */
+    private abstract static class Column {
+
+        private final byte type;
+        private final boolean[] nulls = new boolean[BATCH_ROWS];
+
+        private Column(byte type) {
+            this.type = type;
+        }
+
+        /**
+         * 현재 행 값을 index 위치에 읽어 둔다.
+         *
+         * @return 값이 차지할 바이트 수(NULL이면 0)
+         */
+        final int read(ResultSet resultSet, int column, int index) throws SQLException {
+            int bytes = readValue(resultSet, column, index);
+            nulls[index] = bytes < 0;
+            return Math.max(0, bytes);
+        }
+
+        final void writeBatch(DataOutputStream out, int size) throws IOException {
+            byte[] bitmap = new byte[(size + 7) / 8];
+            for (int i = 0; i < size; i++) {
+                if (nulls[i]) {
+                    bitmap[i >> 3] |= (byte) (1 << (i & 7));
+                }
+            }
+            out.write(bitmap);
+            for (int i = 0; i < size; i++) {
+                if (!nulls[i]) {
+                    writeValue(out, i);
+                }
+            }
+        }
+
+        /**
+         * @return 값의 바이트 수, NULL이면 -1
+         */
+        abstract int readValue(ResultSet resultSet, int column, int index) throws SQLException;
+
+        abstract void writeValue(DataOutputStream out, int index) throws IOException;
+
+        static Column forType(int sqlType) {
+            return switch (sqlType) {
+                case Types.TINYINT, Types.SMALLINT, Types.INTEGER -> new IntColumn();
+                case Types.BIGINT -> new LongColumn();
+                case Types.DOUBLE, Types.FLOAT, Types.REAL -> new DoubleColumn();
+                case Types.BOOLEAN, Types.BIT -> new BooleanColumn();
+                case Types.TIMESTAMP -> new TimestampColumn();
+                case Types.DECIMAL, Types.NUMERIC -> new TextColumn(TYPE_DECIMAL);
+                default -> new TextColumn(TYPE_TEXT);
+            };
+        }
+    }
+
+    private static final class IntColumn extends Column {
+
+        private final int[] values = new int[BATCH_ROWS];
+
+        private IntColumn() {
+            super(TYPE_INT32);
+        }
+
+        @Override
+        int readValue(ResultSet resultSet, int column, int index) throws SQLException {
+            values[index] = resultSet.getInt(column);
+            return resultSet.wasNull() ? -1 : Integer.BYTES;
+        }
+
+        @Override
+        void writeValue(DataOutputStream out, int index) throws IOException {
+            out.writeInt(values[index]);
+        }
+    }
+
+    private static final class LongColumn extends Column {
+
+        private final long[] values = new long[BATCH_ROWS];
+
+        private LongColumn() {
+            super(TYPE_INT64);
+        }
+
+        @Override
+        int readValue(ResultSet resultSet, int column, int index) throws SQLException {
+            values[index] = resultSet.getLong(column);
+            return resultSet.wasNull() ? -1 : Long.BYTES;
+        }
+
+        @Override
+        void writeValue(DataOutputStream out, int index) throws IOException {
+            out.writeLong(values[index]);
+        }
+    }
+
+    private static final class DoubleColumn extends Column {
+
+        private final double[] values = new double[BATCH_ROWS];
+
+        private DoubleColumn() {
+            super(TYPE_FLOAT64);
+        }
+
+        @Override
+        int readValue(ResultSet resultSet, int column, int index) throws SQLException {
+            values[index] = resultSet.getDouble(column);
+            return resultSet.wasNull() ? -1 : Double.BYTES;
+        }
+
+        @Override
+        void writeValue(DataOutputStream out, int index) throws IOException {
+            out.writeDouble(values[index]);
+        }
+    }
+
+    private static final class BooleanColumn extends Column {
+
+        private final boolean[] values = new boolean[BATCH_ROWS];
+
+        private BooleanColumn() {
+            super(TYPE_BOOLEAN);
+        }
+
+        @Override
+        int readValue(ResultSet resultSet, int column, int index) throws SQLException {
+            values[index] = resultSet.getBoolean(column);
+            return resultSet.wasNull() ? -1 : 1;
+        }
+
+        @Override
+        void writeValue(DataOutputStream out, int index) throws IOException {
+            out.writeBoolean(values[index]);
+        }
+    }
+
+    private static final class TimestampColumn extends Column {
+
+        private final long[] micros = new long[BATCH_ROWS];
+
+        private TimestampColumn() {
+            super(TYPE_TIMESTAMP);
+        }
+
+        @Override
+        int readValue(ResultSet resultSet, int column, int index) throws SQLException {
+            Timestamp value = resultSet.getTimestamp(column);
+            if (value == null) {
+                return -1;
+            }
+            LocalDateTime local = value.toLocalDateTime();
+            micros[index] = local.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + local.getNano() / 1_000;
+            return Long.BYTES;
+        }
+
+        @Override
+        void writeValue(DataOutputStream out, int index) throws IOException {
+            out.writeLong(micros[index]);
+        }
+    }
+
+    private static final class TextColumn extends Column {
+
+        private final byte[][] values = new byte[BATCH_ROWS][];
+
+        private TextColumn(byte type) {
+            super(type);
+        }
+
+        @Override
+        int readValue(ResultSet resultSet, int column, int index) throws SQLException {
+            Object value = JdbcUtils.getResultSetValue(resultSet, column);
+            if (value == null) {
+                values[index] = null;
+                return -1;
+            }
+            String text = value instanceof BigDecimal decimal ? decimal.toPlainString() : value.toString();
+            values[index] = text.getBytes(StandardCharsets.UTF_8);
+            return Integer.BYTES + values[index].length;
+        }
+
+        @Override
+        void writeValue(DataOutputStream out, int index) throws IOException {
+            out.writeInt(values[index].length);
+            out.write(values[index]);
+        }
+    }
+}
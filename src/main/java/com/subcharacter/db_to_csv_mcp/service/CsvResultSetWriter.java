@@ -0,0 +1,166 @@
+package com.subcharacter.db_to_csv_mcp.service;
+
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.QuoteMode;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+
+/**
+ * {@link ResultSet}을 한 행씩 읽는 즉시 CSV(또는 TSV)로 기록한다.
+ *
+ * <p>헤더는 {@link ResultSetMetaData}에서, 값은 컬럼 인덱스로 읽어 행을 모아 두지 않으므로
+ * 결과 크기와 무관하게 메모리 사용량이 일정하다. 결과가 비어 있으면 아무것도 쓰지 않는다.
+ * 인스턴스는 쿼리 하나에서만 사용한다(스레드-세이프하지 않음).
+ *
+ * @author subCharacter
+ * @since 1.0
+ * @version 1.0
+ */
+final class CsvResultSetWriter extends StreamingRowWriter {
+
+    private static final CSVFormat BASE_FORMAT = CSVFormat.DEFAULT;
+    private static final CSVFormat QUOTED_HEADER_FORMAT = BASE_FORMAT.builder().setQuoteMode(QuoteMode.ALL).build();
+    static final String RECORD_SEPARATOR = BASE_FORMAT.getRecordSeparator() != null
+            ? BASE_FORMAT.getRecordSeparator()
+            : System.lineSeparator();
+    static final String TSV_RECORD_SEPARATOR = "\n";
+
+    private final Writer out;
+    private final boolean quoteHeaders;
+    private final ValueQuoteMode valueQuoteMode;
+    private final boolean includeHeader;
+    private final CsvRowBuffer row;
+    private final String recordSeparator;
+    private final boolean tabSeparated;
+    private ColumnRenderer[] renderers;
+    private String header = "";
+
+    CsvResultSetWriter(Writer out, boolean quoteHeaders, ValueQuoteMode valueQuoteMode, QueryTrace trace) {
+        this(out, quoteHeaders, valueQuoteMode, trace, true, new CsvRowBuffer(), RECORD_SEPARATOR);
+    }
+
+    private CsvResultSetWriter(Writer out, boolean quoteHeaders, ValueQuoteMode valueQuoteMode, QueryTrace trace,
+                               boolean includeHeader, CsvRowBuffer row, String recordSeparator) {
+        super(trace);
+        this.out = out;
+        this.quoteHeaders = quoteHeaders;
+        this.valueQuoteMode = valueQuoteMode;
+        this.includeHeader = includeHeader;
+        this.row = row;
+        this.recordSeparator = recordSeparator;
+        this.tabSeparated = TSV_RECORD_SEPARATOR.equals(recordSeparator);
+    }
+
+    /**
+     * 헤더 없이 데이터 행만 기록하는 writer를 만든다. 여러 조각을 이어 붙일 때 사용한다.
+     *
+     * @return 헤더를 쓰지 않는 writer
+     */
+    static CsvResultSetWriter rowsOnly(Writer out, ValueQuoteMode valueQuoteMode, QueryTrace trace) {
+        return new CsvResultSetWriter(out, false, valueQuoteMode, trace, false, new CsvRowBuffer(), RECORD_SEPARATOR);
+    }
+
+    /**
+     * 탭으로 구분하고 줄바꿈 LF로 끝나는 TSV writer를 만든다. 값은 따옴표 없이 역슬래시로 이스케이프한다.
+     *
+     * @return TSV writer
+     */
+    static CsvResultSetWriter tabSeparated(Writer out, QueryTrace trace) {
+        return new CsvResultSetWriter(out, false, ValueQuoteMode.NONE, trace, true, CsvRowBuffer.tabSeparated(),
+                TSV_RECORD_SEPARATOR);
+    }
+
+    /**
+     * 결과 메타데이터로 레코드 구분자를 포함한 헤더 줄을 만든다.
+     *
+     * @param metaData 결과 메타데이터
+     * @param quoteHeaders 헤더를 큰따옴표로 감쌀지 여부
+     * @return 헤더 줄
+     * @throws SQLException 메타데이터 조회에 실패한 경우
+     */
+    static String headerLine(ResultSetMetaData metaData, boolean quoteHeaders) throws SQLException {
+        CSVFormat headerFormat = quoteHeaders ? QUOTED_HEADER_FORMAT : BASE_FORMAT;
+        return headerFormat.format((Object[]) columnLabels(metaData)) + RECORD_SEPARATOR;
+    }
+
+    static String[] columnLabels(ResultSetMetaData metaData) throws SQLException {
+        int columnCount = metaData.getColumnCount();
+        String[] headers = new String[columnCount];
+        for (int i = 1; i <= columnCount; i++) {
+            String label = metaData.getColumnLabel(i);
+            headers[i - 1] = StringUtils.hasLength(label) ? label : metaData.getColumnName(i);
+        }
+        return headers;
+    }
+
+    @Override
+    protected long begin(ResultSetMetaData metaData) throws SQLException, IOException {
+        renderers = ColumnRenderer.forColumns(metaData, valueQuoteMode);
+        if (!includeHeader) {
+            return 0;
+        }
+        header = tabSeparated ? tabHeaderLine(metaData) : headerLine(metaData, quoteHeaders);
+        out.write(header);
+        return header.length();
+    }
+
+    @Override
+    protected long beginTokens() {
+        return TokenEstimator.estimate(header);
+    }
+
+    @Override
+    protected void renderRow(ResultSet resultSet) throws SQLException {
+        for (int i = 0; i < renderers.length; i++) {
+            if (i > 0) {
+                row.appendSeparator();
+            }
+            renderers[i].render(resultSet, i + 1, row);
+        }
+        row.append(recordSeparator);
+    }
+
+    @Override
+    protected int pendingLength() {
+        return row.length();
+    }
+
+    @Override
+    protected int pendingTokens() {
+        return row.estimateTokens();
+    }
+
+    @Override
+    protected void discardRow() {
+        row.clear();
+    }
+
+    @Override
+    protected void commitRow() throws IOException {
+        row.writeTo(out);
+    }
+
+    @Override
+    protected void end(boolean hasMore) throws IOException {
+        out.flush();
+    }
+
+    private String tabHeaderLine(ResultSetMetaData metaData) throws SQLException {
+        String[] labels = columnLabels(metaData);
+        for (int i = 0; i < labels.length; i++) {
+            if (i > 0) {
+                row.appendSeparator();
+            }
+            row.appendText(labels[i], false);
+        }
+        row.append(TSV_RECORD_SEPARATOR);
+        String line = row.toString();
+        row.clear();
+        return line;
+    }
+}
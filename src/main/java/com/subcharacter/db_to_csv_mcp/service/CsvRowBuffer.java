@@ -0,0 +1,238 @@
+package com.subcharacter.db_to_csv_mcp.service;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * CSV(또는 TSV) 한 행을 조립하는 재사용 버퍼.
+ *
+ * <p>숫자는 문자열을 만들지 않고 바로 덧붙이며, 문자열은 한 번의 순회로 따옴표 필요 여부 판단과
+ * 이스케이프를 함께 처리한다. 행을 다 쓰면 내부 char 배열로 복사해 {@link Writer}에 넘기므로
+ * 행마다 새 문자열이 생기지 않는다. TSV는 따옴표 대신 탭·개행·역슬래시를 역슬래시로 이스케이프한다.
+ * 스레드-세이프하지 않다.
+ *
+ * @author subCharacter
+ * @since 1.0
+ * @version 1.0
+ */
+final class CsvRowBuffer {
+
+    private final StringBuilder row = new StringBuilder(256);
+    private final char separator;
+    private char[] chunk = new char[256];
+
+    CsvRowBuffer() {
+        this(',');
+    }
+
+    private CsvRowBuffer(char separator) {
+        this.separator = separator;
+    }
+
+    /**
+     * 탭으로 구분하는 TSV 행 버퍼를 만든다. 숫자와 문자열 모두 따옴표로 감싸지 않는다.
+     *
+     * @return TSV 버퍼
+     */
+    static CsvRowBuffer tabSeparated() {
+        return new CsvRowBuffer('\t');
+    }
+
+    void clear() {
+        row.setLength(0);
+    }
+
+    int length() {
+        return row.length();
+    }
+
+    void appendSeparator() {
+        row.append(separator);
+    }
+
+    void append(String raw) {
+        row.append(raw);
+    }
+
+    void appendInt(int value, boolean quote) {
+        if (quote) {
+            row.append('"').append(value).append('"');
+        } else {
+            row.append(value);
+        }
+    }
+
+    void appendLong(long value, boolean quote) {
+        if (quote) {
+            row.append('"').append(value).append('"');
+        } else {
+            row.append(value);
+        }
+    }
+
+    void appendDouble(double value, boolean quote) {
+        if (quote) {
+            row.append('"').append(value).append('"');
+        } else {
+            row.append(value);
+        }
+    }
+
+    void appendFloat(float value, boolean quote) {
+        if (quote) {
+            row.append('"').append(value).append('"');
+        } else {
+            row.append(value);
+        }
+    }
+
+    void appendDecimal(BigDecimal value, boolean quote) {
+        // toString()은 지수 표기(1E+3)를 쓸 수 있어 CSV 소비자가 숫자로 읽지 못한다.
+        appendNumber(value.toPlainString(), quote);
+    }
+
+    void appendNumber(String digits, boolean quote) {
+        if (quote) {
+            row.append('"').append(digits).append('"');
+        } else {
+            row.append(digits);
+        }
+    }
+
+    /**
+     * {@link java.sql.Timestamp#toString()}과 같은 형식으로 날짜/시각을 덧붙인다.
+     *
+     * <p>input: 2025-10-26T22:28:21.475 -> output: 2025-10-26 22:28:21.475
+     * input: 2025-10-26T22:28:21 -> output: 2025-10-26 22:28:21.0
+     *
+     * @param value 기록할 날짜/시각
+     * @param quote 큰따옴표로 감쌀지 여부
+     */
+    void appendTimestamp(LocalDateTime value, boolean quote) {
+        if (quote) {
+            row.append('"');
+        }
+        appendPadded(value.getYear(), 4);
+        row.append('-');
+        appendPadded(value.getMonthValue(), 2);
+        row.append('-');
+        appendPadded(value.getDayOfMonth(), 2);
+        row.append(' ');
+        appendPadded(value.getHour(), 2);
+        row.append(':');
+        appendPadded(value.getMinute(), 2);
+        row.append(':');
+        appendPadded(value.getSecond(), 2);
+        row.append('.');
+        int nanos = value.getNano();
+        if (nanos == 0) {
+            row.append('0');
+        } else {
+            int digits = 9;
+            while (nanos % 10 == 0) {
+                nanos /= 10;
+                digits--;
+            }
+            appendPadded(nanos, digits);
+        }
+        if (quote) {
+            row.append('"');
+        }
+    }
+
+    /**
+     * 문자열 값을 한 번의 순회로 이스케이프하며 덧붙인다.
+     *
+     * <p>여는 따옴표 자리를 먼저 잡아 두고 값을 복사하면서 따옴표를 두 번 쓴다.
+     * 끝까지 특수 문자가 없고 강제 인용도 아니면 잡아 둔 자리만 지운다.
+     * input: a"b -> output: "a""b" / input: abc -> output: abc
+     *
+     * @param value 기록할 문자열(널 불가)
+     * @param alwaysQuote 특수 문자가 없어도 큰따옴표로 감쌀지 여부
+     */
+    void appendText(CharSequence value, boolean alwaysQuote) {
+        if (separator == '\t') {
+            appendEscaped(value);
+            return;
+        }
+        int start = row.length();
+        row.append('"');
+        boolean quote = alwaysQuote;
+        for (int i = 0, length = value.length(); i < length; i++) {
+            char current = value.charAt(i);
+            if (current == '"') {
+                row.append('"');
+                quote = true;
+            } else if (current == ',' || current == '\n' || current == '\r') {
+                quote = true;
+            }
+            row.append(current);
+        }
+        if (quote) {
+            row.append('"');
+        } else {
+            row.deleteCharAt(start);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return row.toString();
+    }
+
+    /**
+     * 조립한 행이 LLM 토크나이저에서 차지할 토큰 수를 어림한다.
+     *
+     * @return 어림한 토큰 수
+     */
+    int estimateTokens() {
+        return TokenEstimator.estimate(row);
+    }
+
+    /**
+     * 조립한 행을 출력에 쓰고 버퍼를 비운다.
+     *
+     * @param out 출력 대상
+     * @throws IOException 출력 쓰기에 실패한 경우
+     */
+    void writeTo(Writer out) throws IOException {
+        int length = row.length();
+        if (chunk.length < length) {
+            chunk = new char[Math.max(length, chunk.length * 2)];
+        }
+        row.getChars(0, length, chunk, 0);
+        out.write(chunk, 0, length);
+        row.setLength(0);
+    }
+
+    /**
+     * TSV 값을 역슬래시 이스케이프로 덧붙인다.
+     *
+     * <p>input: a(탭)b(개행)c\d -> output: a\tb\nc\\d
+     */
+    private void appendEscaped(CharSequence value) {
+        for (int i = 0, length = value.length(); i < length; i++) {
+            char current = value.charAt(i);
+            switch (current) {
+                case '\t' -> row.append("\\t");
+                case '\n' -> row.append("\\n");
+                case '\r' -> row.append("\\r");
+                case '\\' -> row.append("\\\\");
+                default -> row.append(current);
+            }
+        }
+    }
+
+    private void appendPadded(int value, int width) {
+        int digits = 1;
+        for (int remaining = value; remaining >= 10; remaining /= 10) {
+            digits++;
+        }
+        for (int i = digits; i < width; i++) {
+            row.append('0');
+        }
+        row.append(value);
+    }
+}
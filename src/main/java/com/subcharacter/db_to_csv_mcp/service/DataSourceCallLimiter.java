@@ -0,0 +1,169 @@
+package com.subcharacter.db_to_csv_mcp.service;
+
+import com.subcharacter.db_to_csv_mcp.config.ConcurrencyProperties;
+import com.subcharacter.db_to_csv_mcp.service.DataSourceRegistry.DataSourceKey;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * 데이터소스 식별자별 세마포어로 동시에 실행되는 도구 호출 수를 제한한다.
+ *
+ * <p>한도를 넘은 호출은 공정 순서로 대기하며, 대기한 시간은 추적의 queue 단계로 기록된다.
+ * 대기 중이거나 실행 중인 호출이 없는 식별자의 세마포어는 즉시 제거되므로 식별자가 늘어나도 남지 않는다.
+ * 실행 순서 하나는 커넥션 하나에 해당하므로, 파티션이나 배치 항목처럼 커넥션을 여러 개 쓰는 호출은 추가 순서를 얻는다.
+ * 스레드-세이프하다.
+ *
+ * @author subCharacter
+ * @since 1.0
+ * @version 1.0
+ */
+@Component
+class DataSourceCallLimiter {
+
+    private final ConcurrencyProperties properties;
+    private final Map<DataSourceKey, Permits> permits = new ConcurrentHashMap<>();
+
+    DataSourceCallLimiter(ConcurrencyProperties properties) {
+        this.properties = properties;
+    }
+
+    /**
+     * 실행 순서를 얻은 뒤 work를 실행한다.
+     *
+     * @param key 데이터소스 식별자
+     * @param trace 대기 시간을 기록할 추적
+     * @param work 실행할 작업
+     * @return work의 반환값
+     * @throws IllegalStateException 대기 시간 안에 실행 순서를 얻지 못했거나 대기 중 인터럽트된 경우
+     */
+    <T> T run(DataSourceKey key, QueryTrace trace, Supplier<T> work) {
+        Lease lease = acquire(key, trace);
+        try {
+            return work.get();
+        } finally {
+            lease.release();
+        }
+    }
+
+    /**
+     * 실행 순서를 얻어 호출이 끝난 뒤에도 붙잡는다. 열린 페이지 커서처럼 여러 호출에 걸쳐 커넥션을 점유하는 자원이
+     * 데이터소스의 동시 실행 수에 포함되도록 할 때 쓴다.
+     *
+     * @param key 데이터소스 식별자
+     * @param trace 대기 시간을 기록할 추적
+     * @return 돌려줄 때까지 실행 순서 하나를 점유하는 임대
+     * @throws IllegalStateException 대기 시간 안에 실행 순서를 얻지 못했거나 대기 중 인터럽트된 경우
+     */
+    Lease acquire(DataSourceKey key, QueryTrace trace) {
+        Permits entry = join(key);
+        try {
+            await(key, entry, trace);
+        } catch (RuntimeException e) {
+            leave(key);
+            throw e;
+        }
+        return new Lease(key, entry);
+    }
+
+    /**
+     * 기다리지 않고 지금 비어 있는 실행 순서를 최대 count개까지 더 얻는다.
+     *
+     * <p>이미 실행 순서 하나를 가진 호출이 커넥션을 더 쓸 때 사용한다. 대기하지 않으므로 추가 순서를 서로 기다리며 막히는
+     * 일이 없고, 먼저 대기 중인 호출이 있으면 그 호출에 양보한다.
+     *
+     * <p>input: 한도 4, 사용 중 2, count 3 -> output: 임대 2개
+     *
+     * @param key 데이터소스 식별자
+     * @param count 더 얻으려는 실행 순서 수
+     * @return 얻은 임대(없으면 빈 목록)
+     */
+    List<Lease> tryAcquire(DataSourceKey key, int count) {
+        List<Lease> leases = new ArrayList<>();
+        while (leases.size() < count) {
+            Permits entry = join(key);
+            boolean acquired;
+            try {
+                // 시간 제한 있는 tryAcquire는 공정 순서를 지킨다(인자 없는 tryAcquire는 대기열을 앞지른다).
+                acquired = entry.semaphore.tryAcquire(0, TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                acquired = false;
+            }
+            if (!acquired) {
+                leave(key);
+                break;
+            }
+            leases.add(new Lease(key, entry));
+        }
+        return leases;
+    }
+
+    private Permits join(DataSourceKey key) {
+        return permits.compute(key, (ignored, current) -> {
+            Permits next = current == null ? new Permits(Math.max(1, properties.maxCallsPerDatasource())) : current;
+            next.users++;
+            return next;
+        });
+    }
+
+    private void leave(DataSourceKey key) {
+        permits.computeIfPresent(key, (ignored, current) -> --current.users == 0 ? null : current);
+    }
+
+    private void await(DataSourceKey key, Permits entry, QueryTrace trace) {
+        long waitStart = System.nanoTime();
+        try {
+            boolean acquired = entry.semaphore.tryAcquire(properties.acquireTimeout().toNanos(), TimeUnit.NANOSECONDS);
+            if (!acquired) {
+                throw new IllegalStateException("Too many concurrent queries for " + key.identity()
+                        + "; no slot became free within " + properties.acquireTimeout() + ".");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a query slot.", e);
+        } finally {
+            trace.addQueueNanos(System.nanoTime() - waitStart);
+        }
+    }
+
+    /**
+     * 점유한 실행 순서 하나. 여러 번 돌려줘도 한 번만 반납한다.
+     */
+    final class Lease {
+
+        private final DataSourceKey key;
+        private final Permits entry;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Lease(DataSourceKey key, Permits entry) {
+            this.key = key;
+            this.entry = entry;
+        }
+
+        void release() {
+            if (released.compareAndSet(false, true)) {
+                entry.semaphore.release();
+                leave(key);
+            }
+        }
+    }
+
+    private static final class Permits {
+
+        private final Semaphore semaphore;
+        // compute 안에서만 읽고 쓴다.
+        private int users;
+
+        private Permits(int limit) {
+            this.semaphore = new Semaphore(limit, true);
+        }
+    }
+}
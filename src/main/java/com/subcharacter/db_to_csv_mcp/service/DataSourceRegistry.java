@@ -0,0 +1,292 @@
+package com.subcharacter.db_to_csv_mcp.service;
+
+import com.subcharacter.db_to_csv_mcp.config.DataSourcePoolProperties;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import jakarta.annotation.PreDestroy;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+/**
+ * 커넥션 식별자(url, 드라이버, 사용자, 자격 증명 해시)별로 커넥션 풀을 캐시해 도구 호출 간 물리 커넥션을 재사용한다.
+ *
+ * <p>풀 개수는 {@link DataSourcePoolProperties#maxPools()}로 제한되며 접근 순서 기준 LRU로 정리된다. 한도를 넘어
+ * 밀려난 풀은 조회 대상에서 빠지고 유휴 커넥션을 바로 닫지만, 풀 자체는 대여 중인 커넥션이 없고 유휴 시간을 넘긴 뒤에
+ * 닫는다. 먼저 받아 간 핸들이 아직 커넥션을 빌리지 않았거나 빌린 채 실행 중이어도 닫힌 풀을 만나지 않게 하기 위함이다.
+ * 모든 공개 메서드는 스레드-세이프하다.
+ *
+ * @author subCharacter
+ * @since 1.0
+ * @version 1.0
+ */
+@Component
+public class DataSourceRegistry {
+
+    private final DataSourcePoolProperties properties;
+    private final Map<DataSourceKey, PoolEntry> pools = new LinkedHashMap<>(16, 0.75f, true);
+    // 한도 때문에 밀려났지만 아직 닫지 않은 풀. pools로 동기화한다.
+    private final List<PoolEntry> retiring = new ArrayList<>();
+    private final AtomicInteger poolSequence = new AtomicInteger();
+
+    public DataSourceRegistry(DataSourcePoolProperties properties) {
+        this.properties = properties;
+    }
+
+    /**
+     * 식별자에 해당하는 풀을 돌려주고, 없으면 새로 만든다.
+     *
+     * <p>풀 생성 시 커넥션을 미리 맺지 않으므로 잠금 구간에서 네트워크 대기가 발생하지 않는다.
+     *
+     * @param url JDBC 연결 문자열(필수)
+     * @param driverClassName JDBC 드라이버 클래스(선택)
+     * @param username 데이터베이스 사용자명
+     * @param password 데이터베이스 비밀번호(널 허용)
+     * @return 재사용 가능한 풀링 데이터소스
+     * @throws IllegalArgumentException url이 비어 있는 경우
+     */
+    public DataSource obtain(String url, String driverClassName, String username, String password) {
+        return resolve(url, driverClassName, username, password).dataSource();
+    }
+
+    /**
+     * {@link #obtain}과 같지만 풀 식별자를 함께 돌려준다.
+     *
+     * @param url JDBC 연결 문자열(필수)
+     * @param driverClassName JDBC 드라이버 클래스(선택)
+     * @param username 데이터베이스 사용자명
+     * @param password 데이터베이스 비밀번호(널 허용)
+     * @return 풀 식별자와 데이터소스
+     * @throws IllegalArgumentException url이 비어 있는 경우
+     */
+    DataSourceHandle resolve(String url, String driverClassName, String username, String password) {
+        if (!StringUtils.hasText(url)) {
+            throw new IllegalArgumentException("Database URL is required.");
+        }
+        DataSourceKey key = DataSourceKey.of(url, driverClassName, username, password);
+        List<HikariDataSource> retired = new ArrayList<>();
+        HikariDataSource dataSource;
+        synchronized (pools) {
+            PoolEntry entry = pools.get(key);
+            if (entry == null) {
+                long now = System.nanoTime();
+                collectRetiredPools(retired, now);
+                while (pools.size() >= Math.max(1, properties.maxPools())) {
+                    retire(removeEldest());
+                }
+                collectRetiringPools(retired, now);
+                entry = new PoolEntry(createPool(url, driverClassName, username, password));
+                pools.put(key, entry);
+            }
+            entry.touch();
+            dataSource = entry.dataSource();
+        }
+        retired.forEach(HikariDataSource::close);
+        return new DataSourceHandle(key, dataSource);
+    }
+
+    /**
+     * 현재 유지 중인 풀의 개수를 돌려준다.
+     *
+     * @return 열린 풀 개수
+     */
+    public int size() {
+        synchronized (pools) {
+            return pools.size();
+        }
+    }
+
+    /**
+     * 유휴 시간을 넘기고 사용 중인 커넥션이 없는 풀(한도 때문에 밀려난 풀 포함)을 주기적으로 닫는다.
+     */
+    @Scheduled(fixedDelayString = "${db-to-csv.pool.eviction-interval:PT1M}")
+    public void evictIdlePools() {
+        List<HikariDataSource> retired = new ArrayList<>();
+        synchronized (pools) {
+            long now = System.nanoTime();
+            collectRetiredPools(retired, now);
+            collectRetiringPools(retired, now);
+        }
+        retired.forEach(HikariDataSource::close);
+    }
+
+    @PreDestroy
+    public void close() {
+        List<HikariDataSource> retired = new ArrayList<>();
+        synchronized (pools) {
+            pools.values().forEach(entry -> retired.add(entry.dataSource()));
+            retiring.forEach(entry -> retired.add(entry.dataSource()));
+            pools.clear();
+            retiring.clear();
+        }
+        retired.forEach(HikariDataSource::close);
+    }
+
+    private void collectRetiredPools(List<HikariDataSource> retired, long now) {
+        long idleNanos = properties.poolIdleTimeout().toNanos();
+        Iterator<PoolEntry> iterator = pools.values().iterator();
+        while (iterator.hasNext()) {
+            PoolEntry entry = iterator.next();
+            if (now - entry.lastUsedNanos() >= idleNanos && !entry.inUse()) {
+                iterator.remove();
+                retired.add(entry.dataSource());
+            }
+        }
+    }
+
+    /**
+     * 밀려난 풀 중 빌려 간 커넥션과 커넥션을 기다리는 호출이 없고, 마지막 조회 뒤 유휴 시간이 지난 풀을 모은다.
+     * 조회로 받아 간 핸들은 그 호출 안에서 커넥션을 빌리므로 유휴 시간이 지나면 더는 이 풀을 쓰지 않는다.
+     */
+    private void collectRetiringPools(List<HikariDataSource> retired, long now) {
+        long idleNanos = properties.poolIdleTimeout().toNanos();
+        Iterator<PoolEntry> iterator = retiring.iterator();
+        while (iterator.hasNext()) {
+            PoolEntry entry = iterator.next();
+            if (now - entry.lastUsedNanos() >= idleNanos && !entry.inUse()) {
+                iterator.remove();
+                retired.add(entry.dataSource());
+            }
+        }
+    }
+
+    private PoolEntry removeEldest() {
+        // 접근 순서 맵이므로 앞쪽이 오래 사용되지 않은 풀이다. 유휴 풀을 우선 밀어낸다.
+        Iterator<PoolEntry> iterator = pools.values().iterator();
+        while (iterator.hasNext()) {
+            PoolEntry entry = iterator.next();
+            if (!entry.inUse()) {
+                iterator.remove();
+                return entry;
+            }
+        }
+        Iterator<PoolEntry> eldest = pools.values().iterator();
+        PoolEntry entry = eldest.next();
+        eldest.remove();
+        return entry;
+    }
+
+    private void retire(PoolEntry entry) {
+        // 유휴 커넥션은 바로 닫고, 빌려 간 커넥션은 반납될 때 닫힌다. 풀은 늦게 빌리는 호출을 위해 남긴다.
+        HikariPoolMXBean pool = entry.dataSource().getHikariPoolMXBean();
+        if (pool != null) {
+            pool.softEvictConnections();
+        }
+        retiring.add(entry);
+    }
+
+    private HikariDataSource createPool(String url, String driverClassName, String username, String password) {
+        HikariConfig config = new HikariConfig();
+        config.setPoolName("db-to-csv-" + poolSequence.incrementAndGet());
+        config.setJdbcUrl(url);
+        if (StringUtils.hasText(driverClassName)) {
+            config.setDriverClassName(driverClassName);
+        }
+        config.setUsername(username);
+        config.setPassword(password);
+        config.setMaximumPoolSize(Math.max(1, properties.maxPoolSize()));
+        config.setMinimumIdle(0);
+        config.setIdleTimeout(properties.idleTimeout().toMillis());
+        config.setConnectionTimeout(properties.connectionTimeout().toMillis());
+        config.setValidationTimeout(properties.validationTimeout().toMillis());
+        if (StringUtils.hasText(properties.validationQuery())) {
+            config.setConnectionTestQuery(properties.validationQuery());
+        }
+        // 풀 생성 시점에는 접속하지 않고, 첫 대여 시 연결 오류를 드러낸다.
+        config.setInitializationFailTimeout(-1);
+        return new HikariDataSource(config);
+    }
+
+    /**
+     * 풀을 구분하는 식별자. 비밀번호 원문 대신 SHA-256 해시만 보관한다.
+     *
+     * @param url JDBC 연결 문자열
+     * @param driverClassName JDBC 드라이버 클래스(널 허용)
+     * @param username 데이터베이스 사용자명(널 허용)
+     * @param credentialHash 비밀번호 해시
+     */
+    record DataSourceKey(String url, String driverClassName, String username, String credentialHash) {
+
+        private static final Pattern URL_PARAMETERS = Pattern.compile("[;?].*$");
+        private static final Pattern URL_USER_INFO = Pattern.compile("(//|:thin:)[^/@]*(?:/[^@]*)?@");
+
+        static DataSourceKey of(String url, String driverClassName, String username, String password) {
+            String driver = StringUtils.hasText(driverClassName) ? driverClassName : null;
+            return new DataSourceKey(url, driver, username, hash(password));
+        }
+
+        /**
+         * 메트릭 태그·로그에 쓸 수 있도록 자격 증명과 연결 옵션을 제거한 식별자를 만든다.
+         *
+         * <p>input: jdbc:postgresql://app:secret@db:5432/shop?ssl=true -> output: jdbc:postgresql://db:5432/shop
+         * input: jdbc:oracle:thin:scott/tiger@db:1521:orcl -> output: jdbc:oracle:thin:db:1521:orcl
+         *
+         * @return 비밀 정보가 없는 데이터소스 이름
+         */
+        String identity() {
+            String withoutParameters = URL_PARAMETERS.matcher(url).replaceFirst("");
+            return URL_USER_INFO.matcher(withoutParameters).replaceFirst("$1");
+        }
+
+        private static String hash(String password) {
+            try {
+                MessageDigest digest = MessageDigest.getInstance("SHA-256");
+                byte[] bytes = digest.digest((password == null ? "" : password).getBytes(StandardCharsets.UTF_8));
+                return HexFormat.of().formatHex(bytes);
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("SHA-256 is not available.", e);
+            }
+        }
+    }
+
+    /**
+     * 풀 식별자와 풀링 데이터소스의 쌍.
+     *
+     * @param key 풀 식별자
+     * @param dataSource 풀링 데이터소스
+     */
+    record DataSourceHandle(DataSourceKey key, DataSource dataSource) {
+    }
+
+    private static final class PoolEntry {
+
+        private final HikariDataSource dataSource;
+        private volatile long lastUsedNanos;
+
+        private PoolEntry(HikariDataSource dataSource) {
+            this.dataSource = dataSource;
+            this.lastUsedNanos = System.nanoTime();
+        }
+
+        private HikariDataSource dataSource() {
+            return dataSource;
+        }
+
+        private long lastUsedNanos() {
+            return lastUsedNanos;
+        }
+
+        private void touch() {
+            lastUsedNanos = System.nanoTime();
+        }
+
+        private boolean inUse() {
+            HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+            return pool != null && (pool.getActiveConnections() > 0 || pool.getThreadsAwaitingConnection() > 0);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.subcharacter.db_to_csv_mcp.service;
+
+import com.subcharacter.db_to_csv_mcp.service.DataSourceRegistry.DataSourceKey;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * H2의 {@code CSVWRITE} 함수로 결과를 데이터베이스가 직접 파일에 쓰게 하는 방언.
+ *
+ * <p>{@code CSVWRITE}는 데이터베이스가 실행되는 프로세스의 파일 시스템에 쓰므로 같은 JVM에서 도는 내장 H2
+ * (mem, file 등)만 지원하고 서버 모드(tcp, ssl)는 일반 경로를 쓴다. H2는 헤더와 NULL이 아닌 모든 값을 큰따옴표로
+ * 감싸므로 헤더 따옴표와 전체 따옴표 모드(3)를 함께 요청한 경우만 받는다. 쿼리는 문자열 인자로 넘기므로 SQL에
+ * 바인딩할 값이 있으면 쓸 수 없다.
+ *
+ * <p>input: {@code SELECT id, name FROM items} -> output: {@code CALL CSVWRITE(?, ?, ?)}로 실행,
+ * 파일 내용 {@code "ID","NAME"\r\n"1","apple"\r\n...}
+ *
+ * @author subCharacter
+ * @since 1.0
+ * @version 1.0
+ */
+@Component
+class H2NativeExportDialect implements NativeExportDialect {
+
+    private static final String URL_PREFIX = "jdbc:h2:";
+    private static final List<String> SERVER_MODES = List.of("tcp:", "ssl:");
+    // 기본 구분자(,)·따옴표(")·이스케이프(")·NULL(빈 값)은 일반 경로와 같고, 줄바꿈만 CRLF로 맞춘다.
+    private static final String CSV_OPTIONS = "charset=UTF-8 lineSeparator=" + CsvResultSetWriter.RECORD_SEPARATOR;
+
+    private final ReadOnlyQueryExecutor queryExecutor;
+
+    H2NativeExportDialect(ReadOnlyQueryExecutor queryExecutor) {
+        this.queryExecutor = queryExecutor;
+    }
+
+    @Override
+    public boolean supports(DataSourceKey dataSource) {
+        String url = dataSource.url() == null ? "" : dataSource.url().toLowerCase(Locale.ROOT);
+        if (!url.startsWith(URL_PREFIX)) {
+            return false;
+        }
+        String location = url.substring(URL_PREFIX.length());
+        return SERVER_MODES.stream().noneMatch(location::startsWith);
+    }
+
+    @Override
+    public boolean accepts(Options options) {
+        return options.plainCsv() && options.quoteHeaders() && options.valueQuoteMode() == ValueQuoteMode.ALL;
+    }
+
+    @Override
+    public long exportTo(DataSource dataSource, String sql, Path target, QueryTrace trace) {
+        String query = SqlText.body(sql);
+        List<Object> arguments = List.of(target.toAbsolutePath().toString(), query, CSV_OPTIONS);
+        return queryExecutor.query(dataSource, "CALL CSVWRITE(?, ?, ?)", arguments, trace,
+                resultSet -> resultSet.next() ? resultSet.getLong(1) : 0L);
+    }
+}
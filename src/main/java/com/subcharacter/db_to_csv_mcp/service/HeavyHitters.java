@@ -0,0 +1,73 @@
+package com.subcharacter.db_to_csv_mcp.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 자주 나오는 값을 고정 개수의 카운터로 찾는 Space-Saving 스케치.
+ *
+ * <p>카운터가 가득 찬 상태에서 새 값이 오면 가장 작은 카운터를 넘겨받고 그 값에 1을 더하므로, 보고하는 횟수는
+ * 실제 횟수 이상이며 초과분은 최대 (전체 수 / 카운터 수)다. 고유 값이 카운터 수 이하이면 정확하다. 스레드-세이프하지 않다.
+ *
+ * <p>input: a, b, a, c, a (capacity 2) -> output: top(1) == [a=3]
+ *
+ * @author subCharacter
+ * @since 1.0
+ * @version 1.0
+ */
+final class HeavyHitters {
+
+    private final int capacity;
+    private final Map<String, long[]> counters;
+
+    HeavyHitters(int capacity) {
+        this.capacity = Math.max(1, capacity);
+        this.counters = new HashMap<>(this.capacity * 2);
+    }
+
+    void add(String value) {
+        long[] counter = counters.get(value);
+        if (counter != null) {
+            counter[0]++;
+            return;
+        }
+        if (counters.size() < capacity) {
+            counters.put(value, new long[]{1});
+            return;
+        }
+        Map.Entry<String, long[]> smallest = null;
+        for (Map.Entry<String, long[]> entry : counters.entrySet()) {
+            if (smallest == null || entry.getValue()[0] < smallest.getValue()[0]) {
+                smallest = entry;
+            }
+        }
+        long[] reused = counters.remove(smallest.getKey());
+        reused[0]++;
+        counters.put(value, reused);
+    }
+
+    /**
+     * 횟수가 많은 순서로 최대 limit개를 돌려준다. 횟수가 같으면 값 순서로 정렬한다.
+     *
+     * @param limit 돌려줄 최대 개수
+     * @return 값과 (어림) 횟수
+     */
+    List<Count> top(int limit) {
+        List<Count> counts = new ArrayList<>(counters.size());
+        counters.forEach((value, counter) -> counts.add(new Count(value, counter[0])));
+        counts.sort(Comparator.comparingLong(Count::count).reversed().thenComparing(Count::value));
+        return counts.subList(0, Math.min(limit, counts.size()));
+    }
+
+    /**
+     * 값과 횟수의 쌍.
+     *
+     * @param value 값
+     * @param count 나온 횟수(어림값일 수 있음)
+     */
+    record Count(String value, long count) {
+    }
+}
@@ -0,0 +1,70 @@
+package com.subcharacter.db_to_csv_mcp.service;
+
+/**
+ * 고유 값 개수를 고정 메모리(4 KB)로 어림하는 HyperLogLog 스케치.
+ *
+ * <p>레지스터 2^12개를 쓰므로 표준 오차는 약 1.6%이며, 작은 개수는 선형 계수로 보정해 거의 정확하다.
+ * 값은 호출자가 64비트 해시로 바꿔 넣는다. 스레드-세이프하지 않다.
+ *
+ * <p>input: "apple", "banana", "apple" -> output: estimate() == 2
+ *
+ * @author subCharacter
+ * @since 1.0
+ * @version 1.0
+ */
+final class HyperLogLog {
+
+    private static final int PRECISION = 12;
+    private static final int REGISTER_COUNT = 1 << PRECISION;
+    private static final double ALPHA = 0.7213 / (1 + 1.079 / REGISTER_COUNT);
+
+    private final byte[] registers = new byte[REGISTER_COUNT];
+
+    void add(long hash) {
+        int index = (int) (hash >>> (Long.SIZE - PRECISION));
+        // 남은 비트가 모두 0이어도 순위가 범위를 넘지 않도록 맨 아래에 1을 둔다.
+        long remaining = (hash << PRECISION) | (1L << (PRECISION - 1));
+        byte rank = (byte) (Long.numberOfLeadingZeros(remaining) + 1);
+        if (rank > registers[index]) {
+            registers[index] = rank;
+        }
+    }
+
+    long estimate() {
+        double sum = 0;
+        int zeros = 0;
+        for (byte register : registers) {
+            sum += 1.0 / (1L << register);
+            if (register == 0) {
+                zeros++;
+            }
+        }
+        double raw = ALPHA * REGISTER_COUNT * REGISTER_COUNT / sum;
+        if (raw <= 2.5 * REGISTER_COUNT && zeros > 0) {
+            return Math.round(REGISTER_COUNT * Math.log((double) REGISTER_COUNT / zeros));
+        }
+        return Math.round(raw);
+    }
+
+    /**
+     * 정수 값을 고르게 퍼진 64비트 해시로 바꾼다(SplitMix64 마무리 단계).
+     */
+    static long hash(long value) {
+        long z = value + 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * 문자열을 64비트 해시로 바꾼다(FNV-1a 뒤 SplitMix64로 섞음).
+     */
+    static long hash(CharSequence value) {
+        long h = 0xCBF29CE484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            h ^= value.charAt(i);
+            h *= 0x100000001B3L;
+        }
+        return hash(h);
+    }
+}
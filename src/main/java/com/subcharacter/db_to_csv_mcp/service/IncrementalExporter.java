@@ -0,0 +1,217 @@
+package com.subcharacter.db_to_csv_mcp.service;
+
+import com.subcharacter.db_to_csv_mcp.service.DataSourceRegistry.DataSourceHandle;
+import com.subcharacter.db_to_csv_mcp.service.QueryService.ExportResult;
+import com.subcharacter.db_to_csv_mcp.service.QueryService.IncrementalExportResult;
+import com.subcharacter.db_to_csv_mcp.service.StreamingRowWriter.Page;
+import com.subcharacter.db_to_csv_mcp.service.WatermarkStore.JobState;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+/**
+ * 이름 붙인 작업마다 마지막으로 내보낸 워터마크 이후의 행만 읽어 CSV 파일로 내보낸다.
+ *
+ * <p>쿼리를 {@code SELECT * FROM (sql) WHERE 워터마크 > 마지막 값 ORDER BY 워터마크}로 감싸므로 데이터베이스가
+ * 워터마크 컬럼의 인덱스로 새 행만 찾고, 비용이 테이블 크기가 아닌 새 데이터 양에 비례한다. 첫 실행(또는 초기화)은
+ * 전체를 새 파일로 쓰고, 이후 실행은 같은 파일에 헤더 없이 덧붙인다. 워터마크는 파일 쓰기가 끝난 뒤에만 저장하므로
+ * 실패한 실행은 다음 실행에서 같은 범위를 다시 읽는다. 행·크기 상한에 닿아도 정렬 순서상 마지막으로 쓴 행까지
+ * 워터마크가 전진하므로 다음 실행이 이어서 읽는다. 상한이 같은 워터마크 값을 가진 행 묶음 중간에서 끊기면 그 묶음은
+ * 통째로 다음 실행으로 넘긴다.
+ *
+ * <p>워터마크 컬럼은 단조 증가해야 한다(예: 자동 증가 ID, 삽입 시각). 마지막 값과 같은 값으로 나중에 들어온 행은
+ * {@code >} 조건에 걸리지 않는다. 같은 작업을 동시에 두 번 실행할 수 없다. 스레드-세이프하다.
+ *
+ * <p>input: 작업 orders, 워터마크 id, 저장된 값 1005 -> output: id > 1005인 행만 orders.csv 끝에 덧붙이고 워터마크를
+ * 마지막 행의 id로 저장
+ *
+ * @author subCharacter
+ * @since 1.0
+ * @version 1.0
+ */
+@Component
+class IncrementalExporter {
+
+    private static final Pattern IDENTIFIER = Pattern.compile("[A-Za-z_][A-Za-z0-9_]*");
+
+    private final QueryFileExporter fileExporter;
+    private final ReadOnlyQueryExecutor queryExecutor;
+    private final WatermarkStore watermarkStore;
+    // 실행 중인 작업 이름. 끝나면 지우므로 작업 수만큼 쌓이지 않는다.
+    private final Set<String> running = ConcurrentHashMap.newKeySet();
+
+    IncrementalExporter(QueryFileExporter fileExporter, ReadOnlyQueryExecutor queryExecutor,
+                        WatermarkStore watermarkStore) {
+        this.fileExporter = fileExporter;
+        this.queryExecutor = queryExecutor;
+        this.watermarkStore = watermarkStore;
+    }
+
+    /**
+     * 작업의 워터마크 이후 행을 내보내고 워터마크를 전진시킨다.
+     *
+     * @param dataSource 실행 대상 데이터소스
+     * @param sql 검증을 마친 읽기 전용 SQL
+     * @param parameters sql의 자리표시자에 바인딩할 값(워터마크 조건의 값은 뒤에 덧붙인다)
+     * @param jobName 작업 이름(워터마크 저장 키)
+     * @param watermarkColumn 단조 증가하는 워터마크 컬럼
+     * @param quoteHeaders 헤더를 큰따옴표로 감쌀지 여부
+     * @param valueQuoteMode 본문 값 따옴표 모드
+     * @param fileName 저장할 파일 이름(선택, 덧붙이기면 기본 작업이름.csv, 아니면 자동 생성)
+     * @param append 이전 실행의 파일에 덧붙일지 여부(false면 실행마다 새로운 행만 담은 파일을 씀)
+     * @param gzip gzip 압축 여부
+     * @param reset 저장된 워터마크를 버리고 처음부터 내보낼지 여부
+     * @param trace 단계별 시간과 처리량을 기록할 추적
+     * @return 파일 정보, 이번 실행의 행 수, 이전과 새 워터마크
+     * @throws IllegalArgumentException 작업 이름이나 워터마크 컬럼이 올바르지 않거나, 작업 정의가 저장된 것과 다른 경우
+     * @throws IllegalStateException 같은 작업이 실행 중이거나 워터마크 컬럼에 NULL이 있는 경우
+     */
+    IncrementalExportResult export(DataSourceHandle dataSource, String sql, List<Object> parameters, String jobName,
+                                   String watermarkColumn, boolean quoteHeaders, ValueQuoteMode valueQuoteMode,
+                                   String fileName, boolean append, boolean gzip, boolean reset, QueryTrace trace) {
+        String job = WatermarkStore.validJobName(jobName);
+        String column = watermarkColumn == null ? "" : watermarkColumn.strip();
+        if (!IDENTIFIER.matcher(column).matches()) {
+            throw new IllegalArgumentException("Watermark column must be a plain column name: " + watermarkColumn);
+        }
+        if (!running.add(job)) {
+            throw new IllegalStateException("Incremental export job " + job + " is already running.");
+        }
+        try {
+            String fingerprint = QueryFingerprint.of(dataSource.key(), sql, parameters, column);
+            if (reset) {
+                watermarkStore.remove(job);
+            }
+            JobState previous = watermarkStore.get(job);
+            if (previous != null && !previous.fingerprint().equals(fingerprint)) {
+                throw new IllegalArgumentException("Incremental export job " + job + " was created for a different "
+                        + "query, parameters, datasource or watermark column; pass reset to start it over.");
+            }
+            KeyValue after = previous == null ? null : previous.watermark();
+            // 상한이 같은 워터마크 값의 행 묶음을 가르면 그 값 미만까지만 다시 쓴다(before에 그 값을 둔다).
+            Object[] before = new Object[1];
+            Object[] lastKey = new Object[1];
+            QueryFileExporter.AppendBody delta = (out, header) -> {
+                CsvResultSetWriter writer = header
+                        ? new CsvResultSetWriter(out, quoteHeaders, valueQuoteMode, trace)
+                        : CsvResultSetWriter.rowsOnly(out, valueQuoteMode, trace);
+                List<Object> deltaParameters = new ArrayList<>(parameters);
+                Page page = queryExecutor.query(dataSource.dataSource(),
+                        deltaSql(sql, column, after, before[0], deltaParameters), deltaParameters, trace,
+                        resultSet -> {
+                            int key = resultSet.findColumn(column);
+                            Page written = writer.writePage(resultSet, false, trace.limits().rowCap(), key);
+                            if (written.hasMore() && written.lastKey() != null
+                                    && KeyValue.of(written.lastKey()).equals(keyOf(resultSet.getObject(key)))) {
+                                throw splitTieGroup(written, before[0] != null, column, trace);
+                            }
+                            return written;
+                        });
+                if (page.hasMore()) {
+                    trace.markTruncated();
+                }
+                if (page.rows() > 0 && page.lastKey() == null) {
+                    throw new IllegalStateException("Watermark column " + column
+                            + " contains NULL; incremental exports need a non-null monotonic column.");
+                }
+                if (page.rows() == 0 && before[0] != null) {
+                    throw tieGroupTooLarge(column, before[0]);
+                }
+                lastKey[0] = page.lastKey();
+                return page.rows();
+            };
+            // 첫 실행과 초기화는 기존 파일을 덧붙이지 않고 통째로 교체한다.
+            Supplier<ExportResult> write = () -> append && after != null
+                    ? fileExporter.append(defaultName(fileName, job, gzip), gzip, trace, delta)
+                    : fileExporter.export(append ? defaultName(fileName, job, gzip) : fileName, gzip, trace,
+                            out -> delta.writeTo(out, true));
+            ExportResult file;
+            try {
+                file = write.get();
+            } catch (TieGroupSplit split) {
+                // 파일은 실행 전 상태로 되돌려졌다. 앞서 쓴 행 중 묶음 값 미만인 행만 다시 쓰므로 상한 안에 들어간다.
+                before[0] = split.key;
+                trace.markTruncated();
+                file = write.get();
+            }
+
+            KeyValue current = lastKey[0] == null ? after : KeyValue.of(lastKey[0]);
+            if (current != null) {
+                watermarkStore.put(job, new JobState(fingerprint, current, Instant.now()));
+            }
+            return new IncrementalExportResult(file.path(), file.rowCount(), file.byteSize(), file.checksum(),
+                    after == null ? null : after.value(), current == null ? null : current.value(),
+                    file.truncated());
+        } finally {
+            running.remove(job);
+        }
+    }
+
+    /**
+     * 워터마크 이후(그리고 before가 있으면 그 값 미만)의 행을 워터마크 순으로 읽는 쿼리를 만들고 바인드 값을 덧붙인다.
+     *
+     * <p>input: ("SELECT * FROM orders", "id", 1005, null) -> output:
+     * {@code SELECT * FROM (SELECT * FROM orders) src_delta WHERE id > ? ORDER BY id}
+     */
+    private static String deltaSql(String sql, String column, KeyValue after, Object before, List<Object> parameters) {
+        List<String> conditions = new ArrayList<>();
+        if (after != null) {
+            conditions.add(column + " > ?");
+            parameters.add(after.bindValue());
+        }
+        if (before != null) {
+            conditions.add(column + " < ?");
+            parameters.add(before);
+        }
+        return "SELECT * FROM " + SqlText.derivedTable(sql, "src_delta")
+                + (conditions.isEmpty() ? "" : " WHERE " + String.join(" AND ", conditions))
+                + " ORDER BY " + column;
+    }
+
+    private static KeyValue keyOf(Object value) {
+        return value == null ? null : KeyValue.of(value);
+    }
+
+    /**
+     * 상한이 마지막 워터마크 값의 행 묶음 중간에서 끊긴 경우. 그대로 워터마크를 전진시키면 묶음의 나머지 행은 {@code >}
+     * 조건에 걸리지 않아 영영 내보내지지 않으므로, 이번 실행을 되돌리고 그 값 미만까지만 다시 쓴다.
+     */
+    private static RuntimeException splitTieGroup(Page written, boolean retried, String column, QueryTrace trace) {
+        if (retried) {
+            return new IllegalStateException("Watermark column " + column
+                    + " changed while exporting; run the job again.");
+        }
+        // 되돌린 행은 처리량에서 뺀다.
+        trace.addRows(-written.rows());
+        return new TieGroupSplit(written.lastKey());
+    }
+
+    private static IllegalStateException tieGroupTooLarge(String column, Object value) {
+        return new IllegalStateException("Rows sharing watermark " + column + " = " + value
+                + " do not fit in one run; raise limits.maxRows or limits.maxBytes.");
+    }
+
+    private static String defaultName(String fileName, String job, boolean gzip) {
+        if (StringUtils.hasText(fileName)) {
+            return fileName;
+        }
+        return job + "." + OutputFormat.CSV.extension() + (gzip ? ".gz" : "");
+    }
+
+    private static final class TieGroupSplit extends RuntimeException {
+
+        private final transient Object key;
+
+        private TieGroupSplit(Object key) {
+            super(null, null, false, false);
+            this.key = key;
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package com.subcharacter.db_to_csv_mcp.service;
+
+import org.springframework.jdbc.support.JdbcUtils;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+
+/**
+ * {@link ResultSet}을 한 행에 JSON 객체 하나인 JSON Lines로 기록한다.
+ *
+ * <p>키는 컬럼 라벨이며 처음 한 번만 이스케이프해 둔다. 정수·실수·DECIMAL·BOOLEAN은 JSON 숫자/불리언으로,
+ * 날짜/시각은 CSV와 같은 {@code yyyy-MM-dd HH:mm:ss.f} 문자열로, NULL은 {@code null}로 쓴다.
+ * JSON이 표현하지 못하는 NaN·Infinity는 문자열로 쓴다. 스레드-세이프하지 않다.
+ *
+ * @author subCharacter
+ * @since 1.0
+ * @version 1.0
+ */
+final class JsonLinesResultSetWriter extends StreamingRowWriter {
+
+    static final String RECORD_SEPARATOR = "\n";
+
+    private final Writer out;
+    private final StringBuilder row = new StringBuilder(256);
+    private String[] keyPrefixes;
+    private JsonColumn[] columns;
+
+    JsonLinesResultSetWriter(Writer out, QueryTrace trace) {
+        super(trace);
+        this.out = out;
+    }
+
+    @Override
+    protected long begin(ResultSetMetaData metaData) throws SQLException {
+        String[] labels = CsvResultSetWriter.columnLabels(metaData);
+        keyPrefixes = new String[labels.length];
+        columns = new JsonColumn[labels.length];
+        for (int i = 0; i < labels.length; i++) {
+            StringBuilder prefix = new StringBuilder(i == 0 ? "{" : ",");
+            appendString(prefix, labels[i]);
+            keyPrefixes[i] = prefix.append(':').toString();
+            columns[i] = forType(metaData.getColumnType(i + 1));
+        }
+        return 0;
+    }
+
+    @Override
+    protected long beginTokens() {
+        return 0;
+    }
+
+    @Override
+    protected void renderRow(ResultSet resultSet) throws SQLException {
+        for (int i = 0; i < columns.length; i++) {
+            row.append(keyPrefixes[i]);
+            columns[i].render(resultSet, i + 1, row);
+        }
+        row.append(columns.length == 0 ? "{}" : "}").append(RECORD_SEPARATOR);
+    }
+
+    @Override
+    protected int pendingLength() {
+        return row.length();
+    }
+
+    @Override
+    protected int pendingTokens() {
+        return TokenEstimator.estimate(row);
+    }
+
+    @Override
+    protected void discardRow() {
+        row.setLength(0);
+    }
+
+    @Override
+    protected void commitRow() throws IOException {
+        out.append(row);
+        row.setLength(0);
+    }
+
+    @Override
+    protected void end(boolean hasMore) throws IOException {
+        out.flush();
+    }
+
+    /**
+     * JSON 문자열 리터럴로 이스케이프해 덧붙인다.
+     *
+     * <p>input: a"b(개행) -> output: "a\"b\n"
+     */
+    static void appendString(StringBuilder target, CharSequence value) {
+        target.append('"');
+        for (int i = 0, length = value.length(); i < length; i++) {
+            char current = value.charAt(i);
+            switch (current) {
+                case '"' -> target.append("\\\"");
+                case '\\' -> target.append("\\\\");
+                case '\n' -> target.append("\\n");
+                case '\r' -> target.append("\\r");
+                case '\t' -> target.append("\\t");
+                default -> {
+                    if (current < 0x20) {
+                        target.append(String.format("\\u%04x", (int) current));
+                    } else {
+                        target.append(current);
+                    }
+                }
+            }
+        }
+        target.append('"');
+    }
+
+    private static void appendDouble(StringBuilder target, double value) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            target.append('"').append(value).append('"');
+        } else {
+            target.append(value);
+        }
+    }
+
+    private static JsonColumn forType(int sqlType) {
+        return switch (sqlType) {
+            case Types.TINYINT, Types.SMALLINT, Types.INTEGER -> (resultSet, column, row) -> {
+                int value = resultSet.getInt(column);
+                if (resultSet.wasNull()) {
+                    row.append("null");
+                } else {
+                    row.append(value);
+                }
+            };
+            case Types.BIGINT -> (resultSet, column, row) -> {
+                long value = resultSet.getLong(column);
+                if (resultSet.wasNull()) {
+                    row.append("null");
+                } else {
+                    row.append(value);
+                }
+            };
+            case Types.DOUBLE, Types.FLOAT, Types.REAL -> (resultSet, column, row) -> {
+                double value = resultSet.getDouble(column);
+                if (resultSet.wasNull()) {
+                    row.append("null");
+                } else {
+                    appendDouble(row, value);
+                }
+            };
+            case Types.DECIMAL, Types.NUMERIC -> (resultSet, column, row) -> {
+                BigDecimal value = resultSet.getBigDecimal(column);
+                row.append(value == null ? "null" : value.toPlainString());
+            };
+            case Types.BOOLEAN, Types.BIT -> (resultSet, column, row) -> {
+                boolean value = resultSet.getBoolean(column);
+                row.append(resultSet.wasNull() ? "null" : String.valueOf(value));
+            };
+            case Types.TIMESTAMP -> (resultSet, column, row) -> {
+                Timestamp value = resultSet.getTimestamp(column);
+                if (value == null) {
+                    row.append("null");
+                } else {
+                    appendString(row, value.toString());
+                }
+            };
+            default -> (resultSet, column, row) -> {
+                Object value = JdbcUtils.getResultSetValue(resultSet, column);
+                if (value == null) {
+                    row.append("null");
+                } else if (value instanceof BigDecimal decimal) {
+                    row.append(decimal.toPlainString());
+                } else if (value instanceof Double || value instanceof Float) {
+                    appendDouble(row, ((Number) value).doubleValue());
+                } else if (value instanceof Number || value instanceof Boolean) {
+                    row.append(value);
+                } else {
+                    appendString(row, value.toString());
+                }
+            };
+        };
+    }
+
+    @FunctionalInterface
+    private interface JsonColumn {
+
+        void render(ResultSet resultSet, int column, StringBuilder row) throws SQLException;
+    }
+}
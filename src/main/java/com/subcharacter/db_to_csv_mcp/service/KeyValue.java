@@ -0,0 +1,67 @@
+package com.subcharacter.db_to_csv_mcp.service;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+
+/**
+ * 이어받기 토큰이나 워터마크처럼 호출 사이에 문자열로 보관했다가 다시 바인딩하는 정렬 키 값.
+ *
+ * <p>타입 코드를 함께 남겨 다음 호출에서 같은 JDBC 타입으로 되돌린다.
+ *
+ * <p>input: Integer 1005 -> output: ("n", "1005") / input: Timestamp 2024-01-31 09:30:00.0 -> output:
+ * ("t", "2024-01-31 09:30:00.0")
+ *
+ * @param type 값의 타입 코드(n: 숫자, t: 타임스탬프, o: 오프셋 타임스탬프, d: 날짜, s: 문자열)
+ * @param value 값의 문자열 표현
+ * @author subCharacter
+ * @since 1.0
+ * @version 1.0
+ */
+record KeyValue(String type, String value) {
+
+    static KeyValue of(Object value) {
+        if (value instanceof Number) {
+            return new KeyValue("n", new BigDecimal(value.toString()).toPlainString());
+        }
+        if (value instanceof Timestamp timestamp) {
+            return new KeyValue("t", timestamp.toString());
+        }
+        if (value instanceof LocalDateTime dateTime) {
+            return new KeyValue("t", Timestamp.valueOf(dateTime).toString());
+        }
+        if (value instanceof OffsetDateTime dateTime) {
+            return new KeyValue("o", dateTime.toString());
+        }
+        if (value instanceof Date date) {
+            return new KeyValue("d", date.toString());
+        }
+        if (value instanceof LocalDate date) {
+            return new KeyValue("d", date.toString());
+        }
+        return new KeyValue("s", value.toString());
+    }
+
+    /**
+     * 저장한 문자열을 바인딩할 JDBC 값으로 되돌린다.
+     *
+     * @return 바인딩할 값
+     * @throws IllegalArgumentException 값이 타입 코드의 형식에 맞지 않는 경우
+     */
+    Object bindValue() {
+        try {
+            return switch (type) {
+                case "n" -> new BigDecimal(value);
+                case "t" -> Timestamp.valueOf(value);
+                case "o" -> OffsetDateTime.parse(value);
+                case "d" -> Date.valueOf(value);
+                default -> value;
+            };
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Malformed " + type + " key value: " + value, e);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.subcharacter.db_to_csv_mcp.service;
+
+import com.subcharacter.db_to_csv_mcp.service.DataSourceRegistry.DataSourceKey;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * 데이터베이스 고유의 대량 내보내기 경로(예: H2 {@code CSVWRITE}, PostgreSQL {@code COPY ... TO STDOUT}).
+ *
+ * <p>일반 경로는 JDBC로 행을 하나씩 가져와 자바에서 CSV로 렌더링한다. 방언은 데이터베이스가 결과를 직접 CSV로
+ * 쓰게 해 행 단위 가져오기와 렌더링을 건너뛴다. 구현은 스프링 빈으로 등록하며, {@link QueryFileExporter}가
+ * 데이터소스를 지원하고 요청 옵션을 그대로 표현할 수 있는 첫 방언을 고른다. 고를 방언이 없으면 일반 경로를 쓴다.
+ * 값의 문자열 표현은 데이터베이스의 변환 규칙을 따르므로 일반 경로와 다를 수 있다(예: H2 불리언 TRUE).
+ *
+ * @author subCharacter
+ * @since 1.0
+ * @version 1.0
+ */
+interface NativeExportDialect {
+
+    /**
+     * JDBC URL과 드라이버로 이 방언이 데이터소스를 처리할 수 있는지 돌려준다.
+     *
+     * <p>input: jdbc:h2:mem:demo -> output: H2 방언 true / input: jdbc:h2:tcp://db/demo -> output: false
+     *
+     * @param dataSource 데이터소스 식별 정보
+     * @return 지원하면 true
+     */
+    boolean supports(DataSourceKey dataSource);
+
+    /**
+     * 요청 옵션을 이 방언의 네이티브 출력으로 그대로 표현할 수 있는지 돌려준다.
+     *
+     * @param options 요청 옵션
+     * @return 표현할 수 있으면 true
+     */
+    boolean accepts(Options options);
+
+    /**
+     * 검증을 마친 읽기 전용 SQL의 결과를 헤더를 포함한 CSV로 target 파일에 쓴다.
+     *
+     * @param dataSource 실행 대상 데이터소스
+     * @param sql 검증을 마친 읽기 전용 SQL
+     * @param target 쓸 파일(내보내기 디렉터리 안에 미리 만든 빈 임시 파일, 덮어써야 한다)
+     * @param trace 단계별 시간을 기록할 추적
+     * @return 기록한 데이터 행 수
+     * @throws IOException 파일 쓰기에 실패한 경우
+     */
+    long exportTo(DataSource dataSource, String sql, Path target, QueryTrace trace) throws IOException;
+
+    /**
+     * 네이티브 경로를 쓸 수 있는지 판단하는 데 필요한 요청 옵션.
+     *
+     * @param format 출력 형식
+     * @param quoteHeaders 헤더를 큰따옴표로 감쌀지 여부
+     * @param valueQuoteMode 본문 값 따옴표 모드
+     * @param gzip gzip 압축 여부
+     * @param partitioned 파티션 병렬 조회 여부
+     * @param parameterized 바인딩할 값이 있는지 여부
+     * @param limits 적용할 상한
+     */
+    record Options(
+            OutputFormat format,
+            boolean quoteHeaders,
+            ValueQuoteMode valueQuoteMode,
+            boolean gzip,
+            boolean partitioned,
+            boolean parameterized,
+            QueryLimits limits
+    ) {
+        /**
+         * 어느 방언도 흉내 낼 수 없는 옵션(형식 변환, 압축, 분할, 바인딩, 행/크기 상한)이 없는지 돌려준다.
+         *
+         * @return 공통 조건을 만족하면 true
+         */
+        boolean plainCsv() {
+            return format == OutputFormat.CSV && !gzip && !partitioned && !parameterized
+                    && limits.rowCap() == Long.MAX_VALUE && limits.byteCap() == Long.MAX_VALUE;
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.subcharacter.db_to_csv_mcp.service;
+
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Locale;
+
+/**
+ * 요청별로 고를 수 있는 결과 출력 형식과 형식별 {@link ResultSetWriter} 생성 규칙.
+ *
+ * <p>텍스트 형식은 응답 문자열과 파일 모두에 그대로 쓴다. 바이너리 형식은 파일에는 원본 바이트로,
+ * 응답 문자열에는 Base64로 감싸 쓴다. 따옴표 모드와 헤더 따옴표 옵션은 CSV에만 적용된다.
+ *
+ * @author subCharacter
+ * @since 1.0
+ * @version 1.0
+ */
+enum OutputFormat {
+    CSV("csv", false),
+    TSV("tsv", false),
+    JSONL("jsonl", false),
+    COLUMNAR("dbcol", true);
+
+    private static final int BASE64_LENGTH_PERCENT = 134;
+
+    private final String extension;
+    private final boolean binary;
+
+    OutputFormat(String extension, boolean binary) {
+        this.extension = extension;
+        this.binary = binary;
+    }
+
+    String extension() {
+        return extension;
+    }
+
+    boolean binary() {
+        return binary;
+    }
+
+    /**
+     * 형식 이름을 해석한다. 대소문자를 구분하지 않으며 비어 있으면 CSV다.
+     *
+     * <p>input: "jsonl" -> output: JSONL / input: null -> output: CSV
+     *
+     * @param name 형식 이름(csv, tsv, jsonl, columnar)
+     * @return 출력 형식
+     * @throws IllegalArgumentException 알 수 없는 이름인 경우
+     */
+    static OutputFormat fromName(String name) {
+        if (!StringUtils.hasText(name)) {
+            return CSV;
+        }
+        try {
+            return valueOf(name.strip().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(
+                    "Unknown output format: " + name + "; expected csv, tsv, jsonl or columnar.");
+        }
+    }
+
+    /**
+     * 문자 출력에 쓰는 writer를 만든다. 바이너리 형식은 Base64 텍스트로 기록하고, 토큰 예산은 Base64 길이로 어림한다.
+     *
+     * @param out 출력 대상
+     * @param quoteHeaders 헤더를 큰따옴표로 감쌀지 여부(CSV만)
+     * @param valueQuoteMode 본문 값 따옴표 모드(CSV만)
+     * @param trace 단계별 시간과 처리량, 상한을 담은 추적
+     * @return 형식별 writer
+     */
+    ResultSetWriter writer(Writer out, boolean quoteHeaders, ValueQuoteMode valueQuoteMode, QueryTrace trace) {
+        return switch (this) {
+            case CSV -> new CsvResultSetWriter(out, quoteHeaders, valueQuoteMode, trace);
+            case TSV -> CsvResultSetWriter.tabSeparated(out, trace);
+            case JSONL -> new JsonLinesResultSetWriter(out, trace);
+            case COLUMNAR -> new ColumnarResultSetWriter(
+                    Base64.getEncoder().wrap(new WriterOutputStream(out)), trace, true, BASE64_LENGTH_PERCENT, true);
+        };
+    }
+
+    /**
+     * 바이트 출력에 쓰는 writer를 만든다. 텍스트 형식은 UTF-8로 인코딩한다.
+     *
+     * @param out 출력 대상(닫지 않는다)
+     * @param quoteHeaders 헤더를 큰따옴표로 감쌀지 여부(CSV만)
+     * @param valueQuoteMode 본문 값 따옴표 모드(CSV만)
+     * @param trace 단계별 시간과 처리량, 상한을 담은 추적
+     * @return 형식별 writer
+     */
+    ResultSetWriter writer(OutputStream out, boolean quoteHeaders, ValueQuoteMode valueQuoteMode, QueryTrace trace) {
+        if (binary) {
+            return new ColumnarResultSetWriter(out, trace, false, 100, false);
+        }
+        return writer(new OutputStreamWriter(out, StandardCharsets.UTF_8), quoteHeaders, valueQuoteMode, trace);
+    }
+
+    /**
+     * 상한에 닿아 잘린 응답 끝에 붙일 표시를 만든다. 바이너리 형식은 맺음말에 남은 행 여부를 담으므로 붙이지 않는다.
+     *
+     * <p>input: JSONL, 1000 -> output: {"#truncated":"stopped after 1000 rows ..."}
+     *
+     * @param rows 잘리기 전까지 기록한 행 수
+     * @return 레코드 구분자를 포함한 표시(바이너리면 빈 문자열)
+     */
+    String truncatedMarker(long rows) {
+        String message = "stopped after " + rows + " rows at the row/size/token limit; narrow the query "
+                + "or use executeQueryPage/exportQuery for the rest.";
+        return switch (this) {
+            case CSV -> QueryService.TRUNCATED_MARKER + ": " + message + CsvResultSetWriter.RECORD_SEPARATOR;
+            case TSV -> QueryService.TRUNCATED_MARKER + ": " + message + CsvResultSetWriter.TSV_RECORD_SEPARATOR;
+            case JSONL -> "{\"" + QueryService.TRUNCATED_MARKER + "\":\"" + message + "\"}"
+                    + JsonLinesResultSetWriter.RECORD_SEPARATOR;
+            case COLUMNAR -> "";
+        };
+    }
+
+    /**
+     * ASCII만 쓰는 Base64 인코더 출력을 문자 출력으로 넘긴다. 닫아도 대상 writer는 닫지 않는다.
+     */
+    private static final class WriterOutputStream extends OutputStream {
+
+        private final Writer out;
+
+        private WriterOutputStream(Writer out) {
+            this.out = out;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write((char) (b & 0xFF));
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            char[] chars = new char[length];
+            for (int i = 0; i < length; i++) {
+                chars[i] = (char) (bytes[offset + i] & 0xFF);
+            }
+            out.write(chars);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.flush();
+        }
+    }
+}
@@ -0,0 +1,332 @@
+package com.subcharacter.db_to_csv_mcp.service;
+
+import com.subcharacter.db_to_csv_mcp.config.PagingProperties;
+import com.subcharacter.db_to_csv_mcp.service.DataSourceRegistry.DataSourceHandle;
+import com.subcharacter.db_to_csv_mcp.service.DataSourceCallLimiter.Lease;
+import com.subcharacter.db_to_csv_mcp.service.DataSourceRegistry.DataSourceKey;
+import com.subcharacter.db_to_csv_mcp.service.QueryService.PageResult;
+import com.subcharacter.db_to_csv_mcp.service.ReadOnlyQueryExecutor.OpenCursor;
+import com.subcharacter.db_to_csv_mcp.service.StreamingRowWriter.Page;
+import jakarta.annotation.PreDestroy;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Pattern;
+
+/**
+ * 쿼리 결과를 고정 크기 페이지로 나눠 돌려주고, 다음 페이지를 위한 불투명한 이어받기 토큰을 발급한다.
+ *
+ * <p>정렬 키를 지정하면 키셋 방식으로 {@code 키 > 마지막 값} 조건을 붙여 다시 조회하므로 서버에 상태를 남기지 않는다.
+ * 지정하지 않으면 서버 측 커서를 열어 둔 채 이어 읽는다. 어느 쪽이든 OFFSET처럼 앞 페이지를 다시 읽지 않아
+ * 페이지 비용이 깊이와 무관하다. 열린 커서는 개수와 유휴 시간이 제한되고, 닫힐 때까지 데이터소스의 동시 실행 순서
+ * 하나를 점유하므로 풀 커넥션을 다른 호출과 나눠 쓴다. 토큰은 발급 시의 SQL·바인드 값·정렬 키·데이터소스에 묶여 있어
+ * 다른 쿼리나 다른 사용자에게 재사용할 수 없다. 스레드-세이프하다.
+ *
+ * @author subCharacter
+ * @since 1.0
+ * @version 1.0
+ */
+@Component
+class PagedQueryRunner {
+
+    private static final Pattern IDENTIFIER = Pattern.compile("[A-Za-z_][A-Za-z0-9_]*");
+    private static final String TOKEN_VERSION = "p1";
+    private static final String CURSOR = "cursor";
+    private static final String KEYSET = "keyset";
+
+    private final ReadOnlyQueryExecutor queryExecutor;
+    private final DataSourceCallLimiter callLimiter;
+    private final PagingProperties properties;
+    private final Map<String, CursorEntry> cursors = new HashMap<>();
+
+    PagedQueryRunner(ReadOnlyQueryExecutor queryExecutor, DataSourceCallLimiter callLimiter,
+                     PagingProperties properties) {
+        this.queryExecutor = queryExecutor;
+        this.callLimiter = callLimiter;
+        this.properties = properties;
+    }
+
+    /**
+     * 한 페이지를 CSV로 만들어 돌려준다. 각 페이지는 헤더를 포함한 독립된 CSV다.
+     *
+     * <p>키셋 페이지는 호출마다 실행 순서를 얻고, 커서는 열 때 얻은 실행 순서를 닫을 때까지 붙잡으므로 이어 읽는
+     * 호출은 따로 기다리지 않는다.
+     *
+     * @param dataSource 실행 대상 데이터소스
+     * @param sql 검증을 마친 읽기 전용 SQL
+     * @param parameters sql의 자리표시자에 바인딩할 값
+     * @param quoteHeaders 헤더를 큰따옴표로 감쌀지 여부
+     * @param valueQuoteMode 본문 값 따옴표 모드
+     * @param pageSize 페이지 행 수(널이면 기본값, 최대값으로 제한)
+     * @param orderKey 키셋 페이지에 쓸 유일하고 NULL이 없는 정렬 컬럼(비우면 서버 측 커서 사용)
+     * @param continuationToken 이전 페이지가 돌려준 토큰(첫 페이지는 null)
+     * @param trace 단계별 시간과 처리량을 기록할 추적
+     * @return 페이지 CSV, 행 수, 남은 행 여부, 다음 토큰
+     * @throws IllegalArgumentException 토큰이 올바르지 않거나 만료되었거나 다른 쿼리의 것인 경우
+     * @throws IllegalStateException 열린 커서 수가 한도에 도달했거나 실행 순서를 얻지 못한 경우
+     */
+    PageResult page(DataSourceHandle dataSource, String sql, List<Object> parameters, boolean quoteHeaders,
+                    ValueQuoteMode valueQuoteMode, Integer pageSize, String orderKey, String continuationToken,
+                    QueryTrace trace) {
+        int size = pageSize == null || pageSize <= 0
+                ? properties.defaultPageSize()
+                : Math.min(pageSize, properties.maxPageSize());
+        String column = StringUtils.hasText(orderKey) ? orderKey.strip() : null;
+        if (column != null && !IDENTIFIER.matcher(column).matches()) {
+            throw new IllegalArgumentException("Order key must be a plain column name: " + orderKey);
+        }
+        String fingerprint = QueryFingerprint.of(dataSource.key(), sql, parameters, column);
+        Token token = StringUtils.hasText(continuationToken) ? Token.decode(continuationToken.strip()) : null;
+        if (token != null && !token.fingerprint().equals(fingerprint)) {
+            throw new IllegalArgumentException("Continuation token belongs to a different query.");
+        }
+        StringWriter out = new StringWriter();
+        CsvResultSetWriter writer = new CsvResultSetWriter(out, quoteHeaders, valueQuoteMode, trace);
+        String next = column != null
+                ? callLimiter.run(dataSource.key(), trace, () ->
+                        keysetPage(dataSource, sql, parameters, column, size, token, fingerprint, writer, trace))
+                : cursorPage(dataSource, sql, parameters, size, token, fingerprint, writer, trace);
+        String csv = out.toString();
+        trace.addBytes(csv.length());
+        return new PageResult(csv, trace.rows(), next != null, next);
+    }
+
+    /**
+     * 유휴 시간을 넘긴 커서를 닫아 커넥션을 풀에 돌려준다.
+     */
+    @Scheduled(fixedDelayString = "${db-to-csv.paging.sweep-interval:PT30S}")
+    public void closeIdleCursors() {
+        long now = System.nanoTime();
+        long idleNanos = properties.cursorIdleTimeout().toNanos();
+        List<CursorEntry> expired = new ArrayList<>();
+        synchronized (cursors) {
+            Iterator<CursorEntry> iterator = cursors.values().iterator();
+            while (iterator.hasNext()) {
+                CursorEntry entry = iterator.next();
+                if (now - entry.lastUsedNanos >= idleNanos && entry.lock.tryLock()) {
+                    iterator.remove();
+                    expired.add(entry);
+                }
+            }
+        }
+        expired.forEach(CursorEntry::close);
+    }
+
+    int openCursors() {
+        synchronized (cursors) {
+            return cursors.size();
+        }
+    }
+
+    @PreDestroy
+    void closeAll() {
+        List<CursorEntry> open;
+        synchronized (cursors) {
+            open = new ArrayList<>(cursors.values());
+            cursors.clear();
+        }
+        open.forEach(CursorEntry::close);
+    }
+
+    private String keysetPage(DataSourceHandle dataSource, String sql, List<Object> parameters, String column,
+                              int size, Token token, String fingerprint, CsvResultSetWriter writer,
+                              QueryTrace trace) {
+        if (token != null && !KEYSET.equals(token.kind())) {
+            throw new IllegalArgumentException("Continuation token was not issued for keyset paging.");
+        }
+        Object after = token == null ? null : token.keyValue();
+        String pageSql = "SELECT * FROM " + SqlText.derivedTable(sql, "src_page")
+                + (after == null ? "" : " WHERE " + column + " > ?")
+                + " ORDER BY " + column;
+        List<Object> pageParameters = new ArrayList<>(parameters);
+        if (after != null) {
+            pageParameters.add(after);
+        }
+        // 다음 페이지가 있는지 알기 위해 한 행을 더 가져온다.
+        Page page = queryExecutor.query(dataSource.dataSource(), pageSql, pageParameters, size + 1, trace,
+                resultSet -> writer.writePage(resultSet, false, size, resultSet.findColumn(column)));
+        if (!page.hasMore()) {
+            return null;
+        }
+        if (page.lastKey() == null) {
+            throw new IllegalStateException("Order key " + column + " contains NULL; keyset paging needs a non-null unique key.");
+        }
+        return Token.keyset(fingerprint, page.lastKey()).encode();
+    }
+
+    private String cursorPage(DataSourceHandle dataSource, String sql, List<Object> parameters, int size,
+                              Token token, String fingerprint, CsvResultSetWriter writer, QueryTrace trace) {
+        CursorEntry entry;
+        boolean onRow;
+        if (token == null) {
+            entry = openCursor(dataSource, sql, parameters, trace);
+            onRow = false;
+        } else {
+            if (!CURSOR.equals(token.kind())) {
+                throw new IllegalArgumentException("Continuation token was not issued for cursor paging.");
+            }
+            entry = checkOut(token.value());
+            onRow = true;
+        }
+        try {
+            Page page = entry.cursor.read(trace, resultSet -> writer.writePage(resultSet, onRow, size, 0));
+            if (!page.hasMore()) {
+                release(entry, true);
+                return null;
+            }
+            release(entry, false);
+            return Token.cursor(fingerprint, entry.id).encode();
+        } catch (RuntimeException e) {
+            release(entry, true);
+            throw e;
+        }
+    }
+
+    private CursorEntry openCursor(DataSourceHandle dataSource, String sql, List<Object> parameters,
+                                   QueryTrace trace) {
+        String id = UUID.randomUUID().toString();
+        CursorEntry entry = new CursorEntry(id, dataSource.key());
+        synchronized (cursors) {
+            if (cursors.size() >= properties.maxOpenCursors()) {
+                throw new IllegalStateException("Too many open paging cursors; finish or abandon existing pages, "
+                        + "or pass orderKey to page without a server-side cursor.");
+            }
+            long sameSource = cursors.values().stream().filter(open -> open.dataSource.equals(dataSource.key())).count();
+            if (sameSource >= properties.maxOpenCursorsPerDatasource()) {
+                throw new IllegalStateException("Too many open paging cursors for " + dataSource.key().identity()
+                        + "; finish existing pages or pass orderKey.");
+            }
+            entry.lock.lock();
+            cursors.put(id, entry);
+        }
+        try {
+            entry.lease = callLimiter.acquire(dataSource.key(), trace);
+            entry.cursor = queryExecutor.open(dataSource.dataSource(), sql, parameters, trace);
+            return entry;
+        } catch (RuntimeException e) {
+            synchronized (cursors) {
+                cursors.remove(id);
+            }
+            entry.close();
+            throw e;
+        }
+    }
+
+    private CursorEntry checkOut(String id) {
+        CursorEntry entry;
+        synchronized (cursors) {
+            entry = cursors.get(id);
+        }
+        if (entry == null) {
+            throw new IllegalArgumentException(
+                    "Continuation token has expired or is unknown; run the query again without a token.");
+        }
+        if (!entry.lock.tryLock()) {
+            throw new IllegalStateException("This continuation token is already being read by another call.");
+        }
+        return entry;
+    }
+
+    private void release(CursorEntry entry, boolean close) {
+        if (close) {
+            synchronized (cursors) {
+                cursors.remove(entry.id);
+            }
+            entry.closeCursor();
+        } else {
+            entry.lastUsedNanos = System.nanoTime();
+        }
+        entry.lock.unlock();
+    }
+
+    private static final class CursorEntry {
+
+        private final String id;
+        private final DataSourceKey dataSource;
+        private final ReentrantLock lock = new ReentrantLock();
+        private volatile Lease lease;
+        private volatile OpenCursor cursor;
+        private volatile long lastUsedNanos = System.nanoTime();
+
+        private CursorEntry(String id, DataSourceKey dataSource) {
+            this.id = id;
+            this.dataSource = dataSource;
+        }
+
+        private void closeCursor() {
+            try {
+                if (cursor != null) {
+                    cursor.close();
+                }
+            } finally {
+                if (lease != null) {
+                    lease.release();
+                }
+            }
+        }
+
+        private void close() {
+            closeCursor();
+            if (lock.isHeldByCurrentThread()) {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * 이어받기 토큰의 내용. Base64URL로 인코딩해 불투명한 문자열로 내보낸다.
+     *
+     * <p>input: keyset, 지문 "ab12", 키 1005 -> output: "cDEKa2V5c2V0CmFiMTIKbgoxMDA1" 형태의 토큰
+     *
+     * @param kind cursor 또는 keyset
+     * @param fingerprint 데이터소스·SQL·바인드 값·정렬 키의 지문
+     * @param type 키 값의 타입 코드({@link KeyValue}와 같음, 커서는 빈 문자열)
+     * @param value 커서 ID 또는 마지막 키 값
+     */
+    private record Token(String kind, String fingerprint, String type, String value) {
+
+        static Token cursor(String fingerprint, String id) {
+            return new Token(CURSOR, fingerprint, "", id);
+        }
+
+        static Token keyset(String fingerprint, Object lastKey) {
+            KeyValue key = KeyValue.of(lastKey);
+            return new Token(KEYSET, fingerprint, key.type(), key.value());
+        }
+
+        Object keyValue() {
+            return new KeyValue(type, value).bindValue();
+        }
+
+        String encode() {
+            String raw = String.join("\n", TOKEN_VERSION, kind, fingerprint, type, value);
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+
+        static Token decode(String token) {
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+                String[] parts = raw.split("\n", 5);
+                if (parts.length != 5 || !TOKEN_VERSION.equals(parts[0])) {
+                    throw new IllegalArgumentException("Malformed continuation token.");
+                }
+                Token decoded = new Token(parts[1], parts[2], parts[3], parts[4]);
+                decoded.keyValue();
+                return decoded;
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Malformed continuation token.", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,437 @@
+package com.subcharacter.db_to_csv_mcp.service;
+
+import com.subcharacter.db_to_csv_mcp.config.DataSourcePoolProperties;
+import com.subcharacter.db_to_csv_mcp.config.ExportProperties;
+import com.subcharacter.db_to_csv_mcp.config.PartitionProperties;
+import com.subcharacter.db_to_csv_mcp.service.DataSourceCallLimiter.Lease;
+import com.subcharacter.db_to_csv_mcp.service.DataSourceRegistry.DataSourceHandle;
+import com.subcharacter.db_to_csv_mcp.service.QueryService.PartitionOptions;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+/**
+ * 검증된 SELECT를 파티션 컬럼의 범위로 나눠 여러 커넥션에서 동시에 읽고, 파티션 순서대로 하나의 CSV로 합친다.
+ *
+ * <p>MIN/MAX로 경계를 구한 뒤 {@code SELECT * FROM (원본) WHERE 컬럼 >= ? AND 컬럼 < ?} 형태의 범위 쿼리를
+ * 공유 작업 스레드에서 실행한다. 각 파티션은 내보내기 디렉터리의 임시 파일로 렌더링되므로 힙 사용량은 파티션 수와 무관하다.
+ * 결과의 전체 순서는 파티션 순서만 보장되며, 파티션 컬럼이 NULL인 행은 첫 파티션에 포함된다. 스레드-세이프하다.
+ *
+ * <p>행/크기/토큰 상한은 파티션마다가 아니라 합친 결과 전체에 한 번 적용한다. 파티션 순서대로 이어 붙이다 상한을 넘는
+ * 행에서 멈추므로, 잘린 결과는 항상 앞 파티션부터 빈틈없이 이어진 행이다. 한 파티션이 상한 때문에 중간에 멈췄다면 그
+ * 파티션 뒤로는 이어 붙이지 않는다.
+ *
+ * <p>input: id 1~8, 파티션 4개, maxRows=3 -> output: 헤더, 1, 2, 3행(잘림 표시)
+ *
+ * @author subCharacter
+ * @since 1.0
+ * @version 1.0
+ */
+@Component
+class PartitionedQueryRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(PartitionedQueryRunner.class);
+    private static final Pattern IDENTIFIER = Pattern.compile("[A-Za-z_][A-Za-z0-9_]*");
+
+    private final ReadOnlyQueryExecutor queryExecutor;
+    private final DataSourceCallLimiter callLimiter;
+    private final ExportProperties exportProperties;
+    private final int maxParallelism;
+    private final ExecutorService workers;
+
+    PartitionedQueryRunner(ReadOnlyQueryExecutor queryExecutor,
+                           DataSourceCallLimiter callLimiter,
+                           ExportProperties exportProperties,
+                           PartitionProperties partitionProperties,
+                           DataSourcePoolProperties poolProperties) {
+        this.queryExecutor = queryExecutor;
+        this.callLimiter = callLimiter;
+        this.exportProperties = exportProperties;
+        this.maxParallelism = Math.max(1, Math.min(partitionProperties.maxParallelism(), poolProperties.maxPoolSize()));
+        AtomicInteger sequence = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(Math.max(1, partitionProperties.workerThreads()), runnable -> {
+            Thread thread = new Thread(runnable, "db-to-csv-partition-" + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * 파티션별로 병렬 실행한 결과를 헤더 한 줄과 함께 파티션 순서대로 out에 기록한다.
+     *
+     * <p>결과가 비어 있으면 아무것도 쓰지 않는다. 파티션 컬럼에 값이 없으면 원본 쿼리를 그대로 실행한다.
+     * 호출자가 가진 데이터소스 실행 순서 하나에 더해, 기다리지 않고 얻을 수 있는 만큼만 순서를 더 얻어 파티션 수로 쓴다.
+     * 따라서 동시에 쓰는 커넥션 수는 데이터소스별 동시 실행 한도를 넘지 않고, 한도가 차 있으면 파티션 하나로 읽는다.
+     *
+     * <p>input: 병렬도 4, 한도 4 중 다른 호출이 2개 사용 -> output: 파티션 2개(호출의 순서 + 추가 1개)
+     *
+     * @param dataSource 실행 대상 데이터소스(호출자가 실행 순서 하나를 가진 상태)
+     * @param sql 검증을 마친 읽기 전용 SQL
+     * @param parameters 원본 SQL의 자리표시자에 순서대로 바인딩할 값(널 허용 원소)
+     * @param partition 파티션 컬럼과 병렬도
+     * @param quoteHeaders 헤더를 큰따옴표로 감쌀지 여부
+     * @param valueQuoteMode 본문 값 따옴표 모드
+     * @param trace 단계별 시간과 처리량을 기록할 추적
+     * @param out 합친 CSV를 기록할 대상
+     * @return 기록한 데이터 행 수
+     * @throws IllegalArgumentException 파티션 컬럼 이름이 올바르지 않거나 숫자/날짜 타입이 아닌 경우
+     * @throws IOException 출력 쓰기에 실패한 경우
+     */
+    long write(DataSourceHandle dataSource, String sql, List<?> parameters, PartitionOptions partition,
+               boolean quoteHeaders, ValueQuoteMode valueQuoteMode, QueryTrace trace, Writer out) throws IOException {
+        String column = partition.column() == null ? "" : partition.column().strip();
+        if (!IDENTIFIER.matcher(column).matches()) {
+            throw new IllegalArgumentException("Partition column must be a plain column name: " + partition.column());
+        }
+        int requested = Math.max(1, Math.min(partition.parallelismOrDefault(), maxParallelism));
+        List<Lease> extra = callLimiter.tryAcquire(dataSource.key(), requested - 1);
+        try {
+            return write(dataSource.dataSource(), sql, parameters, column, 1 + extra.size(), quoteHeaders,
+                    valueQuoteMode, trace, out);
+        } finally {
+            extra.forEach(Lease::release);
+        }
+    }
+
+    private long write(DataSource dataSource, String sql, List<?> parameters, String column, int parallelism,
+                       boolean quoteHeaders, ValueQuoteMode valueQuoteMode, QueryTrace trace, Writer out)
+            throws IOException {
+        List<Object> boundaries = planBoundaries(dataSource, sql, parameters, column, parallelism, trace);
+        if (boundaries.isEmpty()) {
+            return queryExecutor.query(dataSource, sql, parameters, trace,
+                    new CsvResultSetWriter(out, quoteHeaders, valueQuoteMode, trace)::write);
+        }
+
+        List<PartitionTask> tasks = new ArrayList<>();
+        List<Future<Chunk>> futures = new ArrayList<>();
+        try {
+            int partitions = boundaries.size() - 1;
+            for (int i = 0; i < partitions; i++) {
+                String partitionSql = partitionSql(sql, column, i == 0, i == partitions - 1);
+                // 원본 SQL의 자리표시자가 범위 조건보다 앞에 오므로 원본 값 뒤에 경계를 붙인다.
+                List<Object> partitionParameters = new ArrayList<>(parameters);
+                partitionParameters.add(boundaries.get(i));
+                partitionParameters.add(boundaries.get(i + 1));
+                PartitionTask task = new PartitionTask(
+                        dataSource, partitionSql, partitionParameters, quoteHeaders, valueQuoteMode, trace);
+                tasks.add(task);
+                futures.add(workers.submit(task));
+            }
+            List<Chunk> chunks = new ArrayList<>(futures.size());
+            for (Future<Chunk> future : futures) {
+                chunks.add(await(future));
+            }
+            return merge(chunks, trace, out);
+        } finally {
+            futures.forEach(future -> future.cancel(false));
+            for (PartitionTask task : tasks) {
+                task.discard();
+            }
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        workers.shutdownNow();
+    }
+
+    /**
+     * 파티션 경계를 계산한다. 경계가 n+1개이면 파티션은 n개다.
+     *
+     * <p>input: MIN=1, MAX=100, parallelism=4 -> output: [1, 25.75, 50.5, 75.25, 100]
+     *
+     * @return 오름차순 경계 목록(파티션 컬럼에 값이 없으면 빈 목록)
+     */
+    private List<Object> planBoundaries(DataSource dataSource, String sql, List<?> parameters, String column,
+                                        int parallelism, QueryTrace trace) {
+        String boundsSql = "SELECT MIN(" + column + "), MAX(" + column + ") FROM "
+                + SqlText.derivedTable(sql, "src_bounds");
+        Object[] bounds = queryExecutor.query(dataSource, boundsSql, parameters, trace, resultSet -> {
+            resultSet.next();
+            return new Object[]{resultSet.getObject(1), resultSet.getObject(2)};
+        });
+        Object min = bounds[0];
+        Object max = bounds[1];
+        if (min == null || max == null) {
+            return List.of();
+        }
+        List<Object> boundaries = new ArrayList<>(parallelism + 1);
+        if (min instanceof Number && max instanceof Number) {
+            BigDecimal low = new BigDecimal(min.toString());
+            BigDecimal high = new BigDecimal(max.toString());
+            int partitions = low.compareTo(high) == 0 ? 1 : parallelism;
+            BigDecimal step = high.subtract(low).divide(BigDecimal.valueOf(partitions), MathContext.DECIMAL64);
+            boundaries.add(low);
+            for (int i = 1; i < partitions; i++) {
+                boundaries.add(low.add(step.multiply(BigDecimal.valueOf(i))));
+            }
+            boundaries.add(high);
+            return boundaries;
+        }
+        Timestamp low = toTimestamp(min);
+        Timestamp high = toTimestamp(max);
+        long span = high.getTime() - low.getTime();
+        int partitions = span <= 0 ? 1 : (int) Math.min(parallelism, span);
+        boundaries.add(low);
+        for (int i = 1; i < partitions; i++) {
+            boundaries.add(new Timestamp(low.getTime() + span * i / partitions));
+        }
+        boundaries.add(high);
+        return boundaries;
+    }
+
+    private static Timestamp toTimestamp(Object value) {
+        if (value instanceof Timestamp timestamp) {
+            return timestamp;
+        }
+        if (value instanceof java.util.Date date) {
+            return new Timestamp(date.getTime());
+        }
+        if (value instanceof LocalDateTime dateTime) {
+            return Timestamp.valueOf(dateTime);
+        }
+        if (value instanceof LocalDate date) {
+            return Timestamp.valueOf(date.atStartOfDay());
+        }
+        throw new IllegalArgumentException(
+                "Partition column must be numeric or date/time, but was " + value.getClass().getSimpleName() + ".");
+    }
+
+    private static String partitionSql(String sql, String column, boolean first, boolean last) {
+        String range = column + " >= ? AND " + column + (last ? " <= ?" : " < ?");
+        String predicate = first ? "(" + range + ") OR " + column + " IS NULL" : range;
+        return "SELECT * FROM " + SqlText.derivedTable(sql, "src_part") + " WHERE " + predicate;
+    }
+
+    private Chunk renderChunk(DataSource dataSource, String sql, List<Object> parameters, boolean quoteHeaders,
+                              ValueQuoteMode valueQuoteMode, QueryTrace trace) throws IOException {
+        Path directory = exportProperties.directory().toAbsolutePath().normalize();
+        Files.createDirectories(directory);
+        Path file = Files.createTempFile(directory, "partition-", ".part");
+        try (Writer writer = new BufferedWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8),
+                Math.max(8192, exportProperties.bufferSize()))) {
+            CsvResultSetWriter csvWriter = CsvResultSetWriter.rowsOnly(writer, valueQuoteMode, trace);
+            return queryExecutor.query(dataSource, sql, parameters, trace, resultSet -> {
+                String header = CsvResultSetWriter.headerLine(resultSet.getMetaData(), quoteHeaders);
+                long rows = csvWriter.write(resultSet);
+                return new Chunk(file, header, rows, csvWriter.truncated());
+            });
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+    }
+
+    /**
+     * 파티션 조각을 순서대로 이어 붙이며 행/크기/토큰 상한을 합친 결과 전체에 적용한다.
+     *
+     * <p>상한이 없으면 조각 파일을 그대로 복사한다. 상한이 있으면 레코드 단위로 옮기며 {@link StreamingRowWriter}와 같이
+     * 넘는 행 직전에서 멈추고, 첫 행은 예산과 무관하게 기록한다. 옮기지 않은 행은 추적의 행 수에서 뺀다.
+     *
+     * <p>input: 조각 [1, 2], [3, 4], maxRows=3 -> output: 헤더, 1, 2, 3 (잘림)
+     */
+    private static long merge(List<Chunk> chunks, QueryTrace trace, Writer out) throws IOException {
+        long rendered = chunks.stream().mapToLong(Chunk::rows).sum();
+        if (rendered == 0) {
+            return 0;
+        }
+        QueryLimits limits = trace.limits();
+        long rowCap = limits.rowCap();
+        long byteCap = limits.byteCap();
+        long tokenCap = limits.tokenCap();
+        boolean countTokens = tokenCap != Long.MAX_VALUE;
+        boolean capped = rowCap != Long.MAX_VALUE || byteCap != Long.MAX_VALUE || countTokens;
+
+        String header = chunks.get(0).header();
+        out.write(header);
+        long rows = 0;
+        long written = header.length();
+        long tokens = countTokens ? TokenEstimator.estimate(header) : 0;
+        boolean truncated = false;
+        StringBuilder record = new StringBuilder();
+        for (Chunk chunk : chunks) {
+            try (Reader reader = Files.newBufferedReader(chunk.file(), StandardCharsets.UTF_8)) {
+                if (!capped) {
+                    reader.transferTo(out);
+                    rows += chunk.rows();
+                    continue;
+                }
+                while (readRecord(reader, record)) {
+                    long recordTokens = countTokens ? TokenEstimator.estimate(record) : 0;
+                    if (rows > 0 && (rows >= rowCap || written + record.length() > byteCap
+                            || tokens + recordTokens > tokenCap)) {
+                        truncated = true;
+                        break;
+                    }
+                    out.append(record);
+                    rows++;
+                    written += record.length();
+                    tokens += recordTokens;
+                }
+            }
+            // 상한 때문에 중간에 멈춘 파티션 뒤를 이어 붙이면 결과 가운데에 빈틈이 생긴다.
+            if (truncated || chunk.truncated()) {
+                truncated = true;
+                break;
+            }
+        }
+        out.flush();
+        if (truncated) {
+            trace.markTruncated();
+        }
+        trace.addRows(rows - rendered);
+        return rows;
+    }
+
+    /**
+     * 조각 파일에서 레코드 하나(레코드 구분자 포함)를 읽는다. 개행이 든 값은 항상 큰따옴표로 감싸므로 따옴표 밖의
+     * 줄바꿈이 레코드 끝이다.
+     *
+     * @return 레코드를 읽었으면 true, 파일 끝이면 false
+     */
+    private static boolean readRecord(Reader reader, StringBuilder record) throws IOException {
+        record.setLength(0);
+        boolean quoted = false;
+        int current;
+        while ((current = reader.read()) >= 0) {
+            record.append((char) current);
+            if (current == '"') {
+                quoted = !quoted;
+            } else if (current == '\n' && !quoted) {
+                return true;
+            }
+        }
+        return !record.isEmpty();
+    }
+
+    private static Chunk await(Future<Chunk> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Partitioned query was interrupted.", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (cause instanceof IOException io) {
+                throw io;
+            }
+            throw new IllegalStateException("Partitioned query failed.", cause);
+        }
+    }
+
+    private record Chunk(Path file, String header, long rows, boolean truncated) {
+    }
+
+    /**
+     * 파티션 하나를 조각 파일로 렌더링하는 작업. 호출이 끝날 때 {@link #discard()}로 조각 파일을 지운다.
+     *
+     * <p>실행 중인 작업을 버리면 그 작업이 끝날 때까지 기다린다. 작업 스레드가 커넥션을 쥔 채 호출이 먼저 끝나
+     * 데이터소스 동시 호출 한도를 넘지 않게 하고, 늦게 끝난 작업의 조각 파일이 남지 않게 하기 위함이다.
+     * 기다리는 중에 인터럽트되면 작업이 끝날 때 스스로 조각 파일을 지운다.
+     */
+    private final class PartitionTask implements Callable<Chunk> {
+
+        private final DataSource dataSource;
+        private final String sql;
+        private final List<Object> parameters;
+        private final boolean quoteHeaders;
+        private final ValueQuoteMode valueQuoteMode;
+        private final QueryTrace trace;
+        // 아래 상태는 this로 동기화한다.
+        private boolean running;
+        private boolean discarded;
+        private Chunk chunk;
+
+        private PartitionTask(DataSource dataSource, String sql, List<Object> parameters, boolean quoteHeaders,
+                              ValueQuoteMode valueQuoteMode, QueryTrace trace) {
+            this.dataSource = dataSource;
+            this.sql = sql;
+            this.parameters = parameters;
+            this.quoteHeaders = quoteHeaders;
+            this.valueQuoteMode = valueQuoteMode;
+            this.trace = trace;
+        }
+
+        @Override
+        public Chunk call() throws IOException {
+            synchronized (this) {
+                if (discarded) {
+                    throw new IllegalStateException("Partition was discarded before it started.");
+                }
+                running = true;
+            }
+            Chunk rendered = null;
+            try {
+                rendered = renderChunk(dataSource, sql, parameters, quoteHeaders, valueQuoteMode, trace);
+                return rendered;
+            } finally {
+                boolean orphaned;
+                synchronized (this) {
+                    running = false;
+                    orphaned = discarded;
+                    if (!orphaned) {
+                        chunk = rendered;
+                    }
+                    notifyAll();
+                }
+                if (orphaned && rendered != null) {
+                    delete(rendered.file());
+                }
+            }
+        }
+
+        private void discard() {
+            Chunk rendered;
+            synchronized (this) {
+                discarded = true;
+                try {
+                    while (running) {
+                        wait();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                rendered = chunk;
+                chunk = null;
+            }
+            if (rendered != null) {
+                delete(rendered.file());
+            }
+        }
+    }
+
+    private static void delete(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Could not delete partition file {}: {}", file, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package com.subcharacter.db_to_csv_mcp.service;
+
+import com.subcharacter.db_to_csv_mcp.config.QueryProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.ConnectionProxy;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 풀 커넥션마다 SQL 문자열을 키로 {@link PreparedStatement}를 보관해, 같은 모양의 쿼리가 다시 들어오면
+ * 드라이버와 서버의 파싱·실행 계획 수립을 건너뛴다.
+ *
+ * <p>커넥션 풀은 커넥션을 반납할 때 그 위에서 만든 문장을 닫으므로, 문장은 풀 프록시 아래의 물리 커넥션에서 준비하고
+ * 물리 커넥션별로 보관한다. 풀의 문장 추적을 거치지 않으므로 항목의 수명은 이 캐시가 관리한다. 문장이 커넥션을 강하게
+ * 참조해 약한 참조로는 지워지지 않으므로, 풀이 폐기해 닫힌 물리 커넥션의 항목은 캐시 실패 시와 주기적인 정리에서
+ * 지운다.
+ * 커넥션당 최대 {@link QueryProperties#statementCacheSize()}개를 접근 순서 기준 LRU로 유지하고, 밀려난 문장은 닫는다.
+ * 대여 중인 문장은 캐시에서 빠지므로 같은 SQL을 동시에 실행해도 한 문장을 공유하지 않는다.
+ * 적중/실패 횟수는 {@code dbcsv.statement.cache} 메트릭으로 노출된다. 스레드-세이프하다.
+ *
+ * @author subCharacter
+ * @since 1.0
+ * @version 1.0
+ */
+@Component
+class PreparedStatementCache {
+
+    private final int maxStatements;
+    private final Map<Connection, Statements> connections = new HashMap<>();
+    private final Counter hits;
+    private final Counter misses;
+
+    PreparedStatementCache(QueryProperties queryProperties, MeterRegistry meterRegistry) {
+        this.maxStatements = Math.max(0, queryProperties.statementCacheSize());
+        this.hits = requests(meterRegistry, "hit");
+        this.misses = requests(meterRegistry, "miss");
+    }
+
+    /**
+     * 커넥션에 캐시된 문장을 꺼내고, 없으면 새로 준비한다. 다 쓴 문장은 {@link #release}로 돌려줘야 한다.
+     *
+     * @param connection 대여 중인 풀 커넥션
+     * @param sql 준비할 SQL
+     * @return 파라미터가 비워진 준비된 문장
+     * @throws SQLException 문장 준비에 실패한 경우
+     */
+    PreparedStatement acquire(Connection connection, String sql) throws SQLException {
+        if (maxStatements == 0) {
+            return connection.prepareStatement(sql);
+        }
+        Connection physical = physical(connection);
+        PreparedStatement cached = statements(physical).take(sql);
+        if (cached != null) {
+            hits.increment();
+            cached.clearParameters();
+            return cached;
+        }
+        misses.increment();
+        // 준비 비용에 비하면 닫힌 커넥션 확인은 싸므로 실패할 때마다 정리한다.
+        evictClosed();
+        return physical.prepareStatement(sql);
+    }
+
+    /**
+     * 문장을 캐시에 돌려준다. 재사용할 수 없으면 닫는다.
+     *
+     * @param connection 문장을 꺼낸 풀 커넥션
+     * @param sql 문장의 SQL
+     * @param statement {@link #acquire}로 얻은 문장
+     * @param reusable 실행이 정상적으로 끝나 다시 써도 되는지 여부
+     */
+    void release(Connection connection, String sql, PreparedStatement statement, boolean reusable) {
+        if (maxStatements == 0 || !reusable) {
+            closeQuietly(statement);
+            return;
+        }
+        try {
+            statements(physical(connection)).put(sql, statement);
+        } catch (SQLException e) {
+            closeQuietly(statement);
+        }
+    }
+
+    /**
+     * 캐시에 보관 중인 문장 수를 돌려준다. 닫힌 커넥션의 항목은 먼저 지운다.
+     *
+     * @return 열린 모든 커넥션의 보관 문장 수 합계
+     */
+    int size() {
+        evictClosed();
+        synchronized (connections) {
+            return connections.values().stream().mapToInt(Statements::size).sum();
+        }
+    }
+
+    /**
+     * 풀이 폐기해 닫힌 물리 커넥션의 항목을 지우고 남은 문장을 닫는다.
+     */
+    @Scheduled(fixedDelayString = "${db-to-csv.query.statement-cache-sweep-interval:PT1M}")
+    public void evictClosed() {
+        List<Statements> retired = new ArrayList<>();
+        synchronized (connections) {
+            Iterator<Map.Entry<Connection, Statements>> iterator = connections.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<Connection, Statements> entry = iterator.next();
+                if (isClosed(entry.getKey())) {
+                    iterator.remove();
+                    retired.add(entry.getValue());
+                }
+            }
+        }
+        retired.forEach(Statements::closeAll);
+    }
+
+    private Statements statements(Connection physical) {
+        synchronized (connections) {
+            return connections.computeIfAbsent(physical, ignored -> new Statements(maxStatements));
+        }
+    }
+
+    private static boolean isClosed(Connection connection) {
+        try {
+            return connection.isClosed();
+        } catch (SQLException e) {
+            return true;
+        }
+    }
+
+    private static Connection physical(Connection connection) throws SQLException {
+        Connection target = connection instanceof ConnectionProxy proxy ? proxy.getTargetConnection() : connection;
+        return target.isWrapperFor(Connection.class) ? target.unwrap(Connection.class) : target;
+    }
+
+    private static Counter requests(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("dbcsv.statement.cache")
+                .description("Prepared statement cache lookups by outcome")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private static void closeQuietly(PreparedStatement statement) {
+        try {
+            statement.close();
+        } catch (SQLException ignored) {
+            // 닫기 실패한 문장은 물리 커넥션이 닫힐 때 함께 정리된다.
+        }
+    }
+
+    /**
+     * 물리 커넥션 하나의 문장 LRU. 커넥션은 한 번에 한 호출만 빌리지만 호출마다 스레드가 바뀌므로 잠금으로 가시성을 보장한다.
+     */
+    private static final class Statements {
+
+        private final int capacity;
+        private final LinkedHashMap<String, PreparedStatement> bySql = new LinkedHashMap<>(16, 0.75f, true);
+
+        private Statements(int capacity) {
+            this.capacity = capacity;
+        }
+
+        private synchronized PreparedStatement take(String sql) throws SQLException {
+            PreparedStatement statement = bySql.remove(sql);
+            if (statement != null && statement.isClosed()) {
+                return null;
+            }
+            return statement;
+        }
+
+        private synchronized void put(String sql, PreparedStatement statement) {
+            PreparedStatement previous = bySql.put(sql, statement);
+            if (previous != null && previous != statement) {
+                closeQuietly(previous);
+            }
+            Iterator<PreparedStatement> eldest = bySql.values().iterator();
+            while (bySql.size() > capacity) {
+                closeQuietly(eldest.next());
+                eldest.remove();
+            }
+        }
+
+        private synchronized int size() {
+            return bySql.size();
+        }
+
+        private synchronized void closeAll() {
+            bySql.values().forEach(PreparedStatementCache::closeQuietly);
+            bySql.clear();
+        }
+    }
+}
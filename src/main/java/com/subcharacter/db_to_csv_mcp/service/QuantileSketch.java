@@ -0,0 +1,109 @@
+package com.subcharacter.db_to_csv_mcp.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * 숫자 분포의 분위수를 로그 크기 메모리로 어림하는 KLL 방식의 압축 스케치.
+ *
+ * <p>수준마다 최대 {@value #LEVEL_CAPACITY}개의 값을 담고, 가득 차면 정렬해 하나 건너 하나(시작 위치는 무작위)만
+ * 가중치를 두 배로 해 다음 수준으로 올린다. 값이 {@value #LEVEL_CAPACITY}개 이하이면 분위수가 정확하며, 그 이상이면
+ * 순위 오차가 약 1% 안팎이다. 스레드-세이프하지 않다.
+ *
+ * <p>input: 1..100 -> output: quantile(0.5) == 50, quantile(0.99) == 99
+ *
+ * @author subCharacter
+ * @since 1.0
+ * @version 1.0
+ */
+final class QuantileSketch {
+
+    static final int LEVEL_CAPACITY = 256;
+
+    private final List<double[]> levels = new ArrayList<>();
+    private final List<Integer> sizes = new ArrayList<>();
+    private final SplittableRandom random = new SplittableRandom(0x5EED);
+    private long count;
+
+    void add(double value) {
+        if (Double.isNaN(value)) {
+            return;
+        }
+        count++;
+        append(0, value);
+    }
+
+    long count() {
+        return count;
+    }
+
+    /**
+     * 분위수를 돌려준다. 값이 없으면 NaN이다.
+     *
+     * @param fraction 0 이상 1 이하의 분위(예: 0.5는 중앙값)
+     * @return 해당 분위에 가장 가까운 기록 값
+     */
+    double quantile(double fraction) {
+        if (count == 0) {
+            return Double.NaN;
+        }
+        int total = 0;
+        for (int size : sizes) {
+            total += size;
+        }
+        double[] values = new double[total];
+        long[] weights = new long[total];
+        int position = 0;
+        for (int level = 0; level < levels.size(); level++) {
+            double[] items = levels.get(level);
+            for (int i = 0; i < sizes.get(level); i++) {
+                values[position] = items[i];
+                weights[position] = 1L << level;
+                position++;
+            }
+        }
+        Integer[] order = new Integer[total];
+        for (int i = 0; i < total; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Double.compare(values[a], values[b]));
+        long totalWeight = 0;
+        for (long weight : weights) {
+            totalWeight += weight;
+        }
+        double target = Math.max(1, Math.ceil(fraction * totalWeight));
+        long cumulative = 0;
+        for (int index : order) {
+            cumulative += weights[index];
+            if (cumulative >= target) {
+                return values[index];
+            }
+        }
+        return values[order[total - 1]];
+    }
+
+    private void append(int level, double value) {
+        if (level == levels.size()) {
+            levels.add(new double[LEVEL_CAPACITY]);
+            sizes.add(0);
+        }
+        double[] items = levels.get(level);
+        int size = sizes.get(level);
+        items[size++] = value;
+        sizes.set(level, size);
+        if (size == LEVEL_CAPACITY) {
+            compact(level);
+        }
+    }
+
+    private void compact(int level) {
+        double[] items = levels.get(level);
+        Arrays.sort(items);
+        sizes.set(level, 0);
+        for (int i = random.nextInt(2); i < LEVEL_CAPACITY; i += 2) {
+            append(level + 1, items[i]);
+        }
+    }
+}
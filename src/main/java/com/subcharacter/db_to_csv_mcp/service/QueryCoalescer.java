@@ -0,0 +1,141 @@
+package com.subcharacter.db_to_csv_mcp.service;
+
+import com.subcharacter.db_to_csv_mcp.service.QueryResultCache.ResultKey;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * 같은 SQL·데이터소스·렌더링 옵션의 조회가 이미 실행 중이면 새로 실행하지 않고 그 결과를 함께 받는다(single-flight).
+ *
+ * <p>여러 세션이 같은 무거운 집계 쿼리를 동시에 보내도 데이터베이스에는 한 번만 실행된다.
+ * 결과 캐시와 독립적으로 동작하며, 실행이 끝나면 항목을 지우므로 완료된 결과를 보관하지 않는다.
+ * 먼저 시작한 호출이 실패하면 기다리던 호출도 같은 예외를 받지만, 먼저 시작한 호출이 취소된 경우에는 기다리던 호출 중
+ * 하나가 다시 실행하고 나머지는 그 실행을 기다린다. 기다리는 호출도 자기 추적의 취소({@code cancelQuery})와 문장
+ * 타임아웃을 따르므로 먼저 시작한 호출보다 오래 붙잡혀 있지 않는다. 스레드-세이프하다.
+ *
+ * @author subCharacter
+ * @since 1.0
+ * @version 1.0
+ */
+@Component
+class QueryCoalescer {
+
+    // 기다리는 호출이 자기 취소를 확인하는 간격.
+    private static final long CANCEL_CHECK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    // 완료 값이 null이면 먼저 시작한 호출이 취소되어 결과 없이 물러났다는 뜻이다.
+    private final ConcurrentMap<ResultKey, CompletableFuture<Flight>> inFlight = new ConcurrentHashMap<>();
+    private final Counter coalesced;
+
+    QueryCoalescer(MeterRegistry meterRegistry) {
+        this.coalesced = Counter.builder("dbcsv.query.coalesced")
+                .description("Calls that attached to an identical query already in flight")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 같은 키의 실행이 진행 중이면 그 결과를 기다리고, 없으면 loader를 직접 실행한다.
+     *
+     * <p>input: 먼저 시작한 호출이 실행 중에 취소됨 -> output: 기다리던 호출 하나가 loader를 실행해 결과를 나눈다
+     *
+     * @param key 결과 식별자
+     * @param trace 행·바이트 수를 기록할 추적(취소 표시와 문장 타임아웃은 기다리는 동안에도 적용)
+     * @param loader 데이터베이스에서 CSV를 만드는 작업
+     * @return CSV 결과
+     * @throws IllegalStateException 기다리는 동안 이 호출이 취소되었거나 문장 타임아웃을 넘긴 경우
+     */
+    String run(ResultKey key, QueryTrace trace, Supplier<String> loader) {
+        int timeoutSeconds = trace.limits().timeoutSeconds();
+        long deadline = timeoutSeconds > 0 ? System.nanoTime() + TimeUnit.SECONDS.toNanos(timeoutSeconds) : 0;
+        boolean attached = false;
+        while (true) {
+            CompletableFuture<Flight> mine = new CompletableFuture<>();
+            CompletableFuture<Flight> running = inFlight.putIfAbsent(key, mine);
+            if (running == null) {
+                return lead(key, mine, trace, loader);
+            }
+            if (!attached) {
+                coalesced.increment();
+                attached = true;
+            }
+            Flight flight = await(running, trace, deadline);
+            if (flight != null) {
+                trace.addRows(flight.rows());
+                trace.addBytes(flight.csv().length());
+                return flight.csv();
+            }
+        }
+    }
+
+    int inFlightCount() {
+        return inFlight.size();
+    }
+
+    private String lead(ResultKey key, CompletableFuture<Flight> mine, QueryTrace trace, Supplier<String> loader) {
+        try {
+            long rowsBefore = trace.rows();
+            String csv = loader.get();
+            inFlight.remove(key, mine);
+            mine.complete(new Flight(csv, trace.rows() - rowsBefore));
+            return csv;
+        } catch (RuntimeException | Error e) {
+            // 기다리는 호출이 다시 시도할 때 이 실행에 또 붙지 않도록 항목을 먼저 지운다.
+            inFlight.remove(key, mine);
+            if (trace.cancelled()) {
+                mine.complete(null);
+            } else {
+                mine.completeExceptionally(e);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * 먼저 시작한 호출의 결과를 기다린다. 이 호출의 취소와 문장 타임아웃을 주기적으로 확인한다.
+     *
+     * @param deadline 타임아웃 시각({@link System#nanoTime()} 기준, 0이면 제한 없음)
+     * @return 결과(먼저 시작한 호출이 취소되었으면 null)
+     */
+    private static Flight await(CompletableFuture<Flight> running, QueryTrace trace, long deadline) {
+        while (true) {
+            if (trace.cancelled()) {
+                throw new IllegalStateException(trace.cancelledMessage());
+            }
+            long wait = CANCEL_CHECK_NANOS;
+            if (deadline != 0) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    throw QueryFailures.rejected(
+                            new QueryTimeoutException("Timed out waiting for an identical query."), trace);
+                }
+                wait = Math.min(wait, remaining);
+            }
+            try {
+                return running.get(wait, TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                // 취소와 타임아웃을 다시 확인한다.
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for an identical query.", e);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException runtime) {
+                    throw runtime;
+                }
+                throw new IllegalStateException("Identical query failed.", e.getCause());
+            }
+        }
+    }
+
+    private record Flight(String csv, long rows) {
+    }
+}
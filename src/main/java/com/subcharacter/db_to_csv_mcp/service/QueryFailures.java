@@ -0,0 +1,43 @@
+package com.subcharacter.db_to_csv_mcp.service;
+
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.QueryTimeoutException;
+
+/**
+ * 데이터베이스 오류를 도구 호출자에게 보여줄 메시지로 바꾼다.
+ *
+ * <p>취소와 타임아웃은 드라이버가 같은 오류로 보고하는 경우가 많으므로 추적의 취소 표시를 먼저 확인한다.
+ *
+ * @author subCharacter
+ * @since 1.0
+ * @version 1.0
+ */
+final class QueryFailures {
+
+    private QueryFailures() {
+    }
+
+    /**
+     * 실패 사유 메시지를 만든다.
+     *
+     * <p>input: 타임아웃 30초인 호출의 QueryTimeoutException -> output: "Query exceeded the statement timeout of 30 s..."
+     *
+     * @param e 번역된 데이터베이스 예외
+     * @param trace 실패한 호출의 추적
+     * @return 호출자에게 보여줄 메시지
+     */
+    static String message(DataAccessException e, QueryTrace trace) {
+        if (trace.cancelled()) {
+            return trace.cancelledMessage();
+        }
+        if (e instanceof QueryTimeoutException && trace.limits().timeoutSeconds() > 0) {
+            return "Query exceeded the statement timeout of " + trace.limits().timeoutSeconds()
+                    + " s and was cancelled; narrow the query or use exportQuery/executeQueryPage.";
+        }
+        return "Database rejected the read-only query: " + e.getMostSpecificCause().getMessage();
+    }
+
+    static IllegalStateException rejected(DataAccessException e, QueryTrace trace) {
+        return new IllegalStateException(message(e, trace), e);
+    }
+}
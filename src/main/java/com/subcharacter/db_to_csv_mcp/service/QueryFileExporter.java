@@ -0,0 +1,337 @@
+package com.subcharacter.db_to_csv_mcp.service;
+
+import com.subcharacter.db_to_csv_mcp.config.ExportProperties;
+import com.subcharacter.db_to_csv_mcp.service.DataSourceRegistry.DataSourceHandle;
+import com.subcharacter.db_to_csv_mcp.service.QueryService.ExportResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.UUID;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 쿼리 결과를 응답 문자열 대신 내보내기 디렉터리의 파일로 스트리밍한다.
+ *
+ * <p>행은 버퍼링된 {@link FileChannel}로 바로 기록되므로 힙과 STDIO 채널을 거치지 않는다.
+ * 임시 파일에 쓴 뒤 완료 시점에 이름을 바꾸므로 실패한 내보내기가 완성된 파일처럼 남지 않는다.
+ * 데이터베이스 고유의 대량 내보내기({@link NativeExportDialect})를 쓸 수 있으면 행 단위 렌더링을 건너뛴다.
+ *
+ * @author subCharacter
+ * @since 1.0
+ * @version 1.0
+ */
+@Component
+class QueryFileExporter {
+
+    private static final Logger log = LoggerFactory.getLogger(QueryFileExporter.class);
+    private static final DateTimeFormatter FILE_TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private final ExportProperties exportProperties;
+    private final List<NativeExportDialect> dialects;
+
+    QueryFileExporter(ExportProperties exportProperties, List<NativeExportDialect> dialects) {
+        this.exportProperties = exportProperties;
+        this.dialects = dialects;
+    }
+
+    /**
+     * body가 기록한 CSV를 파일로 내보낸다. 단일 커서 외의 방식(예: 파티션 병렬 조회)으로 본문을 만들 때 사용한다.
+     *
+     * @param fileName 저장할 파일 이름(선택, 비우면 자동 생성)
+     * @param gzip gzip 압축 여부
+     * @param trace 바이트 수를 기록할 추적
+     * @param body 파일 writer에 CSV를 쓰고 행 수를 돌려주는 본문
+     * @return 파일 경로, 행 수, 바이트 크기, SHA-256 체크섬, 상한에 의한 잘림 여부
+     * @throws IllegalArgumentException 파일 이름이 내보내기 디렉터리를 벗어나는 경우
+     * @throws UncheckedIOException 파일 쓰기에 실패한 경우
+     */
+    ExportResult export(String fileName, boolean gzip, QueryTrace trace, ExportBody body) {
+        return export(fileName, gzip, OutputFormat.CSV.extension(), trace, body);
+    }
+
+    /**
+     * body가 기록한 텍스트를 주어진 확장자의 파일로 내보낸다.
+     *
+     * @param fileName 저장할 파일 이름(선택, 비우면 자동 생성)
+     * @param gzip gzip 압축 여부
+     * @param extension 자동 생성 이름에 붙일 확장자(예: tsv)
+     * @param trace 바이트 수를 기록할 추적
+     * @param body 파일 writer에 본문을 쓰고 행 수를 돌려주는 본문
+     * @return 파일 경로, 행 수, 바이트 크기, SHA-256 체크섬, 상한에 의한 잘림 여부
+     */
+    ExportResult export(String fileName, boolean gzip, String extension, QueryTrace trace, ExportBody body) {
+        return exportBinary(fileName, gzip, extension, trace, stream -> {
+            Writer writer = new OutputStreamWriter(stream, StandardCharsets.UTF_8);
+            long rows = body.writeTo(writer);
+            writer.flush();
+            return rows;
+        });
+    }
+
+    /**
+     * body가 기록한 바이트를 파일로 내보낸다. 바이너리 출력 형식에 사용한다.
+     *
+     * @param fileName 저장할 파일 이름(선택, 비우면 자동 생성)
+     * @param gzip gzip 압축 여부
+     * @param extension 자동 생성 이름에 붙일 확장자(예: dbcol)
+     * @param trace 바이트 수를 기록할 추적
+     * @param body 파일 스트림에 본문을 쓰고 행 수를 돌려주는 본문
+     * @return 파일 경로, 행 수, 바이트 크기, SHA-256 체크섬, 상한에 의한 잘림 여부
+     * @throws IllegalArgumentException 파일 이름이 내보내기 디렉터리를 벗어나는 경우
+     * @throws UncheckedIOException 파일 쓰기에 실패한 경우
+     */
+    ExportResult exportBinary(String fileName, boolean gzip, String extension, QueryTrace trace,
+                              BinaryExportBody body) {
+        Path target = resolveTarget(fileName, gzip, extension);
+        MessageDigest digest = newDigest();
+        Path partial = null;
+        long rows;
+        try {
+            partial = createPartial(target);
+            try (FileChannel channel = FileChannel.open(partial, StandardOpenOption.WRITE);
+                 OutputStream stream = openStream(channel, digest, gzip)) {
+                rows = body.writeTo(stream);
+            }
+            Files.move(partial, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            long byteSize = Files.size(target);
+            trace.addBytes(byteSize);
+            return new ExportResult(target.toString(), rows, byteSize, HexFormat.of().formatHex(digest.digest()),
+                    trace.truncated());
+        } catch (IOException e) {
+            deleteQuietly(partial);
+            throw new UncheckedIOException("Failed to write export file: " + target, e);
+        } catch (RuntimeException e) {
+            deleteQuietly(partial);
+            throw e;
+        }
+    }
+
+    /**
+     * body가 기록한 CSV를 기존 파일 끝에 덧붙인다(파일이 없으면 새로 만든다). 증분 내보내기에 사용한다.
+     *
+     * <p>임시 파일을 거치지 않으므로 비용은 덧붙이는 크기에만 비례한다. 실패하면 파일을 원래 길이로 되돌린다.
+     * gzip이면 실행마다 gzip 멤버 하나를 덧붙이며, 이어 붙인 멤버는 표준 gzip 도구로 한 번에 풀린다.
+     *
+     * @param fileName 덧붙일 파일 이름
+     * @param gzip gzip 압축 여부
+     * @param trace 덧붙인 바이트 수를 기록할 추적
+     * @param body 파일 writer에 CSV를 쓰고 행 수를 돌려주는 본문(파일이 비어 있었는지 전달받아 헤더 여부를 정함)
+     * @return 파일 경로, 이번에 덧붙인 행 수, 덧붙인 뒤 파일 크기, 이번에 덧붙인 바이트의 SHA-256 체크섬, 잘림 여부
+     * @throws IllegalArgumentException 파일 이름이 내보내기 디렉터리를 벗어나는 경우
+     * @throws UncheckedIOException 파일 쓰기에 실패한 경우
+     */
+    ExportResult append(String fileName, boolean gzip, QueryTrace trace, AppendBody body) {
+        Path target = resolveTarget(fileName, gzip, OutputFormat.CSV.extension());
+        MessageDigest digest = newDigest();
+        try {
+            Files.createDirectories(target.getParent());
+            try (FileChannel channel = FileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+                long start = channel.size();
+                channel.position(start);
+                long rows;
+                try {
+                    OutputStream stream = openStream(channel, digest, gzip);
+                    Writer writer = new OutputStreamWriter(stream, StandardCharsets.UTF_8);
+                    rows = body.writeTo(writer, start == 0);
+                    writer.flush();
+                    if (stream instanceof GZIPOutputStream compressed) {
+                        compressed.finish();
+                    }
+                    stream.flush();
+                    if (rows == 0) {
+                        // 새 행이 없으면 빈 gzip 멤버나 헤더만 남기지 않는다.
+                        channel.truncate(start);
+                        digest.reset();
+                    }
+                } catch (IOException | RuntimeException e) {
+                    channel.truncate(start);
+                    throw e;
+                }
+                long byteSize = channel.size();
+                trace.addBytes(byteSize - start);
+                return new ExportResult(target.toString(), rows, byteSize,
+                        HexFormat.of().formatHex(digest.digest()), trace.truncated());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to append to export file: " + target, e);
+        }
+    }
+
+    /**
+     * 데이터소스를 지원하고 요청 옵션을 표현할 수 있는 방언이 있으면 데이터베이스 고유의 대량 내보내기로 CSV 파일을 쓴다.
+     *
+     * <p>고를 방언이 없거나, 네이티브 경로가 취소·타임아웃 외의 이유로 실패하면(예: 파일 함수 권한 없음) null을
+     * 돌려주므로 호출자는 일반 경로로 내보낸다. 결과가 비어 있으면 일반 경로처럼 빈 파일을 남긴다.
+     *
+     * @param dataSource 실행 대상 데이터소스
+     * @param sql 검증을 마친 읽기 전용 SQL
+     * @param options 네이티브 경로 사용 여부를 판단할 요청 옵션
+     * @param fileName 저장할 파일 이름(선택, 비우면 자동 생성)
+     * @param trace 단계별 시간과 처리량을 기록할 추적
+     * @return 파일 경로, 행 수, 바이트 크기, SHA-256 체크섬(네이티브 경로를 쓰지 않았으면 null)
+     * @throws IllegalArgumentException 파일 이름이 내보내기 디렉터리를 벗어나는 경우
+     * @throws UncheckedIOException 파일 쓰기에 실패한 경우
+     */
+    ExportResult exportNative(DataSourceHandle dataSource, String sql, NativeExportDialect.Options options,
+                              String fileName, QueryTrace trace) {
+        NativeExportDialect dialect = dialects.stream()
+                .filter(candidate -> candidate.supports(dataSource.key()) && candidate.accepts(options))
+                .findFirst()
+                .orElse(null);
+        if (dialect == null) {
+            return null;
+        }
+        Path target = resolveTarget(fileName, false, OutputFormat.CSV.extension());
+        Path partial = null;
+        try {
+            partial = createPartial(target);
+            long rows;
+            try {
+                rows = dialect.exportTo(dataSource.dataSource(), sql, partial, trace);
+            } catch (DataAccessException e) {
+                if (trace.cancelled() || e instanceof QueryTimeoutException) {
+                    throw e;
+                }
+                log.debug("Native export failed, falling back to JDBC streaming: {}", e.getMessage());
+                deleteQuietly(partial);
+                return null;
+            }
+            if (rows == 0) {
+                // 일반 경로는 빈 결과에 헤더도 쓰지 않는다.
+                Files.write(partial, new byte[0]);
+            }
+            String checksum = checksum(partial);
+            Files.move(partial, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            long byteSize = Files.size(target);
+            trace.addRows(rows);
+            trace.addBytes(byteSize);
+            return new ExportResult(target.toString(), rows, byteSize, checksum, false);
+        } catch (IOException e) {
+            deleteQuietly(partial);
+            throw new UncheckedIOException("Failed to write export file: " + target, e);
+        } catch (RuntimeException e) {
+            deleteQuietly(partial);
+            throw e;
+        }
+    }
+
+    /**
+     * 대상과 같은 디렉터리에 호출마다 고유한 임시 파일을 만든다. 같은 파일 이름으로 동시에 내보내도 서로의 임시 파일을
+     * 덮어쓰지 않고, 나중에 끝난 내보내기의 완성된 파일이 남는다.
+     *
+     * <p>input: exports/items.csv -> output: exports/items.csv.1234567890.part
+     */
+    private static Path createPartial(Path target) throws IOException {
+        Files.createDirectories(target.getParent());
+        return Files.createTempFile(target.getParent(), target.getFileName() + ".", ".part");
+    }
+
+    private OutputStream openStream(FileChannel channel, MessageDigest digest, boolean gzip) throws IOException {
+        int bufferSize = Math.max(8192, exportProperties.bufferSize());
+        OutputStream out = new BufferedOutputStream(
+                new DigestOutputStream(Channels.newOutputStream(channel), digest), bufferSize);
+        if (gzip) {
+            out = new GZIPOutputStream(out, bufferSize);
+        }
+        return out;
+    }
+
+    private Path resolveTarget(String fileName, boolean gzip, String extension) {
+        Path directory = exportProperties.directory().toAbsolutePath().normalize();
+        String name = StringUtils.hasText(fileName) ? fileName.strip() : defaultFileName(gzip, extension);
+        Path target = directory.resolve(name).normalize();
+        if (!directory.equals(target.getParent())) {
+            throw new IllegalArgumentException("Export file name must not contain a path: " + fileName);
+        }
+        return target;
+    }
+
+    private String defaultFileName(boolean gzip, String extension) {
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        return "export-" + LocalDateTime.now().format(FILE_TIMESTAMP) + "-" + suffix + "." + extension
+                + (gzip ? ".gz" : "");
+    }
+
+    private String checksum(Path file) throws IOException {
+        MessageDigest digest = newDigest();
+        byte[] buffer = new byte[Math.max(8192, exportProperties.bufferSize())];
+        try (InputStream in = Files.newInputStream(file)) {
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available.", e);
+        }
+    }
+
+    /**
+     * 내보내기 파일의 본문을 쓰는 콜백.
+     */
+    @FunctionalInterface
+    interface ExportBody {
+
+        long writeTo(Writer out) throws IOException;
+    }
+
+    /**
+     * 기존 파일에 덧붙일 본문을 쓰는 콜백. 파일이 비어 있었으면 emptyFile이 true다.
+     */
+    @FunctionalInterface
+    interface AppendBody {
+
+        long writeTo(Writer out, boolean emptyFile) throws IOException;
+    }
+
+    /**
+     * 바이너리 내보내기 파일의 본문을 쓰는 콜백.
+     */
+    @FunctionalInterface
+    interface BinaryExportBody {
+
+        long writeTo(OutputStream out) throws IOException;
+    }
+
+    private static void deleteQuietly(Path path) {
+        if (path == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException ignored) {
+            // 남은 임시 파일은 이름이 .part로 끝나므로 완성된 파일과 구분된다.
+        }
+    }
+}
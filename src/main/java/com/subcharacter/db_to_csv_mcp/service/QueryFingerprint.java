@@ -0,0 +1,57 @@
+package com.subcharacter.db_to_csv_mcp.service;
+
+import com.subcharacter.db_to_csv_mcp.service.DataSourceRegistry.DataSourceKey;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * 이어받기 토큰과 증분 작업이 발급 당시의 쿼리에 묶여 있는지 확인하는 지문.
+ *
+ * <p>데이터소스, 정규화한 SQL, 바인드 값, 정렬(워터마크) 컬럼을 SHA-256으로 요약한다. 바인드 값이 다르면 결과 집합이
+ * 다르므로 다른 지문이 된다.
+ *
+ * <p>input: (jdbc:h2:mem:test, "SELECT * FROM orders WHERE region = ?", ["kr"], "id") -> output: "3f9a..." 24자
+ *
+ * @author subCharacter
+ * @since 1.0
+ * @version 1.0
+ */
+final class QueryFingerprint {
+
+    private QueryFingerprint() {
+    }
+
+    /**
+     * 지문을 만든다.
+     *
+     * @param dataSource 자격 증명 해시를 포함한 데이터소스 식별자
+     * @param sql 원본 SQL(공백·주석 차이는 무시)
+     * @param parameters 바인드 값
+     * @param column 정렬 또는 워터마크 컬럼(없으면 null)
+     * @return 16진수 24자 지문
+     */
+    static String of(DataSourceKey dataSource, String sql, List<?> parameters, String column) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            update(digest, dataSource.toString());
+            update(digest, QueryResultCache.normalize(sql));
+            update(digest, Integer.toString(parameters.size()));
+            for (Object parameter : parameters) {
+                update(digest, parameter == null ? "null" : parameter.getClass().getName() + ":" + parameter);
+            }
+            update(digest, column == null ? "" : column);
+            return HexFormat.of().formatHex(digest.digest(), 0, 12);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available.", e);
+        }
+    }
+
+    private static void update(MessageDigest digest, String part) {
+        digest.update(part.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+    }
+}
@@ -0,0 +1,68 @@
+package com.subcharacter.db_to_csv_mcp.service;
+
+import com.subcharacter.db_to_csv_mcp.config.QueryProperties;
+import com.subcharacter.db_to_csv_mcp.service.QueryService.LimitOptions;
+
+/**
+ * 도구 호출 하나에 적용되는 문장 타임아웃과 행/바이트/토큰 상한.
+ *
+ * <p>서버 설정이 상한이며, 호출별 값은 그보다 작을 때만 적용된다. 바이트 상한은 응답 문자열로 돌려주는 결과에만 적용하고
+ * 파일 내보내기에는 호출자가 지정한 경우에만 적용한다. 토큰 상한은 LLM 컨텍스트에 넣을 응답에만 의미가 있으므로
+ * 응답 문자열로 돌려주는 결과에만 적용한다.
+ *
+ * <p>input: 서버 maxRows=0, 호출 maxRows=100 -> output: maxRows=100
+ * <br>input: 서버 타임아웃 300초, 호출 600초 -> output: 300초
+ *
+ * @param timeoutSeconds 문장 타임아웃 초(0이면 제한 없음)
+ * @param maxRows 최대 데이터 행 수(0이면 제한 없음)
+ * @param maxBytes 최대 출력 문자 수(0이면 제한 없음)
+ * @param maxTokens 최대 어림 토큰 수(0이면 제한 없음)
+ * @author subCharacter
+ * @since 1.0
+ * @version 1.0
+ */
+record QueryLimits(int timeoutSeconds, long maxRows, long maxBytes, long maxTokens) {
+
+    static final QueryLimits NONE = new QueryLimits(0, 0, 0, 0);
+
+    /**
+     * 서버 설정과 호출별 옵션을 합쳐 실제 상한을 정한다.
+     *
+     * @param properties 서버 설정
+     * @param options 호출별 옵션(null 허용)
+     * @param inline 결과를 응답 문자열로 돌려주는 호출이면 true
+     * @return 적용할 상한
+     */
+    static QueryLimits resolve(QueryProperties properties, LimitOptions options, boolean inline) {
+        long serverTimeout = properties.statementTimeout() == null ? 0 : properties.statementTimeout().toSeconds();
+        long serverBytes = inline && properties.maxBytes() != null ? properties.maxBytes().toBytes() : 0;
+        Integer timeout = options == null ? null : options.timeoutSeconds();
+        Long rows = options == null ? null : options.maxRows();
+        Long bytes = options == null ? null : options.maxBytes();
+        Long tokens = options == null || !inline ? null : options.maxTokens();
+        return new QueryLimits(
+                (int) Math.min(Integer.MAX_VALUE, tighter(serverTimeout, timeout == null ? 0 : timeout)),
+                tighter(properties.maxRows(), rows == null ? 0 : rows),
+                tighter(serverBytes, bytes == null ? 0 : bytes),
+                tighter(inline ? properties.maxTokens() : 0, tokens == null ? 0 : tokens));
+    }
+
+    long rowCap() {
+        return maxRows > 0 ? maxRows : Long.MAX_VALUE;
+    }
+
+    long byteCap() {
+        return maxBytes > 0 ? maxBytes : Long.MAX_VALUE;
+    }
+
+    long tokenCap() {
+        return maxTokens > 0 ? maxTokens : Long.MAX_VALUE;
+    }
+
+    private static long tighter(long server, long requested) {
+        if (requested <= 0) {
+            return Math.max(0, server);
+        }
+        return server > 0 ? Math.min(server, requested) : requested;
+    }
+}
@@ -0,0 +1,184 @@
+package com.subcharacter.db_to_csv_mcp.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import org.apache.commons.csv.CSVFormat;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * 도구 호출의 단계별 시간과 행/바이트 처리량을 Micrometer로 기록하고 요약한다.
+ *
+ * <p>STDIO로는 메트릭 엔드포인트를 노출할 수 없으므로 {@code serverStats} 도구와 주기적인 로그 한 줄로 내보낸다.
+ * 모든 메트릭은 도구 이름과 자격 증명을 제거한 데이터소스 식별자로 태그된다.
+ *
+ * @author subCharacter
+ * @since 1.0
+ * @version 1.0
+ */
+@Component
+public class QueryMetrics {
+
+    static final String METER_PREFIX = "dbcsv.";
+    static final String TOOL_TIMER = "dbcsv.tool.duration";
+    static final String PHASE_TIMER = "dbcsv.query.phase";
+    static final String ROWS_COUNTER = "dbcsv.query.rows";
+    static final String BYTES_COUNTER = "dbcsv.query.bytes";
+
+    private static final Logger log = LoggerFactory.getLogger(QueryMetrics.class);
+
+    private final MeterRegistry meterRegistry;
+
+    public QueryMetrics(MeterRegistry meterRegistry, DataSourceRegistry dataSourceRegistry) {
+        this.meterRegistry = meterRegistry;
+        Gauge.builder("dbcsv.pools.open", dataSourceRegistry, DataSourceRegistry::size)
+                .description("Connection pools currently held by the registry")
+                .register(meterRegistry);
+    }
+
+    QueryTrace start(String tool, String datasource) {
+        return new QueryTrace(tool, datasource);
+    }
+
+    /**
+     * 추적한 값을 메터에 반영한다.
+     *
+     * @param trace 완료된 호출의 추적
+     * @param error 실패 원인(성공이면 null)
+     */
+    void finish(QueryTrace trace, Throwable error) {
+        Tags tags = Tags.of("tool", trace.tool(), "datasource", trace.datasource());
+        recordPhase(tags, "queue", trace.queueNanos());
+        recordPhase(tags, "connection", trace.connectionNanos());
+        recordPhase(tags, "execute", trace.executeNanos());
+        recordPhase(tags, "fetch", trace.fetchNanos());
+        recordPhase(tags, "render", trace.renderNanos());
+        Counter.builder(ROWS_COUNTER).tags(tags).register(meterRegistry).increment(trace.rows());
+        Counter.builder(BYTES_COUNTER).tags(tags).register(meterRegistry).increment(trace.bytes());
+        Timer.builder(TOOL_TIMER)
+                .tags(tags)
+                .tag("outcome", error == null ? "success" : "error")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry)
+                .record(trace.elapsedNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * 현재까지 모인 메트릭을 CSV로 요약한다.
+     *
+     * <p>output 예시:
+     * meter,tags,count,total_ms,mean_ms,max_ms,p50_ms,p99_ms,value
+     * dbcsv.tool.duration,datasource=jdbc:h2:mem:demo;outcome=success;tool=executeQuery,3,12.4,4.1,6.0,3.9,6.0,
+     * dbcsv.query.rows,"datasource=jdbc:postgresql://h1,h2/db;tool=executeQuery",,,,,,,42.000
+     *
+     * @return 메터당 한 줄의 CSV
+     */
+    public String snapshot() {
+        StringBuilder out = new StringBuilder("meter,tags,count,total_ms,mean_ms,max_ms,p50_ms,p99_ms,value")
+                .append(CsvResultSetWriter.RECORD_SEPARATOR);
+        for (Meter meter : sortedMeters()) {
+            // 데이터소스 태그에는 다중 호스트 URL의 쉼표가 들어갈 수 있으므로 CSV 규칙으로 감싼다.
+            String name = meter.getId().getName();
+            String tags = formatTags(meter.getId().getTags(), ";");
+            if (meter instanceof Timer timer) {
+                out.append(CSVFormat.DEFAULT.format(name, tags, timer.count(),
+                        millis(timer.totalTime(TimeUnit.NANOSECONDS)),
+                        millis(timer.mean(TimeUnit.NANOSECONDS)),
+                        millis(timer.max(TimeUnit.NANOSECONDS)),
+                        percentile(timer, 0.5),
+                        percentile(timer, 0.99),
+                        null));
+            } else if (meter instanceof Counter counter) {
+                out.append(CSVFormat.DEFAULT.format(name, tags, null, null, null, null, null, null,
+                        format(counter.count())));
+            } else if (meter instanceof Gauge gauge) {
+                out.append(CSVFormat.DEFAULT.format(name, tags, null, null, null, null, null, null,
+                        format(gauge.value())));
+            } else {
+                out.append(CSVFormat.DEFAULT.format(name, tags, null, null, null, null, null, null, null));
+            }
+            out.append(CsvResultSetWriter.RECORD_SEPARATOR);
+        }
+        return out.toString();
+    }
+
+    /**
+     * 메트릭을 로그 파일에 key=value 형식으로 주기적으로 남긴다. STDOUT은 MCP 프로토콜 전용이다.
+     */
+    @Scheduled(
+            fixedDelayString = "${db-to-csv.metrics.log-interval:PT1M}",
+            initialDelayString = "${db-to-csv.metrics.log-interval:PT1M}"
+    )
+    public void logSnapshot() {
+        for (Meter meter : sortedMeters()) {
+            String tags = formatTags(meter.getId().getTags(), " ");
+            if (meter instanceof Timer timer) {
+                if (timer.count() == 0) {
+                    continue;
+                }
+                log.info("stats meter={} {} count={} total_ms={} mean_ms={} max_ms={}",
+                        meter.getId().getName(), tags, timer.count(),
+                        millis(timer.totalTime(TimeUnit.NANOSECONDS)),
+                        millis(timer.mean(TimeUnit.NANOSECONDS)),
+                        millis(timer.max(TimeUnit.NANOSECONDS)));
+            } else if (meter instanceof Counter counter) {
+                log.info("stats meter={} {} count={}", meter.getId().getName(), tags, format(counter.count()));
+            } else if (meter instanceof Gauge gauge) {
+                log.info("stats meter={} {} value={}", meter.getId().getName(), tags, format(gauge.value()));
+            }
+        }
+    }
+
+    private void recordPhase(Tags tags, String phase, long nanos) {
+        Timer.builder(PHASE_TIMER)
+                .tags(tags)
+                .tag("phase", phase)
+                .register(meterRegistry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    private List<Meter> sortedMeters() {
+        return meterRegistry.getMeters().stream()
+                .filter(meter -> meter.getId().getName().startsWith(METER_PREFIX))
+                .sorted(Comparator.comparing((Meter meter) -> meter.getId().getName())
+                        .thenComparing(meter -> formatTags(meter.getId().getTags(), ";")))
+                .toList();
+    }
+
+    private static String formatTags(List<Tag> tags, String delimiter) {
+        return tags.stream()
+                .map(tag -> tag.getKey() + "=" + tag.getValue())
+                .collect(Collectors.joining(delimiter));
+    }
+
+    private static String percentile(Timer timer, double percentile) {
+        for (ValueAtPercentile value : timer.takeSnapshot().percentileValues()) {
+            if (value.percentile() == percentile) {
+                return millis(value.value(TimeUnit.NANOSECONDS));
+            }
+        }
+        return "";
+    }
+
+    private static String millis(double nanos) {
+        return format(nanos / 1_000_000.0);
+    }
+
+    private static String format(double value) {
+        return String.format(Locale.ROOT, "%.3f", value);
+    }
+}
@@ -0,0 +1,234 @@
+package com.subcharacter.db_to_csv_mcp.service;
+
+import com.subcharacter.db_to_csv_mcp.service.DataSourceRegistry.DataSourceHandle;
+import com.subcharacter.db_to_csv_mcp.service.QueryService.PreviewResult;
+import com.subcharacter.db_to_csv_mcp.service.QueryService.TableDescription;
+import com.subcharacter.db_to_csv_mcp.service.StreamingRowWriter.Page;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.stereotype.Component;
+
+import java.io.StringWriter;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 쿼리 결과의 앞부분 몇 행과 전체 행 수 어림값을 함께 돌려준다.
+ *
+ * <p>에이전트가 전체 조회나 내보내기 전에 "데이터가 어떻게 생겼고 얼마나 큰가"를 싸게 확인하기 위함이다. 쿼리는
+ * 데이터베이스에 맞는 행 제한({@code LIMIT} 또는 {@code FETCH FIRST})으로 감싸고 JDBC maxRows도 함께 걸어 앞의 N+1행만
+ * 가져온다. 행 수는 {@code COUNT(*)}를 실행하지 않고 다음 순서로 어림한다.
+ * <ol>
+ *     <li>exact: 미리보기에 모든 행이 들어오면 그 행 수</li>
+ *     <li>explain: 실행 계획의 예상 행 수(PostgreSQL {@code EXPLAIN}의 rows, MySQL·MariaDB {@code EXPLAIN}의
+ *     rows x filtered)</li>
+ *     <li>table_statistics: 테이블 하나만 읽는 쿼리면 그 테이블의 통계 행 수(WHERE 조건을 반영하지 않은 상한)</li>
+ * </ol>
+ * 어느 것도 얻지 못하면 어림값 없이(none) 돌려준다. 실행 계획 조회가 실패해도 미리보기는 그대로 돌려준다.
+ *
+ * <p>input: {@code SELECT * FROM orders}, 행 20 -> output: 앞 20행 CSV, hasMore true,
+ * 어림 행 수 1000000(table_statistics)
+ *
+ * @author subCharacter
+ * @since 1.0
+ * @version 1.0
+ */
+@Component
+class QueryPreviewer {
+
+    static final int DEFAULT_ROWS = 20;
+    static final int MAX_ROWS = 1000;
+
+    private static final Logger log = LoggerFactory.getLogger(QueryPreviewer.class);
+    private static final String NAME = "[A-Za-z_][A-Za-z0-9_$]*";
+    // 테이블 하나를 FROM에 두고 선택적으로 별칭, WHERE/ORDER BY 등이 뒤따르는 쿼리만 통계로 어림한다.
+    private static final Pattern SINGLE_TABLE = Pattern.compile(
+            "(?is)^\\s*SELECT\\s+(?:(?!\\bFROM\\b).)+?\\s+FROM\\s+(?:(" + NAME + ")\\.)?(" + NAME + ")"
+                    + "(?:\\s+(?:AS\\s+)?(?!(?:WHERE|ORDER|GROUP|LIMIT|FETCH|OFFSET)\\b)" + NAME + ")?"
+                    + "(?:\\s+(?:WHERE|ORDER\\s+BY|GROUP\\s+BY|LIMIT|FETCH|OFFSET)\\b.*)?$");
+    private static final Pattern SET_OPERATOR = Pattern.compile("(?i)\\b(?:UNION|INTERSECT|EXCEPT|MINUS)\\b");
+    private static final Pattern PLAN_ROWS = Pattern.compile("\\brows=(\\d+)");
+
+    private final ReadOnlyQueryExecutor queryExecutor;
+    private final SchemaCatalog schemaCatalog;
+
+    QueryPreviewer(ReadOnlyQueryExecutor queryExecutor, SchemaCatalog schemaCatalog) {
+        this.queryExecutor = queryExecutor;
+        this.schemaCatalog = schemaCatalog;
+    }
+
+    /**
+     * 앞의 최대 rows행을 CSV로 읽고 전체 행 수를 어림한다.
+     *
+     * @param dataSource 실행 대상 데이터소스
+     * @param sql 검증을 마친 읽기 전용 SQL
+     * @param parameters sql의 자리표시자에 바인딩할 값
+     * @param rows 돌려줄 최대 행 수(널이나 0 이하면 기본 20, 최대 1000)
+     * @param quoteHeaders 헤더를 큰따옴표로 감쌀지 여부
+     * @param valueQuoteMode 본문 값 따옴표 모드
+     * @param estimate 모든 행이 들어오지 않았을 때 행 수를 어림할지 여부
+     * @param trace 단계별 시간과 처리량을 기록할 추적
+     * @return 미리보기 CSV, 남은 행 존재 여부, 어림 행 수와 그 출처
+     */
+    PreviewResult preview(DataSourceHandle dataSource, String sql, List<Object> parameters, Integer rows,
+                          boolean quoteHeaders, ValueQuoteMode valueQuoteMode, boolean estimate, QueryTrace trace) {
+        int limit = (int) Math.min(rows == null || rows <= 0 ? DEFAULT_ROWS : Math.min(rows, MAX_ROWS),
+                trace.limits().rowCap());
+        Dialect dialect = Dialect.of(dataSource.key().url());
+        String body = SqlText.body(sql);
+
+        StringWriter out = new StringWriter();
+        CsvResultSetWriter writer = new CsvResultSetWriter(out, quoteHeaders, valueQuoteMode, trace);
+        // 한 행을 더 가져와 남은 행이 있는지 판단한다.
+        Page page = queryExecutor.query(dataSource.dataSource(), dialect.limit(body, limit + 1), parameters,
+                limit + 1, trace, resultSet -> writer.writePage(resultSet, false, limit, 0));
+        String csv = out.toString();
+        trace.addBytes(csv.length());
+
+        if (!page.hasMore()) {
+            return new PreviewResult(csv, page.rows(), false, page.rows(), "exact");
+        }
+        if (!estimate) {
+            return new PreviewResult(csv, page.rows(), true, null, "none");
+        }
+        Long explained = orNull(() -> explain(dialect, dataSource, body, parameters, trace), trace);
+        if (explained != null) {
+            return new PreviewResult(csv, page.rows(), true, Math.max(explained, page.rows() + 1), "explain");
+        }
+        Long statistics = orNull(() -> tableStatistics(dialect, dataSource, body, trace), trace);
+        if (statistics != null) {
+            return new PreviewResult(csv, page.rows(), true, Math.max(statistics, page.rows() + 1),
+                    "table_statistics");
+        }
+        return new PreviewResult(csv, page.rows(), true, null, "none");
+    }
+
+    private Long explain(Dialect dialect, DataSourceHandle dataSource, String body, List<Object> parameters,
+                         QueryTrace trace) {
+        if (dialect != Dialect.POSTGRESQL && dialect != Dialect.MYSQL) {
+            return null;
+        }
+        return queryExecutor.query(dataSource.dataSource(), "EXPLAIN " + body, parameters, trace,
+                resultSet -> dialect == Dialect.POSTGRESQL ? postgresPlanRows(resultSet) : mySqlPlanRows(resultSet));
+    }
+
+    /**
+     * 어림값 조회 실패(권한 부족, 지원하지 않는 구문, 찾지 못한 테이블)는 어림값 없음으로 바꾼다. 취소와 타임아웃은 그대로 던진다.
+     */
+    private static Long orNull(Supplier<Long> estimate, QueryTrace trace) {
+        try {
+            return estimate.get();
+        } catch (DataAccessException | IllegalArgumentException e) {
+            if (trace.cancelled() || e instanceof QueryTimeoutException) {
+                throw e;
+            }
+            log.debug("Row count estimate unavailable: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 첫 줄(최상위 노드)의 예상 행 수를 읽는다.
+     *
+     * <p>input: {@code Seq Scan on orders  (cost=0.00..18334.00 rows=1000000 width=32)} -> output: 1000000
+     */
+    private static Long postgresPlanRows(ResultSet resultSet) throws SQLException {
+        if (!resultSet.next()) {
+            return null;
+        }
+        Matcher matcher = PLAN_ROWS.matcher(resultSet.getString(1));
+        return matcher.find() ? Long.valueOf(matcher.group(1)) : null;
+    }
+
+    /**
+     * 바깥 쿼리(SIMPLE, PRIMARY)를 이루는 테이블마다 rows x filtered%를 곱해 조인 결과 크기를 어림한다.
+     *
+     * <p>input: orders(rows 1000000, filtered 10), items(rows 1, filtered 100) -> output: 100000
+     */
+    private static Long mySqlPlanRows(ResultSet resultSet) throws SQLException {
+        int selectType = resultSet.findColumn("select_type");
+        int rows = resultSet.findColumn("rows");
+        int filtered = resultSet.findColumn("filtered");
+        double estimate = 1;
+        boolean found = false;
+        while (resultSet.next()) {
+            String type = resultSet.getString(selectType);
+            if (!"SIMPLE".equalsIgnoreCase(type) && !"PRIMARY".equalsIgnoreCase(type)) {
+                continue;
+            }
+            long tableRows = resultSet.getLong(rows);
+            if (resultSet.wasNull()) {
+                continue;
+            }
+            double percent = resultSet.getDouble(filtered);
+            estimate *= tableRows * (resultSet.wasNull() ? 100 : percent) / 100;
+            found = true;
+        }
+        return found ? Math.round(estimate) : null;
+    }
+
+    private Long tableStatistics(Dialect dialect, DataSourceHandle dataSource, String body, QueryTrace trace) {
+        Matcher matcher = SINGLE_TABLE.matcher(body);
+        if (!matcher.matches() || SET_OPERATOR.matcher(body).find()) {
+            return null;
+        }
+        TableDescription table = schemaCatalog.describe(dataSource, matcher.group(1), matcher.group(2), false, trace);
+        if (table.rowCountEstimate() != null || dialect != Dialect.H2) {
+            return table.rowCountEstimate();
+        }
+        // H2 드라이버는 인덱스 통계 행을 주지 않으므로 INFORMATION_SCHEMA의 어림 행 수를 읽는다.
+        return queryExecutor.query(dataSource.dataSource(), """
+                SELECT ROW_COUNT_ESTIMATE FROM INFORMATION_SCHEMA.TABLES WHERE TABLE_SCHEMA = ? AND TABLE_NAME = ?
+                """, List.of(table.schema(), table.table()), trace,
+                resultSet -> resultSet.next() ? resultSet.getObject(1, Long.class) : null);
+    }
+
+    /**
+     * 행 제한 구문과 실행 계획 형식이 다른 데이터베이스 계열.
+     */
+    private enum Dialect {
+        POSTGRESQL, MYSQL, H2, LIMIT, FETCH_FIRST, OTHER;
+
+        static Dialect of(String url) {
+            String lower = url == null ? "" : url.toLowerCase(Locale.ROOT);
+            if (lower.startsWith("jdbc:postgresql:")) {
+                return POSTGRESQL;
+            }
+            if (lower.startsWith("jdbc:mysql:") || lower.startsWith("jdbc:mariadb:")) {
+                return MYSQL;
+            }
+            if (lower.startsWith("jdbc:h2:")) {
+                return H2;
+            }
+            if (lower.startsWith("jdbc:sqlite:")) {
+                return LIMIT;
+            }
+            if (lower.startsWith("jdbc:oracle:") || lower.startsWith("jdbc:db2:") || lower.startsWith("jdbc:derby:")) {
+                return FETCH_FIRST;
+            }
+            return OTHER;
+        }
+
+        /**
+         * 쿼리를 감싸 행 수를 제한한다. 구문을 모르는 데이터베이스는 감싸지 않고 JDBC maxRows에만 맡긴다.
+         *
+         * <p>input: (H2, "SELECT * FROM orders", 21) -> output: {@code SELECT * FROM (SELECT * FROM orders) src_preview LIMIT 21}
+         */
+        String limit(String body, int rows) {
+            return switch (this) {
+                case POSTGRESQL, MYSQL, H2, LIMIT -> "SELECT * FROM " + SqlText.derivedTable(body, "src_preview")
+                        + " LIMIT " + rows;
+                case FETCH_FIRST -> "SELECT * FROM " + SqlText.derivedTable(body, "src_preview")
+                        + " FETCH FIRST " + rows + " ROWS ONLY";
+                case OTHER -> body;
+            };
+        }
+    }
+}
@@ -0,0 +1,296 @@
+package com.subcharacter.db_to_csv_mcp.service;
+
+import com.subcharacter.db_to_csv_mcp.config.ResultCacheProperties;
+import com.subcharacter.db_to_csv_mcp.service.DataSourceRegistry.DataSourceKey;
+import com.subcharacter.db_to_csv_mcp.service.QueryService.CacheOptions;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * CSV 조회 결과를 정규화한 SQL, 데이터소스 식별자, 따옴표 옵션별로 잠시 보관한다.
+ *
+ * <p>항목마다 TTL이 있고, 전체 저장 바이트가 상한을 넘으면 접근 순서 기준 LRU로 버린다.
+ * 압축을 켜면 gzip 바이트로 보관해 같은 예산에 더 많은 결과를 담는다. 데이터소스 식별자에는 자격 증명 해시가 포함되므로
+ * 다른 사용자의 결과를 돌려주지 않는다. 적중/실패/우회 횟수는 {@code dbcsv.cache.*} 메트릭으로 노출된다. 스레드-세이프하다.
+ *
+ * @author subCharacter
+ * @since 1.0
+ * @version 1.0
+ */
+@Component
+class QueryResultCache {
+
+    private final ResultCacheProperties properties;
+    private final Map<ResultKey, Entry> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter bypasses;
+    private final Counter evictions;
+    private long storedBytes;
+
+    QueryResultCache(ResultCacheProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.hits = requests(meterRegistry, "hit");
+        this.misses = requests(meterRegistry, "miss");
+        this.bypasses = requests(meterRegistry, "bypass");
+        this.evictions = Counter.builder("dbcsv.cache.evictions")
+                .description("Result cache entries dropped for TTL, size budget or invalidation")
+                .register(meterRegistry);
+        Gauge.builder("dbcsv.cache.bytes", this, QueryResultCache::storedBytes)
+                .description("Bytes held by the result cache")
+                .register(meterRegistry);
+        Gauge.builder("dbcsv.cache.entries", this, QueryResultCache::size)
+                .description("Entries held by the result cache")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 캐시된 결과를 돌려주고, 없으면 loader로 조회해 저장한다.
+     *
+     * @param key 결과 식별자
+     * @param options 호출별 우회/갱신 옵션(널 허용)
+     * @param trace 적중 시 행·바이트 수를 기록할 추적
+     * @param loader 데이터베이스에서 CSV를 만드는 작업
+     * @return CSV 결과
+     */
+    String get(ResultKey key, CacheOptions options, QueryTrace trace, Supplier<String> loader) {
+        boolean bypass = !properties.enabled() || (options != null && options.bypassRequested());
+        if (bypass) {
+            bypasses.increment();
+            return loader.get();
+        }
+        if (options != null && options.refreshRequested()) {
+            invalidate(key);
+        } else {
+            Entry cached = lookup(key);
+            if (cached != null) {
+                hits.increment();
+                String csv = cached.csv();
+                trace.addRows(cached.rows());
+                trace.addBytes(csv.length());
+                return csv;
+            }
+        }
+        misses.increment();
+        long rowsBefore = trace.rows();
+        String csv = loader.get();
+        store(key, csv, trace.rows() - rowsBefore);
+        return csv;
+    }
+
+    void invalidate(ResultKey key) {
+        synchronized (entries) {
+            Entry removed = entries.remove(key);
+            if (removed != null) {
+                storedBytes -= removed.payload().length;
+                evictions.increment();
+            }
+        }
+    }
+
+    void clear() {
+        synchronized (entries) {
+            evictions.increment(entries.size());
+            entries.clear();
+            storedBytes = 0;
+        }
+    }
+
+    int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    long storedBytes() {
+        synchronized (entries) {
+            return storedBytes;
+        }
+    }
+
+    private Entry lookup(ResultKey key) {
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (entry == null) {
+                return null;
+            }
+            if (System.nanoTime() - entry.expiresAtNanos() >= 0) {
+                entries.remove(key);
+                storedBytes -= entry.payload().length;
+                evictions.increment();
+                return null;
+            }
+            return entry;
+        }
+    }
+
+    private void store(ResultKey key, String csv, long rows) {
+        long maxEntryBytes = properties.maxEntrySize().toBytes();
+        // UTF-8은 문자당 최소 1바이트이므로 길이만으로 명백히 큰 결과는 인코딩 전에 거른다.
+        if (!properties.compress() && csv.length() > maxEntryBytes) {
+            return;
+        }
+        byte[] payload = encode(csv);
+        if (payload.length > maxEntryBytes) {
+            return;
+        }
+        Entry entry = new Entry(payload, properties.compress(), rows, System.nanoTime() + properties.ttl().toNanos());
+        long maxBytes = properties.maxSize().toBytes();
+        synchronized (entries) {
+            Entry previous = entries.put(key, entry);
+            if (previous != null) {
+                storedBytes -= previous.payload().length;
+            }
+            storedBytes += payload.length;
+            Iterator<Entry> eldest = entries.values().iterator();
+            while (storedBytes > maxBytes && eldest.hasNext()) {
+                storedBytes -= eldest.next().payload().length;
+                eldest.remove();
+                evictions.increment();
+            }
+        }
+    }
+
+    private byte[] encode(String csv) {
+        byte[] bytes = csv.getBytes(StandardCharsets.UTF_8);
+        if (!properties.compress()) {
+            return bytes;
+        }
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(Math.max(64, bytes.length / 4));
+        try (OutputStream out = new GZIPOutputStream(buffer)) {
+            out.write(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return buffer.toByteArray();
+    }
+
+    private static Counter requests(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("dbcsv.cache.requests")
+                .description("Result cache lookups by outcome")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    /**
+     * 캐시 키를 만든다. SQL은 리터럴·따옴표 식별자 밖의 공백을 한 칸으로 줄이고 끝의 종결자를 지워 정규화한다.
+     *
+     * <p>input: "SELECT  *\n FROM items ;" -> sql: "SELECT * FROM items"
+     *
+     * @return 결과 식별자
+     */
+    static ResultKey key(String sql, DataSourceKey dataSource, boolean quoteHeaders, ValueQuoteMode valueQuoteMode) {
+        return key(sql, dataSource, quoteHeaders, valueQuoteMode, OutputFormat.CSV, List.of(), QueryLimits.NONE);
+    }
+
+    /**
+     * 출력 형식, 바인드 값, 상한을 포함한 캐시 키를 만든다. 상한이 다르면 잘린 결과가 달라지므로 다른 항목으로 취급한다.
+     *
+     * <p>input: ("SELECT name FROM items WHERE id = ?", [1]) -> sql: "SELECT name FROM items WHERE id = ?",
+     * parameters: [1]
+     *
+     * @return 결과 식별자
+     */
+    static ResultKey key(String sql, DataSourceKey dataSource, boolean quoteHeaders, ValueQuoteMode valueQuoteMode,
+                         OutputFormat format, List<?> parameters, QueryLimits limits) {
+        return new ResultKey(normalize(sql), dataSource, quoteHeaders, valueQuoteMode, format,
+                Collections.unmodifiableList(new ArrayList<>(parameters)), limits);
+    }
+
+    /**
+     * 공백 차이와 주석, 끝의 문장 종결자를 지워 같은 쿼리가 같은 키를 갖게 한다. 리터럴과 따옴표 식별자 안은 그대로 두고,
+     * 주석은 {@link ReadOnlySqlValidator}와 같은 규칙으로 건너뛰어 줄 주석이 어디서 끝나는지를 잃지 않는다.
+     *
+     * <p>input: {@code SELECT 1 -- x\nFROM t} -> output: {@code SELECT 1 FROM t},
+     * input: {@code SELECT 1 -- x FROM t} -> output: {@code SELECT 1}
+     *
+     * @param sql 원본 SQL
+     * @return 정규화한 SQL
+     */
+    static String normalize(String sql) {
+        StringBuilder builder = new StringBuilder(sql.length());
+        boolean pendingSpace = false;
+        int length = sql.length();
+        int i = 0;
+        while (i < length) {
+            char current = sql.charAt(i);
+            int skipped = i;
+            if (Character.isWhitespace(current)) {
+                skipped = i + 1;
+            } else if (current == '-' && i + 1 < length && sql.charAt(i + 1) == '-') {
+                skipped = SqlText.skipLineComment(sql, i + 2);
+            } else if (current == '/' && i + 1 < length && sql.charAt(i + 1) == '*') {
+                skipped = SqlText.skipBlockComment(sql, i + 2);
+            }
+            if (skipped > i) {
+                // 주석도 공백 하나로 본다.
+                pendingSpace = builder.length() > 0;
+                i = skipped;
+                continue;
+            }
+            int next = current == '\'' || current == '"' || current == '`'
+                    ? SqlText.skipQuoted(sql, i + 1, current)
+                    : i + 1;
+            if (pendingSpace) {
+                builder.append(' ');
+                pendingSpace = false;
+            }
+            builder.append(sql, i, next);
+            i = next;
+        }
+        int end = builder.length();
+        while (end > 0 && (builder.charAt(end - 1) == ';' || builder.charAt(end - 1) == ' ')) {
+            end--;
+        }
+        builder.setLength(end);
+        return builder.toString();
+    }
+
+    /**
+     * 캐시 항목을 구분하는 식별자.
+     *
+     * @param sql 정규화한 SQL
+     * @param dataSource 자격 증명 해시를 포함한 데이터소스 식별자
+     * @param quoteHeaders 헤더 따옴표 여부
+     * @param valueQuoteMode 본문 값 따옴표 모드
+     * @param format 출력 형식
+     * @param parameters 순서대로 바인딩한 값(널 허용 원소)
+     * @param limits 결과에 적용한 타임아웃과 행/바이트 상한
+     */
+    record ResultKey(String sql, DataSourceKey dataSource, boolean quoteHeaders, ValueQuoteMode valueQuoteMode,
+                     OutputFormat format, List<Object> parameters, QueryLimits limits) {
+    }
+
+    private record Entry(byte[] payload, boolean compressed, long rows, long expiresAtNanos) {
+
+        private String csv() {
+            if (!compressed) {
+                return new String(payload, StandardCharsets.UTF_8);
+            }
+            try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(payload))) {
+                return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
@@ -1,40 +1,85 @@
 package com.subcharacter.db_to_csv_mcp.service;
 
-import org.apache.commons.csv.CSVFormat;
-import org.apache.commons.csv.QuoteMode;
+import com.subcharacter.db_to_csv_mcp.config.QueryProperties;
+import com.subcharacter.db_to_csv_mcp.service.DataSourceRegistry.DataSourceHandle;
 import org.springframework.ai.tool.annotation.Tool;
 import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
 import org.springframework.dao.DataAccessException;
-import org.springframework.jdbc.core.ColumnMapRowMapper;
-import org.springframework.jdbc.core.ConnectionCallback;
-import org.springframework.jdbc.core.JdbcTemplate;
-import org.springframework.jdbc.datasource.DriverManagerDataSource;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 
+import java.io.IOException;
 import java.io.StringWriter;
-import java.sql.Connection;
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
-import java.sql.SQLException;
-import java.sql.SQLFeatureNotSupportedException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
-import java.util.Map;
-import java.util.regex.Pattern;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 @Service
 public class QueryService {
 
-    private static final Pattern MUTATING_KEYWORDS =
-            Pattern.compile("\\b(insert|update|delete|merge|alter|drop|truncate|create|replace|call)\\b");
-    private static final String SELECT_ONLY_MESSAGE = "Only SELECT queries are allowed.";
+    static final String TRUNCATED_MARKER = "#truncated";
 
     private final DataSourceProperties dataSourceProperties;
+    private final DataSourceRegistry dataSourceRegistry;
+    private final ReadOnlyQueryExecutor queryExecutor;
+    private final QueryFileExporter fileExporter;
+    private final QueryMetrics queryMetrics;
+    private final PartitionedQueryRunner partitionedRunner;
+    private final DataSourceCallLimiter callLimiter;
+    private final BatchQueryRunner batchRunner;
+    private final ReadOnlySqlValidator sqlValidator;
+    private final QueryResultCache resultCache;
+    private final QueryCoalescer coalescer;
+    private final PagedQueryRunner pagedRunner;
+    private final QueryProperties queryProperties;
+    private final RunningQueryRegistry runningQueries;
+    private final SchemaCatalog schemaCatalog;
+    private final IncrementalExporter incrementalExporter;
+    private final QueryPreviewer previewer;
 
-    public QueryService(DataSourceProperties dataSourceProperties) {
+    public QueryService(DataSourceProperties dataSourceProperties,
+                        DataSourceRegistry dataSourceRegistry,
+                        ReadOnlyQueryExecutor queryExecutor,
+                        QueryFileExporter fileExporter,
+                        QueryMetrics queryMetrics,
+                        PartitionedQueryRunner partitionedRunner,
+                        DataSourceCallLimiter callLimiter,
+                        BatchQueryRunner batchRunner,
+                        ReadOnlySqlValidator sqlValidator,
+                        QueryResultCache resultCache,
+                        QueryCoalescer coalescer,
+                        PagedQueryRunner pagedRunner,
+                        QueryProperties queryProperties,
+                        RunningQueryRegistry runningQueries,
+                        SchemaCatalog schemaCatalog,
+                        IncrementalExporter incrementalExporter,
+                        QueryPreviewer previewer) {
         this.dataSourceProperties = dataSourceProperties;
+        this.dataSourceRegistry = dataSourceRegistry;
+        this.queryExecutor = queryExecutor;
+        this.fileExporter = fileExporter;
+        this.queryMetrics = queryMetrics;
+        this.partitionedRunner = partitionedRunner;
+        this.callLimiter = callLimiter;
+        this.batchRunner = batchRunner;
+        this.sqlValidator = sqlValidator;
+        this.resultCache = resultCache;
+        this.coalescer = coalescer;
+        this.pagedRunner = pagedRunner;
+        this.queryProperties = queryProperties;
+        this.runningQueries = runningQueries;
+        this.schemaCatalog = schemaCatalog;
+        this.incrementalExporter = incrementalExporter;
+        this.previewer = previewer;
     }
 
     @Tool(
@@ -42,11 +87,24 @@ public class QueryService {
             description = """
             읽기 전용 SQL을 실행하고 결과를 CSV로 반환합니다.
             매개변수:
-            - sql: SELECT 전용 쿼리
+            - sql: SELECT 전용 쿼리 (값은 리터럴 대신 ? 자리표시자로 쓰면 같은 모양의 쿼리가 준비된 문장을 재사용)
+            - parameters: sql의 ? 자리에 순서대로 바인딩할 값 목록 (선택, 항목마다 type과 value;
+              type은 string/integer/long/decimal/double/boolean/date/time/timestamp, 기본 string, value가 null이면 NULL)
             - username: 데이터베이스 사용자명
             - password: 데이터베이스 비밀번호
             - quoteHeaders: 헤더를 큰따옴표로 감쌀지 여부
             - valueQuoteMode: 본문 값 따옴표 모드 (1: 기본, 2: 문자열만, 3: 전체)
+            - format: 출력 형식 (선택, csv 기본 | tsv | jsonl | columnar: 컬럼 배치 바이너리를 Base64로 반환)
+            - partition.column: 범위로 나눠 병렬로 읽을 숫자/날짜 컬럼 (선택, csv 전용, 결과는 파티션 순서로 정렬)
+            - partition.parallelism: 병렬 파티션 수 (선택, 기본 4, 데이터소스의 동시 실행 한도 중 비어 있는 만큼만 사용)
+            - cache.bypass: 결과 캐시를 읽지도 저장하지도 않음 (선택)
+            - cache.refresh: 캐시된 결과를 버리고 다시 조회해 저장 (선택)
+            - limits.timeoutSeconds: 문장 타임아웃 초 (선택, 서버 설정보다 길게 지정 불가)
+            - limits.maxRows: 최대 데이터 행 수 (선택)
+            - limits.maxBytes: 최대 응답 크기 (선택, 문자 수 기준)
+            - limits.maxTokens: 최대 응답 토큰 수 (선택, 어림값)
+            예산을 넘기 전까지의 행 뒤에 '#truncated'로 시작하는 줄(내보낸 행 수 포함)을 붙여 반환하며,
+            남은 행은 데이터베이스에서 가져오지 않습니다.
             보안: INSERT/UPDATE/DELETE/DDL은 차단됩니다.
             """
     )
@@ -55,9 +113,14 @@ public class QueryService {
         if (!StringUtils.hasText(request.username())) {
             throw new IllegalArgumentException("Database username is required.");
         }
-        JdbcTemplate jdbcTemplate = new JdbcTemplate(buildConfiguredDataSource(request.username(), request.password()));
+        DataSourceHandle dataSource = buildConfiguredDataSource(request.username(), request.password());
         ValueQuoteMode valueQuoteMode = ValueQuoteMode.fromCode(request.valueQuoteMode());
-        return executeWithTemplate(request.sql(), request.quoteHeaders(), valueQuoteMode, jdbcTemplate);
+        OutputFormat format = outputFormat(request.format(), request.partition());
+        List<Object> parameters = bindValues(request.parameters());
+        QueryLimits limits = QueryLimits.resolve(queryProperties, request.limits(), true);
+        return traced("executeQuery", request.sql(), limits, dataSource, trace -> executeCached(request.sql(),
+                parameters, request.quoteHeaders(), valueQuoteMode, format, request.partition(), request.cache(),
+                dataSource, trace));
     }
 
     @Tool(
@@ -67,201 +130,490 @@ public class QueryService {
             매개변수:
             - url: JDBC 연결 문자열
             - driverClassName: JDBC 드라이버 클래스 (선택)
-            - sql: SELECT 전용 쿼리
+            - sql: SELECT 전용 쿼리 (값은 리터럴 대신 ? 자리표시자로 쓰면 같은 모양의 쿼리가 준비된 문장을 재사용)
+            - parameters: sql의 ? 자리에 순서대로 바인딩할 값 목록 (선택, 항목마다 type과 value;
+              type은 string/integer/long/decimal/double/boolean/date/time/timestamp, 기본 string, value가 null이면 NULL)
             - username: 데이터베이스 사용자명
             - password: 데이터베이스 비밀번호
             - quoteHeaders: 헤더를 큰따옴표로 감쌀지 여부
             - valueQuoteMode: 본문 값 따옴표 모드 (1: 기본, 2: 문자열만, 3: 전체)
+            - format: 출력 형식 (선택, csv 기본 | tsv | jsonl | columnar: 컬럼 배치 바이너리를 Base64로 반환)
+            - partition.column: 범위로 나눠 병렬로 읽을 숫자/날짜 컬럼 (선택, csv 전용, 결과는 파티션 순서로 정렬)
+            - partition.parallelism: 병렬 파티션 수 (선택, 기본 4, 데이터소스의 동시 실행 한도 중 비어 있는 만큼만 사용)
+            - cache.bypass: 결과 캐시를 읽지도 저장하지도 않음 (선택)
+            - cache.refresh: 캐시된 결과를 버리고 다시 조회해 저장 (선택)
+            - limits.timeoutSeconds: 문장 타임아웃 초 (선택, 서버 설정보다 길게 지정 불가)
+            - limits.maxRows: 최대 데이터 행 수 (선택)
+            - limits.maxBytes: 최대 응답 크기 (선택, 문자 수 기준)
+            - limits.maxTokens: 최대 응답 토큰 수 (선택, 어림값)
+            예산을 넘기 전까지의 행 뒤에 '#truncated'로 시작하는 줄(내보낸 행 수 포함)을 붙여 반환하며,
+            남은 행은 데이터베이스에서 가져오지 않습니다.
             """
     )
     public String executeQueryWithConnection(ExternalQueryRequest request) {
         validateReadOnlySql(request.sql());
         validateExternalConnection(request);
-        DriverManagerDataSource dataSource = createDataSource(
+        DataSourceHandle dataSource = createDataSource(
                 request.url(),
                 request.driverClassName(),
                 request.username(),
                 request.password()
         );
-        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
         ValueQuoteMode valueQuoteMode = ValueQuoteMode.fromCode(request.valueQuoteMode());
-        return executeWithTemplate(request.sql(), request.quoteHeaders(), valueQuoteMode, jdbcTemplate);
+        OutputFormat format = outputFormat(request.format(), request.partition());
+        List<Object> parameters = bindValues(request.parameters());
+        QueryLimits limits = QueryLimits.resolve(queryProperties, request.limits(), true);
+        return traced("executeQueryWithConnection", request.sql(), limits, dataSource, trace -> executeCached(
+                request.sql(), parameters, request.quoteHeaders(), valueQuoteMode, format, request.partition(),
+                request.cache(), dataSource, trace));
     }
 
-    private void validateReadOnlySql(String sql) {
-        if (!StringUtils.hasText(sql)) {
-            throw new IllegalArgumentException("SQL must not be blank.");
-        }
-        String sanitized = stripCommentsAndLiterals(sql);
-        String trimmed = sanitized.stripLeading();
-        if (!StringUtils.hasText(trimmed)) {
-            throw new IllegalArgumentException("SQL must not be blank.");
-        }
-        String normalized = trimmed.toLowerCase(Locale.ROOT);
-        if (!(normalized.startsWith("select") || normalized.startsWith("with"))) {
-            throw new IllegalArgumentException(SELECT_ONLY_MESSAGE);
-        }
-        if (MUTATING_KEYWORDS.matcher(normalized).find()) {
-            throw new IllegalArgumentException(SELECT_ONLY_MESSAGE);
-        }
-        ensureSingleStatement(normalized);
+    @Tool(
+            name = "exportQuery",
+            description = """
+            읽기 전용 SQL 결과를 응답 대신 서버의 내보내기 디렉터리에 CSV 파일로 저장합니다.
+            대용량 결과에 사용하며, 파일 경로/행 수/바이트 크기/SHA-256 체크섬을 반환합니다.
+            매개변수:
+            - url: JDBC 연결 문자열 (선택, 비우면 기본 데이터소스)
+            - driverClassName: JDBC 드라이버 클래스 (선택)
+            - sql: SELECT 전용 쿼리
+            - username: 데이터베이스 사용자명
+            - password: 데이터베이스 비밀번호
+            - quoteHeaders: 헤더를 큰따옴표로 감쌀지 여부
+            - valueQuoteMode: 본문 값 따옴표 모드 (1: 기본, 2: 문자열만, 3: 전체)
+            - format: 출력 형식 (선택, csv 기본 | tsv | jsonl | columnar: 컬럼 배치 바이너리 .dbcol 파일)
+            - fileName: 저장할 파일 이름 (선택, 경로 불가)
+            - gzip: gzip 압축 여부
+            - partition.column: 범위로 나눠 병렬로 읽을 숫자/날짜 컬럼 (선택, csv 전용, 결과는 파티션 순서로 정렬)
+            - partition.parallelism: 병렬 파티션 수 (선택, 기본 4, 데이터소스의 동시 실행 한도 중 비어 있는 만큼만 사용)
+            - limits.timeoutSeconds: 문장 타임아웃 초 (선택, 서버 설정보다 길게 지정 불가)
+            - limits.maxRows: 최대 데이터 행 수 (선택)
+            - limits.maxBytes: 최대 파일 크기 (선택, 압축 전 문자 수 기준)
+            - nativeExport: 데이터베이스 고유의 대량 내보내기 사용 여부 (선택, 기본 true, false면 항상 JDBC 행 단위 렌더링)
+            행/크기 상한은 파티션으로 나눠 읽어도 합친 결과 전체에 한 번 적용되며, 상한에 닿으면 결과의 truncated가 true입니다.
+            데이터베이스가 결과를 직접 CSV로 쓸 수 있으면(현재 내장 H2의 CSVWRITE) 행 단위 렌더링 없이 더 빠르게 저장합니다.
+            H2는 헤더와 모든 값을 따옴표로 감싸므로 quoteHeaders=true, valueQuoteMode=3인 csv 내보내기에만 쓰며,
+            gzip/partition/limits.maxRows/limits.maxBytes를 지정하면 일반 경로를 씁니다.
+            이때 값의 문자열 표현은 데이터베이스 규칙을 따릅니다(예: 불리언 TRUE, 타임스탬프 소수 초 생략).
+            """
+    )
+    public ExportResult exportQuery(ExportQueryRequest request) {
+        validateReadOnlySql(request.sql());
+        DataSourceHandle dataSource = resolveDataSource(
+                request.url(), request.driverClassName(), request.username(), request.password());
+        ValueQuoteMode valueQuoteMode = ValueQuoteMode.fromCode(request.valueQuoteMode());
+        OutputFormat format = outputFormat(request.format(), request.partition());
+        QueryLimits limits = QueryLimits.resolve(queryProperties, request.limits(), false);
+        return traced("exportQuery", request.sql(), limits, dataSource, trace ->
+                callLimiter.run(dataSource.key(), trace, () -> {
+                    try {
+                        if (!Boolean.FALSE.equals(request.nativeExport())) {
+                            NativeExportDialect.Options options = new NativeExportDialect.Options(format,
+                                    request.quoteHeaders(), valueQuoteMode, request.gzip(),
+                                    request.partition() != null && request.partition().enabled(), false, limits);
+                            ExportResult exported = fileExporter.exportNative(
+                                    dataSource, request.sql(), options, request.fileName(), trace);
+                            if (exported != null) {
+                                return exported;
+                            }
+                        }
+                        if (format.binary()) {
+                            return fileExporter.exportBinary(request.fileName(), request.gzip(), format.extension(),
+                                    trace, out -> queryExecutor.query(dataSource.dataSource(), request.sql(), trace,
+                                            format.writer(out, request.quoteHeaders(), valueQuoteMode, trace)::write));
+                        }
+                        return fileExporter.export(request.fileName(), request.gzip(), format.extension(), trace,
+                                out -> writeResult(request.sql(), List.of(), request.quoteHeaders(), valueQuoteMode,
+                                        format, request.partition(), dataSource, trace, out));
+                    } catch (DataAccessException e) {
+                        throw QueryFailures.rejected(e, trace);
+                    }
+                }));
     }
 
-    private String executeWithTemplate(String sql, boolean quoteHeaders, ValueQuoteMode valueQuoteMode, JdbcTemplate jdbcTemplate) {
-        List<Map<String, Object>> rows;
-        try {
-            rows = executeReadOnlyQuery(sql, jdbcTemplate);
-        } catch (DataAccessException e) {
-            throw new IllegalStateException(
-                    "Database rejected the read-only query: " + e.getMostSpecificCause().getMessage(), e);
-        }
-        if (rows.isEmpty()) {
-            return "";
-        }
+    @Tool(
+            name = "exportIncremental",
+            description = """
+            이름 붙인 작업의 워터마크 이후 새 행만 내보내기 디렉터리의 CSV 파일로 저장합니다.
+            같은 테이블을 주기적으로 다시 추출할 때 exportQuery 대신 사용하면 비용이 전체 크기가 아닌 새 데이터 양에 비례합니다.
+            작업별 마지막 워터마크는 서버에 저장되며, 파일 쓰기가 끝난 뒤에만 전진합니다.
+            첫 실행은 전체를 새 파일로 쓰고, 이후 실행은 같은 파일에 헤더 없이 덧붙입니다(append=false면 실행마다 새 파일).
+            매개변수:
+            - url: JDBC 연결 문자열 (선택, 비우면 기본 데이터소스)
+            - driverClassName: JDBC 드라이버 클래스 (선택)
+            - sql: SELECT 전용 쿼리 (ORDER BY 불필요, 결과를 워터마크 순으로 정렬해 읽음)
+            - parameters: sql의 ? 자리에 순서대로 바인딩할 값 목록 (선택, executeQuery와 같은 형식)
+            - username: 데이터베이스 사용자명
+            - password: 데이터베이스 비밀번호
+            - quoteHeaders: 헤더를 큰따옴표로 감쌀지 여부
+            - valueQuoteMode: 본문 값 따옴표 모드 (1: 기본, 2: 문자열만, 3: 전체)
+            - jobName: 작업 이름 (영문자/숫자/_/-, 최대 64자; 워터마크 저장 키)
+            - watermarkColumn: 단조 증가하고 NULL이 없는 결과 컬럼 (예: id, ordered_at)
+            - fileName: 저장할 파일 이름 (선택, 경로 불가; 덧붙이기 기본값은 작업이름.csv)
+            - append: 이전 실행의 파일에 덧붙일지 여부 (선택, 기본 true)
+            - gzip: gzip 압축 여부 (덧붙이면 실행마다 gzip 멤버가 추가되며 한 번에 풀림)
+            - reset: 저장된 워터마크를 버리고 처음부터 다시 내보냄 (선택, 쿼리나 컬럼을 바꿨을 때)
+            - limits.timeoutSeconds: 문장 타임아웃 초 (선택, 서버 설정보다 길게 지정 불가)
+            - limits.maxRows: 한 번에 내보낼 최대 행 수 (선택, 남은 행은 다음 실행이 이어서 내보냄)
+            - limits.maxBytes: 한 번에 쓸 최대 크기 (선택, 압축 전 문자 수 기준)
+            워터마크 값이 같은 행은 한 실행에서 모두 내보내므로 상한에 걸린 마지막 값의 행은 통째로 다음 실행에 넘어갑니다.
+            결과의 previousWatermark/watermark로 이번 실행이 내보낸 범위를 확인할 수 있습니다.
+            """
+    )
+    public IncrementalExportResult exportIncremental(IncrementalExportRequest request) {
+        validateReadOnlySql(request.sql());
+        DataSourceHandle dataSource = resolveDataSource(
+                request.url(), request.driverClassName(), request.username(), request.password());
+        ValueQuoteMode valueQuoteMode = ValueQuoteMode.fromCode(request.valueQuoteMode());
+        List<Object> parameters = bindValues(request.parameters());
+        QueryLimits limits = QueryLimits.resolve(queryProperties, request.limits(), false);
+        return traced("exportIncremental", request.sql(), limits, dataSource, trace ->
+                callLimiter.run(dataSource.key(), trace, () -> {
+                    try {
+                        return incrementalExporter.export(dataSource, request.sql(), parameters, request.jobName(),
+                                request.watermarkColumn(), request.quoteHeaders(), valueQuoteMode,
+                                request.fileName(), !Boolean.FALSE.equals(request.append()), request.gzip(),
+                                Boolean.TRUE.equals(request.reset()), trace);
+                    } catch (DataAccessException e) {
+                        throw QueryFailures.rejected(e, trace);
+                    }
+                }));
+    }
 
-        StringWriter out = new StringWriter();
-        String[] headers = rows.get(0).keySet().toArray(new String[0]);
-        CSVFormat baseFormat = CSVFormat.DEFAULT;
-        CSVFormat headerFormat = quoteHeaders
-                ? baseFormat.builder().setQuoteMode(QuoteMode.ALL).build()
-                : baseFormat;
-        String recordSeparator = baseFormat.getRecordSeparator() != null
-                ? baseFormat.getRecordSeparator()
-                : System.lineSeparator();
-        out.append(headerFormat.format((Object[]) headers)).append(recordSeparator);
-
-        for (var row : rows) {
-            out.append(formatRow(row, headers, valueQuoteMode)).append(recordSeparator);
-        }
-        return out.toString();
+    @Tool(
+            name = "executeQueries",
+            description = """
+            같은 데이터소스에 대한 여러 읽기 전용 SQL을 한 번의 호출로 동시에 실행하고 쿼리별 CSV를 반환합니다.
+            모든 쿼리를 먼저 검증하며, 실패한 쿼리는 배치 전체를 중단하지 않고 해당 항목의 error로 보고됩니다.
+            결과는 입력 순서(index)대로 반환됩니다. 데이터소스의 동시 실행 한도 중 비어 있는 만큼만 동시에 실행합니다.
+            매개변수:
+            - url: JDBC 연결 문자열 (선택, 비우면 기본 데이터소스)
+            - driverClassName: JDBC 드라이버 클래스 (선택)
+            - sqls: SELECT 전용 쿼리 목록
+            - username: 데이터베이스 사용자명
+            - password: 데이터베이스 비밀번호
+            - quoteHeaders: 헤더를 큰따옴표로 감쌀지 여부
+            - valueQuoteMode: 본문 값 따옴표 모드 (1: 기본, 2: 문자열만, 3: 전체)
+            """
+    )
+    public BatchQueryResult executeQueries(BatchQueryRequest request) {
+        DataSourceHandle dataSource = resolveDataSource(
+                request.url(), request.driverClassName(), request.username(), request.password());
+        ValueQuoteMode valueQuoteMode = ValueQuoteMode.fromCode(request.valueQuoteMode());
+        QueryLimits limits = QueryLimits.resolve(queryProperties, null, true);
+        String description = request.sqls() == null ? "" : String.join("; ", request.sqls());
+        return traced("executeQueries", description, limits, dataSource, trace ->
+                callLimiter.run(dataSource.key(), trace, () -> new BatchQueryResult(batchRunner.run(
+                        dataSource, request.sqls(), this::validateReadOnlySql,
+                        request.quoteHeaders(), valueQuoteMode, trace))));
     }
 
-    private List<Map<String, Object>> executeReadOnlyQuery(String sql, JdbcTemplate jdbcTemplate) {
-        ColumnMapRowMapper rowMapper = new ColumnMapRowMapper();
-        return jdbcTemplate.execute((ConnectionCallback<List<Map<String, Object>>>) connection -> {
-            ReadOnlySettings readOnlySettings = ReadOnlySettings.notApplied();
+    @Tool(
+            name = "executeQueryPage",
+            description = """
+            읽기 전용 SQL 결과를 페이지 단위 CSV로 반환합니다. 각 페이지는 헤더를 포함하며,
+            남은 행이 있으면 continuationToken을 함께 반환하므로 같은 요청에 토큰만 넣어 다음 페이지를 받습니다.
+            orderKey를 지정하면 해당 컬럼 순서의 키셋 페이지(서버 상태 없음)로, 비우면 서버 측 커서로 이어 읽습니다.
+            커서는 일정 시간 사용하지 않으면 닫히며, 만료된 토큰은 쿼리를 처음부터 다시 실행해야 합니다.
+            열린 커서는 닫힐 때까지 데이터소스의 동시 실행 한도 하나를 차지하므로 끝까지 읽지 않을 페이지는 orderKey를 권장합니다.
+            매개변수:
+            - url: JDBC 연결 문자열 (선택, 비우면 기본 데이터소스)
+            - driverClassName: JDBC 드라이버 클래스 (선택)
+            - sql: SELECT 전용 쿼리
+            - parameters: sql의 ? 자리에 순서대로 바인딩할 값 목록 (선택, executeQuery와 같은 형식, 다음 페이지에도 같은 값)
+            - username: 데이터베이스 사용자명
+            - password: 데이터베이스 비밀번호
+            - quoteHeaders: 헤더를 큰따옴표로 감쌀지 여부
+            - valueQuoteMode: 본문 값 따옴표 모드 (1: 기본, 2: 문자열만, 3: 전체)
+            - pageSize: 페이지당 행 수 (선택, 기본 500)
+            - orderKey: 유일하고 NULL이 없는 정렬 컬럼 (선택, 키셋 페이지)
+            - continuationToken: 이전 페이지가 반환한 토큰 (첫 페이지는 비움)
+            """
+    )
+    public PageResult executeQueryPage(PageQueryRequest request) {
+        validateReadOnlySql(request.sql());
+        DataSourceHandle dataSource = resolveDataSource(
+                request.url(), request.driverClassName(), request.username(), request.password());
+        List<Object> parameters = bindValues(request.parameters());
+        ValueQuoteMode valueQuoteMode = ValueQuoteMode.fromCode(request.valueQuoteMode());
+        QueryLimits limits = QueryLimits.resolve(queryProperties, null, true);
+        // 실행 순서는 페이지 방식에 따라 pagedRunner가 얻는다(커서는 닫힐 때까지 붙잡는다).
+        return traced("executeQueryPage", request.sql(), limits, dataSource, trace -> {
             try {
-                readOnlySettings = enableReadOnly(connection);
-                try (PreparedStatement statement = connection.prepareStatement(sql)) {
-                    boolean hasResultSet = statement.execute();
-                    if (!hasResultSet) {
-                        throw new IllegalArgumentException(SELECT_ONLY_MESSAGE);
-                    }
-                    try (ResultSet resultSet = statement.getResultSet()) {
-                        List<Map<String, Object>> results = new ArrayList<>();
-                        int rowNum = 0;
-                        while (resultSet.next()) {
-                            results.add(rowMapper.mapRow(resultSet, rowNum++));
-                        }
-                        return results;
-                    }
-                }
-            } catch (SQLException ex) {
-                throw jdbcTemplate.getExceptionTranslator().translate("executeQuery", sql, ex);
-            } finally {
-                restoreReadOnly(connection, readOnlySettings);
+                return pagedRunner.page(dataSource, request.sql(), parameters, request.quoteHeaders(),
+                        valueQuoteMode, request.pageSize(), request.orderKey(), request.continuationToken(), trace);
+            } catch (DataAccessException e) {
+                throw QueryFailures.rejected(e, trace);
             }
         });
     }
 
-    private String stripCommentsAndLiterals(String sql) {
-        StringBuilder builder = new StringBuilder(sql.length());
-        int length = sql.length();
-        for (int i = 0; i < length; i++) {
-            char current = sql.charAt(i);
-            if (current == '\'') {
-                char quote = current;
-                builder.append(' ');
-                i++;
-                while (i < length) {
-                    char next = sql.charAt(i);
-                    if (next == quote) {
-                        if (i + 1 < length && sql.charAt(i + 1) == quote) {
-                            i += 2;
-                            continue;
-                        }
-                        break;
+    @Tool(
+            name = "summarizeQuery",
+            description = """
+            읽기 전용 SQL 결과의 행 대신 컬럼별 통계를 CSV로 반환합니다. 결과를 한 번만 훑으며 메모리는 행 수와 무관합니다.
+            분포·결측·카디널리티만 필요할 때 executeQuery 대신 사용하면 응답이 수백 바이트로 줄어듭니다.
+            열: column, type, count(NULL 제외), nulls, null_rate, distinct(어림), min, max, mean, p50, p90, p99(어림),
+            top_values(빈도 상위 값과 어림 횟수)
+            숫자 컬럼만 mean과 분위수가 있고, 문자열·날짜 컬럼의 min/max는 문자열 순서 기준입니다.
+            매개변수:
+            - url: JDBC 연결 문자열 (선택, 비우면 기본 데이터소스)
+            - driverClassName: JDBC 드라이버 클래스 (선택)
+            - sql: SELECT 전용 쿼리
+            - parameters: sql의 ? 자리에 순서대로 바인딩할 값 목록 (선택, executeQuery와 같은 형식)
+            - username: 데이터베이스 사용자명
+            - password: 데이터베이스 비밀번호
+            - topValues: 컬럼당 보여줄 빈도 상위 값 수 (선택, 기본 3, 최대 20)
+            - limits.timeoutSeconds: 문장 타임아웃 초 (선택, 서버 설정보다 길게 지정 불가)
+            - limits.maxRows: 통계에 포함할 최대 행 수 (선택, 넘으면 '#truncated' 줄을 붙임)
+            """
+    )
+    public String summarizeQuery(SummaryQueryRequest request) {
+        validateReadOnlySql(request.sql());
+        DataSourceHandle dataSource = resolveDataSource(
+                request.url(), request.driverClassName(), request.username(), request.password());
+        List<Object> parameters = bindValues(request.parameters());
+        QueryLimits limits = QueryLimits.resolve(queryProperties, request.limits(), false);
+        return traced("summarizeQuery", request.sql(), limits, dataSource, trace ->
+                callLimiter.run(dataSource.key(), trace, () -> {
+                    try {
+                        String csv = queryExecutor.query(dataSource.dataSource(), request.sql(), parameters, trace,
+                                new ResultSetSummarizer(trace, request.topValues())::summarize);
+                        trace.addBytes(csv.length());
+                        return csv;
+                    } catch (DataAccessException e) {
+                        throw QueryFailures.rejected(e, trace);
                     }
-                    i++;
-                }
-                continue;
-            }
-            if (current == '"') {
-                char quote = current;
-                builder.append(' ');
-                i++;
-                while (i < length) {
-                    char next = sql.charAt(i);
-                    if (next == quote) {
-                        if (i + 1 < length && sql.charAt(i + 1) == quote) {
-                            i += 2;
-                            continue;
-                        }
-                        break;
+                }));
+    }
+
+    @Tool(
+            name = "previewQuery",
+            description = """
+            읽기 전용 SQL 결과의 앞 몇 행과 전체 행 수 어림값을 반환합니다. 쿼리 전체를 실행하지 않고 행 제한을 걸어 실행하며,
+            행 수는 COUNT(*) 대신 실행 계획(EXPLAIN)이나 테이블 통계로 어림합니다.
+            데이터 모양과 크기를 먼저 보고 executeQuery, executeQueryPage, summarizeQuery, exportQuery 중 무엇을 쓸지 정할 때 사용합니다.
+            반환: csv(앞 행), rowCount, hasMore(더 많은 행이 있는지), estimatedRowCount(어림 행 수, 알 수 없으면 null),
+            estimateSource(exact: 모든 행을 읽음 | explain: 실행 계획 | table_statistics: 테이블 통계, WHERE 미반영 상한 | none)
+            매개변수:
+            - url: JDBC 연결 문자열 (선택, 비우면 기본 데이터소스)
+            - driverClassName: JDBC 드라이버 클래스 (선택)
+            - sql: SELECT 전용 쿼리
+            - parameters: sql의 ? 자리에 순서대로 바인딩할 값 목록 (선택, executeQuery와 같은 형식)
+            - username: 데이터베이스 사용자명
+            - password: 데이터베이스 비밀번호
+            - quoteHeaders: 헤더를 큰따옴표로 감쌀지 여부
+            - valueQuoteMode: 본문 값 따옴표 모드 (1: 기본, 2: 문자열만, 3: 전체)
+            - rows: 반환할 행 수 (선택, 기본 20, 최대 1000)
+            - estimate: 행 수를 어림할지 여부 (선택, 기본 true)
+            - limits.timeoutSeconds: 문장 타임아웃 초 (선택, 서버 설정보다 길게 지정 불가)
+            - limits.maxBytes: 최대 응답 크기 (선택, 문자 수 기준)
+            - limits.maxTokens: 최대 응답 토큰 수 (선택, 어림값)
+            """
+    )
+    public PreviewResult previewQuery(PreviewQueryRequest request) {
+        validateReadOnlySql(request.sql());
+        DataSourceHandle dataSource = resolveDataSource(
+                request.url(), request.driverClassName(), request.username(), request.password());
+        ValueQuoteMode valueQuoteMode = ValueQuoteMode.fromCode(request.valueQuoteMode());
+        List<Object> parameters = bindValues(request.parameters());
+        QueryLimits limits = QueryLimits.resolve(queryProperties, request.limits(), true);
+        return traced("previewQuery", request.sql(), limits, dataSource, trace ->
+                callLimiter.run(dataSource.key(), trace, () -> {
+                    try {
+                        return previewer.preview(dataSource, request.sql(), parameters, request.rows(),
+                                request.quoteHeaders(), valueQuoteMode, !Boolean.FALSE.equals(request.estimate()),
+                                trace);
+                    } catch (DataAccessException e) {
+                        throw QueryFailures.rejected(e, trace);
                     }
-                    i++;
-                }
-                continue;
-            }
-            if (current == '`') {
-                builder.append(' ');
-                i++;
-                while (i < length) {
-                    char next = sql.charAt(i);
-                    if (next == '`') {
-                        if (i + 1 < length && sql.charAt(i + 1) == '`') {
-                            i += 2;
-                            continue;
-                        }
-                        break;
+                }));
+    }
+
+    @Tool(
+            name = "listTables",
+            description = """
+            스키마의 테이블과 뷰 목록을 CSV로 반환합니다. 쿼리를 작성하기 전에 SELECT로 탐색하는 대신 사용합니다.
+            열: table_schema, table_name, table_type, remarks
+            결과는 데이터소스별로 캐시되며(기본 10분), refresh로 다시 읽을 수 있습니다.
+            매개변수:
+            - url: JDBC 연결 문자열 (선택, 비우면 기본 데이터소스)
+            - driverClassName: JDBC 드라이버 클래스 (선택)
+            - username: 데이터베이스 사용자명
+            - password: 데이터베이스 비밀번호
+            - schema: 스키마 이름 (선택, 비우면 현재 스키마)
+            - refresh: 캐시를 버리고 다시 읽음 (선택)
+            """
+    )
+    public String listTables(ListTablesRequest request) {
+        DataSourceHandle dataSource = resolveDataSource(
+                request.url(), request.driverClassName(), request.username(), request.password());
+        QueryLimits limits = QueryLimits.resolve(queryProperties, null, true);
+        String description = "listTables " + (request.schema() == null ? "" : request.schema());
+        return traced("listTables", description, limits, dataSource, trace ->
+                callLimiter.run(dataSource.key(), trace, () -> {
+                    try {
+                        return schemaCatalog.tables(
+                                dataSource, request.schema(), Boolean.TRUE.equals(request.refresh()), trace);
+                    } catch (DataAccessException e) {
+                        throw QueryFailures.rejected(e, trace);
                     }
-                    i++;
-                }
-                continue;
-            }
-            if (current == '-' && i + 1 < length && sql.charAt(i + 1) == '-') {
-                i += 2;
-                while (i < length && sql.charAt(i) != '\n') {
-                    i++;
-                }
-                builder.append('\n');
-                continue;
-            }
-            if (current == '/' && i + 1 < length && sql.charAt(i + 1) == '*') {
-                i += 2;
-                while (i + 1 < length && !(sql.charAt(i) == '*' && sql.charAt(i + 1) == '/')) {
-                    i++;
-                }
-                i++;
-                continue;
-            }
-            builder.append(current);
+                }));
+    }
+
+    @Tool(
+            name = "describeTable",
+            description = """
+            테이블 하나의 구조를 반환합니다: 컬럼(이름, 타입, 크기, 소수 자릿수, NULL 허용, 기본값, 설명),
+            기본 키 컬럼, 인덱스(이름, 유일 여부, 컬럼), 어림 행 수(드라이버가 통계를 제공할 때만).
+            결과는 데이터소스별로 캐시되며(기본 10분), refresh로 다시 읽을 수 있습니다.
+            매개변수:
+            - url: JDBC 연결 문자열 (선택, 비우면 기본 데이터소스)
+            - driverClassName: JDBC 드라이버 클래스 (선택)
+            - username: 데이터베이스 사용자명
+            - password: 데이터베이스 비밀번호
+            - schema: 스키마 이름 (선택, 비우면 현재 스키마)
+            - table: 테이블 이름 (대소문자는 데이터베이스 규칙에 맞춰 다시 찾음)
+            - refresh: 캐시를 버리고 다시 읽음 (선택)
+            """
+    )
+    public TableDescription describeTable(DescribeTableRequest request) {
+        DataSourceHandle dataSource = resolveDataSource(
+                request.url(), request.driverClassName(), request.username(), request.password());
+        QueryLimits limits = QueryLimits.resolve(queryProperties, null, true);
+        return traced("describeTable", "describeTable " + request.table(), limits, dataSource, trace ->
+                callLimiter.run(dataSource.key(), trace, () -> {
+                    try {
+                        return schemaCatalog.describe(dataSource, request.schema(), request.table(),
+                                Boolean.TRUE.equals(request.refresh()), trace);
+                    } catch (DataAccessException e) {
+                        throw QueryFailures.rejected(e, trace);
+                    }
+                }));
+    }
+
+    @Tool(
+            name = "listRunningQueries",
+            description = """
+            실행 중인 쿼리 목록을 CSV로 반환합니다.
+            열: query_id, tool, datasource, elapsed_ms, cancelled, sql(앞부분)
+            query_id를 cancelQuery에 넘겨 오래 걸리는 쿼리를 취소할 수 있습니다.
+            """
+    )
+    public String listRunningQueries() {
+        return runningQueries.snapshot();
+    }
+
+    @Tool(
+            name = "cancelQuery",
+            description = """
+            실행 중인 쿼리를 취소합니다. 실행 중인 문장에 취소를 보내며, 아직 대기 중인 쿼리는 실행하지 않고 실패합니다.
+            매개변수:
+            - queryId: listRunningQueries가 반환한 query_id
+            """
+    )
+    public String cancelQuery(String queryId) {
+        int statements = runningQueries.cancel(queryId);
+        return "Cancelled query " + queryId.strip() + " (" + statements + " running statement(s) signalled).";
+    }
+
+    @Tool(
+            name = "serverStats",
+            description = """
+            서버 메트릭을 CSV로 반환합니다.
+            도구별 호출 시간(p50/p99 포함), 단계별 시간(queue/connection/execute/fetch/render),
+            가져온 행 수와 출력 바이트 수, 열린 커넥션 풀 수를 데이터소스별로 보여줍니다.
+            """
+    )
+    public String serverStats() {
+        return queryMetrics.snapshot();
+    }
+
+    void validateReadOnlySql(String sql) {
+        sqlValidator.validate(sql);
+    }
+
+    private <T> T traced(String tool, String sql, QueryLimits limits, DataSourceHandle dataSource,
+                         Function<QueryTrace, T> work) {
+        QueryTrace trace = queryMetrics.start(tool, dataSource.key().identity());
+        trace.limit(limits);
+        trace.describe(sql);
+        runningQueries.register(trace);
+        try {
+            T result = work.apply(trace);
+            queryMetrics.finish(trace, null);
+            return result;
+        } catch (RuntimeException e) {
+            queryMetrics.finish(trace, e);
+            throw e;
+        } finally {
+            runningQueries.unregister(trace);
         }
-        return builder.toString();
     }
 
-    private void ensureSingleStatement(String normalized) {
-        int semicolonIndex = normalized.indexOf(';');
-        if (semicolonIndex < 0) {
-            return;
+    private String executeCached(String sql, List<Object> parameters, boolean quoteHeaders,
+                                 ValueQuoteMode valueQuoteMode, OutputFormat format, PartitionOptions partition,
+                                 CacheOptions cache, DataSourceHandle dataSource, QueryTrace trace) {
+        Supplier<String> load = () -> callLimiter.run(dataSource.key(), trace, () -> executeWithDataSource(
+                sql, parameters, quoteHeaders, valueQuoteMode, format, partition, dataSource, trace));
+        if (partition != null && partition.enabled()) {
+            return load.get();
         }
-        for (int i = semicolonIndex + 1; i < normalized.length(); i++) {
-            if (!Character.isWhitespace(normalized.charAt(i))) {
-                throw new IllegalArgumentException("Multiple SQL statements are not allowed.");
-            }
+        QueryResultCache.ResultKey key = QueryResultCache.key(
+                sql, dataSource.key(), quoteHeaders, valueQuoteMode, format, parameters, trace.limits());
+        return resultCache.get(key, cache, trace, () -> coalescer.run(key, trace, load));
+    }
+
+    private String executeWithDataSource(String sql, List<Object> parameters, boolean quoteHeaders,
+                                         ValueQuoteMode valueQuoteMode, OutputFormat format,
+                                         PartitionOptions partition, DataSourceHandle dataSource, QueryTrace trace) {
+        StringWriter out = new StringWriter();
+        long rows;
+        try {
+            rows = writeResult(sql, parameters, quoteHeaders, valueQuoteMode, format, partition, dataSource, trace,
+                    out);
+        } catch (DataAccessException e) {
+            throw QueryFailures.rejected(e, trace);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
+        if (trace.truncated()) {
+            out.write(format.truncatedMarker(rows));
+        }
+        String csv = out.toString();
+        trace.addBytes(csv.length());
+        return csv;
     }
 
-    private String formatRow(Map<String, Object> row, String[] headers, ValueQuoteMode valueQuoteMode) {
-        StringBuilder builder = new StringBuilder();
-        for (int i = 0; i < headers.length; i++) {
-            if (i > 0) {
-                builder.append(',');
-            }
-            Object value = row.get(headers[i]);
-            builder.append(valueQuoteMode.renderValue(value));
+    private long writeResult(String sql, List<Object> parameters, boolean quoteHeaders, ValueQuoteMode valueQuoteMode,
+                             OutputFormat format, PartitionOptions partition, DataSourceHandle dataSource,
+                             QueryTrace trace, Writer out) throws IOException {
+        if (partition != null && partition.enabled()) {
+            return partitionedRunner.write(
+                    dataSource, sql, parameters, partition, quoteHeaders, valueQuoteMode, trace, out);
+        }
+        ResultSetWriter writer = format.writer(out, quoteHeaders, valueQuoteMode, trace);
+        return queryExecutor.query(dataSource.dataSource(), sql, parameters, trace, writer::write);
+    }
+
+    private static List<Object> bindValues(List<BindParameter> parameters) {
+        if (parameters == null || parameters.isEmpty()) {
+            return List.of();
+        }
+        List<Object> values = new ArrayList<>(parameters.size());
+        for (int i = 0; i < parameters.size(); i++) {
+            BindParameter parameter = parameters.get(i);
+            values.add(parameter == null ? null : parameter.bind(i + 1));
+        }
+        return values;
+    }
+
+    private static OutputFormat outputFormat(String name, PartitionOptions partition) {
+        OutputFormat format = OutputFormat.fromName(name);
+        if (format != OutputFormat.CSV && partition != null && partition.enabled()) {
+            throw new IllegalArgumentException("Partitioned queries only support the csv format.");
         }
-        return builder.toString();
+        return format;
     }
 
     private void validateExternalConnection(ExternalQueryRequest request) {
@@ -273,39 +625,17 @@ public class QueryService {
         }
     }
 
-    private ReadOnlySettings enableReadOnly(Connection connection) throws SQLException {
-        boolean previousReadOnly = false;
-        boolean previousKnown = false;
-        try {
-            previousReadOnly = connection.isReadOnly();
-            previousKnown = true;
-        } catch (SQLFeatureNotSupportedException ignored) {
-            // 일부 드라이버는 현재 상태 조회를 지원하지 않는다.
-        }
-        try {
-            connection.setReadOnly(true);
-            if (previousKnown) {
-                return new ReadOnlySettings(true, true, previousReadOnly);
-            }
-            return new ReadOnlySettings(true, false, false);
-        } catch (SQLFeatureNotSupportedException ignored) {
-            return ReadOnlySettings.notApplied();
-        }
-    }
-
-    private void restoreReadOnly(Connection connection, ReadOnlySettings settings) {
-        if (!settings.applied()) {
-            return;
+    private DataSourceHandle resolveDataSource(String url, String driverClassName, String username, String password) {
+        if (!StringUtils.hasText(username)) {
+            throw new IllegalArgumentException("Database username is required.");
         }
-        boolean target = settings.restorable() ? settings.previousReadOnly() : false;
-        try {
-            connection.setReadOnly(target);
-        } catch (SQLException ignored) {
-            // 복원 실패는 다음 사용 시 커넥션 풀에서 재설정된다.
+        if (StringUtils.hasText(url)) {
+            return createDataSource(url, driverClassName, username, password);
         }
+        return buildConfiguredDataSource(username, password);
     }
 
-    private DriverManagerDataSource buildConfiguredDataSource(String username, String password) {
+    private DataSourceHandle buildConfiguredDataSource(String username, String password) {
         String url = dataSourceProperties.determineUrl();
         if (!StringUtils.hasText(url)) {
             throw new IllegalStateException("Database URL is not configured.");
@@ -314,22 +644,15 @@ public class QueryService {
         return createDataSourceInternal(url, driverClassName, username, password);
     }
 
-    private DriverManagerDataSource createDataSource(String url, String driverClassName, String username, String password) {
+    private DataSourceHandle createDataSource(String url, String driverClassName, String username, String password) {
         if (!StringUtils.hasText(url)) {
             throw new IllegalArgumentException("Database URL is required.");
         }
         return createDataSourceInternal(url, driverClassName, username, password);
     }
 
-    private DriverManagerDataSource createDataSourceInternal(String url, String driverClassName, String username, String password) {
-        DriverManagerDataSource dataSource = new DriverManagerDataSource();
-        if (StringUtils.hasText(driverClassName)) {
-            dataSource.setDriverClassName(driverClassName);
-        }
-        dataSource.setUrl(url);
-        dataSource.setUsername(username);
-        dataSource.setPassword(password);
-        return dataSource;
+    private DataSourceHandle createDataSourceInternal(String url, String driverClassName, String username, String password) {
+        return dataSourceRegistry.resolve(url, driverClassName, username, password);
     }
 
     public record ConfiguredQueryRequest(
@@ -337,8 +660,17 @@ public class QueryService {
             String username,
             String password,
             boolean quoteHeaders,
-            int valueQuoteMode
+            int valueQuoteMode,
+            PartitionOptions partition,
+            CacheOptions cache,
+            LimitOptions limits,
+            String format,
+            List<BindParameter> parameters
     ) {
+        public ConfiguredQueryRequest(String sql, String username, String password, boolean quoteHeaders,
+                                      int valueQuoteMode) {
+            this(sql, username, password, quoteHeaders, valueQuoteMode, null, null, null, null, null);
+        }
     }
 
     public record ExternalQueryRequest(
@@ -348,69 +680,388 @@ public class QueryService {
             String username,
             String password,
             boolean quoteHeaders,
-            int valueQuoteMode
+            int valueQuoteMode,
+            PartitionOptions partition,
+            CacheOptions cache,
+            LimitOptions limits,
+            String format,
+            List<BindParameter> parameters
     ) {
+        public ExternalQueryRequest(String url, String driverClassName, String sql, String username, String password,
+                                    boolean quoteHeaders, int valueQuoteMode) {
+            this(url, driverClassName, sql, username, password, quoteHeaders, valueQuoteMode, null, null, null, null,
+                    null);
+        }
     }
 
-    private enum ValueQuoteMode {
-        NONE(1) {
-            @Override
-            boolean shouldQuote(boolean numeric, String raw) {
-                return containsSpecial(raw);
-            }
-        },
-        STRINGS_ONLY(2) {
-            @Override
-            boolean shouldQuote(boolean numeric, String raw) {
-                return !numeric || containsSpecial(raw);
+    /**
+     * SQL의 {@code ?} 자리표시자 하나에 바인딩할 값. 값은 문자열로 받아 type에 맞는 JDBC 값으로 변환한다.
+     *
+     * <p>input: ("integer", "42") -> 42 / input: ("date", "2024-01-31") -> LocalDate 2024-01-31
+     * input: ("timestamp", "2024-01-31T09:30:00") -> LocalDateTime / input: ("string", null) -> NULL
+     *
+     * @param type 값 타입(string, integer, long, decimal, double, boolean, date, time, timestamp; 비우면 string)
+     * @param value 값의 문자열 표현(널이면 SQL NULL)
+     */
+    public record BindParameter(
+            String type,
+            String value
+    ) {
+        Object bind(int position) {
+            if (value == null) {
+                return null;
             }
-        },
-        ALL(3) {
-            @Override
-            boolean shouldQuote(boolean numeric, String raw) {
-                return true;
+            String kind = StringUtils.hasText(type) ? type.strip().toLowerCase(Locale.ROOT) : "string";
+            try {
+                return switch (kind) {
+                    case "string" -> value;
+                    case "integer", "int" -> Integer.valueOf(value.strip());
+                    case "long", "bigint" -> Long.valueOf(value.strip());
+                    case "decimal", "numeric" -> new BigDecimal(value.strip());
+                    case "double" -> Double.valueOf(value.strip());
+                    case "boolean" -> parseBoolean(value.strip(), position);
+                    case "date" -> LocalDate.parse(value.strip());
+                    case "time" -> LocalTime.parse(value.strip());
+                    case "timestamp" -> LocalDateTime.parse(value.strip().replace(' ', 'T'));
+                    default -> throw new IllegalArgumentException("Unknown type '" + type + "' for parameter "
+                            + position + "; expected string, integer, long, decimal, double, boolean, date, time "
+                            + "or timestamp.");
+                };
+            } catch (NumberFormatException | DateTimeParseException e) {
+                throw new IllegalArgumentException(
+                        "Parameter " + position + " is not a valid " + kind + ": " + value, e);
             }
-        };
+        }
 
-        private final int code;
+        private static Boolean parseBoolean(String text, int position) {
+            if (text.equalsIgnoreCase("true") || text.equalsIgnoreCase("false")) {
+                return Boolean.valueOf(text);
+            }
+            throw new IllegalArgumentException("Parameter " + position + " is not a valid boolean: " + text);
+        }
+    }
 
-        ValueQuoteMode(int code) {
-            this.code = code;
+    public record ExportQueryRequest(
+            String url,
+            String driverClassName,
+            String sql,
+            String username,
+            String password,
+            boolean quoteHeaders,
+            int valueQuoteMode,
+            String fileName,
+            boolean gzip,
+            PartitionOptions partition,
+            LimitOptions limits,
+            String format,
+            Boolean nativeExport
+    ) {
+        public ExportQueryRequest(String url, String driverClassName, String sql, String username, String password,
+                                  boolean quoteHeaders, int valueQuoteMode, String fileName, boolean gzip) {
+            this(url, driverClassName, sql, username, password, quoteHeaders, valueQuoteMode, fileName, gzip, null,
+                    null, null, null);
         }
+    }
 
-        String renderValue(Object value) {
-            if (value == null) {
-                return "";
-            }
-            String raw = value.toString();
-            boolean numeric = value instanceof Number;
-            if (!shouldQuote(numeric, raw)) {
-                return raw;
-            }
-            return "\"" + raw.replace("\"", "\"\"") + "\"";
+    /**
+     * 호출별 실행 상한. 서버 설정({@code db-to-csv.query.*})보다 느슨하게 지정하면 서버 설정이 적용된다.
+     *
+     * @param timeoutSeconds 문장 타임아웃 초(널이면 서버 설정)
+     * @param maxRows 최대 데이터 행 수(널이면 서버 설정)
+     * @param maxBytes 최대 출력 크기, 문자 수 기준(널이면 서버 설정)
+     * @param maxTokens 응답의 최대 어림 토큰 수(널이면 서버 설정, 파일 내보내기에는 무시)
+     */
+    public record LimitOptions(
+            Integer timeoutSeconds,
+            Long maxRows,
+            Long maxBytes,
+            Long maxTokens
+    ) {
+    }
+
+    /**
+     * 한 쿼리를 파티션 컬럼의 값 범위로 나눠 여러 커넥션에서 병렬로 읽기 위한 옵션.
+     *
+     * @param column 숫자 또는 날짜/시간 타입의 파티션 컬럼(비우면 분할하지 않음)
+     * @param parallelism 병렬 파티션 수(널이면 기본값, 서버 설정과 풀 크기, 데이터소스의 빈 동시 실행 순서로 제한)
+     */
+    public record PartitionOptions(
+            String column,
+            Integer parallelism
+    ) {
+        static final int DEFAULT_PARALLELISM = 4;
+
+        boolean enabled() {
+            return StringUtils.hasText(column);
         }
 
-        boolean shouldQuote(boolean numeric, String raw) {
-            return false;
+        int parallelismOrDefault() {
+            return parallelism == null || parallelism <= 0 ? DEFAULT_PARALLELISM : parallelism;
         }
+    }
 
-        static ValueQuoteMode fromCode(int code) {
-            for (ValueQuoteMode mode : values()) {
-                if (mode.code == code) {
-                    return mode;
-                }
-            }
-            return NONE;
+    /**
+     * 호출별 결과 캐시 제어 옵션.
+     *
+     * @param bypass true이면 캐시를 읽지도 저장하지도 않는다
+     * @param refresh true이면 캐시된 결과를 버리고 다시 조회해 저장한다
+     */
+    public record CacheOptions(
+            Boolean bypass,
+            Boolean refresh
+    ) {
+        boolean bypassRequested() {
+            return Boolean.TRUE.equals(bypass);
         }
 
-        private static boolean containsSpecial(String raw) {
-            return raw.contains(",") || raw.contains("\"") || raw.contains("\n") || raw.contains("\r");
+        boolean refreshRequested() {
+            return Boolean.TRUE.equals(refresh);
         }
     }
 
-    private record ReadOnlySettings(boolean applied, boolean restorable, boolean previousReadOnly) {
-        private static ReadOnlySettings notApplied() {
-            return new ReadOnlySettings(false, false, false);
+    public record BatchQueryRequest(
+            String url,
+            String driverClassName,
+            List<String> sqls,
+            String username,
+            String password,
+            boolean quoteHeaders,
+            int valueQuoteMode
+    ) {
+    }
+
+    public record BatchQueryResult(
+            List<BatchItemResult> results
+    ) {
+    }
+
+    /**
+     * 배치 안의 쿼리 하나의 결과.
+     *
+     * @param index 요청 목록에서의 위치(0부터)
+     * @param success 성공 여부
+     * @param rowCount 데이터 행 수(실패 시 0)
+     * @param csv 결과 CSV(실패 시 빈 문자열)
+     * @param error 실패 사유(성공 시 null)
+     */
+    public record BatchItemResult(
+            int index,
+            boolean success,
+            long rowCount,
+            String csv,
+            String error
+    ) {
+        static BatchItemResult success(int index, long rowCount, String csv) {
+            return new BatchItemResult(index, true, rowCount, csv, null);
+        }
+
+        static BatchItemResult failure(int index, String error) {
+            return new BatchItemResult(index, false, 0, "", error);
         }
     }
+
+    public record PageQueryRequest(
+            String url,
+            String driverClassName,
+            String sql,
+            List<BindParameter> parameters,
+            String username,
+            String password,
+            boolean quoteHeaders,
+            int valueQuoteMode,
+            Integer pageSize,
+            String orderKey,
+            String continuationToken
+    ) {
+    }
+
+    /**
+     * 결과 한 페이지.
+     *
+     * @param csv 헤더를 포함한 페이지 CSV
+     * @param rowCount 페이지의 데이터 행 수
+     * @param hasMore 다음 페이지가 있는지 여부
+     * @param continuationToken 다음 페이지를 요청할 토큰(마지막 페이지면 null)
+     */
+    public record PageResult(
+            String csv,
+            long rowCount,
+            boolean hasMore,
+            String continuationToken
+    ) {
+    }
+
+    public record ExportResult(
+            String path,
+            long rowCount,
+            long byteSize,
+            String checksum,
+            boolean truncated
+    ) {
+    }
+
+    public record IncrementalExportRequest(
+            String url,
+            String driverClassName,
+            String sql,
+            List<BindParameter> parameters,
+            String username,
+            String password,
+            boolean quoteHeaders,
+            int valueQuoteMode,
+            String jobName,
+            String watermarkColumn,
+            String fileName,
+            Boolean append,
+            boolean gzip,
+            Boolean reset,
+            LimitOptions limits
+    ) {
+    }
+
+    /**
+     * 증분 내보내기 한 번의 결과.
+     *
+     * @param path 파일 경로
+     * @param rowCount 이번 실행에서 내보낸 행 수
+     * @param byteSize 쓰기를 마친 뒤 파일 크기
+     * @param checksum 이번 실행에서 쓴 바이트의 SHA-256 체크섬
+     * @param previousWatermark 실행 전 워터마크(첫 실행이면 null)
+     * @param watermark 저장된 새 워터마크(새 행이 없으면 이전과 같음)
+     * @param truncated 상한에 닿아 남은 행을 다음 실행으로 미뤘는지 여부
+     */
+    public record IncrementalExportResult(
+            String path,
+            long rowCount,
+            long byteSize,
+            String checksum,
+            String previousWatermark,
+            String watermark,
+            boolean truncated
+    ) {
+    }
+
+    public record SummaryQueryRequest(
+            String url,
+            String driverClassName,
+            String sql,
+            List<BindParameter> parameters,
+            String username,
+            String password,
+            Integer topValues,
+            LimitOptions limits
+    ) {
+    }
+
+    public record PreviewQueryRequest(
+            String url,
+            String driverClassName,
+            String sql,
+            List<BindParameter> parameters,
+            String username,
+            String password,
+            boolean quoteHeaders,
+            int valueQuoteMode,
+            Integer rows,
+            Boolean estimate,
+            LimitOptions limits
+    ) {
+    }
+
+    /**
+     * 미리보기 결과.
+     *
+     * @param csv 헤더를 포함한 앞 행 CSV
+     * @param rowCount csv의 데이터 행 수
+     * @param hasMore csv에 담지 못한 행이 더 있는지 여부
+     * @param estimatedRowCount 전체 행 수 어림값(알 수 없으면 null)
+     * @param estimateSource 어림값의 출처(exact, explain, table_statistics, none)
+     */
+    public record PreviewResult(
+            String csv,
+            long rowCount,
+            boolean hasMore,
+            Long estimatedRowCount,
+            String estimateSource
+    ) {
+    }
+
+    public record ListTablesRequest(
+            String url,
+            String driverClassName,
+            String username,
+            String password,
+            String schema,
+            Boolean refresh
+    ) {
+    }
+
+    public record DescribeTableRequest(
+            String url,
+            String driverClassName,
+            String username,
+            String password,
+            String schema,
+            String table,
+            Boolean refresh
+    ) {
+    }
+
+    /**
+     * 테이블 구조.
+     *
+     * @param schema 스키마 이름(데이터베이스가 저장한 대소문자)
+     * @param table 테이블 이름(데이터베이스가 저장한 대소문자)
+     * @param type 테이블 종류(예: TABLE, BASE TABLE, VIEW)
+     * @param rowCountEstimate 통계 기반 어림 행 수(드라이버가 제공하지 않으면 null)
+     * @param columns 순서대로 나열한 컬럼
+     * @param primaryKey 키 순서대로 나열한 기본 키 컬럼(없으면 빈 목록)
+     * @param indexes 인덱스 목록
+     */
+    public record TableDescription(
+            String schema,
+            String table,
+            String type,
+            Long rowCountEstimate,
+            List<ColumnDescription> columns,
+            List<String> primaryKey,
+            List<IndexDescription> indexes
+    ) {
+    }
+
+    /**
+     * 컬럼 하나의 정의.
+     *
+     * @param name 컬럼 이름
+     * @param type 데이터베이스 타입 이름
+     * @param size 최대 길이 또는 정밀도(해당 없으면 null)
+     * @param decimalDigits 소수 자릿수(해당 없으면 null)
+     * @param nullable NULL 허용 여부(알 수 없으면 true)
+     * @param defaultValue 기본값 표현식(없으면 null)
+     * @param remarks 컬럼 설명(없으면 null)
+     */
+    public record ColumnDescription(
+            String name,
+            String type,
+            Integer size,
+            Integer decimalDigits,
+            boolean nullable,
+            String defaultValue,
+            String remarks
+    ) {
+    }
+
+    /**
+     * 인덱스 하나의 정의.
+     *
+     * @param name 인덱스 이름
+     * @param unique 유일 인덱스 여부
+     * @param columns 인덱스 순서대로 나열한 컬럼
+     */
+    public record IndexDescription(
+            String name,
+            boolean unique,
+            List<String> columns
+    ) {
+    }
 }
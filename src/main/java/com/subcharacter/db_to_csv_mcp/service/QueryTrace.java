@@ -0,0 +1,195 @@
+package com.subcharacter.db_to_csv_mcp.service;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 도구 호출 하나의 단계별 소요 시간과 처리량을 모은다.
+ *
+ * <p>실행 순서 대기, 커넥션 획득, 문장 실행, 행 가져오기, 렌더링 시간을 나눠 기록해 느린 호출의 원인을 구분한다.
+ * 호출에 적용할 상한과 실행 중인 문장도 함께 들고 있어 {@code cancelQuery}가 쿼리 ID로 문장을 취소할 수 있다.
+ * 병렬 작업이 같은 추적에 더할 수 있도록 스레드-세이프하다.
+ *
+ * @author subCharacter
+ * @since 1.0
+ * @version 1.0
+ */
+final class QueryTrace {
+
+    private final String id = UUID.randomUUID().toString();
+    private final String tool;
+    private final String datasource;
+    private final long startNanos;
+    private final Set<Statement> statements = ConcurrentHashMap.newKeySet();
+    private volatile QueryLimits limits = QueryLimits.NONE;
+    private volatile String description = "";
+    private volatile boolean cancelled;
+    private volatile boolean truncated;
+    private final AtomicLong queueNanos = new AtomicLong();
+    private final AtomicLong connectionNanos = new AtomicLong();
+    private final AtomicLong executeNanos = new AtomicLong();
+    private final AtomicLong fetchNanos = new AtomicLong();
+    private final AtomicLong renderNanos = new AtomicLong();
+    private final AtomicLong rows = new AtomicLong();
+    private final AtomicLong bytes = new AtomicLong();
+
+    QueryTrace(String tool, String datasource) {
+        this.tool = tool;
+        this.datasource = datasource;
+        this.startNanos = System.nanoTime();
+    }
+
+    /**
+     * 메트릭에 기록하지 않는 추적을 만든다. 테스트나 내부 호출에 사용한다.
+     *
+     * @return 이름 없는 추적
+     */
+    static QueryTrace detached() {
+        return new QueryTrace("internal", "unknown");
+    }
+
+    String id() {
+        return id;
+    }
+
+    String tool() {
+        return tool;
+    }
+
+    String datasource() {
+        return datasource;
+    }
+
+    long elapsedNanos() {
+        return System.nanoTime() - startNanos;
+    }
+
+    QueryLimits limits() {
+        return limits;
+    }
+
+    void limit(QueryLimits limits) {
+        this.limits = limits;
+    }
+
+    String description() {
+        return description;
+    }
+
+    void describe(String description) {
+        this.description = description == null ? "" : description;
+    }
+
+    /**
+     * 실행 직전의 문장을 취소 대상으로 등록한다. 이미 취소된 호출이면 실행하지 않도록 예외를 던진다.
+     *
+     * @param statement 실행할 문장
+     * @throws IllegalStateException 호출이 이미 취소된 경우
+     */
+    void track(Statement statement) {
+        statements.add(statement);
+        if (cancelled) {
+            statements.remove(statement);
+            throw new IllegalStateException(cancelledMessage());
+        }
+    }
+
+    void untrack(Statement statement) {
+        statements.remove(statement);
+    }
+
+    /**
+     * 호출을 취소하고 실행 중인 문장에 {@link Statement#cancel()}을 보낸다.
+     *
+     * @return 취소를 보낸 문장 수
+     */
+    int cancel() {
+        cancelled = true;
+        int count = 0;
+        for (Statement statement : statements) {
+            try {
+                statement.cancel();
+                count++;
+            } catch (SQLException ignored) {
+                // 이미 끝난 문장이거나 드라이버가 취소를 지원하지 않는다.
+            }
+        }
+        return count;
+    }
+
+    boolean cancelled() {
+        return cancelled;
+    }
+
+    String cancelledMessage() {
+        return "Query " + id + " was cancelled.";
+    }
+
+    void markTruncated() {
+        truncated = true;
+    }
+
+    boolean truncated() {
+        return truncated;
+    }
+
+    void addQueueNanos(long nanos) {
+        queueNanos.addAndGet(nanos);
+    }
+
+    void addConnectionNanos(long nanos) {
+        connectionNanos.addAndGet(nanos);
+    }
+
+    void addExecuteNanos(long nanos) {
+        executeNanos.addAndGet(nanos);
+    }
+
+    void addFetchNanos(long nanos) {
+        fetchNanos.addAndGet(nanos);
+    }
+
+    void addRenderNanos(long nanos) {
+        renderNanos.addAndGet(nanos);
+    }
+
+    void addRows(long count) {
+        rows.addAndGet(count);
+    }
+
+    void addBytes(long count) {
+        bytes.addAndGet(count);
+    }
+
+    long queueNanos() {
+        return queueNanos.get();
+    }
+
+    long connectionNanos() {
+        return connectionNanos.get();
+    }
+
+    long executeNanos() {
+        return executeNanos.get();
+    }
+
+    long fetchNanos() {
+        return fetchNanos.get();
+    }
+
+    long renderNanos() {
+        return renderNanos.get();
+    }
+
+    long rows() {
+        return rows.get();
+    }
+
+    long bytes() {
+        return bytes.get();
+    }
+}
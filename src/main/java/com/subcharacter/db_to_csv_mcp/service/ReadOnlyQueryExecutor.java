@@ -0,0 +1,370 @@
+package com.subcharacter.db_to_csv_mcp.service;
+
+import com.subcharacter.db_to_csv_mcp.config.QueryProperties;
+import jakarta.annotation.PreDestroy;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.ArgumentPreparedStatementSetter;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.SQLExceptionTranslator;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 검증된 SELECT를 읽기 전용 커넥션에서 실행하고 열린 결과 커서를 콜백에 넘긴다.
+ *
+ * <p>fetch size를 지정하고 자동 커밋을 끈 상태로 실행해 드라이버가 서버 측 커서로 행을 나눠 가져오게 하며,
+ * 실행이 끝나면 커넥션 상태를 원래대로 되돌린다. 추적에 담긴 문장 타임아웃을 적용하고, 실행 중인 문장을 추적에 등록해
+ * 다른 호출이 취소할 수 있게 한다. 준비된 문장은 {@link PreparedStatementCache}를 통해 커넥션별로 재사용한다.
+ * 스레드-세이프하다.
+ *
+ * @author subCharacter
+ * @since 1.0
+ * @version 1.0
+ */
+@Component
+class ReadOnlyQueryExecutor {
+
+    static final String SELECT_ONLY_MESSAGE = "Only SELECT queries are allowed.";
+
+    private final QueryProperties queryProperties;
+    private final PreparedStatementCache statementCache;
+    // JDBC 문장 타임아웃은 execute에만 걸리므로, 열린 커서를 이어 읽는 페이지 호출은 여기서 시간을 재 문장을 취소한다.
+    private final ScheduledExecutorService cursorTimeouts = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "db-to-csv-cursor-timeout");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    ReadOnlyQueryExecutor(QueryProperties queryProperties, PreparedStatementCache statementCache) {
+        this.queryProperties = queryProperties;
+        this.statementCache = statementCache;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        cursorTimeouts.shutdownNow();
+    }
+
+    /**
+     * 쿼리를 실행하고 결과 커서를 닫기 전에 handler로 스트리밍 처리한다.
+     *
+     * @param dataSource 실행 대상 데이터소스
+     * @param sql 검증을 마친 읽기 전용 SQL
+     * @param trace 커넥션 획득·실행 시간을 기록할 추적
+     * @param handler 결과 커서 소비자
+     * @return handler의 반환값
+     * @throws org.springframework.dao.DataAccessException 데이터베이스 오류가 발생한 경우
+     * @throws UncheckedIOException 출력 쓰기에 실패한 경우
+     */
+    <T> T query(DataSource dataSource, String sql, QueryTrace trace, ResultSetHandler<T> handler) {
+        return query(dataSource, sql, List.of(), trace, handler);
+    }
+
+    /**
+     * 바인드 파라미터와 함께 쿼리를 실행하고 결과 커서를 handler로 스트리밍 처리한다.
+     *
+     * @param dataSource 실행 대상 데이터소스
+     * @param sql 검증을 마친 읽기 전용 SQL
+     * @param parameters 순서대로 바인딩할 값(널 허용 원소, {@link org.springframework.jdbc.core.SqlParameterValue}로
+     *                   SQL 타입 지정 가능)
+     * @param trace 커넥션 획득·실행 시간을 기록할 추적
+     * @param handler 결과 커서 소비자
+     * @return handler의 반환값
+     */
+    <T> T query(DataSource dataSource, String sql, List<?> parameters, QueryTrace trace, ResultSetHandler<T> handler) {
+        return query(dataSource, sql, parameters, 0, trace, handler);
+    }
+
+    /**
+     * 최대 행 수를 지정해 쿼리를 실행한다. 드라이버가 maxRows 이후의 행을 가져오지 않는다.
+     *
+     * @param dataSource 실행 대상 데이터소스
+     * @param sql 검증을 마친 읽기 전용 SQL
+     * @param parameters 순서대로 바인딩할 값(널 허용 원소)
+     * @param maxRows 가져올 최대 행 수(0이면 제한 없음)
+     * @param trace 커넥션 획득·실행 시간을 기록할 추적
+     * @param handler 결과 커서 소비자
+     * @return handler의 반환값
+     */
+    <T> T query(DataSource dataSource, String sql, List<?> parameters, int maxRows, QueryTrace trace,
+                ResultSetHandler<T> handler) {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        long acquireStart = System.nanoTime();
+        return jdbcTemplate.execute((ConnectionCallback<T>) connection -> {
+            trace.addConnectionNanos(System.nanoTime() - acquireStart);
+            ReadOnlySettings readOnlySettings = ReadOnlySettings.notApplied();
+            boolean previousAutoCommit = connection.getAutoCommit();
+            try {
+                readOnlySettings = enableReadOnly(connection);
+                if (previousAutoCommit) {
+                    connection.setAutoCommit(false);
+                }
+                PreparedStatement statement = statementCache.acquire(connection, sql);
+                boolean reusable = false;
+                try {
+                    configure(statement, parameters, maxRows, trace);
+                    try (ResultSet resultSet = execute(statement, trace)) {
+                        T result = handler.handle(resultSet);
+                        reusable = true;
+                        return result;
+                    } finally {
+                        trace.untrack(statement);
+                    }
+                } finally {
+                    statementCache.release(connection, sql, statement, reusable);
+                }
+            } catch (SQLException ex) {
+                throw jdbcTemplate.getExceptionTranslator().translate("executeQuery", sql, ex);
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            } finally {
+                restoreAutoCommit(connection, previousAutoCommit);
+                restoreReadOnly(connection, readOnlySettings);
+            }
+        });
+    }
+
+    /**
+     * 페이지 단위로 나눠 읽을 수 있도록 커넥션을 붙잡은 채 결과 커서를 연다.
+     *
+     * <p>커서는 호출자가 닫을 때까지 풀 커넥션 하나와 읽기 전용 트랜잭션을 점유하므로 개수와 유휴 시간을 제한해 관리해야 한다.
+     *
+     * @param dataSource 실행 대상 데이터소스
+     * @param sql 검증을 마친 읽기 전용 SQL
+     * @param parameters sql의 자리표시자에 바인딩할 값
+     * @param trace 커넥션 획득·실행 시간을 기록할 추적
+     * @return 닫으면 커넥션 상태를 복원하고 풀에 반환하는 열린 커서
+     * @throws org.springframework.dao.DataAccessException 데이터베이스 오류가 발생한 경우
+     */
+    OpenCursor open(DataSource dataSource, String sql, List<?> parameters, QueryTrace trace) {
+        SQLExceptionTranslator translator = new JdbcTemplate(dataSource).getExceptionTranslator();
+        long acquireStart = System.nanoTime();
+        Connection connection;
+        try {
+            connection = dataSource.getConnection();
+        } catch (SQLException ex) {
+            throw translator.translate("openCursor", sql, ex);
+        }
+        trace.addConnectionNanos(System.nanoTime() - acquireStart);
+        ReadOnlySettings readOnlySettings = ReadOnlySettings.notApplied();
+        boolean previousAutoCommit = true;
+        PreparedStatement statement = null;
+        try {
+            previousAutoCommit = connection.getAutoCommit();
+            readOnlySettings = enableReadOnly(connection);
+            if (previousAutoCommit) {
+                connection.setAutoCommit(false);
+            }
+            statement = prepare(connection, sql, parameters, 0, trace);
+            ResultSet resultSet;
+            try {
+                resultSet = execute(statement, trace);
+            } finally {
+                trace.untrack(statement);
+            }
+            return new OpenCursor(connection, statement, resultSet, previousAutoCommit, readOnlySettings,
+                    translator, sql);
+        } catch (SQLException ex) {
+            abandon(connection, statement, previousAutoCommit, readOnlySettings);
+            throw translator.translate("openCursor", sql, ex);
+        } catch (RuntimeException ex) {
+            abandon(connection, statement, previousAutoCommit, readOnlySettings);
+            throw ex;
+        }
+    }
+
+    private void abandon(Connection connection, PreparedStatement statement, boolean previousAutoCommit,
+                         ReadOnlySettings readOnlySettings) {
+        closeQuietly(statement);
+        restoreAutoCommit(connection, previousAutoCommit);
+        restoreReadOnly(connection, readOnlySettings);
+        closeQuietly(connection);
+    }
+
+    private PreparedStatement prepare(Connection connection, String sql, List<?> parameters, int maxRows,
+                                      QueryTrace trace) throws SQLException {
+        PreparedStatement statement = connection.prepareStatement(sql);
+        try {
+            configure(statement, parameters, maxRows, trace);
+            return statement;
+        } catch (SQLException ex) {
+            closeQuietly(statement);
+            throw ex;
+        }
+    }
+
+    /**
+     * 문장에 호출별 설정과 파라미터를 적용한다. 캐시에서 꺼낸 문장은 이전 호출의 값을 갖고 있으므로 0도 명시적으로 지정한다.
+     */
+    private void configure(PreparedStatement statement, List<?> parameters, int maxRows, QueryTrace trace)
+            throws SQLException {
+        statement.setQueryTimeout(Math.max(0, trace.limits().timeoutSeconds()));
+        if (queryProperties.fetchSize() > 0) {
+            statement.setFetchSize(queryProperties.fetchSize());
+        }
+        statement.setMaxRows(Math.max(0, maxRows));
+        if (!parameters.isEmpty()) {
+            new ArgumentPreparedStatementSetter(parameters.toArray()).setValues(statement);
+        }
+    }
+
+    private static ResultSet execute(PreparedStatement statement, QueryTrace trace) throws SQLException {
+        trace.track(statement);
+        long executeStart = System.nanoTime();
+        boolean hasResultSet = statement.execute();
+        trace.addExecuteNanos(System.nanoTime() - executeStart);
+        if (!hasResultSet) {
+            throw new IllegalArgumentException(SELECT_ONLY_MESSAGE);
+        }
+        return statement.getResultSet();
+    }
+
+    private static void closeQuietly(AutoCloseable resource) {
+        if (resource == null) {
+            return;
+        }
+        try {
+            resource.close();
+        } catch (Exception ignored) {
+            // 닫기 실패는 커넥션 풀이 커넥션을 폐기하며 정리한다.
+        }
+    }
+
+    private void restoreAutoCommit(Connection connection, boolean previousAutoCommit) {
+        if (!previousAutoCommit) {
+            return;
+        }
+        try {
+            // 읽기 전용 트랜잭션이므로 커밋할 내용이 없다.
+            connection.rollback();
+            connection.setAutoCommit(true);
+        } catch (SQLException ignored) {
+            // 복원 실패는 다음 사용 시 커넥션 풀에서 재설정된다.
+        }
+    }
+
+    private ReadOnlySettings enableReadOnly(Connection connection) throws SQLException {
+        boolean previousReadOnly = false;
+        boolean previousKnown = false;
+        try {
+            previousReadOnly = connection.isReadOnly();
+            previousKnown = true;
+        } catch (SQLFeatureNotSupportedException ignored) {
+            // 일부 드라이버는 현재 상태 조회를 지원하지 않는다.
+        }
+        try {
+            connection.setReadOnly(true);
+            if (previousKnown) {
+                return new ReadOnlySettings(true, true, previousReadOnly);
+            }
+            return new ReadOnlySettings(true, false, false);
+        } catch (SQLFeatureNotSupportedException ignored) {
+            return ReadOnlySettings.notApplied();
+        }
+    }
+
+    private void restoreReadOnly(Connection connection, ReadOnlySettings settings) {
+        if (!settings.applied()) {
+            return;
+        }
+        boolean target = settings.restorable() ? settings.previousReadOnly() : false;
+        try {
+            connection.setReadOnly(target);
+        } catch (SQLException ignored) {
+            // 복원 실패는 다음 사용 시 커넥션 풀에서 재설정된다.
+        }
+    }
+
+    /**
+     * 커넥션을 붙잡고 있는 열린 결과 커서. 스레드-세이프하지 않으므로 한 번에 한 호출만 사용한다.
+     */
+    final class OpenCursor implements AutoCloseable {
+
+        private final Connection connection;
+        private final PreparedStatement statement;
+        private final ResultSet resultSet;
+        private final boolean previousAutoCommit;
+        private final ReadOnlySettings readOnlySettings;
+        private final SQLExceptionTranslator translator;
+        private final String sql;
+
+        private OpenCursor(Connection connection, PreparedStatement statement, ResultSet resultSet,
+                           boolean previousAutoCommit, ReadOnlySettings readOnlySettings,
+                           SQLExceptionTranslator translator, String sql) {
+            this.connection = connection;
+            this.statement = statement;
+            this.resultSet = resultSet;
+            this.previousAutoCommit = previousAutoCommit;
+            this.readOnlySettings = readOnlySettings;
+            this.translator = translator;
+            this.sql = sql;
+        }
+
+        /**
+         * 열린 커서를 handler로 이어서 읽는다. 읽는 동안 문장을 trace에 등록해 이번 호출의 취소가 페치를 멈추게 하고,
+         * 이번 호출의 문장 타임아웃이 지나면 문장을 취소한다. 커서를 연 호출의 타임아웃은 이후 페이지에 적용되지 않는다.
+         *
+         * @param trace 이번 호출의 추적
+         * @param handler 결과 커서 소비자
+         * @return handler의 반환값
+         * @throws org.springframework.dao.DataAccessException 데이터베이스 오류가 발생한 경우
+         *         (타임아웃이면 {@link QueryTimeoutException})
+         * @throws UncheckedIOException 출력 쓰기에 실패한 경우
+         */
+        <T> T read(QueryTrace trace, ResultSetHandler<T> handler) {
+            trace.track(statement);
+            int timeoutSeconds = trace.limits().timeoutSeconds();
+            AtomicBoolean timedOut = new AtomicBoolean();
+            ScheduledFuture<?> timeout = timeoutSeconds <= 0 ? null : cursorTimeouts.schedule(() -> {
+                timedOut.set(true);
+                try {
+                    statement.cancel();
+                } catch (SQLException ignored) {
+                    // 취소를 지원하지 않는 드라이버는 페이지를 다 읽을 때까지 기다린다.
+                }
+            }, timeoutSeconds, TimeUnit.SECONDS);
+            try {
+                return handler.handle(resultSet);
+            } catch (SQLException ex) {
+                if (timedOut.get() && !trace.cancelled()) {
+                    throw new QueryTimeoutException("Cursor read exceeded " + timeoutSeconds + " s", ex);
+                }
+                throw translator.translate("readCursor", sql, ex);
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            } finally {
+                if (timeout != null) {
+                    timeout.cancel(false);
+                }
+                trace.untrack(statement);
+            }
+        }
+
+        @Override
+        public void close() {
+            closeQuietly(resultSet);
+            abandon(connection, statement, previousAutoCommit, readOnlySettings);
+        }
+    }
+
+    private record ReadOnlySettings(boolean applied, boolean restorable, boolean previousReadOnly) {
+        private static ReadOnlySettings notApplied() {
+            return new ReadOnlySettings(false, false, false);
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package com.subcharacter.db_to_csv_mcp.service;
+
+import com.subcharacter.db_to_csv_mcp.config.SqlValidationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * SQL이 단일 읽기 전용 문장인지 한 번의 토큰화로 검증하고, 통과한 SQL을 LRU 캐시에 보관한다.
+ *
+ * <p>문자열을 복사하거나 소문자로 바꾸지 않고 한 번 훑으면서 첫 키워드, 변경 키워드, 문장 종결자를 함께 판별한다.
+ * 문자열 리터럴, 따옴표 식별자, 주석 안의 내용은 무시한다. 캐시는 SQL 해시로 찾되 원문 비교로 확정하므로
+ * 해시 충돌로 검증을 건너뛰는 일은 없다. 스레드-세이프하다.
+ *
+ * @author subCharacter
+ * @since 1.0
+ * @version 1.0
+ */
+@Component
+class ReadOnlySqlValidator {
+
+    static final String BLANK_MESSAGE = "SQL must not be blank.";
+    static final String MULTIPLE_STATEMENTS_MESSAGE = "Multiple SQL statements are not allowed.";
+
+    private static final String[] MUTATING_KEYWORDS = {
+            "insert", "update", "delete", "merge", "alter", "drop", "truncate", "create", "replace", "call"
+    };
+
+    private final SqlValidationProperties properties;
+    private final Map<String, Boolean> validated = new LinkedHashMap<>(64, 0.75f, true);
+    private long cachedChars;
+
+    ReadOnlySqlValidator(SqlValidationProperties properties) {
+        this.properties = properties;
+    }
+
+    /**
+     * SQL을 검증한다. 이전에 통과한 SQL이면 토큰화 없이 바로 돌아간다.
+     *
+     * @param sql 검증할 SQL
+     * @throws IllegalArgumentException 비어 있거나, SELECT/WITH로 시작하지 않거나, 변경 키워드나 두 번째 문장이 있는 경우
+     */
+    void validate(String sql) {
+        if (sql != null && isCached(sql)) {
+            return;
+        }
+        check(sql);
+        remember(sql);
+    }
+
+    /**
+     * 캐시를 거치지 않고 SQL을 한 번 훑어 검증한다.
+     *
+     * <p>input: "SELECT 'drop' FROM t; -- done" -> 통과
+     * input: "SELECT 1; SELECT 2" -> Multiple SQL statements are not allowed.
+     *
+     * @param sql 검증할 SQL
+     * @throws IllegalArgumentException 검증에 실패한 경우
+     */
+    static void check(String sql) {
+        if (sql == null) {
+            throw new IllegalArgumentException(BLANK_MESSAGE);
+        }
+        int length = sql.length();
+        boolean leadingSeen = false;
+        boolean terminated = false;
+        boolean trailingStatement = false;
+        boolean mutating = false;
+        int i = 0;
+        while (i < length) {
+            char current = sql.charAt(i);
+            if (Character.isWhitespace(current)) {
+                i++;
+                continue;
+            }
+            if (current == '-' && i + 1 < length && sql.charAt(i + 1) == '-') {
+                i = SqlText.skipLineComment(sql, i + 2);
+                continue;
+            }
+            if (current == '/' && i + 1 < length && sql.charAt(i + 1) == '*') {
+                i = SqlText.skipBlockComment(sql, i + 2);
+                continue;
+            }
+            if (terminated) {
+                trailingStatement = true;
+            }
+            int tokenEnd;
+            if (current == '\'' || current == '"' || current == '`') {
+                tokenEnd = SqlText.skipQuoted(sql, i + 1, current);
+            } else if (isWordChar(current)) {
+                tokenEnd = wordEnd(sql, i + 1);
+                mutating |= isMutatingKeyword(sql, i, tokenEnd);
+            } else {
+                tokenEnd = i + 1;
+                terminated |= current == ';';
+            }
+            if (!leadingSeen) {
+                if (!isLeadingKeyword(sql, i, tokenEnd)) {
+                    throw new IllegalArgumentException(ReadOnlyQueryExecutor.SELECT_ONLY_MESSAGE);
+                }
+                leadingSeen = true;
+            }
+            i = tokenEnd;
+        }
+        if (!leadingSeen) {
+            throw new IllegalArgumentException(BLANK_MESSAGE);
+        }
+        if (mutating) {
+            throw new IllegalArgumentException(ReadOnlyQueryExecutor.SELECT_ONLY_MESSAGE);
+        }
+        if (trailingStatement) {
+            throw new IllegalArgumentException(MULTIPLE_STATEMENTS_MESSAGE);
+        }
+    }
+
+    int cacheSize() {
+        synchronized (validated) {
+            return validated.size();
+        }
+    }
+
+    private boolean isCached(String sql) {
+        synchronized (validated) {
+            return validated.get(sql) != null;
+        }
+    }
+
+    private void remember(String sql) {
+        long maxChars = properties.cacheMaxChars();
+        if (properties.cacheEntries() <= 0 || sql.length() > maxChars) {
+            return;
+        }
+        synchronized (validated) {
+            if (validated.put(sql, Boolean.TRUE) != null) {
+                return;
+            }
+            cachedChars += sql.length();
+            Iterator<String> eldest = validated.keySet().iterator();
+            while (validated.size() > properties.cacheEntries() || cachedChars > maxChars) {
+                cachedChars -= eldest.next().length();
+                eldest.remove();
+            }
+        }
+    }
+
+    private static boolean isLeadingKeyword(String sql, int start, int end) {
+        int length = end - start;
+        return (length == 6 && sql.regionMatches(true, start, "select", 0, 6))
+                || (length == 4 && sql.regionMatches(true, start, "with", 0, 4));
+    }
+
+    private static boolean isMutatingKeyword(String sql, int start, int end) {
+        int length = end - start;
+        if (length < 4 || length > 8) {
+            return false;
+        }
+        for (String keyword : MUTATING_KEYWORDS) {
+            if (keyword.length() == length && sql.regionMatches(true, start, keyword, 0, length)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isWordChar(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '_';
+    }
+
+    private static int wordEnd(String sql, int from) {
+        int i = from;
+        while (i < sql.length() && isWordChar(sql.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+}
@@ -0,0 +1,21 @@
+package com.subcharacter.db_to_csv_mcp.service;
+
+import java.io.IOException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * 열린 {@link ResultSet}을 행 단위로 소비하는 콜백.
+ *
+ * <p>결과를 모아 두지 않고 가져오는 즉시 출력으로 흘려보내기 위해 사용한다.
+ *
+ * @param <T> 처리 결과 타입
+ * @author subCharacter
+ * @since 1.0
+ * @version 1.0
+ */
+@FunctionalInterface
+interface ResultSetHandler<T> {
+
+    T handle(ResultSet resultSet) throws SQLException, IOException;
+}
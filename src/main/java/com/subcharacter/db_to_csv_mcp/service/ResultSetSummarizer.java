@@ -0,0 +1,250 @@
+package com.subcharacter.db_to_csv_mcp.service;
+
+import org.apache.commons.csv.CSVFormat;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.List;
+import java.util.StringJoiner;
+
+/**
+ * 결과 커서를 한 번 훑어 컬럼별 통계를 만들고, 행 대신 컬럼당 한 줄의 작은 CSV로 돌려준다.
+ *
+ * <p>메모리는 행 수와 무관하다. 고유 값 수는 {@link HyperLogLog}, 숫자 분위수는 {@link QuantileSketch},
+ * 빈도 상위 값은 {@link HeavyHitters}로 어림한다. 숫자 컬럼은 최소/최대/평균/분위수를, 그 밖의 컬럼은 문자열 순서의
+ * 최소/최대를 보여주며, LOB·바이너리 컬럼은 개수와 NULL 수만 센다. 추적의 행 상한에 닿으면 거기까지의 통계 뒤에
+ * 잘림 표시 줄을 붙인다. 인스턴스는 쿼리 하나에서만 사용한다(스레드-세이프하지 않음).
+ *
+ * <p>output: {@code column,type,count,nulls,null_rate,distinct,min,max,mean,p50,p90,p99,top_values}
+ * <br>{@code ID,INTEGER,8,0,0,8,1,8,4.5,4,8,8,1 (1); 2 (1); 3 (1)}
+ *
+ * @author subCharacter
+ * @since 1.0
+ * @version 1.0
+ */
+final class ResultSetSummarizer {
+
+    static final int DEFAULT_TOP_VALUES = 3;
+    static final int MAX_TOP_VALUES = 20;
+
+    private static final String[] HEADER = {"column", "type", "count", "nulls", "null_rate", "distinct", "min", "max",
+            "mean", "p50", "p90", "p99", "top_values"};
+    private static final int MAX_VALUE_LENGTH = 64;
+    private static final int MIN_HEAVY_HITTER_COUNTERS = 64;
+    private static final MathContext DISPLAY_PRECISION = new MathContext(6);
+
+    private final QueryTrace trace;
+    private final int topValues;
+
+    ResultSetSummarizer(QueryTrace trace, Integer topValues) {
+        this.trace = trace;
+        this.topValues = topValues == null || topValues <= 0 ? DEFAULT_TOP_VALUES : Math.min(topValues, MAX_TOP_VALUES);
+    }
+
+    /**
+     * 커서의 남은 행을 모두(행 상한까지) 읽어 통계 CSV를 만든다.
+     *
+     * @param resultSet 결과 커서
+     * @return 헤더를 포함한 통계 CSV(결과 컬럼당 한 줄)
+     * @throws SQLException 커서 읽기에 실패한 경우
+     */
+    String summarize(ResultSet resultSet) throws SQLException {
+        ResultSetMetaData metaData = resultSet.getMetaData();
+        String[] labels = CsvResultSetWriter.columnLabels(metaData);
+        ColumnStats[] columns = new ColumnStats[labels.length];
+        int counters = Math.max(MIN_HEAVY_HITTER_COUNTERS, topValues * 10);
+        for (int i = 0; i < labels.length; i++) {
+            columns[i] = new ColumnStats(labels[i], metaData.getColumnTypeName(i + 1),
+                    Kind.of(metaData.getColumnType(i + 1)), counters);
+        }
+
+        long rowCap = trace.limits().rowCap();
+        long rows = 0;
+        long fetchNanos = 0;
+        long renderNanos = 0;
+        try {
+            long fetchStart = System.nanoTime();
+            boolean hasRow = resultSet.next();
+            long renderStart = System.nanoTime();
+            fetchNanos += renderStart - fetchStart;
+            while (hasRow && rows < rowCap) {
+                for (int i = 0; i < columns.length; i++) {
+                    columns[i].accept(resultSet, i + 1);
+                }
+                rows++;
+                fetchStart = System.nanoTime();
+                renderNanos += fetchStart - renderStart;
+                hasRow = resultSet.next();
+                renderStart = System.nanoTime();
+                fetchNanos += renderStart - fetchStart;
+            }
+            if (hasRow) {
+                trace.markTruncated();
+            }
+        } finally {
+            trace.addFetchNanos(fetchNanos);
+            trace.addRenderNanos(renderNanos);
+            trace.addRows(rows);
+        }
+
+        StringBuilder out = new StringBuilder(CSVFormat.DEFAULT.format((Object[]) HEADER))
+                .append(CsvResultSetWriter.RECORD_SEPARATOR);
+        for (ColumnStats column : columns) {
+            out.append(CSVFormat.DEFAULT.format(column.row(topValues))).append(CsvResultSetWriter.RECORD_SEPARATOR);
+        }
+        if (trace.truncated()) {
+            out.append(OutputFormat.CSV.truncatedMarker(rows));
+        }
+        return out.toString();
+    }
+
+    private enum Kind {
+        INTEGRAL, NUMERIC, TEXT, OPAQUE;
+
+        static Kind of(int sqlType) {
+            return switch (sqlType) {
+                case Types.TINYINT, Types.SMALLINT, Types.INTEGER, Types.BIGINT -> INTEGRAL;
+                case Types.DECIMAL, Types.NUMERIC, Types.REAL, Types.FLOAT, Types.DOUBLE -> NUMERIC;
+                case Types.BLOB, Types.CLOB, Types.NCLOB, Types.BINARY, Types.VARBINARY, Types.LONGVARBINARY,
+                     Types.ARRAY, Types.STRUCT, Types.JAVA_OBJECT, Types.OTHER, Types.SQLXML -> OPAQUE;
+                default -> TEXT;
+            };
+        }
+    }
+
+    private static final class ColumnStats {
+
+        private final String name;
+        private final String typeName;
+        private final Kind kind;
+        private final HyperLogLog distinct = new HyperLogLog();
+        private final HeavyHitters frequent;
+        private final QuantileSketch quantiles;
+        private long count;
+        private long nulls;
+        private long minLong = Long.MAX_VALUE;
+        private long maxLong = Long.MIN_VALUE;
+        private double minDouble = Double.POSITIVE_INFINITY;
+        private double maxDouble = Double.NEGATIVE_INFINITY;
+        private double sum;
+        private String minText;
+        private String maxText;
+
+        private ColumnStats(String name, String typeName, Kind kind, int counters) {
+            this.name = name;
+            this.typeName = typeName;
+            this.kind = kind;
+            this.frequent = kind == Kind.OPAQUE ? null : new HeavyHitters(counters);
+            this.quantiles = kind == Kind.INTEGRAL || kind == Kind.NUMERIC ? new QuantileSketch() : null;
+        }
+
+        private void accept(ResultSet resultSet, int column) throws SQLException {
+            switch (kind) {
+                case INTEGRAL -> {
+                    long value = resultSet.getLong(column);
+                    if (resultSet.wasNull()) {
+                        nulls++;
+                        return;
+                    }
+                    minLong = Math.min(minLong, value);
+                    maxLong = Math.max(maxLong, value);
+                    sum += value;
+                    quantiles.add(value);
+                    distinct.add(HyperLogLog.hash(value));
+                    frequent.add(Long.toString(value));
+                }
+                case NUMERIC -> {
+                    double value = resultSet.getDouble(column);
+                    if (resultSet.wasNull()) {
+                        nulls++;
+                        return;
+                    }
+                    minDouble = Math.min(minDouble, value);
+                    maxDouble = Math.max(maxDouble, value);
+                    sum += value;
+                    quantiles.add(value);
+                    distinct.add(HyperLogLog.hash(Double.doubleToLongBits(value == 0.0 ? 0.0 : value)));
+                    frequent.add(value == Math.rint(value) && Math.abs(value) < 1e15
+                            ? Long.toString((long) value) : Double.toString(value));
+                }
+                case TEXT -> {
+                    String value = resultSet.getString(column);
+                    if (value == null) {
+                        nulls++;
+                        return;
+                    }
+                    distinct.add(HyperLogLog.hash(value));
+                    String shown = value.length() <= MAX_VALUE_LENGTH ? value : value.substring(0, MAX_VALUE_LENGTH);
+                    if (minText == null || shown.compareTo(minText) < 0) {
+                        minText = shown;
+                    }
+                    if (maxText == null || shown.compareTo(maxText) > 0) {
+                        maxText = shown;
+                    }
+                    frequent.add(shown);
+                }
+                case OPAQUE -> {
+                    if (resultSet.getObject(column) == null) {
+                        nulls++;
+                        return;
+                    }
+                }
+            }
+            count++;
+        }
+
+        private Object[] row(int topValues) {
+            long total = count + nulls;
+            String nullRate = total == 0 ? "" : number((double) nulls / total);
+            String distinctCount = kind == Kind.OPAQUE || count == 0 ? "" : Long.toString(distinct.estimate());
+            String min = "";
+            String max = "";
+            String mean = "";
+            String p50 = "";
+            String p90 = "";
+            String p99 = "";
+            if (count > 0 && quantiles != null) {
+                min = kind == Kind.INTEGRAL ? Long.toString(minLong) : number(minDouble);
+                max = kind == Kind.INTEGRAL ? Long.toString(maxLong) : number(maxDouble);
+                mean = number(sum / count);
+                p50 = number(quantiles.quantile(0.5));
+                p90 = number(quantiles.quantile(0.9));
+                p99 = number(quantiles.quantile(0.99));
+            } else if (count > 0 && kind == Kind.TEXT) {
+                min = minText;
+                max = maxText;
+            }
+            return new Object[]{name, typeName, count, nulls, nullRate, distinctCount, min, max, mean, p50, p90, p99,
+                    topValues(topValues)};
+        }
+
+        private String topValues(int limit) {
+            if (frequent == null) {
+                return "";
+            }
+            List<HeavyHitters.Count> top = frequent.top(limit);
+            StringJoiner joined = new StringJoiner("; ");
+            for (HeavyHitters.Count entry : top) {
+                joined.add(entry.value() + " (" + entry.count() + ")");
+            }
+            return joined.toString();
+        }
+    }
+
+    /**
+     * 소수를 지수 표기와 불필요한 0 없이 최대 6자리 유효숫자로 보여준다.
+     *
+     * <p>input: 100.0 -> output: "100" / input: 0.125 -> output: "0.125" / input: 1.0 / 3 -> output: "0.333333"
+     */
+    private static String number(double value) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            return Double.toString(value);
+        }
+        BigDecimal decimal = new BigDecimal(value).round(DISPLAY_PRECISION).stripTrailingZeros();
+        return decimal.scale() < 0 ? decimal.setScale(0).toPlainString() : decimal.toPlainString();
+    }
+}
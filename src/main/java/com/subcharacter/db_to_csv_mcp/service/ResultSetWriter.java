@@ -0,0 +1,35 @@
+package com.subcharacter.db_to_csv_mcp.service;
+
+import java.io.IOException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * 결과 커서를 한 행씩 읽는 즉시 출력 형식으로 기록하는 스트리밍 writer.
+ *
+ * <p>형식마다 구현이 하나씩 있으며 {@link OutputFormat}이 요청별로 골라 만든다. 구현은 행을 모아 두지 않고,
+ * 추적에 담긴 행/크기/토큰 상한에 닿으면 커서에서 더 가져오지 않는다. 인스턴스는 쿼리 하나에서만 사용한다.
+ *
+ * @author subCharacter
+ * @since 1.0
+ * @version 1.0
+ */
+interface ResultSetWriter {
+
+    /**
+     * 커서의 남은 행을 기록하고 기록한 행 수를 돌려준다.
+     *
+     * @param resultSet 첫 행 이전에 위치한 결과 커서
+     * @return 기록한 데이터 행 수(헤더 제외)
+     * @throws SQLException 커서 읽기에 실패한 경우
+     * @throws IOException 출력 쓰기에 실패한 경우
+     */
+    long write(ResultSet resultSet) throws SQLException, IOException;
+
+    /**
+     * 마지막 {@link #write(ResultSet)}가 상한에 닿아 남은 행을 버렸는지 돌려준다.
+     *
+     * @return 잘렸으면 true
+     */
+    boolean truncated();
+}
@@ -0,0 +1,82 @@
+package com.subcharacter.db_to_csv_mcp.service;
+
+import org.apache.commons.csv.CSVFormat;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 실행 중인 도구 호출을 쿼리 ID로 찾아 목록을 보여주거나 취소한다.
+ *
+ * <p>호출은 시작할 때 등록되고 끝나면(성공·실패 모두) 제거된다. 취소는 호출에 취소 표시를 남기고 실행 중인 문장에
+ * {@link java.sql.Statement#cancel()}을 보내므로, 아직 대기 중인 호출도 실행 직전에 멈춘다. 스레드-세이프하다.
+ *
+ * @author subCharacter
+ * @since 1.0
+ * @version 1.0
+ */
+@Component
+class RunningQueryRegistry {
+
+    private static final int MAX_SQL_PREVIEW = 200;
+
+    private final Map<String, QueryTrace> running = new ConcurrentHashMap<>();
+
+    void register(QueryTrace trace) {
+        running.put(trace.id(), trace);
+    }
+
+    void unregister(QueryTrace trace) {
+        running.remove(trace.id(), trace);
+    }
+
+    /**
+     * 실행 중인 호출을 취소한다.
+     *
+     * @param queryId {@link #snapshot()}이 보여준 쿼리 ID
+     * @return 취소를 보낸 문장 수(대기 중이어서 아직 문장이 없으면 0)
+     * @throws IllegalArgumentException 해당 ID의 호출이 실행 중이 아닌 경우
+     */
+    int cancel(String queryId) {
+        QueryTrace trace = queryId == null ? null : running.get(queryId.strip());
+        if (trace == null) {
+            throw new IllegalArgumentException("No running query with id " + queryId + ".");
+        }
+        return trace.cancel();
+    }
+
+    int size() {
+        return running.size();
+    }
+
+    /**
+     * 실행 중인 호출을 오래된 순서로 CSV로 만든다. SQL은 앞부분만 보여준다.
+     *
+     * <p>output: {@code query_id,tool,datasource,elapsed_ms,cancelled,sql}
+     *
+     * @return 헤더를 포함한 CSV
+     */
+    String snapshot() {
+        StringBuilder out = new StringBuilder("query_id,tool,datasource,elapsed_ms,cancelled,sql")
+                .append(CsvResultSetWriter.RECORD_SEPARATOR);
+        running.values().stream()
+                .sorted(Comparator.comparingLong(QueryTrace::elapsedNanos).reversed())
+                .forEach(trace -> out.append(CSVFormat.DEFAULT.format(
+                        trace.id(),
+                        trace.tool(),
+                        trace.datasource(),
+                        TimeUnit.NANOSECONDS.toMillis(trace.elapsedNanos()),
+                        trace.cancelled(),
+                        preview(trace.description())
+                )).append(CsvResultSetWriter.RECORD_SEPARATOR));
+        return out.toString();
+    }
+
+    private static String preview(String sql) {
+        String flat = sql.strip().replaceAll("\\s+", " ");
+        return flat.length() <= MAX_SQL_PREVIEW ? flat : flat.substring(0, MAX_SQL_PREVIEW) + "...";
+    }
+}
@@ -0,0 +1,327 @@
+package com.subcharacter.db_to_csv_mcp.service;
+
+import com.subcharacter.db_to_csv_mcp.config.SchemaCacheProperties;
+import com.subcharacter.db_to_csv_mcp.service.DataSourceRegistry.DataSourceHandle;
+import com.subcharacter.db_to_csv_mcp.service.DataSourceRegistry.DataSourceKey;
+import com.subcharacter.db_to_csv_mcp.service.QueryService.ColumnDescription;
+import com.subcharacter.db_to_csv_mcp.service.QueryService.IndexDescription;
+import com.subcharacter.db_to_csv_mcp.service.QueryService.TableDescription;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.commons.csv.CSVFormat;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+
+/**
+ * {@link DatabaseMetaData}로 테이블 목록과 테이블 구조(컬럼, 타입, 기본 키, 인덱스, 어림 행 수)를 읽고
+ * 데이터소스별로 캐시한다.
+ *
+ * <p>에이전트가 {@code SELECT * ... LIMIT 1}이나 information_schema 조회를 반복하지 않고 한 번의 호출로 스키마를 파악하게
+ * 하기 위함이다. 항목은 TTL이 지나면 다시 읽고, 항목 수가 상한을 넘으면 접근 순서 기준 LRU로 버린다.
+ * 데이터소스 식별자에 자격 증명 해시가 포함되므로 권한이 다른 사용자의 메타데이터를 돌려주지 않는다.
+ * 적중/실패 횟수는 {@code dbcsv.schema.cache} 메트릭으로 노출된다. 스레드-세이프하다.
+ *
+ * @author subCharacter
+ * @since 1.0
+ * @version 1.0
+ */
+@Component
+class SchemaCatalog {
+
+    private static final String[] TABLE_LIST_HEADER = {"table_schema", "table_name", "table_type", "remarks"};
+
+    private final SchemaCacheProperties properties;
+    private final Map<CatalogKey, Entry> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private final Counter hits;
+    private final Counter misses;
+
+    SchemaCatalog(SchemaCacheProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.hits = requests(meterRegistry, "hit");
+        this.misses = requests(meterRegistry, "miss");
+    }
+
+    /**
+     * 스키마의 테이블과 뷰 목록을 CSV로 돌려준다.
+     *
+     * <p>output: {@code table_schema,table_name,table_type,remarks}
+     * <br>{@code PUBLIC,ITEMS,BASE TABLE,}
+     *
+     * @param dataSource 조회 대상 데이터소스
+     * @param schema 스키마 이름(비우면 커넥션의 현재 스키마, 대소문자는 데이터베이스 규칙에 맞춰 다시 찾는다)
+     * @param refresh true이면 캐시를 버리고 다시 읽는다
+     * @param trace 커넥션 획득·조회 시간을 기록할 추적
+     * @return 헤더를 포함한 CSV
+     * @throws org.springframework.dao.DataAccessException 메타데이터 조회에 실패한 경우
+     */
+    String tables(DataSourceHandle dataSource, String schema, boolean refresh, QueryTrace trace) {
+        CatalogKey key = new CatalogKey(dataSource.key(), normalize(schema), null);
+        return cached(key, refresh, () -> withMetaData(dataSource, trace, (connection, metaData) ->
+                readTables(connection, metaData, schema)));
+    }
+
+    /**
+     * 테이블 하나의 구조를 돌려준다.
+     *
+     * @param dataSource 조회 대상 데이터소스
+     * @param schema 스키마 이름(비우면 커넥션의 현재 스키마)
+     * @param table 테이블 이름
+     * @param refresh true이면 캐시를 버리고 다시 읽는다
+     * @param trace 커넥션 획득·조회 시간을 기록할 추적
+     * @return 컬럼, 기본 키, 인덱스, 어림 행 수
+     * @throws IllegalArgumentException 테이블 이름이 비었거나 테이블을 찾지 못한 경우
+     * @throws org.springframework.dao.DataAccessException 메타데이터 조회에 실패한 경우
+     */
+    TableDescription describe(DataSourceHandle dataSource, String schema, String table, boolean refresh,
+                              QueryTrace trace) {
+        if (!StringUtils.hasText(table)) {
+            throw new IllegalArgumentException("Table name is required.");
+        }
+        CatalogKey key = new CatalogKey(dataSource.key(), normalize(schema), table.strip());
+        return cached(key, refresh, () -> withMetaData(dataSource, trace, (connection, metaData) ->
+                readTable(connection, metaData, schema, table.strip())));
+    }
+
+    int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T cached(CatalogKey key, boolean refresh, Supplier<T> loader) {
+        long now = System.nanoTime();
+        if (!refresh) {
+            synchronized (entries) {
+                Entry entry = entries.get(key);
+                if (entry != null && entry.expiresAtNanos() - now > 0) {
+                    hits.increment();
+                    return (T) entry.value();
+                }
+            }
+        }
+        misses.increment();
+        T value = loader.get();
+        synchronized (entries) {
+            entries.put(key, new Entry(value, System.nanoTime() + properties.ttl().toNanos()));
+            while (entries.size() > Math.max(1, properties.maxEntries())) {
+                entries.remove(entries.keySet().iterator().next());
+            }
+        }
+        return value;
+    }
+
+    private static <T> T withMetaData(DataSourceHandle dataSource, QueryTrace trace, MetaDataCallback<T> callback) {
+        long acquireStart = System.nanoTime();
+        return new JdbcTemplate(dataSource.dataSource()).execute((ConnectionCallback<T>) connection -> {
+            trace.addConnectionNanos(System.nanoTime() - acquireStart);
+            long readStart = System.nanoTime();
+            try {
+                return callback.read(connection, connection.getMetaData());
+            } finally {
+                trace.addExecuteNanos(System.nanoTime() - readStart);
+            }
+        });
+    }
+
+    private static String readTables(Connection connection, DatabaseMetaData metaData, String schema)
+            throws SQLException {
+        StringBuilder out = new StringBuilder(CSVFormat.DEFAULT.format((Object[]) TABLE_LIST_HEADER))
+                .append(CsvResultSetWriter.RECORD_SEPARATOR);
+        for (String candidate : candidates(metaData, schemaOrCurrent(connection, schema))) {
+            int found = 0;
+            try (ResultSet tables = metaData.getTables(
+                    connection.getCatalog(), escape(metaData, candidate), "%", null)) {
+                while (tables.next()) {
+                    String type = tables.getString("TABLE_TYPE");
+                    if (type != null && type.toUpperCase(Locale.ROOT).contains("SYSTEM")) {
+                        continue;
+                    }
+                    out.append(CSVFormat.DEFAULT.format(
+                            tables.getString("TABLE_SCHEM"),
+                            tables.getString("TABLE_NAME"),
+                            type,
+                            tables.getString("REMARKS")
+                    )).append(CsvResultSetWriter.RECORD_SEPARATOR);
+                    found++;
+                }
+            }
+            if (found > 0) {
+                break;
+            }
+        }
+        return out.toString();
+    }
+
+    private static TableDescription readTable(Connection connection, DatabaseMetaData metaData, String schema,
+                                              String table) throws SQLException {
+        String catalog = connection.getCatalog();
+        for (String schemaCandidate : candidates(metaData, schemaOrCurrent(connection, schema))) {
+            for (String tableCandidate : candidates(metaData, table)) {
+                try (ResultSet tables = metaData.getTables(
+                        catalog, escape(metaData, schemaCandidate), escape(metaData, tableCandidate), null)) {
+                    if (tables.next()) {
+                        String actualSchema = tables.getString("TABLE_SCHEM");
+                        String actualTable = tables.getString("TABLE_NAME");
+                        String type = tables.getString("TABLE_TYPE");
+                        return describe(metaData, catalog, actualSchema, actualTable, type);
+                    }
+                }
+            }
+        }
+        throw new IllegalArgumentException("Table not found: " + (StringUtils.hasText(schema)
+                ? schema.strip() + "." + table : table) + ".");
+    }
+
+    private static TableDescription describe(DatabaseMetaData metaData, String catalog, String schema, String table,
+                                             String type) throws SQLException {
+        List<ColumnDescription> columns = new ArrayList<>();
+        try (ResultSet rs = metaData.getColumns(catalog, escape(metaData, schema), escape(metaData, table), "%")) {
+            while (rs.next()) {
+                columns.add(new ColumnDescription(
+                        rs.getString("COLUMN_NAME"),
+                        rs.getString("TYPE_NAME"),
+                        nullableInt(rs, "COLUMN_SIZE"),
+                        nullableInt(rs, "DECIMAL_DIGITS"),
+                        !"NO".equalsIgnoreCase(rs.getString("IS_NULLABLE")),
+                        rs.getString("COLUMN_DEF"),
+                        rs.getString("REMARKS")
+                ));
+            }
+        }
+
+        Map<Short, String> keyColumns = new TreeMap<>();
+        try (ResultSet rs = metaData.getPrimaryKeys(catalog, schema, table)) {
+            while (rs.next()) {
+                keyColumns.put(rs.getShort("KEY_SEQ"), rs.getString("COLUMN_NAME"));
+            }
+        }
+
+        // approximate=true이면 드라이버가 통계만 보고 돌려주므로 테이블을 세지 않는다.
+        Long rowCountEstimate = null;
+        Map<String, IndexBuilder> indexes = new LinkedHashMap<>();
+        try (ResultSet rs = metaData.getIndexInfo(catalog, schema, table, false, true)) {
+            while (rs.next()) {
+                if (rs.getShort("TYPE") == DatabaseMetaData.tableIndexStatistic) {
+                    long cardinality = rs.getLong("CARDINALITY");
+                    rowCountEstimate = rs.wasNull() ? null : cardinality;
+                    continue;
+                }
+                String indexName = rs.getString("INDEX_NAME");
+                String column = rs.getString("COLUMN_NAME");
+                if (indexName == null || column == null) {
+                    continue;
+                }
+                boolean unique = !rs.getBoolean("NON_UNIQUE");
+                indexes.computeIfAbsent(indexName, name -> new IndexBuilder(name, unique)).columns.add(column);
+            }
+        }
+        return new TableDescription(schema, table, type, rowCountEstimate, List.copyOf(columns),
+                List.copyOf(keyColumns.values()), indexes.values().stream().map(IndexBuilder::build).toList());
+    }
+
+    /**
+     * 이름을 그대로 찾고, 없으면 데이터베이스가 따옴표 없는 식별자를 저장하는 대소문자로 다시 찾는다.
+     *
+     * <p>input: "items"(H2, 대문자 저장) -> output: ["items", "ITEMS"]
+     */
+    private static List<String> candidates(DatabaseMetaData metaData, String name) throws SQLException {
+        if (name == null) {
+            return Collections.singletonList(null);
+        }
+        String folded = name;
+        if (metaData.storesUpperCaseIdentifiers()) {
+            folded = name.toUpperCase(Locale.ROOT);
+        } else if (metaData.storesLowerCaseIdentifiers()) {
+            folded = name.toLowerCase(Locale.ROOT);
+        }
+        return folded.equals(name) ? List.of(name) : List.of(name, folded);
+    }
+
+    /**
+     * 패턴 인자로 받는 이름의 {@code _}, {@code %}를 이스케이프해 다른 테이블이 함께 걸리지 않게 한다.
+     *
+     * <p>input: "order_items" -> output: "order\_items"
+     */
+    private static String escape(DatabaseMetaData metaData, String name) throws SQLException {
+        String escape = metaData.getSearchStringEscape();
+        if (name == null || !StringUtils.hasLength(escape)) {
+            return name;
+        }
+        return name.replace(escape, escape + escape).replace("_", escape + "_").replace("%", escape + "%");
+    }
+
+    private static String schemaOrCurrent(Connection connection, String schema) {
+        if (StringUtils.hasText(schema)) {
+            return schema.strip();
+        }
+        try {
+            return connection.getSchema();
+        } catch (SQLException | AbstractMethodError e) {
+            // JDBC 4.1 이전 드라이버는 현재 스키마를 알려주지 않으므로 모든 스키마에서 찾는다.
+            return null;
+        }
+    }
+
+    private static Integer nullableInt(ResultSet rs, String column) throws SQLException {
+        int value = rs.getInt(column);
+        return rs.wasNull() ? null : value;
+    }
+
+    private static String normalize(String schema) {
+        return StringUtils.hasText(schema) ? schema.strip() : null;
+    }
+
+    private static Counter requests(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("dbcsv.schema.cache")
+                .description("Schema metadata cache lookups by outcome")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    /**
+     * 캐시 항목 식별자. table이 null이면 스키마의 테이블 목록이다.
+     */
+    private record CatalogKey(DataSourceKey dataSource, String schema, String table) {
+    }
+
+    private record Entry(Object value, long expiresAtNanos) {
+    }
+
+    @FunctionalInterface
+    private interface MetaDataCallback<T> {
+
+        T read(Connection connection, DatabaseMetaData metaData) throws SQLException;
+    }
+
+    private static final class IndexBuilder {
+
+        private final String name;
+        private final boolean unique;
+        private final List<String> columns = new ArrayList<>();
+
+        private IndexBuilder(String name, boolean unique) {
+            this.name = name;
+            this.unique = unique;
+        }
+
+        private IndexDescription build() {
+            return new IndexDescription(name, unique, List.copyOf(columns));
+        }
+    }
+}
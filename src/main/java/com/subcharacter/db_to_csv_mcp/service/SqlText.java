@@ -0,0 +1,101 @@
+package com.subcharacter.db_to_csv_mcp.service;
+
+/**
+ * 검증을 마친 SQL을 다른 쿼리 안에 끼워 넣을 때 쓰는 문자열 도우미.
+ *
+ * <p>문자열 리터럴, 따옴표 식별자, 주석은 {@link ReadOnlySqlValidator}와 같은 규칙으로 구분한다. 검증기는 끝에 붙은
+ * 문장 종결자와 주석을 허용하므로, 하위 쿼리로 감싸기 전에 이를 떼어 내지 않으면 줄 주석이 뒤에 붙인 괄호와 조건을
+ * 삼켜 버린다.
+ *
+ * <p>input: {@code SELECT 'drop' FROM t; -- done} -> output: {@code (SELECT 'drop' FROM t) src}
+ *
+ * @author subCharacter
+ * @since 1.0
+ * @version 1.0
+ */
+final class SqlText {
+
+    private SqlText() {
+    }
+
+    /**
+     * 끝에 붙은 공백, 문장 종결자, 주석을 떼어 낸 본문을 돌려준다. 리터럴 안의 {@code ;}나 {@code --}는 건드리지 않는다.
+     *
+     * <p>input: {@code SELECT ';--' AS x ; -- done} -> output: {@code SELECT ';--' AS x}
+     *
+     * @param sql 검증을 마친 SQL
+     * @return 하위 쿼리로 감쌀 수 있는 본문
+     */
+    static String body(String sql) {
+        int length = sql.length();
+        int end = 0;
+        int i = 0;
+        while (i < length) {
+            char current = sql.charAt(i);
+            if (Character.isWhitespace(current) || current == ';') {
+                i++;
+            } else if (current == '-' && i + 1 < length && sql.charAt(i + 1) == '-') {
+                i = skipLineComment(sql, i + 2);
+            } else if (current == '/' && i + 1 < length && sql.charAt(i + 1) == '*') {
+                i = skipBlockComment(sql, i + 2);
+            } else {
+                i = current == '\'' || current == '"' || current == '`' ? skipQuoted(sql, i + 1, current) : i + 1;
+                end = i;
+            }
+        }
+        return sql.substring(0, end);
+    }
+
+    /**
+     * SQL을 FROM 절에 둘 수 있는 별칭 붙은 하위 쿼리로 감싼다.
+     *
+     * <p>input: ("SELECT id FROM items -- all", "src_page") -> output: {@code (SELECT id FROM items) src_page}
+     *
+     * @param sql 검증을 마친 SQL
+     * @param alias 하위 쿼리 별칭
+     * @return 괄호로 감싼 하위 쿼리와 별칭
+     */
+    static String derivedTable(String sql, String alias) {
+        return "(" + body(sql) + ") " + alias;
+    }
+
+    /**
+     * 따옴표로 시작한 토큰의 끝(닫는 따옴표 다음) 위치를 돌려준다. 연속한 따옴표 두 개는 이스케이프로 본다.
+     *
+     * @param sql SQL
+     * @param from 여는 따옴표 다음 위치
+     * @param quote 따옴표 문자
+     * @return 토큰 끝 위치(닫히지 않았으면 문자열 길이)
+     */
+    static int skipQuoted(String sql, int from, char quote) {
+        int i = from;
+        int length = sql.length();
+        while (i < length) {
+            if (sql.charAt(i) == quote) {
+                if (i + 1 < length && sql.charAt(i + 1) == quote) {
+                    i += 2;
+                    continue;
+                }
+                return i + 1;
+            }
+            i++;
+        }
+        return length;
+    }
+
+    /**
+     * {@code --} 다음 위치에서 줄 끝(줄바꿈 다음)까지 건너뛴다.
+     */
+    static int skipLineComment(String sql, int from) {
+        int newline = sql.indexOf('\n', from);
+        return newline < 0 ? sql.length() : newline + 1;
+    }
+
+    /**
+     * {@code /*} 다음 위치에서 닫는 표시 다음까지 건너뛴다.
+     */
+    static int skipBlockComment(String sql, int from) {
+        int close = sql.indexOf("*/", from);
+        return close < 0 ? sql.length() : close + 2;
+    }
+}
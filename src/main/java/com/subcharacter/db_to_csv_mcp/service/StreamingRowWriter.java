@@ -0,0 +1,161 @@
+package com.subcharacter.db_to_csv_mcp.service;
+
+import java.io.IOException;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+
+/**
+ * 행 단위 형식의 공통 스트리밍 루프. 커서 이동, 단계별 시간 측정, 행/크기/토큰 예산 적용을 맡고
+ * 형식별 구현은 머리말, 행 렌더링, 맺음말만 정의한다.
+ *
+ * <p>각 행은 먼저 형식별 버퍼에 렌더링한 뒤 예산을 확인하고 확정하므로, 예산을 넘는 행은 출력에 섞이지 않는다.
+ * 인스턴스는 쿼리 하나에서만 사용한다(스레드-세이프하지 않음).
+ *
+ * @author subCharacter
+ * @since 1.0
+ * @version 1.0
+ */
+abstract class StreamingRowWriter implements ResultSetWriter {
+
+    protected final QueryTrace trace;
+    private boolean truncated;
+
+    protected StreamingRowWriter(QueryTrace trace) {
+        this.trace = trace;
+    }
+
+    @Override
+    public long write(ResultSet resultSet) throws SQLException, IOException {
+        Page page = writePage(resultSet, false, trace.limits().rowCap(), 0);
+        if (page.hasMore()) {
+            truncated = true;
+            trace.markTruncated();
+        }
+        return page.rows();
+    }
+
+    @Override
+    public boolean truncated() {
+        return truncated;
+    }
+
+    /**
+     * 커서에서 최대 maxRows개 행을 기록한다. 다음 행이 있으면 커서는 그 행에 위치한 채로 남는다.
+     * 다음 행을 더하면 추적의 응답 예산(출력 크기, 어림 토큰 수)을 넘는 경우에도 그 행을 쓰지 않고 멈춘다.
+     * 진행을 보장하기 위해 첫 행은 예산과 무관하게 기록한다.
+     *
+     * <p>input: 행 5개, onRow=false, maxRows=2 -> output: rows=2, hasMore=true(커서는 3번째 행에 위치)
+     *
+     * @param resultSet 결과 커서
+     * @param onRow 커서가 이미 기록할 행에 위치해 있으면 true, 그 이전이면 false
+     * @param maxRows 기록할 최대 행 수
+     * @param keyColumn 마지막 행에서 값을 돌려줄 컬럼 번호(1부터, 0이면 사용 안 함)
+     * @return 기록한 행 수, 남은 행 존재 여부, 마지막 행의 키 값
+     * @throws SQLException 커서 읽기에 실패한 경우
+     * @throws IOException 출력 쓰기에 실패한 경우
+     */
+    Page writePage(ResultSet resultSet, boolean onRow, long maxRows, int keyColumn) throws SQLException, IOException {
+        long fetchNanos = 0;
+        long renderNanos = 0;
+        long rows = 0;
+        long byteCap = trace.limits().byteCap();
+        long tokenCap = trace.limits().tokenCap();
+        boolean countTokens = tokenCap != Long.MAX_VALUE;
+        try {
+            long fetchStart = System.nanoTime();
+            boolean hasRow = onRow || resultSet.next();
+            long renderStart = System.nanoTime();
+            fetchNanos += renderStart - fetchStart;
+            if (!hasRow) {
+                return new Page(0, false, null);
+            }
+            long written = begin(resultSet.getMetaData());
+            long tokens = countTokens ? beginTokens() : 0;
+            Object lastKey = null;
+            while (hasRow && rows < maxRows) {
+                renderRow(resultSet);
+                long rowTokens = countTokens ? pendingTokens() : 0;
+                if (rows > 0 && (written + pendingLength() > byteCap || tokens + rowTokens > tokenCap)) {
+                    // 예산을 넘는 행은 쓰지 않고 커서를 그 행에 남겨 더 가져오지 않는다.
+                    discardRow();
+                    renderNanos += System.nanoTime() - renderStart;
+                    break;
+                }
+                written += pendingLength();
+                tokens += rowTokens;
+                commitRow();
+                rows++;
+                if (keyColumn > 0) {
+                    lastKey = resultSet.getObject(keyColumn);
+                }
+                fetchStart = System.nanoTime();
+                renderNanos += fetchStart - renderStart;
+                hasRow = resultSet.next();
+                renderStart = System.nanoTime();
+                fetchNanos += renderStart - fetchStart;
+            }
+            end(hasRow);
+            return new Page(rows, hasRow, lastKey);
+        } finally {
+            trace.addFetchNanos(fetchNanos);
+            trace.addRenderNanos(renderNanos);
+            trace.addRows(rows);
+        }
+    }
+
+    /**
+     * 첫 행을 읽은 직후 머리말(헤더, 스키마 등)을 기록한다.
+     *
+     * @param metaData 결과 메타데이터
+     * @return 기록한 출력 크기
+     */
+    protected abstract long begin(ResultSetMetaData metaData) throws SQLException, IOException;
+
+    /**
+     * 머리말의 어림 토큰 수. 토큰 예산이 있을 때만 호출된다.
+     *
+     * @return 어림 토큰 수
+     */
+    protected abstract long beginTokens();
+
+    /**
+     * 현재 행을 출력하지 않고 형식별 버퍼에 렌더링한다.
+     */
+    protected abstract void renderRow(ResultSet resultSet) throws SQLException;
+
+    /**
+     * 렌더링한 행을 확정했을 때 늘어날 출력 크기.
+     *
+     * @return 출력 크기
+     */
+    protected abstract int pendingLength();
+
+    /**
+     * 렌더링한 행의 어림 토큰 수. 토큰 예산이 있을 때만 호출된다.
+     *
+     * @return 어림 토큰 수
+     */
+    protected abstract int pendingTokens();
+
+    protected abstract void discardRow();
+
+    protected abstract void commitRow() throws IOException;
+
+    /**
+     * 맺음말을 기록하고 출력을 비운다.
+     *
+     * @param hasMore 커서에 남은 행이 있는지 여부
+     */
+    protected abstract void end(boolean hasMore) throws IOException;
+
+    /**
+     * 한 페이지를 기록한 결과.
+     *
+     * @param rows 기록한 데이터 행 수
+     * @param hasMore 커서에 남은 행이 있는지 여부
+     * @param lastKey 마지막으로 기록한 행의 키 컬럼 값(키 컬럼을 지정하지 않았거나 행이 없으면 null)
+     */
+    record Page(long rows, boolean hasMore, Object lastKey) {
+    }
+}
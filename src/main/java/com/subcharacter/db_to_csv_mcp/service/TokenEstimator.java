@@ -0,0 +1,80 @@
+package com.subcharacter.db_to_csv_mcp.service;
+
+/**
+ * CSV 텍스트가 LLM 토크나이저에서 차지할 토큰 수를 문자 종류별 규칙으로 빠르게 어림한다.
+ *
+ * <p>BPE 토크나이저는 영문 단어를 대략 4글자, 숫자를 최대 3자리씩 묶고 구두점과 줄바꿈은 각각 한 토큰으로 나누는 경향이
+ * 있다. 공백은 다음 단어에 붙으므로 세지 않고, ASCII가 아닌 문자는 보수적으로 한 글자를 한 토큰으로 센다.
+ * 정확한 토크나이저를 쓰지 않으므로 응답 예산을 넘지 않도록 조금 크게 어림하는 것을 목표로 한다.
+ *
+ * @author subCharacter
+ * @since 1.0
+ * @version 1.0
+ */
+final class TokenEstimator {
+
+    private static final int LETTERS_PER_TOKEN = 4;
+    private static final int DIGITS_PER_TOKEN = 3;
+    private static final int BASE64_CHARS_PER_TOKEN = 2;
+
+    private TokenEstimator() {
+    }
+
+    /**
+     * 텍스트의 토큰 수를 어림한다.
+     *
+     * <p>input: "42,apple\r\n" -> output: 5 (42, 쉼표, apple 2, 줄바꿈 1)
+     *
+     * @param text 어림할 텍스트
+     * @return 어림한 토큰 수
+     */
+    static int estimate(CharSequence text) {
+        int tokens = 0;
+        int letters = 0;
+        int digits = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char current = text.charAt(i);
+            if (isAsciiLetter(current)) {
+                tokens += flush(digits, DIGITS_PER_TOKEN);
+                digits = 0;
+                letters++;
+                continue;
+            }
+            if (current >= '0' && current <= '9') {
+                tokens += flush(letters, LETTERS_PER_TOKEN);
+                letters = 0;
+                digits++;
+                continue;
+            }
+            tokens += flush(letters, LETTERS_PER_TOKEN) + flush(digits, DIGITS_PER_TOKEN);
+            letters = 0;
+            digits = 0;
+            if (current == ' ' || current == '\t' || (current == '\n' && i > 0 && text.charAt(i - 1) == '\r')) {
+                continue;
+            }
+            tokens++;
+        }
+        return tokens + flush(letters, LETTERS_PER_TOKEN) + flush(digits, DIGITS_PER_TOKEN);
+    }
+
+    /**
+     * Base64 텍스트의 토큰 수를 길이로 어림한다. 글자 종류가 자주 바뀌어 토크나이저가 2~3글자씩 나누므로 보수적으로
+     * 2글자를 한 토큰으로 센다.
+     *
+     * <p>input: 134 -> output: 67
+     *
+     * @param length Base64 글자 수
+     * @return 어림한 토큰 수
+     */
+    static long estimateBase64(long length) {
+        return (length + BASE64_CHARS_PER_TOKEN - 1) / BASE64_CHARS_PER_TOKEN;
+    }
+
+    private static boolean isAsciiLetter(char value) {
+        return (value >= 'a' && value <= 'z') || (value >= 'A' && value <= 'Z') || value == '_';
+    }
+
+    private static int flush(int run, int perToken) {
+        return (run + perToken - 1) / perToken;
+    }
+}
@@ -0,0 +1,43 @@
+package com.subcharacter.db_to_csv_mcp.service;
+
+/**
+ * 본문 값을 큰따옴표로 감싸는 규칙.
+ *
+ * <p>구분자·따옴표·개행이 포함된 값은 모드와 관계없이 항상 감싼다.
+ *
+ * @author subCharacter
+ * @since 1.0
+ * @version 1.0
+ */
+enum ValueQuoteMode {
+    NONE(1, false, false),
+    STRINGS_ONLY(2, true, false),
+    ALL(3, true, true);
+
+    private final int code;
+    private final boolean quoteText;
+    private final boolean quoteNumbers;
+
+    ValueQuoteMode(int code, boolean quoteText, boolean quoteNumbers) {
+        this.code = code;
+        this.quoteText = quoteText;
+        this.quoteNumbers = quoteNumbers;
+    }
+
+    boolean quoteText() {
+        return quoteText;
+    }
+
+    boolean quoteNumbers() {
+        return quoteNumbers;
+    }
+
+    static ValueQuoteMode fromCode(int code) {
+        for (ValueQuoteMode mode : values()) {
+            if (mode.code == code) {
+                return mode;
+            }
+        }
+        return NONE;
+    }
+}
@@ -0,0 +1,173 @@
+package com.subcharacter.db_to_csv_mcp.service;
+
+import com.subcharacter.db_to_csv_mcp.config.ExportProperties;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.regex.Pattern;
+
+/**
+ * 증분 내보내기 작업별 마지막 워터마크를 로컬 파일에 보관한다.
+ *
+ * <p>파일은 내보내기 디렉터리 아래 {@value #STORE_DIRECTORY} 디렉터리에 있어 내보내기 파일 이름으로는 덮어쓸 수 없다.
+ * 처음 사용할 때 한 번 읽고, 바뀔 때마다 임시 파일에 쓴 뒤 이름을 바꿔 통째로 교체하므로 쓰는 도중 중단돼도
+ * 이전 내용이 남는다. 스레드-세이프하다.
+ *
+ * <p>저장 형식: {@code orders.fingerprint=ab12...}, {@code orders.type=n}, {@code orders.value=1005},
+ * {@code orders.updated=2024-01-31T09:30:00Z}
+ *
+ * @author subCharacter
+ * @since 1.0
+ * @version 1.0
+ */
+@Component
+class WatermarkStore {
+
+    static final String STORE_DIRECTORY = ".watermarks";
+    private static final String STORE_FILE = "jobs.properties";
+    private static final Pattern JOB_NAME = Pattern.compile("[A-Za-z0-9_-]{1,64}");
+
+    private final ExportProperties exportProperties;
+    private Map<String, JobState> jobs;
+
+    WatermarkStore(ExportProperties exportProperties) {
+        this.exportProperties = exportProperties;
+    }
+
+    /**
+     * 작업 이름이 저장소 키로 쓸 수 있는 형태인지 확인한다.
+     *
+     * @param jobName 작업 이름
+     * @return 앞뒤 공백을 뺀 작업 이름
+     * @throws IllegalArgumentException 비었거나 영문자·숫자·'_'·'-' 외의 문자가 있거나 64자를 넘는 경우
+     */
+    static String validJobName(String jobName) {
+        String name = jobName == null ? "" : jobName.strip();
+        if (!JOB_NAME.matcher(name).matches()) {
+            throw new IllegalArgumentException(
+                    "Job name must be 1-64 letters, digits, '_' or '-': " + jobName);
+        }
+        return name;
+    }
+
+    /**
+     * 작업의 저장된 상태를 돌려준다.
+     *
+     * @param jobName 검증된 작업 이름
+     * @return 저장된 상태(처음 실행하는 작업이면 null)
+     */
+    synchronized JobState get(String jobName) {
+        return jobs().get(jobName);
+    }
+
+    /**
+     * 작업의 상태를 저장하고 파일에 반영한다.
+     *
+     * @param jobName 검증된 작업 이름
+     * @param state 새 상태
+     * @throws UncheckedIOException 파일 쓰기에 실패한 경우(메모리의 상태도 바뀌지 않음)
+     */
+    synchronized void put(String jobName, JobState state) {
+        Map<String, JobState> updated = new HashMap<>(jobs());
+        updated.put(jobName, state);
+        save(updated);
+        jobs = updated;
+    }
+
+    /**
+     * 작업의 상태를 지운다. 다음 실행은 처음부터 내보낸다.
+     *
+     * @param jobName 검증된 작업 이름
+     * @throws UncheckedIOException 파일 쓰기에 실패한 경우
+     */
+    synchronized void remove(String jobName) {
+        if (!jobs().containsKey(jobName)) {
+            return;
+        }
+        Map<String, JobState> updated = new HashMap<>(jobs());
+        updated.remove(jobName);
+        save(updated);
+        jobs = updated;
+    }
+
+    private Map<String, JobState> jobs() {
+        if (jobs == null) {
+            jobs = load();
+        }
+        return jobs;
+    }
+
+    private Path storeFile() {
+        return exportProperties.directory().toAbsolutePath().normalize().resolve(STORE_DIRECTORY).resolve(STORE_FILE);
+    }
+
+    private Map<String, JobState> load() {
+        Path file = storeFile();
+        Map<String, JobState> loaded = new HashMap<>();
+        if (!Files.exists(file)) {
+            return loaded;
+        }
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read watermark store: " + file, e);
+        }
+        for (String key : properties.stringPropertyNames()) {
+            if (!key.endsWith(".fingerprint")) {
+                continue;
+            }
+            String job = key.substring(0, key.length() - ".fingerprint".length());
+            KeyValue watermark = new KeyValue(
+                    properties.getProperty(job + ".type", "s"), properties.getProperty(job + ".value", ""));
+            String updated = properties.getProperty(job + ".updated");
+            loaded.put(job, new JobState(properties.getProperty(key), watermark,
+                    updated == null ? null : Instant.parse(updated)));
+        }
+        return loaded;
+    }
+
+    private void save(Map<String, JobState> states) {
+        Path file = storeFile();
+        Path partial = file.resolveSibling(STORE_FILE + ".part");
+        Properties properties = new Properties();
+        states.forEach((job, state) -> {
+            properties.setProperty(job + ".fingerprint", state.fingerprint());
+            properties.setProperty(job + ".type", state.watermark().type());
+            properties.setProperty(job + ".value", state.watermark().value());
+            if (state.updatedAt() != null) {
+                properties.setProperty(job + ".updated", state.updatedAt().toString());
+            }
+        });
+        try {
+            Files.createDirectories(file.getParent());
+            try (Writer writer = Files.newBufferedWriter(partial, StandardCharsets.UTF_8)) {
+                properties.store(writer, "db-to-csv incremental export watermarks");
+            }
+            Files.move(partial, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write watermark store: " + file, e);
+        }
+    }
+
+    /**
+     * 작업 하나의 저장된 상태.
+     *
+     * @param fingerprint 데이터소스·SQL·바인드 값·워터마크 컬럼의 지문(작업 정의가 바뀌었는지 확인용)
+     * @param watermark 마지막으로 내보낸 행의 워터마크
+     * @param updatedAt 마지막으로 저장한 시각
+     */
+    record JobState(String fingerprint, KeyValue watermark, Instant updatedAt) {
+    }
+}
@@ -0,0 +1,32 @@
+package com.subcharacter.db_to_csv_mcp;
+
+import io.modelcontextprotocol.server.McpSyncServer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("fast-startup")
+class FastStartupProfileTests {
+
+    @Autowired
+    private ConfigurableApplicationContext context;
+
+    @Test
+    void defaultDataSourceIsNotOpenedAtStartup() {
+        assertThat(context.getBeanFactory().containsSingleton("dataSource")).isFalse();
+    }
+
+    @Test
+    void mcpServerIsCreatedAtStartup() {
+        String[] servers = context.getBeanNamesForType(McpSyncServer.class, false, false);
+
+        assertThat(servers).isNotEmpty()
+                .allSatisfy(name -> assertThat(context.getBeanFactory().containsSingleton(name)).isTrue());
+    }
+
+}
@@ -0,0 +1,51 @@
+package com.subcharacter.db_to_csv_mcp.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class ColumnSketchTests {
+
+    @Test
+    void hyperLogLogIsExactForSmallSetsAndCloseForLargeOnes() {
+        HyperLogLog small = new HyperLogLog();
+        for (String value : new String[]{"apple", "banana", "apple", "kiwi"}) {
+            small.add(HyperLogLog.hash(value));
+        }
+        assertThat(small.estimate()).isEqualTo(3);
+
+        HyperLogLog large = new HyperLogLog();
+        for (long i = 0; i < 200_000; i++) {
+            large.add(HyperLogLog.hash(i));
+        }
+        assertThat((double) large.estimate()).isCloseTo(200_000, within(200_000 * 0.05));
+    }
+
+    @Test
+    void quantileSketchIsExactWithinOneLevelAndApproximateBeyond() {
+        QuantileSketch exact = new QuantileSketch();
+        for (int i = 1; i <= 100; i++) {
+            exact.add(i);
+        }
+        assertThat(exact.quantile(0.5)).isEqualTo(50);
+        assertThat(exact.quantile(0.99)).isEqualTo(99);
+
+        QuantileSketch approximate = new QuantileSketch();
+        for (int i = 1; i <= 100_000; i++) {
+            approximate.add(i);
+        }
+        assertThat(approximate.count()).isEqualTo(100_000);
+        assertThat(approximate.quantile(0.5)).isCloseTo(50_000, within(2_000.0));
+        assertThat(approximate.quantile(0.9)).isCloseTo(90_000, within(2_000.0));
+    }
+
+    @Test
+    void heavyHittersKeepsTheMostFrequentValue() {
+        HeavyHitters hitters = new HeavyHitters(2);
+        for (String value : new String[]{"a", "b", "a", "c", "a"}) {
+            hitters.add(value);
+        }
+        assertThat(hitters.top(1)).containsExactly(new HeavyHitters.Count("a", 3));
+    }
+}
@@ -0,0 +1,74 @@
+package com.subcharacter.db_to_csv_mcp.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CsvRowBufferTests {
+
+    @Test
+    void appendTextQuotesOnlyWhenNeeded() throws Exception {
+        CsvRowBuffer buffer = new CsvRowBuffer();
+        buffer.appendText("plain", false);
+        buffer.appendSeparator();
+        buffer.appendText("a\"b", false);
+        buffer.appendSeparator();
+        buffer.appendText("x,y", false);
+        buffer.appendSeparator();
+        buffer.appendText("line\nbreak", false);
+        buffer.appendSeparator();
+        buffer.appendText("forced", true);
+
+        assertThat(written(buffer)).isEqualTo("plain,\"a\"\"b\",\"x,y\",\"line\nbreak\",\"forced\"");
+    }
+
+    @Test
+    void appendNumbersHonoursQuoteFlag() throws Exception {
+        CsvRowBuffer buffer = new CsvRowBuffer();
+        buffer.appendInt(42, false);
+        buffer.appendSeparator();
+        buffer.appendLong(-7L, true);
+        buffer.appendSeparator();
+        buffer.appendDouble(1.5, false);
+        buffer.appendSeparator();
+        buffer.appendDecimal(new BigDecimal("1E+3"), false);
+
+        assertThat(written(buffer)).isEqualTo("42,\"-7\",1.5,1000");
+    }
+
+    @Test
+    void appendTimestampMatchesTimestampToString() throws Exception {
+        for (String value : new String[]{
+                "2025-10-26T22:28:21.475", "2025-10-26T22:28:21", "0999-01-02T03:04:05.000000001"}) {
+            LocalDateTime dateTime = LocalDateTime.parse(value);
+            CsvRowBuffer buffer = new CsvRowBuffer();
+            buffer.appendTimestamp(dateTime, false);
+
+            assertThat(written(buffer)).isEqualTo(Timestamp.valueOf(dateTime).toString());
+        }
+    }
+
+    @Test
+    void writeToResetsBufferForNextRow() throws Exception {
+        CsvRowBuffer buffer = new CsvRowBuffer();
+        StringWriter out = new StringWriter();
+        buffer.appendText("first", false);
+        buffer.writeTo(out);
+        buffer.appendText("second", false);
+        buffer.writeTo(out);
+
+        assertThat(out.toString()).isEqualTo("firstsecond");
+        assertThat(buffer.length()).isZero();
+    }
+
+    private static String written(CsvRowBuffer buffer) throws Exception {
+        StringWriter out = new StringWriter();
+        buffer.writeTo(out);
+        return out.toString();
+    }
+}
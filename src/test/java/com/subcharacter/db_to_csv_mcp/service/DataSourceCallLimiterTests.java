@@ -0,0 +1,96 @@
+package com.subcharacter.db_to_csv_mcp.service;
+
+import com.subcharacter.db_to_csv_mcp.config.ConcurrencyProperties;
+import com.subcharacter.db_to_csv_mcp.service.DataSourceRegistry.DataSourceKey;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+
+class DataSourceCallLimiterTests {
+
+    private static final DataSourceKey KEY = DataSourceKey.of("jdbc:h2:mem:limiter", null, "sa", "");
+    private static final DataSourceKey OTHER_KEY = DataSourceKey.of("jdbc:h2:mem:other", null, "sa", "");
+
+    private final DataSourceCallLimiter limiter =
+            new DataSourceCallLimiter(new ConcurrencyProperties(1, Duration.ofMillis(100)));
+
+    @Test
+    void runRejectsCallsOverLimitAfterTimeout() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<String> slow = CompletableFuture.supplyAsync(() ->
+                limiter.run(KEY, QueryTrace.detached(), () -> {
+                    started.countDown();
+                    await(release);
+                    return "slow";
+                }));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+        QueryTrace trace = QueryTrace.detached();
+        assertThatIllegalStateException()
+                .isThrownBy(() -> limiter.run(KEY, trace, () -> "fast"))
+                .withMessageContaining("Too many concurrent queries for jdbc:h2:mem:limiter");
+        assertThat(trace.queueNanos()).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(100));
+        assertThat(limiter.run(OTHER_KEY, QueryTrace.detached(), () -> "other")).isEqualTo("other");
+
+        release.countDown();
+        assertThat(slow.get(5, TimeUnit.SECONDS)).isEqualTo("slow");
+        assertThat(limiter.run(KEY, QueryTrace.detached(), () -> "fast")).isEqualTo("fast");
+    }
+
+    @Test
+    void runReleasesSlotWhenWorkFails() {
+        assertThatIllegalStateException()
+                .isThrownBy(() -> limiter.run(KEY, QueryTrace.detached(), () -> {
+                    throw new IllegalStateException("boom");
+                }))
+                .withMessage("boom");
+
+        assertThat(limiter.run(KEY, QueryTrace.detached(), () -> "next")).isEqualTo("next");
+    }
+
+    @Test
+    void leaseHoldsSlotAcrossCallsUntilReleased() {
+        DataSourceCallLimiter.Lease lease = limiter.acquire(KEY, QueryTrace.detached());
+
+        assertThatIllegalStateException()
+                .isThrownBy(() -> limiter.run(KEY, QueryTrace.detached(), () -> "blocked"))
+                .withMessageContaining("Too many concurrent queries");
+
+        lease.release();
+        lease.release();
+        assertThat(limiter.run(KEY, QueryTrace.detached(), () -> "next")).isEqualTo("next");
+        assertThat(limiter.acquire(KEY, QueryTrace.detached())).isNotNull();
+        assertThatIllegalStateException()
+                .isThrownBy(() -> limiter.run(KEY, QueryTrace.detached(), () -> "single"));
+    }
+
+    @Test
+    void tryAcquireTakesOnlyFreeSlotsWithoutWaiting() {
+        DataSourceCallLimiter wide = new DataSourceCallLimiter(new ConcurrencyProperties(3, Duration.ofSeconds(5)));
+        DataSourceCallLimiter.Lease own = wide.acquire(KEY, QueryTrace.detached());
+
+        List<DataSourceCallLimiter.Lease> extra = wide.tryAcquire(KEY, 5);
+
+        assertThat(extra).hasSize(2);
+        assertThat(wide.tryAcquire(KEY, 1)).isEmpty();
+        extra.forEach(DataSourceCallLimiter.Lease::release);
+        own.release();
+        assertThat(wide.tryAcquire(KEY, 3)).hasSize(3);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
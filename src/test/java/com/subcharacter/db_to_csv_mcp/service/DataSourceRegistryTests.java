@@ -0,0 +1,121 @@
+package com.subcharacter.db_to_csv_mcp.service;
+
+import com.subcharacter.db_to_csv_mcp.config.DataSourcePoolProperties;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+class DataSourceRegistryTests {
+
+    private static final String URL = "jdbc:h2:mem:registry;DB_CLOSE_DELAY=-1";
+
+    private final DataSourceRegistry registry = new DataSourceRegistry(properties(2, Duration.ofMinutes(10)));
+
+    @AfterEach
+    void tearDown() {
+        registry.close();
+    }
+
+    @Test
+    void obtainReusesPoolForSameIdentity() throws Exception {
+        DataSource first = registry.obtain(URL, "org.h2.Driver", "sa", "");
+        DataSource second = registry.obtain(URL, "org.h2.Driver", "sa", "");
+
+        assertThat(second).isSameAs(first);
+        try (Connection connection = second.getConnection()) {
+            assertThat(connection.isValid(1)).isTrue();
+        }
+    }
+
+    @Test
+    void obtainSeparatesPoolsByCredential() {
+        DataSource first = registry.obtain(URL, null, "sa", "");
+        DataSource second = registry.obtain(URL, null, "sa", "other");
+
+        assertThat(second).isNotSameAs(first);
+        assertThat(registry.size()).isEqualTo(2);
+    }
+
+    @Test
+    void obtainRetiresLeastRecentlyUsedPoolWhenCapReached() {
+        DataSource first = registry.obtain(URL, null, "sa", "a");
+        registry.obtain(URL, null, "sa", "b");
+        registry.obtain(URL, null, "sa", "c");
+
+        assertThat(registry.size()).isEqualTo(2);
+        assertThat(registry.obtain(URL, null, "sa", "a")).isNotSameAs(first);
+        // 먼저 받아 간 핸들이 커넥션을 빌릴 수 있도록 유휴 시간 전에는 닫지 않는다.
+        assertThat(((HikariDataSource) first).isClosed()).isFalse();
+
+        registry.close();
+
+        assertThat(((HikariDataSource) first).isClosed()).isTrue();
+    }
+
+    @Test
+    void obtainKeepsBorrowedPoolOpenWhenAnotherIdentityExceedsCap() throws Exception {
+        DataSourceRegistry single = new DataSourceRegistry(properties(1, Duration.ZERO));
+        try {
+            DataSource first = single.obtain(URL, null, "sa", "");
+            try (Connection borrowed = first.getConnection()) {
+                DataSource second = single.obtain("jdbc:h2:mem:registry_other;DB_CLOSE_DELAY=-1", null, "sa", "");
+                try (Connection other = second.getConnection()) {
+                    assertThat(other.isValid(1)).isTrue();
+                }
+                single.evictIdlePools();
+
+                assertThat(((HikariDataSource) first).isClosed()).isFalse();
+                assertThat(borrowed.isValid(1)).isTrue();
+                try (Connection again = first.getConnection()) {
+                    assertThat(again.isValid(1)).isTrue();
+                }
+            }
+
+            single.evictIdlePools();
+
+            assertThat(((HikariDataSource) first).isClosed()).isTrue();
+        } finally {
+            single.close();
+        }
+    }
+
+    @Test
+    void evictIdlePoolsClosesExpiredPools() {
+        DataSourceRegistry shortLived = new DataSourceRegistry(properties(4, Duration.ZERO));
+        DataSource dataSource = shortLived.obtain(URL, null, "sa", "");
+
+        shortLived.evictIdlePools();
+
+        assertThat(shortLived.size()).isZero();
+        assertThat(((HikariDataSource) dataSource).isClosed()).isTrue();
+    }
+
+    @Test
+    void identityOmitsCredentialsAndUrlOptions() {
+        DataSourceRegistry.DataSourceKey key = DataSourceRegistry.DataSourceKey.of(
+                "jdbc:postgresql://app:secret@db:5432/shop?password=secret", null, "app", "secret");
+
+        assertThat(key.identity()).isEqualTo("jdbc:postgresql://db:5432/shop");
+        assertThat(key.credentialHash()).doesNotContain("secret");
+    }
+
+    @Test
+    void obtainRequiresUrl() {
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> registry.obtain(" ", null, "sa", ""))
+                .withMessageContaining("Database URL is required.");
+    }
+
+    private static DataSourcePoolProperties properties(int maxPools, Duration poolIdleTimeout) {
+        return new DataSourcePoolProperties(
+                2, maxPools, Duration.ofMinutes(5), poolIdleTimeout,
+                Duration.ofSeconds(5), Duration.ofSeconds(1), null);
+    }
+}
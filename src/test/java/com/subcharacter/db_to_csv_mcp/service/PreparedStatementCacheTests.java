@@ -0,0 +1,40 @@
+package com.subcharacter.db_to_csv_mcp.service;
+
+import com.subcharacter.db_to_csv_mcp.config.QueryProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PreparedStatementCacheTests {
+
+    private static final String URL = "jdbc:h2:mem:statements;DB_CLOSE_DELAY=-1";
+
+    private final PreparedStatementCache cache = new PreparedStatementCache(
+            new QueryProperties(100, Duration.ZERO, 0, DataSize.ofBytes(0), 0, 8), new SimpleMeterRegistry());
+
+    @Test
+    void retiredConnectionIsEvictedWithItsStatements() throws SQLException {
+        try (Connection live = DriverManager.getConnection(URL, "sa", "")) {
+            Connection retired = DriverManager.getConnection(URL, "sa", "");
+            PreparedStatement retiredStatement = cache.acquire(retired, "SELECT 1");
+            cache.release(retired, "SELECT 1", retiredStatement, true);
+            cache.release(live, "SELECT 1", cache.acquire(live, "SELECT 1"), true);
+            assertThat(cache.size()).isEqualTo(2);
+
+            retired.close();
+
+            assertThat(cache.size()).isEqualTo(1);
+            assertThat(retiredStatement.isClosed()).isTrue();
+            assertThat(cache.acquire(live, "SELECT 1").isClosed()).isFalse();
+        }
+    }
+
+}
@@ -0,0 +1,154 @@
+package com.subcharacter.db_to_csv_mcp.service;
+
+import com.subcharacter.db_to_csv_mcp.service.DataSourceRegistry.DataSourceKey;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class QueryCoalescerTests {
+
+    private static final QueryResultCache.ResultKey KEY = QueryResultCache.key(
+            "SELECT SUM(order_total) FROM orders",
+            DataSourceKey.of("jdbc:h2:mem:coalesce", null, "sa", ""),
+            false,
+            ValueQuoteMode.NONE);
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final QueryCoalescer coalescer = new QueryCoalescer(meterRegistry);
+
+    @Test
+    void runSharesOneExecutionWithConcurrentCallers() throws Exception {
+        AtomicInteger executions = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<String> leader = CompletableFuture.supplyAsync(() ->
+                coalescer.run(KEY, QueryTrace.detached(), () -> {
+                    executions.incrementAndGet();
+                    started.countDown();
+                    await(release);
+                    return "TOTAL\r\n1630\r\n";
+                }));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+        CompletableFuture<String> follower = CompletableFuture.supplyAsync(() ->
+                coalescer.run(KEY, QueryTrace.detached(), () -> {
+                    executions.incrementAndGet();
+                    return "unexpected";
+                }));
+        while (meterRegistry.get("dbcsv.query.coalesced").counter().count() < 1) {
+            Thread.onSpinWait();
+        }
+        release.countDown();
+
+        assertThat(leader.get(5, TimeUnit.SECONDS)).isEqualTo("TOTAL\r\n1630\r\n");
+        assertThat(follower.get(5, TimeUnit.SECONDS)).isEqualTo("TOTAL\r\n1630\r\n");
+        assertThat(executions).hasValue(1);
+        assertThat(coalescer.inFlightCount()).isZero();
+    }
+
+    @Test
+    void runStartsFreshExecutionAfterFailure() {
+        assertThatIllegalStateException()
+                .isThrownBy(() -> coalescer.run(KEY, QueryTrace.detached(), () -> {
+                    throw new IllegalStateException("Database rejected the read-only query: timeout");
+                }));
+
+        assertThat(coalescer.run(KEY, QueryTrace.detached(), () -> "ok")).isEqualTo("ok");
+        assertThat(coalescer.inFlightCount()).isZero();
+    }
+
+    @Test
+    void runStopsWaitingWhenWaiterIsCancelled() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<String> leader = CompletableFuture.supplyAsync(() ->
+                coalescer.run(KEY, QueryTrace.detached(), () -> {
+                    started.countDown();
+                    await(release);
+                    return "TOTAL\r\n1630\r\n";
+                }));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+        QueryTrace waiter = QueryTrace.detached();
+        CompletableFuture<String> follower = CompletableFuture.supplyAsync(() ->
+                coalescer.run(KEY, waiter, () -> "unexpected"));
+        while (meterRegistry.get("dbcsv.query.coalesced").counter().count() < 1) {
+            Thread.onSpinWait();
+        }
+        waiter.cancel();
+
+        assertThatThrownBy(() -> follower.get(5, TimeUnit.SECONDS))
+                .hasCauseInstanceOf(IllegalStateException.class)
+                .hasMessageContaining(waiter.cancelledMessage());
+        release.countDown();
+        assertThat(leader.get(5, TimeUnit.SECONDS)).isEqualTo("TOTAL\r\n1630\r\n");
+    }
+
+    @Test
+    void runStopsWaitingAtWaiterStatementTimeout() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<String> leader = CompletableFuture.supplyAsync(() ->
+                coalescer.run(KEY, QueryTrace.detached(), () -> {
+                    started.countDown();
+                    await(release);
+                    return "TOTAL\r\n1630\r\n";
+                }));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+        QueryTrace waiter = QueryTrace.detached();
+        waiter.limit(new QueryLimits(1, 0, 0, 0));
+        try {
+            assertThatIllegalStateException()
+                    .isThrownBy(() -> coalescer.run(KEY, waiter, () -> "unexpected"))
+                    .withMessageContaining("statement timeout of 1 s");
+        } finally {
+            release.countDown();
+        }
+        assertThat(leader.get(5, TimeUnit.SECONDS)).isEqualTo("TOTAL\r\n1630\r\n");
+    }
+
+    @Test
+    void runLetsWaiterRerunWhenLeaderIsCancelled() throws Exception {
+        QueryTrace leaderTrace = QueryTrace.detached();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch cancelled = new CountDownLatch(1);
+        CompletableFuture<String> leader = CompletableFuture.supplyAsync(() ->
+                coalescer.run(KEY, leaderTrace, () -> {
+                    started.countDown();
+                    await(cancelled);
+                    throw new IllegalStateException(leaderTrace.cancelledMessage());
+                }));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+        CompletableFuture<String> follower = CompletableFuture.supplyAsync(() ->
+                coalescer.run(KEY, QueryTrace.detached(), () -> "TOTAL\r\n1630\r\n"));
+        while (meterRegistry.get("dbcsv.query.coalesced").counter().count() < 1) {
+            Thread.onSpinWait();
+        }
+        leaderTrace.cancel();
+        cancelled.countDown();
+
+        assertThatThrownBy(() -> leader.get(5, TimeUnit.SECONDS))
+                .hasMessageContaining(leaderTrace.cancelledMessage());
+        assertThat(follower.get(5, TimeUnit.SECONDS)).isEqualTo("TOTAL\r\n1630\r\n");
+        assertThat(coalescer.inFlightCount()).isZero();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
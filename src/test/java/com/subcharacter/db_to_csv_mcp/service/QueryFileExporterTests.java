@@ -0,0 +1,284 @@
+package com.subcharacter.db_to_csv_mcp.service;
+
+import com.subcharacter.db_to_csv_mcp.config.DataSourcePoolProperties;
+import com.subcharacter.db_to_csv_mcp.config.ExportProperties;
+import com.subcharacter.db_to_csv_mcp.config.QueryProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import javax.sql.DataSource;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+
+class QueryFileExporterTests {
+
+    private static final String DELTA_URL = "jdbc:h2:mem:delta;DB_CLOSE_DELAY=-1";
+    private static final String SQL = "SELECT X AS ID, 'row' || X AS NAME FROM SYSTEM_RANGE(1, 1000)";
+
+    @TempDir
+    Path exportDirectory;
+
+    private final DataSourceRegistry registry = new DataSourceRegistry(new DataSourcePoolProperties(
+            2, 4, Duration.ofMinutes(5), Duration.ofMinutes(10), Duration.ofSeconds(5), Duration.ofSeconds(1), null));
+
+    @AfterEach
+    void tearDown() {
+        registry.close();
+    }
+
+    @Test
+    void exportWritesCsvFileWithChecksum() throws Exception {
+        QueryService.ExportResult result = exportCsv("items.csv", false, QueryTrace.detached());
+
+        Path file = Path.of(result.path());
+        assertThat(file.getParent()).isEqualTo(exportDirectory.toAbsolutePath().normalize());
+        assertThat(result.rowCount()).isEqualTo(1000);
+        assertThat(result.byteSize()).isEqualTo(Files.size(file));
+        assertThat(result.checksum()).isEqualTo(sha256(Files.readAllBytes(file)));
+        assertThat(Files.readString(file)).startsWith("ID,NAME\r\n1,row1\r\n");
+        try (Stream<Path> files = Files.list(exportDirectory)) {
+            assertThat(files.map(path -> path.getFileName().toString())).containsExactly("items.csv");
+        }
+    }
+
+    @Test
+    void exportKeepsOneCompleteFileWhenSameNameIsWrittenConcurrently() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<QueryService.ExportResult>> exports = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                exports.add(executor.submit(() -> exportCsv("shared.csv", false, QueryTrace.detached())));
+            }
+            List<String> checksums = new ArrayList<>();
+            for (Future<QueryService.ExportResult> export : exports) {
+                checksums.add(export.get(30, TimeUnit.SECONDS).checksum());
+            }
+
+            Path file = exportDirectory.resolve("shared.csv");
+            assertThat(Files.readString(file).split("\r\n")).hasSize(1001);
+            assertThat(checksums).contains(sha256(Files.readAllBytes(file)));
+            try (Stream<Path> files = Files.list(exportDirectory)) {
+                assertThat(files.map(path -> path.getFileName().toString())).containsExactly("shared.csv");
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void exportCompressesWhenGzipRequested() throws Exception {
+        QueryService.ExportResult result = exportCsv(null, true, QueryTrace.detached());
+
+        Path file = Path.of(result.path());
+        assertThat(file.getFileName().toString()).endsWith(".csv.gz");
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(file))) {
+            String csv = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            assertThat(csv.split("\r\n")).hasSize(1001);
+        }
+    }
+
+    @Test
+    void exportStopsAtRowLimitAndReportsTruncation() {
+        QueryTrace trace = QueryTrace.detached();
+        trace.limit(new QueryLimits(0, 10, 0, 0));
+
+        QueryService.ExportResult result = exportCsv("limited.csv", false, trace);
+
+        assertThat(result.rowCount()).isEqualTo(10);
+        assertThat(result.truncated()).isTrue();
+    }
+
+    @Test
+    void exportRejectsFileNameOutsideDirectory() {
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> exportCsv("../escape.csv", false, QueryTrace.detached()))
+                .withMessageContaining("must not contain a path");
+    }
+
+    @Test
+    void exportNativeUsesH2CsvWriteOnlyWhenOptionsMatchItsOutput() throws Exception {
+        DataSourceRegistry.DataSourceHandle handle =
+                registry.resolve("jdbc:h2:mem:export;DB_CLOSE_DELAY=-1", null, "sa", "");
+        NativeExportDialect.Options allQuoted = new NativeExportDialect.Options(
+                OutputFormat.CSV, true, ValueQuoteMode.ALL, false, false, false, QueryLimits.NONE);
+        NativeExportDialect.Options minimal = new NativeExportDialect.Options(
+                OutputFormat.CSV, false, ValueQuoteMode.NONE, false, false, false, QueryLimits.NONE);
+        QueryTrace trace = QueryTrace.detached();
+
+        QueryService.ExportResult result = exporter().exportNative(handle, SQL, allQuoted, "native.csv", trace);
+
+        Path file = Path.of(result.path());
+        assertThat(result.rowCount()).isEqualTo(1000);
+        assertThat(trace.rows()).isEqualTo(1000);
+        assertThat(result.checksum()).isEqualTo(sha256(Files.readAllBytes(file)));
+        assertThat(Files.readString(file)).startsWith("\"ID\",\"NAME\"\r\n\"1\",\"row1\"\r\n");
+        assertThat(exporter().exportNative(handle, SQL, minimal, "generic.csv", QueryTrace.detached())).isNull();
+        assertThat(Files.exists(exportDirectory.resolve("generic.csv"))).isFalse();
+    }
+
+    @Test
+    void exportNativeLeavesEmptyFileForEmptyResult() throws Exception {
+        DataSourceRegistry.DataSourceHandle handle =
+                registry.resolve("jdbc:h2:mem:export;DB_CLOSE_DELAY=-1", null, "sa", "");
+        NativeExportDialect.Options allQuoted = new NativeExportDialect.Options(
+                OutputFormat.CSV, true, ValueQuoteMode.ALL, false, false, false, QueryLimits.NONE);
+
+        QueryService.ExportResult result = exporter().exportNative(
+                handle, SQL + " WHERE X < 0", allQuoted, "empty.csv", QueryTrace.detached());
+
+        assertThat(result.rowCount()).isZero();
+        assertThat(Files.size(Path.of(result.path()))).isZero();
+    }
+
+    @Test
+    void incrementalExportAppendsOnlyRowsPastTheWatermark() throws Exception {
+        DataSourceRegistry.DataSourceHandle handle = registry.resolve(DELTA_URL, null, "sa", "");
+        execute(handle.dataSource(), "CREATE TABLE events (id INT PRIMARY KEY, kind VARCHAR(10))",
+                "INSERT INTO events VALUES (1, 'a'), (2, 'b'), (3, 'c')");
+        IncrementalExporter exporter = incrementalExporter();
+        String sql = "SELECT id, kind FROM events";
+
+        QueryService.IncrementalExportResult first = exporter.export(handle, sql, List.of(), "events", "id", false,
+                ValueQuoteMode.NONE, null, true, false, false, QueryTrace.detached());
+        execute(handle.dataSource(), "INSERT INTO events VALUES (4, 'd'), (5, 'e')");
+        QueryService.IncrementalExportResult second = exporter.export(handle, sql, List.of(), "events", "id", false,
+                ValueQuoteMode.NONE, null, true, false, false, QueryTrace.detached());
+        QueryService.IncrementalExportResult idle = incrementalExporter().export(handle, sql, List.of(), "events",
+                "id", false, ValueQuoteMode.NONE, null, true, false, false, QueryTrace.detached());
+
+        assertThat(first.rowCount()).isEqualTo(3);
+        assertThat(first.previousWatermark()).isNull();
+        assertThat(first.watermark()).isEqualTo("3");
+        assertThat(second.rowCount()).isEqualTo(2);
+        assertThat(second.previousWatermark()).isEqualTo("3");
+        assertThat(second.watermark()).isEqualTo("5");
+        assertThat(idle.rowCount()).isZero();
+        assertThat(idle.watermark()).isEqualTo("5");
+        assertThat(Files.readString(Path.of(second.path())))
+                .isEqualTo("ID,KIND\r\n1,a\r\n2,b\r\n3,c\r\n4,d\r\n5,e\r\n");
+        assertThat(idle.byteSize()).isEqualTo(second.byteSize());
+    }
+
+    @Test
+    void incrementalExportDefersTieGroupCutByRowLimitToNextRun() throws Exception {
+        DataSourceRegistry.DataSourceHandle handle = registry.resolve(DELTA_URL, null, "sa", "");
+        execute(handle.dataSource(), "CREATE TABLE orders_tie (id INT PRIMARY KEY, ordered_at INT)",
+                "INSERT INTO orders_tie VALUES (1, 1), (2, 1), (3, 2), (4, 2), (5, 2), (6, 3)");
+        IncrementalExporter exporter = incrementalExporter();
+        String sql = "SELECT id, ordered_at FROM orders_tie";
+
+        List<QueryService.IncrementalExportResult> runs = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            runs.add(exporter.export(handle, sql, List.of(), "orders_tie", "ordered_at", false, ValueQuoteMode.NONE,
+                    null, true, false, false, rowLimited(3)));
+        }
+
+        assertThat(runs).extracting(QueryService.IncrementalExportResult::rowCount).containsExactly(2L, 3L, 1L);
+        assertThat(runs).extracting(QueryService.IncrementalExportResult::watermark).containsExactly("1", "2", "3");
+        assertThat(runs).extracting(QueryService.IncrementalExportResult::truncated).containsExactly(true, true, false);
+        List<String> lines = Files.readAllLines(Path.of(runs.get(2).path()));
+        assertThat(lines.get(0)).isEqualTo("ID,ORDERED_AT");
+        assertThat(lines.subList(1, lines.size())).containsExactlyInAnyOrder("1,1", "2,1", "3,2", "4,2", "5,2", "6,3");
+
+        exporter.export(handle, sql, List.of(), "orders_tie_small", "ordered_at", false, ValueQuoteMode.NONE, null,
+                true, false, false, rowLimited(2));
+        assertThatIllegalStateException()
+                .isThrownBy(() -> exporter.export(handle, sql, List.of(), "orders_tie_small", "ordered_at", false,
+                        ValueQuoteMode.NONE, null, true, false, false, rowLimited(2)))
+                .withMessageContaining("ordered_at = 2 do not fit in one run");
+    }
+
+    @Test
+    void incrementalExportRejectsChangedJobDefinitionUnlessReset() {
+        DataSourceRegistry.DataSourceHandle handle = registry.resolve(DELTA_URL, null, "sa", "");
+        execute(handle.dataSource(), "CREATE TABLE visits (id INT PRIMARY KEY, kind VARCHAR(10))",
+                "INSERT INTO visits VALUES (1, 'a'), (2, 'b')");
+        IncrementalExporter exporter = incrementalExporter();
+        exporter.export(handle, "SELECT id FROM visits", List.of(), "visits", "id", false, ValueQuoteMode.NONE, null,
+                true, false, false, QueryTrace.detached());
+
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> exporter.export(handle, "SELECT id, kind FROM visits", List.of(), "visits", "id",
+                        false, ValueQuoteMode.NONE, null, true, false, false, QueryTrace.detached()))
+                .withMessageContaining("pass reset");
+        QueryService.IncrementalExportResult reset = exporter.export(handle, "SELECT id, kind FROM visits",
+                List.of(), "visits", "id", false, ValueQuoteMode.NONE, null, true, false, true, QueryTrace.detached());
+        assertThat(reset.rowCount()).isEqualTo(2);
+        assertThat(reset.previousWatermark()).isNull();
+    }
+
+    private static QueryTrace rowLimited(long maxRows) {
+        QueryTrace trace = QueryTrace.detached();
+        trace.limit(new QueryLimits(0, maxRows, 0, 0));
+        return trace;
+    }
+
+    /**
+     * exportQuery의 일반 경로처럼 CSV 형식 writer로 SQL 결과를 파일에 쓴다.
+     */
+    private QueryService.ExportResult exportCsv(String fileName, boolean gzip, QueryTrace trace) {
+        ReadOnlyQueryExecutor executor = executor();
+        return exporter().export(fileName, gzip, OutputFormat.CSV.extension(), trace, out -> executor.query(
+                dataSource(), SQL, List.of(), trace,
+                OutputFormat.CSV.writer(out, false, ValueQuoteMode.NONE, trace)::write));
+    }
+
+    private QueryFileExporter exporter() {
+        return new QueryFileExporter(new ExportProperties(exportDirectory, 8192),
+                List.of(new H2NativeExportDialect(executor())));
+    }
+
+    private static ReadOnlyQueryExecutor executor() {
+        QueryProperties queryProperties = new QueryProperties(100, Duration.ZERO, 0, DataSize.ofBytes(0), 0, 8);
+        return new ReadOnlyQueryExecutor(
+                queryProperties, new PreparedStatementCache(queryProperties, new SimpleMeterRegistry()));
+    }
+
+    private IncrementalExporter incrementalExporter() {
+        ReadOnlyQueryExecutor executor = executor();
+        ExportProperties exportProperties = new ExportProperties(exportDirectory, 8192);
+        return new IncrementalExporter(new QueryFileExporter(exportProperties, List.of()), executor,
+                new WatermarkStore(exportProperties));
+    }
+
+    private static void execute(DataSource dataSource, String... statements) {
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            for (String sql : statements) {
+                statement.execute(sql);
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private DataSource dataSource() {
+        return registry.obtain("jdbc:h2:mem:export;DB_CLOSE_DELAY=-1", null, "sa", "");
+    }
+
+    private static String sha256(byte[] bytes) throws Exception {
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+    }
+}
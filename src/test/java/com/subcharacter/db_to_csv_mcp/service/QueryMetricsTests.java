@@ -0,0 +1,44 @@
+package com.subcharacter.db_to_csv_mcp.service;
+
+import com.subcharacter.db_to_csv_mcp.config.DataSourcePoolProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVRecord;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class QueryMetricsTests {
+
+    private final DataSourceRegistry registry = new DataSourceRegistry(new DataSourcePoolProperties(
+            2, 4, Duration.ofMinutes(5), Duration.ofMinutes(10), Duration.ofSeconds(5), Duration.ofSeconds(1), null));
+
+    @AfterEach
+    void tearDown() {
+        registry.close();
+    }
+
+    @Test
+    void snapshotQuotesTagsContainingCommas() throws IOException {
+        QueryMetrics metrics = new QueryMetrics(new SimpleMeterRegistry(), registry);
+        QueryTrace trace = metrics.start("executeQuery", "jdbc:postgresql://h1,h2/db");
+        trace.addRows(42);
+        metrics.finish(trace, null);
+
+        List<CSVRecord> records = CSVFormat.DEFAULT.parse(new StringReader(metrics.snapshot())).getRecords();
+
+        assertThat(records).allSatisfy(record -> assertThat(record.size()).isEqualTo(9));
+        CSVRecord rows = records.stream()
+                .filter(record -> record.get(0).equals(QueryMetrics.ROWS_COUNTER))
+                .findFirst()
+                .orElseThrow();
+        assertThat(rows.get(1)).isEqualTo("datasource=jdbc:postgresql://h1,h2/db;tool=executeQuery");
+        assertThat(rows.get(8)).isEqualTo("42.000");
+    }
+}
@@ -0,0 +1,118 @@
+package com.subcharacter.db_to_csv_mcp.service;
+
+import com.subcharacter.db_to_csv_mcp.config.ResultCacheProperties;
+import com.subcharacter.db_to_csv_mcp.service.DataSourceRegistry.DataSourceKey;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class QueryResultCacheTests {
+
+    private static final DataSourceKey DATASOURCE = DataSourceKey.of("jdbc:h2:mem:cache", null, "sa", "");
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    void getServesRepeatedQueryFromCacheAcrossWhitespaceChanges() {
+        QueryResultCache cache = cache(Duration.ofMinutes(1), DataSize.ofMegabytes(1), false);
+
+        String first = cache.get(key("SELECT *\n  FROM items;"), null, QueryTrace.detached(), this::load);
+        QueryTrace trace = QueryTrace.detached();
+        String second = cache.get(key("SELECT * FROM items"), null, trace, this::load);
+
+        assertThat(second).isEqualTo(first);
+        assertThat(loads).hasValue(1);
+        assertThat(trace.bytes()).isEqualTo(first.length());
+        assertThat(requests("hit")).isEqualTo(1);
+        assertThat(requests("miss")).isEqualTo(1);
+    }
+
+    @Test
+    void getReloadsAfterTtlExpires() {
+        QueryResultCache cache = cache(Duration.ZERO, DataSize.ofMegabytes(1), false);
+
+        cache.get(key("SELECT 1"), null, QueryTrace.detached(), this::load);
+        cache.get(key("SELECT 1"), null, QueryTrace.detached(), this::load);
+
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void getHonoursBypassAndRefresh() {
+        QueryResultCache cache = cache(Duration.ofMinutes(1), DataSize.ofMegabytes(1), false);
+        QueryResultCache.ResultKey key = key("SELECT 1");
+
+        cache.get(key, new QueryService.CacheOptions(true, null), QueryTrace.detached(), this::load);
+        assertThat(cache.size()).isZero();
+        cache.get(key, null, QueryTrace.detached(), this::load);
+        String refreshed = cache.get(key, new QueryService.CacheOptions(null, true), QueryTrace.detached(), this::load);
+
+        assertThat(refreshed).isEqualTo("ID\r\n3\r\n");
+        assertThat(cache.get(key, null, QueryTrace.detached(), this::load)).isEqualTo(refreshed);
+        assertThat(requests("bypass")).isEqualTo(1);
+    }
+
+    @Test
+    void getEvictsLeastRecentlyUsedEntryOverBudget() {
+        QueryResultCache cache = cache(Duration.ofMinutes(1), DataSize.ofBytes(20), false);
+
+        cache.get(key("SELECT 1"), null, QueryTrace.detached(), this::load);
+        cache.get(key("SELECT 2"), null, QueryTrace.detached(), this::load);
+        cache.get(key("SELECT 1"), null, QueryTrace.detached(), this::load);
+        cache.get(key("SELECT 3"), null, QueryTrace.detached(), this::load);
+
+        assertThat(cache.storedBytes()).isLessThanOrEqualTo(20);
+        assertThat(cache.size()).isEqualTo(2);
+        cache.get(key("SELECT 1"), null, QueryTrace.detached(), this::load);
+        assertThat(loads).hasValue(3);
+    }
+
+    @Test
+    void getRoundTripsCompressedEntries() {
+        QueryResultCache cache = cache(Duration.ofMinutes(1), DataSize.ofMegabytes(1), true);
+        String csv = "ID,NAME\r\n" + "1,apple\r\n".repeat(1_000);
+
+        cache.get(key("SELECT big"), null, QueryTrace.detached(), () -> csv);
+        String cached = cache.get(key("SELECT big"), null, QueryTrace.detached(), this::load);
+
+        assertThat(cached).isEqualTo(csv);
+        assertThat(cache.storedBytes()).isLessThan(csv.length() / 10);
+    }
+
+    @Test
+    void normalizeKeepsWhitespaceInsideLiterals() {
+        assertThat(QueryResultCache.normalize("  SELECT  'a  b'  ,\t\"x  y\" FROM t ; "))
+                .isEqualTo("SELECT 'a  b' , \"x  y\" FROM t");
+    }
+
+    @Test
+    void normalizeKeepsLineCommentBoundaries() {
+        assertThat(QueryResultCache.normalize("SELECT 1 -- x\nFROM t")).isEqualTo("SELECT 1 FROM t");
+        assertThat(QueryResultCache.normalize("SELECT 1 -- x FROM t")).isEqualTo("SELECT 1");
+        assertThat(QueryResultCache.normalize("SELECT /* a\n b */ 1;")).isEqualTo("SELECT 1");
+    }
+
+    private QueryResultCache cache(Duration ttl, DataSize maxSize, boolean compress) {
+        return new QueryResultCache(
+                new ResultCacheProperties(true, ttl, maxSize, DataSize.ofMegabytes(1), compress), meterRegistry);
+    }
+
+    private static QueryResultCache.ResultKey key(String sql) {
+        return QueryResultCache.key(sql, DATASOURCE, false, ValueQuoteMode.NONE);
+    }
+
+    private String load() {
+        return "ID\r\n" + loads.incrementAndGet() + "\r\n";
+    }
+
+    private double requests(String result) {
+        return meterRegistry.get("dbcsv.cache.requests").tag("result", result).counter().count();
+    }
+}
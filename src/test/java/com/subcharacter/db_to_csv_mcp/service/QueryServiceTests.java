@@ -5,6 +5,18 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.util.ReflectionTestUtils;
 
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
 import static org.assertj.core.api.Assertions.assertThatNoException;
@@ -13,9 +25,16 @@ import static org.assertj.core.api.Assertions.assertThatThrownBy;
 @SpringBootTest
 class QueryServiceTests {
 
+    // 행 100억 개를 훑는 조인: 취소나 타임아웃 없이는 끝나지 않는다.
+    private static final String SLOW_SQL =
+            "SELECT COUNT(*) FROM SYSTEM_RANGE(1, 100000) a, SYSTEM_RANGE(1, 100000) b WHERE a.X + b.X < 0";
+
     @Autowired
     private QueryService queryService;
 
+    @Autowired
+    private PreparedStatementCache statementCache;
+
     @Test
     void executeQueryAllowsWithClauseSelect() {
         QueryService.ConfiguredQueryRequest request = configuredRequest("""
@@ -45,6 +64,370 @@ class QueryServiceTests {
         assertThat(result).isEmpty();
     }
 
+    @Test
+    void executeQueryStreamsEveryRowAfterSingleHeader() {
+        QueryService.ConfiguredQueryRequest request =
+                configuredRequest("SELECT id, name FROM items ORDER BY id");
+        String result = queryService.executeQuery(request);
+
+        String[] lines = result.split("\r\n");
+        assertThat(lines).hasSize(9);
+        assertThat(lines[0]).isEqualTo("ID,NAME");
+        assertThat(lines[1]).isEqualTo("1,apple");
+        assertThat(lines[8]).isEqualTo("8,strawberry");
+    }
+
+    @Test
+    void executeQueryPartitionedReturnsSameRowsAsSingleCursor() {
+        String sql = "SELECT id, status FROM orders ORDER BY id";
+        QueryService.ConfiguredQueryRequest partitioned = new QueryService.ConfiguredQueryRequest(
+                sql, "sa", "", false, 1, new QueryService.PartitionOptions("id", 3), null, null, null, null);
+
+        String[] expected = queryService.executeQuery(configuredRequest(sql)).split("\r\n");
+        String[] lines = queryService.executeQuery(partitioned).split("\r\n");
+
+        assertThat(lines[0]).isEqualTo("ID,STATUS");
+        assertThat(lines).containsExactlyInAnyOrder(expected);
+    }
+
+    @Test
+    void executeQueryPartitionedAppliesRowLimitOnceAcrossPartitions() {
+        QueryService.ConfiguredQueryRequest request = new QueryService.ConfiguredQueryRequest(
+                "SELECT id FROM items ORDER BY id", "sa", "", false, 1, new QueryService.PartitionOptions("id", 4),
+                null, new QueryService.LimitOptions(null, 3L, null, null), null, null);
+
+        String[] lines = queryService.executeQuery(request).split("\r\n");
+
+        // 파티션 [1, 2], [3, 4], [5, 6], [7, 8]마다 상한 안이어도 합친 결과는 앞 파티션부터 3행에서 멈춘다.
+        assertThat(lines).hasSize(5);
+        assertThat(List.of(lines[1], lines[2])).containsExactlyInAnyOrder("1", "2");
+        assertThat(lines[3]).isIn("3", "4");
+        assertThat(lines[4]).startsWith(QueryService.TRUNCATED_MARKER + ": stopped after 3 rows");
+    }
+
+    @Test
+    void executeQueryRejectsPartitionColumnExpressions() {
+        QueryService.ConfiguredQueryRequest request = new QueryService.ConfiguredQueryRequest(
+                "SELECT id FROM orders", "sa", "", false, 1, new QueryService.PartitionOptions("id) OR (1=1", 2), null,
+                null, null, null);
+
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> queryService.executeQuery(request))
+                .withMessageContaining("Partition column must be a plain column name");
+    }
+
+    @Test
+    void executeQueriesReportsFailuresPerItem() {
+        QueryService.BatchQueryRequest request = new QueryService.BatchQueryRequest(
+                null,
+                null,
+                List.of(
+                        "SELECT name FROM items WHERE id = 1",
+                        "SELECT * FROM missing_table",
+                        "DELETE FROM orders",
+                        "SELECT name FROM customers WHERE id = 1"
+                ),
+                "sa",
+                "",
+                false,
+                1
+        );
+
+        List<QueryService.BatchItemResult> results = queryService.executeQueries(request).results();
+
+        assertThat(results).extracting(QueryService.BatchItemResult::index).containsExactly(0, 1, 2, 3);
+        assertThat(results).extracting(QueryService.BatchItemResult::success)
+                .containsExactly(true, false, false, true);
+        assertThat(results.get(0).csv()).isEqualTo("NAME\r\napple\r\n");
+        assertThat(results.get(1).error()).contains("Database rejected the read-only query").contains("missing_table");
+        assertThat(results.get(2).error()).isEqualTo("Only SELECT queries are allowed.");
+        assertThat(results.get(3).csv()).contains("Alice Kim");
+    }
+
+    @Test
+    void executeQueryPageWalksCursorAndKeysetPages() {
+        for (String orderKey : new String[]{null, "id"}) {
+            List<String> rows = new ArrayList<>();
+            String token = null;
+            int pages = 0;
+            do {
+                QueryService.PageResult page = queryService.executeQueryPage(pageRequest(
+                        "SELECT id, name FROM items ORDER BY id", orderKey, token));
+                String[] lines = page.csv().split("\r\n");
+                assertThat(lines[0]).isEqualTo("ID,NAME");
+                assertThat(page.rowCount()).isEqualTo(lines.length - 1);
+                rows.addAll(List.of(lines).subList(1, lines.length));
+                token = page.continuationToken();
+                assertThat(page.hasMore()).isEqualTo(token != null);
+                pages++;
+            } while (token != null);
+
+            assertThat(pages).isEqualTo(3);
+            assertThat(rows).hasSize(8).startsWith("1,apple").endsWith("8,strawberry");
+        }
+    }
+
+    @Test
+    void executeQueryPageRejectsTokenFromAnotherQuery() {
+        String token = queryService.executeQueryPage(
+                pageRequest("SELECT id FROM items", "id", null)).continuationToken();
+
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> queryService.executeQueryPage(pageRequest("SELECT id FROM orders", "id", token)))
+                .withMessageContaining("different query");
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> queryService.executeQueryPage(pageRequest("SELECT id FROM items", "id", "garbage")))
+                .withMessageContaining("Malformed continuation token");
+    }
+
+    @Test
+    void executeQueryPageBindsParametersAndTiesTokenToThem() {
+        for (String orderKey : new String[]{null, "id"}) {
+            QueryService.PageResult first = queryService.executeQueryPage(pageRequest(
+                    "SELECT id, name FROM items WHERE id > ? ORDER BY id", "4", orderKey, null));
+            String token = first.continuationToken();
+
+            assertThat(first.csv().split("\r\n")).containsExactly("ID,NAME", "5,kiwi", "6,lemon", "7,pineapple");
+            assertThatIllegalArgumentException()
+                    .isThrownBy(() -> queryService.executeQueryPage(pageRequest(
+                            "SELECT id, name FROM items WHERE id > ? ORDER BY id", "5", orderKey, token)))
+                    .withMessageContaining("different query");
+            QueryService.PageResult last = queryService.executeQueryPage(pageRequest(
+                    "SELECT id, name FROM items WHERE id > ? ORDER BY id", "4", orderKey, token));
+            assertThat(last.csv().split("\r\n")).containsExactly("ID,NAME", "8,strawberry");
+            assertThat(last.hasMore()).isFalse();
+        }
+    }
+
+    @Test
+    void executeQueryMarksResultTruncatedAtRowLimit() {
+        QueryService.ConfiguredQueryRequest request = new QueryService.ConfiguredQueryRequest(
+                "SELECT id FROM items ORDER BY id", "sa", "", false, 1, null, null,
+                new QueryService.LimitOptions(null, 3L, null, null), null, null);
+
+        String[] lines = queryService.executeQuery(request).split("\r\n");
+
+        assertThat(lines).hasSize(5);
+        assertThat(lines[3]).isEqualTo("3");
+        assertThat(lines[4]).startsWith(QueryService.TRUNCATED_MARKER);
+    }
+
+    @Test
+    void executeQueryStopsBeforeRowThatWouldExceedTokenBudget() {
+        QueryService.ConfiguredQueryRequest request = new QueryService.ConfiguredQueryRequest(
+                "SELECT id, name FROM items ORDER BY id", "sa", "", false, 1, null, null,
+                new QueryService.LimitOptions(null, null, null, 12L), null, null);
+
+        String[] lines = queryService.executeQuery(request).split("\r\n");
+
+        assertThat(lines[0]).isEqualTo("ID,NAME");
+        assertThat(lines[lines.length - 1]).startsWith(QueryService.TRUNCATED_MARKER)
+                .contains("stopped after " + (lines.length - 2) + " rows");
+        assertThat(lines.length - 2).isBetween(1, 7);
+    }
+
+    @Test
+    void executeQueryRendersJsonLinesAndTsvFormats() {
+        String sql = "SELECT id, name FROM items WHERE id <= 2 ORDER BY id";
+
+        String jsonLines = queryService.executeQuery(formatRequest(sql, "jsonl"));
+        String tsv = queryService.executeQuery(formatRequest(sql, "tsv"));
+
+        assertThat(jsonLines).isEqualTo("{\"ID\":1,\"NAME\":\"apple\"}\n{\"ID\":2,\"NAME\":\"banana\"}\n");
+        assertThat(tsv).isEqualTo("ID\tNAME\n1\tapple\n2\tbanana\n");
+    }
+
+    @Test
+    void executeQueryReturnsColumnarBatchesAsBase64() throws IOException {
+        String encoded = queryService.executeQuery(formatRequest("SELECT id, name FROM items ORDER BY id", "columnar"));
+
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(Base64.getDecoder().decode(encoded)));
+        assertThat(in.readNBytes(ColumnarResultSetWriter.MAGIC.length)).isEqualTo(ColumnarResultSetWriter.MAGIC);
+        assertThat(in.readInt()).isEqualTo(2);
+        assertThat(in.readUTF()).isEqualTo("ID");
+        assertThat(in.readByte()).isEqualTo(ColumnarResultSetWriter.TYPE_INT32);
+        assertThat(in.readUTF()).isEqualTo("NAME");
+        assertThat(in.readByte()).isEqualTo(ColumnarResultSetWriter.TYPE_TEXT);
+        assertThat(in.readInt()).isEqualTo(8);
+    }
+
+    @Test
+    void executeQueryAppliesTokenBudgetToColumnarBase64() throws IOException {
+        QueryService.ConfiguredQueryRequest request = new QueryService.ConfiguredQueryRequest(
+                "SELECT id, name FROM items ORDER BY id", "sa", "", false, 1, null, null,
+                new QueryService.LimitOptions(null, null, null, 40L), "columnar", null);
+
+        String encoded = queryService.executeQuery(request);
+
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(Base64.getDecoder().decode(encoded)));
+        in.readNBytes(ColumnarResultSetWriter.MAGIC.length);
+        for (int i = in.readInt(); i > 0; i--) {
+            in.readUTF();
+            in.readByte();
+        }
+        assertThat(in.readInt()).isBetween(1, 7);
+    }
+
+    @Test
+    void executeQueryRejectsUnknownFormatAndPartitionedNonCsv() {
+        QueryService.ConfiguredQueryRequest partitioned = new QueryService.ConfiguredQueryRequest(
+                "SELECT id FROM orders", "sa", "", false, 1, new QueryService.PartitionOptions("id", 2), null, null,
+                "jsonl", null);
+
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> queryService.executeQuery(formatRequest("SELECT 1", "xml")))
+                .withMessageContaining("Unknown output format");
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> queryService.executeQuery(partitioned))
+                .withMessage("Partitioned queries only support the csv format.");
+    }
+
+    @Test
+    void executeQueryBindsTypedParametersAndReusesStatement() {
+        String sql = "SELECT name FROM items WHERE id = ? AND price >= ?";
+        QueryService.ConfiguredQueryRequest apple = parameterRequest(sql, List.of(
+                new QueryService.BindParameter("integer", "1"), new QueryService.BindParameter("decimal", "100")));
+        QueryService.ConfiguredQueryRequest banana = parameterRequest(sql, List.of(
+                new QueryService.BindParameter("integer", "2"), new QueryService.BindParameter("decimal", "100")));
+
+        assertThat(queryService.executeQuery(apple)).isEqualTo("NAME\r\napple\r\n");
+        assertThat(queryService.executeQuery(banana)).isEqualTo("NAME\r\nbanana\r\n");
+        assertThat(statementCache.size()).isPositive();
+    }
+
+    @Test
+    void executeQueryRejectsMalformedParameter() {
+        QueryService.ConfiguredQueryRequest request = parameterRequest("SELECT name FROM items WHERE id = ?",
+                List.of(new QueryService.BindParameter("integer", "one")));
+
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> queryService.executeQuery(request))
+                .withMessage("Parameter 1 is not a valid integer: one");
+    }
+
+    @Test
+    void summarizeQueryReturnsOneStatisticsRowPerColumn() {
+        String csv = queryService.summarizeQuery(new QueryService.SummaryQueryRequest(
+                null, null, "SELECT id, name, CASE WHEN id > 6 THEN NULL ELSE 'x' END AS flag FROM items",
+                null, "sa", "", 2, null));
+
+        String[] lines = csv.split("\r\n");
+        assertThat(lines).hasSize(4);
+        assertThat(lines[0]).isEqualTo("column,type,count,nulls,null_rate,distinct,min,max,mean,p50,p90,p99,top_values");
+        assertThat(lines[1]).isEqualTo("ID,INTEGER,8,0,0,8,1,8,4.5,4,8,8,1 (1); 2 (1)");
+        assertThat(lines[2]).startsWith("NAME,").contains(",8,0,0,8,apple,strawberry,");
+        assertThat(lines[3]).startsWith("FLAG,").contains(",6,2,0.25,1,x,x,").endsWith(",x (6)");
+    }
+
+    @Test
+    void previewQueryReturnsFirstRowsWithTableStatisticsEstimate() {
+        QueryService.PreviewResult preview = queryService.previewQuery(new QueryService.PreviewQueryRequest(
+                null, null, "SELECT id, name FROM items WHERE price > ? ORDER BY id;",
+                List.of(new QueryService.BindParameter("integer", "0")), "sa", "", false, 1, 3, null, null));
+
+        assertThat(preview.csv().split("\r\n")).containsExactly("ID,NAME", "1,apple", "2,banana", "3,orange");
+        assertThat(preview.rowCount()).isEqualTo(3);
+        assertThat(preview.hasMore()).isTrue();
+        assertThat(preview.estimatedRowCount()).isEqualTo(8L);
+        assertThat(preview.estimateSource()).isEqualTo("table_statistics");
+    }
+
+    @Test
+    void previewQueryReportsExactCountWhenEveryRowFits() {
+        QueryService.PreviewResult preview = queryService.previewQuery(new QueryService.PreviewQueryRequest(
+                null, null, "SELECT i.name FROM items i JOIN items j ON j.id = i.id WHERE i.id <= 2", null,
+                "sa", "", false, 1, null, null, null));
+
+        assertThat(preview.rowCount()).isEqualTo(2);
+        assertThat(preview.hasMore()).isFalse();
+        assertThat(preview.estimatedRowCount()).isEqualTo(2L);
+        assertThat(preview.estimateSource()).isEqualTo("exact");
+    }
+
+    @Test
+    void previewQueryWrapsQueryEndingInLineComment() {
+        QueryService.PreviewResult preview = queryService.previewQuery(new QueryService.PreviewQueryRequest(
+                null, null, "SELECT name FROM items WHERE id <= 2 ORDER BY id; -- done", null,
+                "sa", "", false, 1, null, false, null));
+
+        assertThat(preview.csv().split("\r\n")).containsExactly("NAME", "apple", "banana");
+        assertThat(preview.estimateSource()).isEqualTo("exact");
+    }
+
+    @Test
+    void listTablesReturnsTablesOfCurrentSchema() {
+        String csv = queryService.listTables(new QueryService.ListTablesRequest(null, null, "sa", "", null, null));
+
+        String[] lines = csv.split("\r\n");
+        assertThat(lines[0]).isEqualTo("table_schema,table_name,table_type,remarks");
+        assertThat(csv).contains(",ITEMS,").contains(",ORDERS,").contains(",CUSTOMERS,");
+    }
+
+    @Test
+    void describeTableReturnsColumnsAndKeysFromCacheUntilRefresh() {
+        QueryService.DescribeTableRequest request =
+                new QueryService.DescribeTableRequest(null, null, "sa", "", null, "items", null);
+
+        QueryService.TableDescription first = queryService.describeTable(request);
+
+        assertThat(first.table()).isEqualTo("ITEMS");
+        assertThat(first.columns()).extracting(QueryService.ColumnDescription::name)
+                .containsExactly("ID", "NAME", "PRICE");
+        assertThat(first.columns().get(0).nullable()).isFalse();
+        assertThat(first.primaryKey()).containsExactly("ID");
+        assertThat(queryService.describeTable(request)).isSameAs(first);
+
+        QueryService.TableDescription refreshed = queryService.describeTable(
+                new QueryService.DescribeTableRequest(null, null, "sa", "", null, "items", true));
+        assertThat(refreshed).isNotSameAs(first).isEqualTo(first);
+    }
+
+    @Test
+    void describeTableRejectsUnknownTable() {
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> queryService.describeTable(
+                        new QueryService.DescribeTableRequest(null, null, "sa", "", null, "missing_table", null)))
+                .withMessage("Table not found: missing_table.");
+    }
+
+    @Test
+    void cancelQueryRejectsUnknownId() {
+        assertThat(queryService.listRunningQueries()).startsWith("query_id,tool,datasource,elapsed_ms,cancelled,sql");
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> queryService.cancelQuery("no-such-query"))
+                .withMessageContaining("No running query");
+    }
+
+    @Test
+    void cancelQueryStopsRunningStatement() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<String> running = executor.submit(() -> queryService.executeQuery(configuredRequest(SLOW_SQL)));
+            String queryId = awaitRunningQueryId("SYSTEM_RANGE");
+
+            assertThat(queryService.cancelQuery(queryId)).startsWith("Cancelled query " + queryId);
+            assertThatThrownBy(() -> running.get(30, TimeUnit.SECONDS))
+                    .isInstanceOf(ExecutionException.class)
+                    .cause()
+                    .isInstanceOf(IllegalStateException.class)
+                    .hasMessageContaining("Query " + queryId + " was cancelled.");
+            assertThat(queryService.listRunningQueries()).doesNotContain(queryId);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void executeQueryCancelsStatementAfterPerCallTimeout() {
+        QueryService.ConfiguredQueryRequest request = new QueryService.ConfiguredQueryRequest(
+                SLOW_SQL, "sa", "", false, 1, null, null, new QueryService.LimitOptions(1, null, null, null), null,
+                null);
+
+        assertThatThrownBy(() -> queryService.executeQuery(request))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("statement timeout of 1 s");
+    }
+
     @Test
     void executeQueryRejectsMutatingStatements() {
         QueryService.ConfiguredQueryRequest request =
@@ -144,7 +527,54 @@ class QueryServiceTests {
         assertThat(result).contains("\"apple\",\"100\"");
     }
 
+    @Test
+    void serverStatsReportsPhaseTimingsPerTool() {
+        queryService.executeQuery(configuredRequest("SELECT id FROM items WHERE id = 1"));
+
+        String stats = queryService.serverStats();
+
+        assertThat(stats).startsWith("meter,tags,count");
+        assertThat(stats).contains("dbcsv.tool.duration,datasource=jdbc:h2:mem:demo;outcome=success;tool=executeQuery,");
+        assertThat(stats).contains("dbcsv.query.phase,datasource=jdbc:h2:mem:demo;phase=fetch;tool=executeQuery,");
+        assertThat(stats).contains("dbcsv.query.rows,datasource=jdbc:h2:mem:demo;tool=executeQuery,");
+        assertThat(stats).doesNotContain("password");
+    }
+
+    /**
+     * listRunningQueries에 sql 조각이 담긴 호출이 나타날 때까지 기다려 그 query_id를 돌려준다.
+     */
+    private String awaitRunningQueryId(String sqlFragment) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (System.nanoTime() < deadline) {
+            for (String line : queryService.listRunningQueries().split("\r\n")) {
+                if (line.contains(sqlFragment)) {
+                    return line.substring(0, line.indexOf(','));
+                }
+            }
+            Thread.sleep(20);
+        }
+        throw new AssertionError("Query containing " + sqlFragment + " never started.");
+    }
+
+    private QueryService.PageQueryRequest pageRequest(String sql, String orderKey, String token) {
+        return new QueryService.PageQueryRequest(null, null, sql, null, "sa", "", false, 1, 3, orderKey, token);
+    }
+
+    private QueryService.PageQueryRequest pageRequest(String sql, String parameter, String orderKey, String token) {
+        List<QueryService.BindParameter> parameters = List.of(new QueryService.BindParameter("integer", parameter));
+        return new QueryService.PageQueryRequest(null, null, sql, parameters, "sa", "", false, 1, 3, orderKey, token);
+    }
+
     private QueryService.ConfiguredQueryRequest configuredRequest(String sql) {
         return new QueryService.ConfiguredQueryRequest(sql, "sa", "", false, 1);
     }
+
+    private QueryService.ConfiguredQueryRequest parameterRequest(String sql,
+                                                                 List<QueryService.BindParameter> parameters) {
+        return new QueryService.ConfiguredQueryRequest(sql, "sa", "", false, 1, null, null, null, null, parameters);
+    }
+
+    private QueryService.ConfiguredQueryRequest formatRequest(String sql, String format) {
+        return new QueryService.ConfiguredQueryRequest(sql, "sa", "", false, 1, null, null, null, format, null);
+    }
 }
@@ -0,0 +1,65 @@
+package com.subcharacter.db_to_csv_mcp.service;
+
+import com.subcharacter.db_to_csv_mcp.config.SqlValidationProperties;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.assertj.core.api.Assertions.assertThatNoException;
+
+class ReadOnlySqlValidatorTests {
+
+    @Test
+    void checkAllowsKeywordsInsideLiteralsCommentsAndIdentifiers() {
+        assertThatNoException().isThrownBy(() -> ReadOnlySqlValidator.check("""
+                -- drop table orders
+                SELECT created_at, "delete", 'it''s update' /* insert */ FROM orders;
+                -- trailing comment
+                """));
+    }
+
+    @Test
+    void checkRejectsMutatingKeywordAnywhere() {
+        String sql = "WITH x AS (DELETE FROM orders RETURNING id) SELECT * FROM x";
+
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> ReadOnlySqlValidator.check(sql))
+                .withMessage("Only SELECT queries are allowed.");
+    }
+
+    @Test
+    void checkRejectsStatementNotStartingWithSelectOrWith() {
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> ReadOnlySqlValidator.check("/* hi */ EXPLAIN SELECT 1"))
+                .withMessage("Only SELECT queries are allowed.");
+    }
+
+    @Test
+    void checkRejectsSecondStatement() {
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> ReadOnlySqlValidator.check("SELECT 1; SELECT 2"))
+                .withMessage("Multiple SQL statements are not allowed.");
+    }
+
+    @Test
+    void checkRejectsBlankAndCommentOnlySql() {
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> ReadOnlySqlValidator.check("  -- nothing here\n /* still nothing */ "))
+                .withMessage("SQL must not be blank.");
+    }
+
+    @Test
+    void validateCachesOnlyAcceptedSqlWithinBudget() {
+        ReadOnlySqlValidator validator = new ReadOnlySqlValidator(new SqlValidationProperties(2, 1_000));
+
+        validator.validate("SELECT 1");
+        validator.validate("SELECT 2");
+        validator.validate("SELECT 1");
+        validator.validate("SELECT 3");
+        assertThatIllegalArgumentException().isThrownBy(() -> validator.validate("DROP TABLE orders"));
+
+        assertThat(validator.cacheSize()).isEqualTo(2);
+        validator.validate("SELECT '" + "x".repeat(2_000) + "'");
+        assertThat(validator.cacheSize()).isEqualTo(2);
+    }
+}
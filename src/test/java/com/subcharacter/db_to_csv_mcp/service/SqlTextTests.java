@@ -0,0 +1,27 @@
+package com.subcharacter.db_to_csv_mcp.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SqlTextTests {
+
+    @Test
+    void bodyStripsTrailingTerminatorAndComments() {
+        assertThat(SqlText.body("SELECT 'drop' FROM t; -- done")).isEqualTo("SELECT 'drop' FROM t");
+        assertThat(SqlText.body("SELECT 1 /* one */ ;\n-- a\n-- b")).isEqualTo("SELECT 1");
+    }
+
+    @Test
+    void bodyKeepsCommentMarkersInsideLiteralsAndInnerComments() {
+        assertThat(SqlText.body("SELECT ';--' AS x ; -- done")).isEqualTo("SELECT ';--' AS x");
+        assertThat(SqlText.body("SELECT 1 -- one\nFROM t")).isEqualTo("SELECT 1 -- one\nFROM t");
+    }
+
+    @Test
+    void derivedTableClosesParenthesisOutsideTrailingComment() {
+        assertThat(SqlText.derivedTable("SELECT id FROM items -- all", "src_page"))
+                .isEqualTo("(SELECT id FROM items) src_page");
+    }
+
+}
@@ -0,0 +1,26 @@
+package com.subcharacter.db_to_csv_mcp.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenEstimatorTests {
+
+    @Test
+    void estimateGroupsLettersAndDigitsAndCountsPunctuation() {
+        assertThat(TokenEstimator.estimate("42,apple\r\n")).isEqualTo(5);
+        assertThat(TokenEstimator.estimate("1234567")).isEqualTo(3);
+        assertThat(TokenEstimator.estimate("")).isZero();
+    }
+
+    @Test
+    void estimateCountsEachNonAsciiCharacter() {
+        assertThat(TokenEstimator.estimate("사과 apple")).isEqualTo(4);
+    }
+
+    @Test
+    void estimateBase64CountsTwoCharactersPerToken() {
+        assertThat(TokenEstimator.estimateBase64(134)).isEqualTo(67);
+        assertThat(TokenEstimator.estimateBase64(3)).isEqualTo(2);
+    }
+}